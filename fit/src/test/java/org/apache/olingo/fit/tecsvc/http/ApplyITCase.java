@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.fit.tecsvc.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.fit.AbstractBaseTestITCase;
+import org.apache.olingo.fit.tecsvc.TecSvcConst;
+import org.junit.Test;
+
+public class ApplyITCase extends AbstractBaseTestITCase {
+
+  private static final String SERVICE_URI = TecSvcConst.BASE_URI + "/";
+
+  @Override
+  protected ODataClient getClient() {
+    return null;
+  }
+
+  @Test
+  public void aggregate() throws Exception {
+    final HttpURLConnection connection = getConnection(
+        "ESAllPrim?$apply=aggregate(PropertyInt16%20with%20sum%20as%20Sum)");
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), connection.getResponseCode());
+    assertEquals(ContentType.JSON, ContentType.create(connection.getHeaderField(HttpHeader.CONTENT_TYPE)));
+
+    final String content = IOUtils.toString(connection.getInputStream());
+    assertTrue(content.contains("$metadata#ESAllPrim(Sum)"));
+    assertTrue(content.contains("\"Sum\":-1}]"));
+  }
+
+  @Test
+  public void groupByWithCountAndTop() throws Exception {
+    final HttpURLConnection connection = getConnection(
+        "ESAllPrim?$apply=groupby((PropertyBoolean))&$count=true&$top=1");
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), connection.getResponseCode());
+
+    final String content = IOUtils.toString(connection.getInputStream());
+    assertTrue(content.contains("\"@odata.count\":2"));
+    assertTrue(content.contains("\"value\":[{\"PropertyBoolean\":"));
+    assertTrue(content.endsWith("}]}"));
+  }
+
+  @Test
+  public void unsupportedOptionCombination() throws Exception {
+    final HttpURLConnection connection = getConnection(
+        "ESAllPrim?$apply=groupby((PropertyBoolean))&$filter=PropertyInt16%20eq%200");
+
+    assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), connection.getResponseCode());
+  }
+
+  private HttpURLConnection getConnection(final String resource) throws Exception {
+    final URL url = new URL(SERVICE_URI + resource);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(HttpMethod.GET.name());
+    connection.setRequestProperty(HttpHeader.ACCEPT, "application/json;odata.metadata=minimal");
+    connection.connect();
+    return connection;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.server.api.deserializer.FixedFormatDeserializer;
+import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of batch requests with query operations and one change set,
+ * completely and one part at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchParserBenchmark {
+
+  private static final String CRLF = "\r\n";
+  private static final String BOUNDARY = "batch_36522ad7-fc75-4b56-8c71-56071383e77b";
+  private static final String CHANGE_SET_BOUNDARY = "changeset_f980-1cb6-94dd";
+
+  /** Number of query operations and of operations in the change set. */
+  @Param({ "10", "100" })
+  public int operations;
+
+  private FixedFormatDeserializer deserializer;
+  private BatchOptions options;
+  private byte[] content;
+
+  @Setup
+  public void setup() {
+    deserializer = new TecSvcFixture().getOData().createFixedFormatDeserializer();
+    options = BatchOptions.with().rawBaseUri(TecSvcFixture.BASE_URI).build();
+
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < operations; i++) {
+      builder.append("--").append(BOUNDARY).append(CRLF)
+          .append("Content-Type: application/http").append(CRLF)
+          .append("Content-Transfer-Encoding: binary").append(CRLF)
+          .append(CRLF)
+          .append("GET ESAllPrim(").append(i).append(")?$select=PropertyInt16,PropertyString HTTP/1.1").append(CRLF)
+          .append("Accept: application/json").append(CRLF)
+          .append(CRLF)
+          .append(CRLF);
+    }
+    builder.append("--").append(BOUNDARY).append(CRLF)
+        .append("Content-Type: multipart/mixed; boundary=").append(CHANGE_SET_BOUNDARY).append(CRLF)
+        .append(CRLF);
+    for (int i = 0; i < operations; i++) {
+      final String body = "{\"PropertyInt16\":" + i + ",\"PropertyString\":\"Batch operation " + i + "\"}";
+      builder.append("--").append(CHANGE_SET_BOUNDARY).append(CRLF)
+          .append("Content-Type: application/http").append(CRLF)
+          .append("Content-Transfer-Encoding: binary").append(CRLF)
+          .append("Content-ID: ").append(i + 1).append(CRLF)
+          .append(CRLF)
+          .append("POST ESAllPrim HTTP/1.1").append(CRLF)
+          .append("Content-Type: application/json").append(CRLF)
+          .append("Content-Length: ").append(body.length()).append(CRLF)
+          .append(CRLF)
+          .append(body).append(CRLF);
+    }
+    builder.append("--").append(CHANGE_SET_BOUNDARY).append("--").append(CRLF)
+        .append(CRLF)
+        .append("--").append(BOUNDARY).append("--").append(CRLF);
+    content = builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public List<BatchRequestPart> parseBatchRequest() throws BatchDeserializerException {
+    return deserializer.parseBatchRequest(new ByteArrayInputStream(content), BOUNDARY, options);
+  }
+
+  @Benchmark
+  public int parseBatchRequestIncrementally() throws BatchDeserializerException {
+    final BatchRequestPartIterator iterator =
+        deserializer.parseBatchRequestIncrementally(new ByteArrayInputStream(content), BOUNDARY, options);
+    int count = 0;
+    while (iterator.hasNext()) {
+      count += iterator.next().getRequests().size();
+    }
+    return count;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.client.core.serialization.JsonDeserializer;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deserialization of JSON entity-set responses in the client
+ * and their binding to the client domain objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientDeserializerBenchmark {
+
+  @Param({ "ESTwoPrim", "ESAllPrim", "ESCompCollComp", "ESMixPrimCollComp" })
+  public String entitySetName;
+
+  @Param({ "1000" })
+  public int size;
+
+  private ODataClient client;
+  private byte[] content;
+  private ResWrap<EntityCollection> entitySet;
+
+  @Setup
+  public void setup() throws ODataLibraryException, ODataDeserializerException, IOException {
+    final TecSvcFixture fixture = new TecSvcFixture();
+    content = fixture.serialize(entitySetName, fixture.createEntityCollection(entitySetName, size),
+        ContentType.JSON_FULL_METADATA);
+    client = ODataClientFactory.getClient();
+    entitySet = new JsonDeserializer(false).toEntitySet(new ByteArrayInputStream(content));
+  }
+
+  @Benchmark
+  public ResWrap<EntityCollection> jsonDeserializer() throws ODataDeserializerException {
+    return new JsonDeserializer(false).toEntitySet(new ByteArrayInputStream(content));
+  }
+
+  @Benchmark
+  public ClientEntitySet binder() {
+    return client.getBinder().getODataEntitySet(entitySet);
+  }
+
+  @Benchmark
+  public ClientEntitySet deserializeAndBind() throws ODataDeserializerException {
+    return client.getBinder().getODataEntitySet(
+        client.getDeserializer(ContentType.JSON_FULL_METADATA).toEntitySet(new ByteArrayInputStream(content)));
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deserialization of JSON entity collections on the server, completely and streamed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeserializerBenchmark {
+
+  @Param({ "ESTwoPrim", "ESAllPrim", "ESCompCollComp", "ESMixPrimCollComp" })
+  public String entitySetName;
+
+  @Param({ "1000" })
+  public int size;
+
+  private ODataDeserializer deserializer;
+  private EdmEntityType entityType;
+  private byte[] content;
+
+  @Setup
+  public void setup() throws ODataLibraryException, IOException {
+    final TecSvcFixture fixture = new TecSvcFixture();
+    deserializer = fixture.getOData().createDeserializer(ContentType.JSON, fixture.getServiceMetadata());
+    entityType = fixture.getEntitySet(entitySetName).getEntityType();
+    content = fixture.serialize(entitySetName, fixture.createEntityCollection(entitySetName, size),
+        ContentType.JSON_NO_METADATA);
+  }
+
+  @Benchmark
+  public EntityCollection entityCollection() throws ODataLibraryException {
+    return deserializer.entityCollection(new ByteArrayInputStream(content), entityType).getEntityCollection();
+  }
+
+  @Benchmark
+  public int entityCollectionStreamed() throws ODataLibraryException {
+    final EntityIterator iterator = deserializer.entityCollectionStreamed(new ByteArrayInputStream(content),
+        entityType);
+    int count = 0;
+    while (iterator.hasNext()) {
+      iterator.next();
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of $filter expressions of the technical service over the same entities,
+ * once with the expression compiled into a {@link FilterPredicate} per request,
+ * and once with a new {@link ExpressionVisitorImpl} visiting the expression tree per entity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+
+  private static final EdmPrimitiveType primBoolean =
+      OData.newInstance().createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
+
+  /** The entity set and the $filter option. */
+  @Param({
+      "ESAllPrim?$filter=PropertyInt16%20gt%200%20and%20startswith(PropertyString,'F')",
+      "ESServerSidePaging?$filter=PropertyInt16%20mod%203%20eq%200%20or%20PropertyString%20eq%20'Number:10'",
+      "ESKeyNav?$filter=NavPropertyETKeyNavMany/any(d:d/PropertyInt16%20eq%201)" })
+  public String uri;
+
+  @Param({ "1000" })
+  public int size;
+
+  private Edm edm;
+  private UriInfo uriInfo;
+  private FilterOption filterOption;
+  private List<Entity> entities;
+
+  @Setup
+  public void setup() throws ODataLibraryException, ODataApplicationException, ExpressionVisitException {
+    final TecSvcFixture fixture = new TecSvcFixture();
+    edm = fixture.getServiceMetadata().getEdm();
+    uriInfo = fixture.parse(uri);
+    filterOption = uriInfo.getFilterOption();
+    entities = fixture.createEntityCollection(uri.substring(0, uri.indexOf('?')), size).getEntities();
+    // Both ways must select the same entities.
+    if (compiledPredicate() != expressionVisitor()) {
+      throw new IllegalStateException("Different results for " + uri);
+    }
+  }
+
+  @Benchmark
+  public int compiledPredicate() throws ExpressionVisitException, ODataApplicationException {
+    final FilterPredicate predicate = FilterPredicate.compile(filterOption, uriInfo, edm);
+    int count = 0;
+    for (final Entity entity : entities) {
+      if (predicate.matches(entity)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int expressionVisitor() throws ExpressionVisitException, ODataApplicationException {
+    int count = 0;
+    for (final Entity entity : entities) {
+      final TypedOperand typedOperand = filterOption.getExpression()
+          .accept(new ExpressionVisitorImpl(entity, uriInfo, edm)).asTypedOperand();
+      if (!typedOperand.is(primBoolean)) {
+        throw new ODataApplicationException("Filter expressions must return a value of type Edm.Boolean",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+      }
+      if (!Boolean.FALSE.equals(typedOperand.getTypedValue(Boolean.class))) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of entity collections of different width (primitive properties),
+ * depth (nested complex properties and collections) and with expanded navigation properties,
+ * in JSON and XML.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+  /** The entity set and optional query options; the query options define select and expand. */
+  @Param({
+      "ESTwoPrim",
+      "ESAllPrim",
+      "ESCompCollComp",
+      "ESMixPrimCollComp",
+      "ESKeyNav?$expand=NavPropertyETTwoKeyNavOne" })
+  public String uri;
+
+  @Param({ "application/json;odata.metadata=minimal", "application/json;odata.metadata=full", "application/xml" })
+  public String format;
+
+  @Param({ "1000" })
+  public int size;
+
+  private TecSvcFixture fixture;
+  private ODataSerializer serializer;
+  private EdmEntitySet entitySet;
+  private EntityCollection collection;
+  private EntityCollectionSerializerOptions options;
+
+  @Setup
+  public void setup() throws ODataLibraryException {
+    fixture = new TecSvcFixture();
+    serializer = fixture.getOData().createSerializer(ContentType.create(format));
+    final UriInfo uriInfo = fixture.parse(uri);
+    final String entitySetName = uri.indexOf('?') < 0 ? uri : uri.substring(0, uri.indexOf('?'));
+    entitySet = fixture.getEntitySet(entitySetName);
+    collection = fixture.createEntityCollection(entitySetName, size);
+    options = EntityCollectionSerializerOptions.with()
+        .contextURL(ContextURL.with().entitySet(entitySet).build())
+        .id(TecSvcFixture.BASE_URI + '/' + entitySetName)
+        .select(uriInfo.getSelectOption())
+        .expand(uriInfo.getExpandOption())
+        .build();
+  }
+
+  @Benchmark
+  public long entityCollection() throws ODataLibraryException, IOException {
+    return TecSvcFixture.consume(serializer.entityCollection(fixture.getServiceMetadata(),
+        entitySet.getEntityType(), collection, options).getContent());
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+
+/**
+ * Fixtures of the benchmarks: the EDM of the technical service and the data created by its DataCreator.
+ */
+final class TecSvcFixture {
+
+  static final String BASE_URI = "http://localhost/odata.svc";
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata serviceMetadata =
+      odata.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+  private final DataProvider dataProvider = new DataProvider(odata, serviceMetadata.getEdm());
+
+  OData getOData() {
+    return odata;
+  }
+
+  ServiceMetadata getServiceMetadata() {
+    return serviceMetadata;
+  }
+
+  EdmEntitySet getEntitySet(final String name) {
+    return serviceMetadata.getEdm().getEntityContainer().getEntitySet(name);
+  }
+
+  /**
+   * Parses and validates a request URI relative to the service root.
+   * @param uri resource path and optional query, e.g., <code>ESAllPrim?$top=3</code>
+   */
+  UriInfo parse(final String uri) throws ODataLibraryException {
+    final int index = uri.indexOf('?');
+    return new Parser(serviceMetadata.getEdm(), odata).parseUri(
+        index < 0 ? uri : uri.substring(0, index), index < 0 ? null : uri.substring(index + 1), null, BASE_URI);
+  }
+
+  /**
+   * Creates a collection with the given number of entities by repeating the entities of the entity set.
+   * The entities get canonical IDs so that they can be serialized in all formats.
+   */
+  EntityCollection createEntityCollection(final String entitySetName, final int size) throws ODataLibraryException {
+    final EdmEntitySet entitySet = getEntitySet(entitySetName);
+    final List<Entity> entities = dataProvider.readAll(entitySet).getEntities();
+    for (final Entity entity : entities) {
+      if (entity.getId() == null) {
+        entity.setId(URI.create(odata.createUriHelper().buildCanonicalURL(entitySet, entity)));
+      }
+    }
+    final EntityCollection collection = new EntityCollection();
+    for (int i = 0; i < size; i++) {
+      collection.getEntities().add(entities.get(i % entities.size()));
+    }
+    return collection;
+  }
+
+  /** Serializes an entity collection, e.g., as input for the deserializer benchmarks. */
+  byte[] serialize(final String entitySetName, final EntityCollection collection, final ContentType contentType)
+      throws ODataLibraryException, IOException {
+    final EdmEntitySet entitySet = getEntitySet(entitySetName);
+    final InputStream content = odata.createSerializer(contentType).entityCollection(serviceMetadata,
+        entitySet.getEntityType(), collection,
+        EntityCollectionSerializerOptions.with()
+            .contextURL(ContextURL.with().entitySet(entitySet).build())
+            .id(BASE_URI + '/' + entitySetName)
+            .build())
+        .getContent();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int count;
+    while ((count = content.read(buffer)) > -1) {
+      output.write(buffer, 0, count);
+    }
+    content.close();
+    return output.toByteArray();
+  }
+
+  /**
+   * Reads a serialized content completely.
+   * @return the number of bytes, to be consumed by the benchmark
+   */
+  static long consume(final InputStream content) throws IOException {
+    final byte[] buffer = new byte[8192];
+    long length = 0;
+    int count;
+    while ((count = content.read(buffer)) > -1) {
+      length += count;
+    }
+    content.close();
+    return length;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of request URIs of typical shapes: entity sets, keys, navigation, properties,
+ * and combinations of system query options.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UriParserBenchmark {
+
+  @Param({
+      "ESAllPrim",
+      "ESAllPrim(32767)",
+      "ESCompAllPrim(32767)/PropertyComp/PropertyString",
+      "ESKeyNav(1)/NavPropertyETTwoKeyNavMany(PropertyInt16=1,PropertyString='1')",
+      "ESAllPrim?$filter=PropertyInt16%20gt%200%20and%20startswith(PropertyString,'F')"
+          + "&$orderby=PropertyString%20desc&$top=10&$skip=5&$count=true",
+      "ESKeyNav?$select=PropertyInt16,PropertyString&$expand=NavPropertyETTwoKeyNavOne($select=PropertyString),"
+          + "NavPropertyETKeyNavMany($filter=PropertyInt16%20lt%205;$top=3;$expand=NavPropertyETKeyNavMany)",
+      "$metadata" })
+  public String uri;
+
+  private TecSvcFixture fixture;
+
+  @Setup
+  public void setup() throws ODataLibraryException {
+    fixture = new TecSvcFixture();
+    // Fails early for URIs that do not match the EDM.
+    fixture.parse(uri);
+  }
+
+  @Benchmark
+  public UriInfo parseUri() throws ODataLibraryException {
+    return fixture.parse(uri);
+  }
+}
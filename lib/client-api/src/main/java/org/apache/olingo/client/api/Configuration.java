@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
@@ -266,4 +267,17 @@ public interface Configuration {
    * @param executorService new executor services.
    */
   void setExecutor(ExecutorService executorService);
+
+  /**
+   * Retrieves the scheduler for delayed tasks, e.g., the checks of the monitor of asynchronous requests.
+   * The scheduled tasks only hand over their work to the {@link #getExecutor() request executor},
+   * so one thread is enough for many concurrent asynchronous requests.
+   * <br />
+   * The default implementation returns <code>null</code>; a scheduler shared by the client library is used then.
+   *
+   * @return scheduler for delayed tasks or <code>null</code> for the shared scheduler.
+   */
+  default ScheduledExecutorService getScheduledExecutor() {
+    return null;
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api.communication.request;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.olingo.client.api.communication.response.AsyncResponseWrapper;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
@@ -53,4 +54,18 @@ public interface AsyncRequestWrapper<R extends ODataResponse> {
    * @return the current AsyncRequestWrapper instance.
    */
   AsyncResponseWrapper<R> execute();
+
+  /**
+   * Executes the request on the request executor of the configuration and waits for the end of the asynchronous
+   * processing without blocking a thread.
+   * <br />
+   * The default implementation executes the request and waits for the real response with
+   * {@link AsyncResponseWrapper#getODataResponse()} on a thread of the common fork-join pool.
+   *
+   * @return future of the real OData response.
+   * @see AsyncResponseWrapper#getODataResponseAsync()
+   */
+  default CompletableFuture<R> executeAsync() {
+    return CompletableFuture.supplyAsync(() -> execute().getODataResponse());
+  }
 }
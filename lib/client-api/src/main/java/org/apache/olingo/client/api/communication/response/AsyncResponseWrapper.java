@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api.communication.response;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public interface AsyncResponseWrapper<R extends ODataResponse> {
 
@@ -48,6 +49,22 @@ public interface AsyncResponseWrapper<R extends ODataResponse> {
    */
   R getODataResponse();
 
+  /**
+   * Gets the real response without blocking the calling thread.
+   * <br />
+   * If asynchronous processing has been terminated then the returned future is already completed. Otherwise the
+   * monitor is checked after the delay specified by the 'Retry-After' header, again and again, until the processing
+   * has been terminated. The delays are scheduled on the scheduler of the configuration and the checks are executed by
+   * its request executor, so no thread is blocked while waiting. Cancelling the future stops the monitor checks.
+   * <br />
+   * The default implementation waits with {@link #getODataResponse()} on a thread of the common fork-join pool.
+   *
+   * @return future of the real OData response; it is completed exceptionally if a monitor check fails.
+   */
+  default CompletableFuture<R> getODataResponseAsync() {
+    return CompletableFuture.supplyAsync(this::getODataResponse);
+  }
+
   /**
    * Specifies the location for the next monitor check.
    * <br />
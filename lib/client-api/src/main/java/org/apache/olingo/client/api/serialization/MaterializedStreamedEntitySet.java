@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.serialization;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+/**
+ * Entity set whose entities have already been de-serialized completely;
+ * used by de-serializers which cannot read the entities one by one.
+ */
+final class MaterializedStreamedEntitySet implements StreamedEntitySet {
+
+  private final ResWrap<EntityCollection> entitySet;
+  private final Iterator<Entity> entities;
+
+  MaterializedStreamedEntitySet(final ResWrap<EntityCollection> entitySet) {
+    this.entitySet = entitySet;
+    final List<Entity> list = new ArrayList<Entity>(entitySet.getPayload().getEntities());
+    entitySet.getPayload().getEntities().clear();
+    entities = list.iterator();
+  }
+
+  @Override
+  public ResWrap<Entity> nextEntity() {
+    return entities.hasNext() ? new ResWrap<Entity>((URI) null, null, entities.next()) : null;
+  }
+
+  @Override
+  public ResWrap<EntityCollection> getEntitySet() {
+    return entitySet;
+  }
+
+  @Override
+  public void close() {
+    // Nothing to close; the input has been read completely.
+  }
+}
@@ -39,6 +39,19 @@ public interface ODataDeserializer {
    */
   ResWrap<EntityCollection> toEntitySet(InputStream input) throws ODataDeserializerException;
 
+  /**
+   * Gets an entity set object from the given InputStream;
+   * its entities are de-serialized while iterating over them.
+   * <br/>
+   * The default implementation de-serializes the complete entity set with {@link #toEntitySet(InputStream)}.
+   *
+   * @param input stream to be de-serialized; it is read only as far as needed.
+   * @return {@link StreamedEntitySet} instance.
+   */
+  default StreamedEntitySet toStreamedEntitySet(final InputStream input) throws ODataDeserializerException {
+    return new MaterializedStreamedEntitySet(toEntitySet(input));
+  }
+
   /**
    * Gets an entity object from the given InputStream.
    *
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.serialization;
+
+import java.io.Closeable;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+/**
+ * Entity set whose entities are de-serialized one by one while reading the underlying stream.
+ */
+public interface StreamedEntitySet extends Closeable {
+
+  /**
+   * Reads the next entity.
+   *
+   * @return the next entity or <tt>null</tt> if there are no more entities
+   */
+  ResWrap<Entity> nextEntity() throws ODataDeserializerException;
+
+  /**
+   * Gets the entity set without its entities, e.g., with its count and next link.
+   * <br/>
+   * The entity set is complete only after {@link #nextEntity()} has returned <tt>null</tt>.
+   *
+   * @return {@link EntityCollection} instance without entities
+   */
+  ResWrap<EntityCollection> getEntitySet() throws ODataDeserializerException;
+}
@@ -29,6 +29,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -77,6 +80,27 @@ public class ConfigurationImpl implements Configuration {
     return tp;
   }
 
+  private transient ScheduledExecutorService scheduledExecutor;
+
+  /**
+   * Creates a scheduler with one daemon thread; cancelled tasks are removed immediately.
+   *
+   * @param threadName name of the scheduler thread.
+   * @return new scheduler.
+   */
+  public static ScheduledExecutorService createScheduledExecutor(final String threadName) {
+    final ScheduledThreadPoolExecutor stp = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    stp.setRemoveOnCancelPolicy(true);
+    return stp;
+  }
+
   /**
    * Gets given configuration property.
    *
@@ -244,4 +268,21 @@ public class ConfigurationImpl implements Configuration {
   public void setExecutor(final ExecutorService executorService) {
     executor = executorService;
   }
+
+  @Override
+  public synchronized ScheduledExecutorService getScheduledExecutor() {
+    if (scheduledExecutor == null) {
+      scheduledExecutor = createScheduledExecutor("olingo-client-scheduler");
+    }
+    return scheduledExecutor;
+  }
+
+  /**
+   * Sets the scheduler for delayed tasks.
+   *
+   * @param scheduledExecutorService new scheduler.
+   */
+  public synchronized void setScheduledExecutor(final ScheduledExecutorService scheduledExecutorService) {
+    scheduledExecutor = scheduledExecutorService;
+  }
 }
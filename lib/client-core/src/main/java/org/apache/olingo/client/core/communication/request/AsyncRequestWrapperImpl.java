@@ -21,6 +21,10 @@ package org.apache.olingo.client.core.communication.request;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,6 +38,7 @@ import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.DecompressingHttpClient;
 import org.apache.http.util.EntityUtils;
+import org.apache.olingo.client.api.Configuration;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.ODataClientErrorException;
 import org.apache.olingo.client.api.communication.header.ODataPreferences;
@@ -44,6 +49,7 @@ import org.apache.olingo.client.api.communication.response.AsyncResponseWrapper;
 import org.apache.olingo.client.api.communication.response.ODataDeleteResponse;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
 import org.apache.olingo.client.api.http.HttpClientException;
+import org.apache.olingo.client.core.ConfigurationImpl;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
@@ -130,6 +136,12 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
     return new AsyncResponseWrapperImpl(doExecute());
   }
 
+  @Override
+  public CompletableFuture<R> executeAsync() {
+    return CompletableFuture.supplyAsync(this::execute, odataClient.getConfiguration().getExecutor())
+        .thenCompose(AsyncResponseWrapper::getODataResponseAsync);
+  }
+
   protected HttpResponse doExecute() {
     // Add all available headers
     for (String key : odataRequest.getHeaderNames()) {
@@ -237,6 +249,66 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
       return response;
     }
 
+    @Override
+    public CompletableFuture<R> getODataResponseAsync() {
+      final CompletableFuture<R> future = new CompletableFuture<>();
+      if (response == null) {
+        scheduleMonitorCheck(future);
+      } else {
+        future.complete(response);
+      }
+      return future;
+    }
+
+    private void scheduleMonitorCheck(final CompletableFuture<R> future) {
+      final Configuration configuration = odataClient.getConfiguration();
+      final ScheduledExecutorService configured = configuration.getScheduledExecutor();
+      final ScheduledExecutorService scheduler = configured == null ? SharedScheduler.INSTANCE : configured;
+      try {
+        scheduler.schedule(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              configuration.getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                  checkMonitor(future);
+                }
+              });
+            } catch (final RejectedExecutionException e) {
+              future.completeExceptionally(e);
+            }
+          }
+        }, retryAfter, TimeUnit.SECONDS);
+      } catch (final RejectedExecutionException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    private void checkMonitor(final CompletableFuture<R> future) {
+      if (future.isDone()) {
+        // cancelled
+        return;
+      }
+      try {
+        final HttpResponse res = AsyncRequestWrapperImpl.this.checkMonitor(location);
+        if (res.getStatusLine().getStatusCode() == HttpStatusCode.ACCEPTED.getStatusCode()) {
+          final Header[] headers = res.getHeaders(HttpHeader.RETRY_AFTER);
+          if (ArrayUtils.isNotEmpty(headers)) {
+            this.retryAfter = parseReplyAfter(headers[0].getValue());
+          }
+          HttpClientUtils.closeQuietly(res);
+          scheduleMonitorCheck(future);
+        } else {
+          location = null;
+          response = instantiateResponse(res);
+          future.complete(response);
+        }
+      } catch (final RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
     URI createLocation(String string) {
       return checkLocation(URI.create(string));
     }
@@ -346,4 +418,13 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
 
     return response;
   }
+
+  /**
+   * Scheduler for configurations without their own scheduler; created when it is first used.
+   */
+  private static final class SharedScheduler {
+
+    private static final ScheduledExecutorService INSTANCE =
+        ConfigurationImpl.createScheduledExecutor("olingo-client-shared-scheduler");
+  }
 }
@@ -245,6 +245,10 @@ public abstract class AbstractODataResponse implements ODataResponse {
   @Override
   public void close() {
     odataClient.getConfiguration().getHttpClientFactory().close(httpClient);
+    // releases the underlying connection, in case the HttpClient factory keeps it pooled
+    if (res != null && batchInfo == null) {
+      HttpClientUtils.closeQuietly(res);
+    }
 
     if (batchInfo != null) {
       batchInfo.setValidBatch(false);
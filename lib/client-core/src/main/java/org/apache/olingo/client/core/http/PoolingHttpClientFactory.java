@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreProtocolPNames;
+import org.apache.http.protocol.HttpContext;
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+/**
+ * Implementation returning HttpClients which share a single pool of persistent connections.
+ * <br/>
+ * Unlike {@link DefaultHttpClientFactory}, {@link #close(HttpClient)} does not shut the connection manager down:
+ * connections are given back to the pool and reused by subsequent requests to the same route, so that TCP and TLS
+ * handshakes are paid only once per connection. Connections idle for longer than the configured timeout are evicted
+ * whenever a client is closed. Call {@link #shutdown()} to release all pooled connections.
+ * <br/>
+ * Authentication and proxy factories can be stacked on top of this one, e.g.
+ * <code>new BasicAuthHttpClientFactory(username, password, new PoolingHttpClientFactory())</code> or
+ * <code>new ProxyWrappingHttpClientFactory(proxy, new PoolingHttpClientFactory())</code>.
+ */
+public class PoolingHttpClientFactory extends DefaultHttpClientFactory {
+
+  public static final int DEFAULT_MAX_TOTAL = 20;
+
+  public static final int DEFAULT_MAX_PER_ROUTE = 10;
+
+  public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+
+  private final PoolingClientConnectionManager connectionManager;
+
+  private final ConnectionKeepAliveStrategy keepAliveStrategy;
+
+  private final long idleTimeoutMillis;
+
+  public PoolingHttpClientFactory() {
+    this(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_KEEP_ALIVE_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param maxTotal maximum number of connections in the pool
+   * @param maxPerRoute maximum number of connections per route (i.e. per target host)
+   * @param keepAliveMillis time a connection is kept alive when the server does not send a <tt>Keep-Alive</tt>
+   * header
+   * @param idleTimeoutMillis time after which idle connections are evicted from the pool
+   */
+  public PoolingHttpClientFactory(final int maxTotal, final int maxPerRoute,
+      final long keepAliveMillis, final long idleTimeoutMillis) {
+
+    connectionManager = new PoolingClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+    keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+
+      @Override
+      public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+        final long duration = super.getKeepAliveDuration(response, context);
+        return duration > 0 ? duration : keepAliveMillis;
+      }
+    };
+
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  public PoolingClientConnectionManager getConnectionManager() {
+    return connectionManager;
+  }
+
+  @Override
+  public DefaultHttpClient create(final HttpMethod method, final URI uri) {
+    final DefaultHttpClient client = new DefaultHttpClient(connectionManager);
+    client.getParams().setParameter(CoreProtocolPNames.USER_AGENT, USER_AGENT);
+    client.setKeepAliveStrategy(keepAliveStrategy);
+    return client;
+  }
+
+  @Override
+  public void close(final HttpClient httpClient) {
+    connectionManager.closeExpiredConnections();
+    connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Closes all pooled connections; HttpClients created by this factory cannot be used afterwards.
+   */
+  public void shutdown() {
+    connectionManager.shutdown();
+  }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.client.core.serialization;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.sql.Timestamp;
@@ -39,6 +40,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.client.api.serialization.StreamedEntitySet;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.AbstractODataObject;
 import org.apache.olingo.commons.api.data.Annotation;
@@ -768,51 +770,21 @@ public class AtomDeserializer implements ODataDeserializer {
 
   private EntityCollection entitySet(final XMLEventReader reader, final StartElement start)
       throws XMLStreamException, EdmPrimitiveTypeException {
-    if (!Constants.QNAME_ATOM_ELEM_FEED.equals(start.getName())) {
+    final EntityCollection entitySet = emptyEntitySet(start);
+    if (entitySet == null) {
       return null;
     }
-    final EntityCollection entitySet = new EntityCollection();
-    final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
-    if (xmlBase != null) {
-      entitySet.setBaseURI(URI.create(xmlBase.getValue()));
-    }
 
     boolean foundEndFeed = false;
     while (reader.hasNext() && !foundEndFeed) {
       final XMLEvent event = reader.nextEvent();
       if (event.isStartElement()) {
-        if (countQName.equals(event.asStartElement().getName())) {
-          count(reader, event.asStartElement(), entitySet);
-        } else if (Constants.QNAME_ATOM_ELEM_ID.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "id");
-        } else if (Constants.QNAME_ATOM_ELEM_TITLE.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "title");
-        } else if (Constants.QNAME_ATOM_ELEM_SUMMARY.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "summary");
-        } else if (Constants.QNAME_ATOM_ELEM_UPDATED.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "updated");
-        } else if (Constants.QNAME_ATOM_ELEM_LINK.equals(event.asStartElement().getName())) {
-          final Attribute rel = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_REL));
-          if (rel != null) {
-            if (Constants.NEXT_LINK_REL.equals(rel.getValue())) {
-              final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-              if (href != null) {
-                entitySet.setNext(URI.create(href.getValue()));
-              }
-            }
-            if (Constants.NS_DELTA_LINK_REL.equals(rel.getValue())) {
-              final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-              if (href != null) {
-                entitySet.setDeltaLink(URI.create(href.getValue()));
-              }
-            }
-          }
-        } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(event.asStartElement().getName())) {
+        if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(event.asStartElement().getName())) {
           entitySet.getEntities().add(entity(reader, event.asStartElement()));
         } else if (entryRefQName.equals(event.asStartElement().getName())) {
           entitySet.getEntities().add(entityRef(event.asStartElement()));
-        } else if (annotationQName.equals(event.asStartElement().getName())) {
-          entitySet.getAnnotations().add(annotation(reader, event.asStartElement()));
+        } else {
+          entitySetElement(reader, event.asStartElement(), entitySet);
         }
       }
 
@@ -824,6 +796,53 @@ public class AtomDeserializer implements ODataDeserializer {
     return entitySet;
   }
 
+  /** Creates an entity set without content for the given feed element or returns <code>null</code>. */
+  private EntityCollection emptyEntitySet(final StartElement start) {
+    if (!Constants.QNAME_ATOM_ELEM_FEED.equals(start.getName())) {
+      return null;
+    }
+    final EntityCollection entitySet = new EntityCollection();
+    final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
+    if (xmlBase != null) {
+      entitySet.setBaseURI(URI.create(xmlBase.getValue()));
+    }
+    return entitySet;
+  }
+
+  /** Reads a child element of a feed other than an entry. */
+  private void entitySetElement(final XMLEventReader reader, final StartElement element,
+      final EntityCollection entitySet) throws XMLStreamException, EdmPrimitiveTypeException {
+    if (countQName.equals(element.getName())) {
+      count(reader, element, entitySet);
+    } else if (Constants.QNAME_ATOM_ELEM_ID.equals(element.getName())) {
+      common(reader, element, entitySet, "id");
+    } else if (Constants.QNAME_ATOM_ELEM_TITLE.equals(element.getName())) {
+      common(reader, element, entitySet, "title");
+    } else if (Constants.QNAME_ATOM_ELEM_SUMMARY.equals(element.getName())) {
+      common(reader, element, entitySet, "summary");
+    } else if (Constants.QNAME_ATOM_ELEM_UPDATED.equals(element.getName())) {
+      common(reader, element, entitySet, "updated");
+    } else if (Constants.QNAME_ATOM_ELEM_LINK.equals(element.getName())) {
+      final Attribute rel = element.getAttributeByName(QName.valueOf(Constants.ATTR_REL));
+      if (rel != null) {
+        if (Constants.NEXT_LINK_REL.equals(rel.getValue())) {
+          final Attribute href = element.getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
+          if (href != null) {
+            entitySet.setNext(URI.create(href.getValue()));
+          }
+        }
+        if (Constants.NS_DELTA_LINK_REL.equals(rel.getValue())) {
+          final Attribute href = element.getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
+          if (href != null) {
+            entitySet.setDeltaLink(URI.create(href.getValue()));
+          }
+        }
+      }
+    } else if (annotationQName.equals(element.getName())) {
+      entitySet.getAnnotations().add(annotation(reader, element));
+    }
+  }
+
   @Override
   public ResWrap<EntityCollection> toEntitySet(final InputStream input) throws ODataDeserializerException {
     try {
@@ -835,6 +854,73 @@ public class AtomDeserializer implements ODataDeserializer {
     }
   }
 
+  @Override
+  public StreamedEntitySet toStreamedEntitySet(final InputStream input) throws ODataDeserializerException {
+    try {
+      return new AtomStreamedEntitySet(getReader(input));
+    } catch (final XMLStreamException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  /**
+   * Reads the entries of a feed one by one.
+   * The other feed elements are collected into the entity set while reading.
+   */
+  private class AtomStreamedEntitySet implements StreamedEntitySet {
+    private final XMLEventReader reader;
+    private final StartElement start;
+    private final EntityCollection entitySet;
+    private boolean foundEndFeed;
+
+    private AtomStreamedEntitySet(final XMLEventReader reader) throws XMLStreamException {
+      this.reader = reader;
+      start = skipBeforeFirstStartElement(reader);
+      entitySet = emptyEntitySet(start);
+      foundEndFeed = entitySet == null;
+    }
+
+    @Override
+    public ResWrap<Entity> nextEntity() throws ODataDeserializerException {
+      try {
+        while (reader.hasNext() && !foundEndFeed) {
+          final XMLEvent event = reader.nextEvent();
+          if (event.isStartElement()) {
+            final StartElement element = event.asStartElement();
+            if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(element.getName())) {
+              return getContainer(element, entity(reader, element));
+            } else if (entryRefQName.equals(element.getName())) {
+              return getContainer(element, entityRef(element));
+            } else {
+              entitySetElement(reader, element, entitySet);
+            }
+          }
+
+          if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
+            foundEndFeed = true;
+          }
+        }
+        return null;
+      } catch (XMLStreamException | EdmPrimitiveTypeException e) {
+        throw new ODataDeserializerException(e);
+      }
+    }
+
+    @Override
+    public ResWrap<EntityCollection> getEntitySet() {
+      return getContainer(start, entitySet);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        reader.close();
+      } catch (final XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
   private ODataError error(final XMLEventReader reader, final StartElement start) throws XMLStreamException {
     final ODataError error = new ODataError();
     error.setDetails(new ArrayList<ODataErrorDetail>(0));
@@ -37,6 +37,7 @@ import org.apache.olingo.client.api.edm.xml.XMLMetadata;
 import org.apache.olingo.client.api.serialization.ClientODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.client.api.serialization.StreamedEntitySet;
 import org.apache.olingo.client.core.data.JSONServiceDocumentDeserializer;
 import org.apache.olingo.client.core.data.XMLServiceDocumentDeserializer;
 import org.apache.olingo.client.core.edm.ClientCsdlXMLMetadata;
@@ -90,6 +91,11 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
     return deserializer.toEntitySet(input);
   }
 
+  @Override
+  public StreamedEntitySet toStreamedEntitySet(final InputStream input) throws ODataDeserializerException {
+    return deserializer.toStreamedEntitySet(input);
+  }
+
   @Override
   public ResWrap<Entity> toEntity(final InputStream input) throws ODataDeserializerException {
     return deserializer.toEntity(input);
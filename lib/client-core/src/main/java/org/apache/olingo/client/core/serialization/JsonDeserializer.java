@@ -34,6 +34,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.client.api.serialization.StreamedEntitySet;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.Annotatable;
 import org.apache.olingo.commons.api.data.Annotation;
@@ -415,6 +416,15 @@ public class JsonDeserializer implements ODataDeserializer {
     }
   }
 
+  @Override
+  public StreamedEntitySet toStreamedEntitySet(final InputStream input) throws ODataDeserializerException {
+    try {
+      return new JsonStreamedEntitySet(serverMode, new JsonFactory(new ObjectMapper()).createParser(input));
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
   @Override
   public ResWrap<Entity> toEntity(final InputStream input) throws ODataDeserializerException {
     try {
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.serialization;
+
+import java.io.IOException;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.client.api.serialization.StreamedEntitySet;
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads the entities of a JSON entity set one by one.
+ * <br/>
+ * The parser is kept inside the <tt>value</tt> array; each entity is read as tree
+ * directly from the parser. All other members of the entity set are collected
+ * and de-serialized when the entity set is requested.
+ */
+public class JsonStreamedEntitySet implements StreamedEntitySet {
+
+  private final boolean serverMode;
+  private final JsonParser parser;
+  private final JsonEntityDeserializer entityDeserializer;
+  private final ObjectNode members = JsonNodeFactory.instance.objectNode();
+  private boolean inValue = false;
+
+  public JsonStreamedEntitySet(final boolean serverMode, final JsonParser parser) throws ODataDeserializerException {
+    this.serverMode = serverMode;
+    this.parser = parser;
+    entityDeserializer = new JsonEntityDeserializer(serverMode);
+    try {
+      final JsonToken token = parser.nextToken();
+      if (token != null) {
+        if (token != JsonToken.START_OBJECT) {
+          throw new JsonParseException("Expected OData Entity Set", parser.getCurrentLocation());
+        }
+        readMembers();
+      }
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  /** Reads the members of the entity set up to the start of the value array or the end of the entity set. */
+  private void readMembers() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      token = parser.nextToken();
+      if (Constants.VALUE.equals(name) && token == JsonToken.START_ARRAY) {
+        inValue = true;
+        return;
+      }
+      members.set(name, parser.<JsonNode> readValueAsTree());
+    }
+    if (token != JsonToken.END_OBJECT) {
+      throw new JsonParseException("Unexpected end of OData Entity Set", parser.getCurrentLocation());
+    }
+  }
+
+  @Override
+  public ResWrap<Entity> nextEntity() throws ODataDeserializerException {
+    try {
+      while (inValue) {
+        final JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+          return entityDeserializer.doDeserialize(parser);
+        } else if (token == JsonToken.END_ARRAY) {
+          inValue = false;
+          readMembers();
+        } else {
+          throw new JsonParseException("Expected OData Entity", parser.getCurrentLocation());
+        }
+      }
+      return null;
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  @Override
+  public ResWrap<EntityCollection> getEntitySet() throws ODataDeserializerException {
+    final ObjectNode tree = members.deepCopy();
+    tree.set(Constants.VALUE, JsonNodeFactory.instance.arrayNode());
+    try {
+      return new JsonEntitySetDeserializer(serverMode).doDeserialize(tree.traverse(parser.getCodec()));
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
@@ -21,19 +21,30 @@ package org.apache.olingo.client.core.communication.request;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.BasicHttpEntity;
 import org.apache.http.impl.DefaultHttpResponseFactory;
 import org.apache.http.message.BasicStatusLine;
 import org.apache.olingo.client.api.Configuration;
@@ -163,6 +174,54 @@ public class AsyncRequestWrapperTest {
     assertEquals(retryAfter, wrappedResponseImpl.retryAfter);
   }
 
+  @Test
+  public void testAsyncResponse() throws Exception {
+    HttpClient httpClient = mock(HttpClient.class);
+    ODataClient oDataClient = mock(ODataClient.class);
+    Configuration configuration = mock(Configuration.class);
+    HttpClientFactory httpClientFactory = mock(HttpClientFactory.class);
+    HttpUriRequestFactory httpUriRequestFactory = mock(HttpUriRequestFactory.class);
+    HttpUriRequest httpUriRequest = mock(HttpUriRequest.class);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    when(oDataClient.getConfiguration()).thenReturn(configuration);
+    when(configuration.getHttpClientFactory()).thenReturn(httpClientFactory);
+    when(configuration.getHttpUriRequestFactory()).thenReturn(httpUriRequestFactory);
+    when(configuration.getExecutor()).thenReturn(executor);
+    when(configuration.getScheduledExecutor()).thenReturn(scheduledExecutor);
+    when(httpClientFactory.create(any(), any())).thenReturn(httpClient);
+    when(httpUriRequestFactory.create(any(), any())).thenReturn(httpUriRequest);
+
+    HttpResponseFactory factory = new DefaultHttpResponseFactory();
+    HttpResponse accepted = factory.newHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 202, null), null);
+    accepted.addHeader(HttpHeader.LOCATION, "http://localhost/monitor");
+    accepted.addHeader(HttpHeader.RETRY_AFTER, "0");
+    HttpResponse stillAccepted = factory.newHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 202, null), null);
+    stillAccepted.addHeader(HttpHeader.RETRY_AFTER, "0");
+    HttpResponse done = factory.newHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, null), null);
+    BasicHttpEntity entity = new BasicHttpEntity();
+    entity.setContent(new ByteArrayInputStream(new byte[0]));
+    done.setEntity(entity);
+    when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(accepted, stillAccepted, done);
+
+    AbstractODataRequest oDataRequest = mock(AbstractODataRequest.class);
+    ODataResponse oDataResponse = mock(ODataResponse.class);
+    when(oDataRequest.getResponseTemplate()).thenReturn(oDataResponse);
+    when(oDataRequest.getURI()).thenReturn(new URI("http://localhost/path"));
+    when(oDataResponse.initFromEnclosedPart(any(InputStream.class))).thenReturn(oDataResponse);
+
+    try {
+      AsyncRequestWrapperImpl<ODataResponse> req = new AsyncRequestWrapperImpl<ODataResponse>(
+          oDataClient, oDataRequest);
+      assertSame(oDataResponse, req.executeAsync().get(10, TimeUnit.SECONDS));
+      verify(httpClient, times(3)).execute(any(HttpUriRequest.class));
+    } finally {
+      executor.shutdownNow();
+      scheduledExecutor.shutdownNow();
+    }
+  }
+
   @Test
   public void testWrapper() {
 
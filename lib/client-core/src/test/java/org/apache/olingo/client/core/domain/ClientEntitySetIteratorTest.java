@@ -203,4 +203,57 @@ public class ClientEntitySetIteratorTest {
         Assert.assertEquals("http://localhost:8082/odata-server-tecsvc/"
             + "odata.svc/ESServerSidePaging?%24skiptoken=1%2A10", entitySetIterator.getNext().toString());
     }
+
+    @Test
+    public void testEntitySetIteratorMembersAfterValue() throws IOException, URISyntaxException {
+        String str = "{\"@odata.context\":\"$metadata#Cubes(Name)\","
+            + "\"value\":[{\"PropertyInt16\": 1,\"PropertyString\": \"[{\\\"value\\\":]\"},"
+            + "{\"PropertyInt16\": 2,\"PropertyString\": \"}\"}],"
+            + "\"@odata.nextLink\":\"http://localhost/odata.svc/Cubes?%24skiptoken=2\"}";
+
+        InputStream stream = new ByteArrayInputStream(str.getBytes());
+        ODataClient oDataClient = ODataClientFactory.getClient();
+        ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+            new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+            oDataClient, stream, ContentType.parse(ContentType.JSON.toString()));
+
+        ArrayList<ClientEntity> entities = new ArrayList<ClientEntity>();
+        while (entitySetIterator.hasNext()) {
+            entities.add(entitySetIterator.next());
+        }
+
+        Assert.assertEquals(2, entities.size());
+        Assert.assertEquals("[{\"value\":]",
+            entities.get(0).getProperty("PropertyString").getPrimitiveValue().toString());
+        Assert.assertEquals("}", entities.get(1).getProperty("PropertyString").getPrimitiveValue().toString());
+        Assert.assertEquals("http://localhost/odata.svc/Cubes?%24skiptoken=2", entitySetIterator.getNext().toString());
+    }
+
+    @Test
+    public void testAtomEntitySetIterator() throws Exception {
+        ODataClient oDataClient = ODataClientFactory.getClient();
+        ClientEntitySet expected = oDataClient.getReader().readEntitySet(
+            getClass().getResourceAsStream("/org/apache/olingo/client/core/Customers.xml"),
+            ContentType.APPLICATION_ATOM_XML);
+
+        ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+            new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(oDataClient,
+            getClass().getResourceAsStream("/org/apache/olingo/client/core/Customers.xml"),
+            ContentType.APPLICATION_ATOM_XML);
+
+        ArrayList<ClientEntity> entities = new ArrayList<ClientEntity>();
+        while (entitySetIterator.hasNext()) {
+            entities.add(entitySetIterator.next());
+        }
+
+        Assert.assertEquals(expected.getEntities().size(), entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            Assert.assertEquals(expected.getEntities().get(i).getId(), entities.get(i).getId());
+            Assert.assertEquals(expected.getEntities().get(i).getProperties().size(),
+                entities.get(i).getProperties().size());
+            Assert.assertEquals(expected.getEntities().get(i).getNavigationLinks().size(),
+                entities.get(i).getNavigationLinks().size());
+        }
+        Assert.assertNull(entitySetIterator.getNext());
+    }
 }
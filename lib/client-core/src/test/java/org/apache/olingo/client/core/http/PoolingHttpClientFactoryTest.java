@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.URI;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.params.ConnRoutePNames;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.junit.After;
+import org.junit.Test;
+
+public class PoolingHttpClientFactoryTest {
+
+  private static final URI SERVICE_ROOT = URI.create("http://localhost:9080/odata.svc/");
+
+  private final PoolingHttpClientFactory factory = new PoolingHttpClientFactory(8, 4, 1000, 2000);
+
+  @After
+  public void shutdown() {
+    factory.shutdown();
+  }
+
+  @Test
+  public void clientsShareConnectionManager() {
+    final HttpClient first = factory.create(HttpMethod.GET, SERVICE_ROOT);
+    factory.close(first);
+    final HttpClient second = factory.create(HttpMethod.GET, SERVICE_ROOT);
+
+    assertSame(factory.getConnectionManager(), first.getConnectionManager());
+    assertSame(factory.getConnectionManager(), second.getConnectionManager());
+    assertEquals(8, factory.getConnectionManager().getMaxTotal());
+    assertEquals(4, factory.getConnectionManager().getDefaultMaxPerRoute());
+    factory.close(second);
+  }
+
+  @Test
+  public void basicAuthKeepsPooling() {
+    final BasicAuthHttpClientFactory basicAuth = new BasicAuthHttpClientFactory("user", "password", factory);
+    final DefaultHttpClient client = basicAuth.create(HttpMethod.GET, SERVICE_ROOT);
+
+    assertSame(factory.getConnectionManager(), client.getConnectionManager());
+    assertNotNull(client.getCredentialsProvider().getCredentials(
+        new AuthScope(SERVICE_ROOT.getHost(), SERVICE_ROOT.getPort())));
+    basicAuth.close(client);
+  }
+
+  @Test
+  public void ntlmAuthKeepsPooling() {
+    final NTLMAuthHttpClientFactory ntlmAuth =
+        new NTLMAuthHttpClientFactory("user", "password", "workstation", "domain", factory);
+    final DefaultHttpClient client = ntlmAuth.create(HttpMethod.GET, SERVICE_ROOT);
+
+    assertSame(factory.getConnectionManager(), client.getConnectionManager());
+    assertNotNull(client.getCredentialsProvider().getCredentials(AuthScope.ANY));
+    ntlmAuth.close(client);
+  }
+
+  @Test
+  public void proxyKeepsPooling() {
+    final ProxyWrappingHttpClientFactory proxy =
+        new ProxyWrappingHttpClientFactory(URI.create("http://proxy:3128"), factory);
+    final HttpClient client = proxy.create(HttpMethod.GET, SERVICE_ROOT);
+
+    assertSame(factory.getConnectionManager(), client.getConnectionManager());
+    assertEquals(new HttpHost("proxy", 3128), client.getParams().getParameter(ConnRoutePNames.DEFAULT_PROXY));
+    proxy.close(client);
+  }
+}
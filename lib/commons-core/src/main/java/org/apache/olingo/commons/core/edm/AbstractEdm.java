@@ -23,6 +23,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -41,61 +44,62 @@ import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
 
 public abstract class AbstractEdm implements Edm {
 
-  protected Map<String, EdmSchema> schemas;
-  protected List<EdmSchema> schemaList;
+  protected volatile Map<String, EdmSchema> schemas;
+  protected volatile List<EdmSchema> schemaList;
   private boolean isEntityDerivedFromES;
   private boolean isComplexDerivedFromES;
   private boolean isPreviousES;
 
   private final Map<FullQualifiedName, EdmEntityContainer> entityContainers =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityContainer>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityContainer>();
+  private volatile EdmEntityContainer defaultEntityContainer;
 
   private final Map<FullQualifiedName, EdmEnumType> enumTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEnumType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEnumType>();
 
   private final Map<FullQualifiedName, EdmTypeDefinition> typeDefinitions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTypeDefinition>());
+      new ConcurrentHashMap<FullQualifiedName, EdmTypeDefinition>();
 
   private final Map<FullQualifiedName, EdmEntityType> entityTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
 
   private final Map<FullQualifiedName, EdmComplexType> complexTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
 
   private final Map<FullQualifiedName, EdmAction> unboundActions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmAction>());
+      new ConcurrentHashMap<FullQualifiedName, EdmAction>();
 
-  private final Map<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<EdmFunction>>());
+  private final ConcurrentMap<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
+      new ConcurrentHashMap<FullQualifiedName, List<EdmFunction>>();
 
   private final Map<FunctionMapKey, EdmFunction> unboundFunctionsByKey =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+      new ConcurrentHashMap<FunctionMapKey, EdmFunction>();
 
   private final Map<ActionMapKey, EdmAction> boundActions =
-      Collections.synchronizedMap(new HashMap<ActionMapKey, EdmAction>());
+      new ConcurrentHashMap<ActionMapKey, EdmAction>();
 
   private final Map<FunctionMapKey, EdmFunction> boundFunctions =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+      new ConcurrentHashMap<FunctionMapKey, EdmFunction>();
 
   private final Map<FullQualifiedName, EdmTerm> terms =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTerm>());
+      new ConcurrentHashMap<FullQualifiedName, EdmTerm>();
 
   private final Map<TargetQualifierMapKey, EdmAnnotations> annotationGroups =
-      Collections.synchronizedMap(new HashMap<TargetQualifierMapKey, EdmAnnotations>());
+      new ConcurrentHashMap<TargetQualifierMapKey, EdmAnnotations>();
 
-  private Map<String, String> aliasToNamespaceInfo = null;
+  private volatile Map<String, String> aliasToNamespaceInfo = null;
   
   private final Map<FullQualifiedName, EdmEntityType> entityTypesWithAnnotations =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
   
   private final Map<FullQualifiedName, EdmEntityType> entityTypesDerivedFromES =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
   
   private final Map<FullQualifiedName, EdmComplexType> complexTypesWithAnnotations =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
   
   private final Map<FullQualifiedName, EdmComplexType> complexTypesDerivedFromES =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
 
   private Map<String, List<CsdlAnnotation>> annotationMap = 
       new HashMap<String, List<CsdlAnnotation>>();
@@ -116,22 +120,34 @@ public abstract class AbstractEdm implements Edm {
 
     EdmSchema schema = schemas.get(namespace);
     if (schema == null) {
-      schema = schemas.get(aliasToNamespaceInfo.get(namespace));
+      final String aliasNamespace = aliasToNamespaceInfo.get(namespace);
+      schema = aliasNamespace == null ? null : schemas.get(aliasNamespace);
     }
     return schema;
   }
 
-  private void initSchemas() {
+  private synchronized void initSchemas() {
+    if (schemaList != null) {
+      return;
+    }
     loadAliasToNamespaceInfo();
     Map<String, EdmSchema> localSchemas = createSchemas();
-    schemas = Collections.synchronizedMap(localSchemas);
+    schemas = Collections.unmodifiableMap(localSchemas);
 
-    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(schemas.values()));
+    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(localSchemas.values()));
   }
 
-  private void loadAliasToNamespaceInfo() {
-    Map<String, String> localAliasToNamespaceInfo = createAliasToNamespaceInfo();
-    aliasToNamespaceInfo = Collections.synchronizedMap(localAliasToNamespaceInfo);
+  private synchronized void loadAliasToNamespaceInfo() {
+    if (aliasToNamespaceInfo != null) {
+      return;
+    }
+    final Map<String, String> localAliasToNamespaceInfo = new ConcurrentHashMap<String, String>();
+    for (Map.Entry<String, String> entry : createAliasToNamespaceInfo().entrySet()) {
+      if (entry.getKey() != null && entry.getValue() != null) {
+        localAliasToNamespaceInfo.put(entry.getKey(), entry.getValue());
+      }
+    }
+    aliasToNamespaceInfo = localAliasToNamespaceInfo;
   }
 
   @Override
@@ -142,11 +158,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityContainer getEntityContainer(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityContainer container = entityContainers.get(fqn);
+    EdmEntityContainer container = fqn == null ? defaultEntityContainer : entityContainers.get(fqn);
     if (container == null) {
       container = createEntityContainer(fqn);
       if (container != null) {
-        entityContainers.put(fqn, container);
+        cacheEntityContainer(fqn, container);
         if (fqn == null) {
           entityContainers.put(new FullQualifiedName(container.getNamespace(), container.getName()), container);
         }
@@ -158,10 +174,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEnumType getEnumType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEnumType enumType = enumTypes.get(fqn);
+    EdmEnumType enumType = fqn == null ? null : enumTypes.get(fqn);
     if (enumType == null) {
       enumType = createEnumType(fqn);
-      if (enumType != null) {
+      if (enumType != null && fqn != null) {
         enumTypes.put(fqn, enumType);
       }
     }
@@ -171,10 +187,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmTypeDefinition getTypeDefinition(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmTypeDefinition typeDefinition = typeDefinitions.get(fqn);
+    EdmTypeDefinition typeDefinition = fqn == null ? null : typeDefinitions.get(fqn);
     if (typeDefinition == null) {
       typeDefinition = createTypeDefinition(fqn);
-      if (typeDefinition != null) {
+      if (typeDefinition != null && fqn != null) {
         typeDefinitions.put(fqn, typeDefinition);
       }
     }
@@ -184,10 +200,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityType getEntityType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityType entityType = entityTypes.get(fqn);
+    EdmEntityType entityType = fqn == null ? null : entityTypes.get(fqn);
     if (entityType == null) {
       entityType = createEntityType(fqn);
-      if (entityType != null) {
+      if (entityType != null && fqn != null) {
         entityTypes.put(fqn, entityType);
       }
     }
@@ -197,10 +213,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityType getEntityTypeWithAnnotations(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityType entityType = entityTypesWithAnnotations.get(fqn);
+    EdmEntityType entityType = fqn == null ? null : entityTypesWithAnnotations.get(fqn);
     if (entityType == null) {
       entityType = createEntityType(fqn);
-      if (entityType != null) {
+      if (entityType != null && fqn != null) {
           entityTypesWithAnnotations.put(fqn, entityType);
       }
     }
@@ -215,10 +231,10 @@ public abstract class AbstractEdm implements Edm {
     if (!isPreviousES() && getEntityContainer() != null) {
        getEntityContainer().getEntitySetsWithAnnotations();
     }
-    EdmEntityType entityType = entityTypesDerivedFromES.get(fqn);
+    EdmEntityType entityType = fqn == null ? null : entityTypesDerivedFromES.get(fqn);
     if (entityType == null) {
       entityType = createEntityType(fqn);
-      if (entityType != null) {
+      if (entityType != null && fqn != null) {
           entityTypesDerivedFromES.put(fqn, entityType);
       }
     }
@@ -233,10 +249,10 @@ public abstract class AbstractEdm implements Edm {
     if (!isPreviousES() && getEntityContainer() != null) {
        getEntityContainer().getEntitySetsWithAnnotations();
     }
-    EdmComplexType complexType = complexTypesDerivedFromES.get(fqn);
+    EdmComplexType complexType = fqn == null ? null : complexTypesDerivedFromES.get(fqn);
     if (complexType == null) {
       complexType = createComplexType(fqn);
-      if (complexType != null) {
+      if (complexType != null && fqn != null) {
           complexTypesDerivedFromES.put(fqn, complexType);
       }
     }
@@ -247,10 +263,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmComplexType getComplexType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmComplexType complexType = complexTypes.get(fqn);
+    EdmComplexType complexType = fqn == null ? null : complexTypes.get(fqn);
     if (complexType == null) {
       complexType = createComplexType(fqn);
-      if (complexType != null) {
+      if (complexType != null && fqn != null) {
         complexTypes.put(fqn, complexType);
       }
     }
@@ -260,10 +276,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmComplexType getComplexTypeWithAnnotations(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmComplexType complexType = complexTypesWithAnnotations.get(fqn);
+    EdmComplexType complexType = fqn == null ? null : complexTypesWithAnnotations.get(fqn);
     if (complexType == null) {
       complexType = createComplexType(fqn);
-      if (complexType != null) {
+      if (complexType != null && fqn != null) {
           complexTypesWithAnnotations.put(fqn, complexType);
       }
     }
@@ -274,11 +290,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmAction getUnboundAction(final FullQualifiedName actionName) {
     final FullQualifiedName fqn = resolvePossibleAlias(actionName);
-    EdmAction action = unboundActions.get(fqn);
+    EdmAction action = fqn == null ? null : unboundActions.get(fqn);
     if (action == null) {
       action = createUnboundAction(fqn);
-      if (action != null) {
-        unboundActions.put(actionName, action);
+      if (action != null && fqn != null) {
+        unboundActions.put(fqn, action);
       }
     }
 
@@ -307,10 +323,10 @@ public abstract class AbstractEdm implements Edm {
   public List<EdmFunction> getUnboundFunctions(final FullQualifiedName functionName) {
     final FullQualifiedName functionFqn = resolvePossibleAlias(functionName);
 
-    List<EdmFunction> functions = unboundFunctionsByName.get(functionFqn);
+    List<EdmFunction> functions = functionFqn == null ? null : unboundFunctionsByName.get(functionFqn);
     if (functions == null) {
       functions = createUnboundFunctions(functionFqn);
-      if (functions != null) {
+      if (functions != null && functionFqn != null) {
         unboundFunctionsByName.put(functionFqn, functions);
 
         for (EdmFunction unbound : functions) {
@@ -367,10 +383,10 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmTerm getTerm(final FullQualifiedName termName) {
     final FullQualifiedName fqn = resolvePossibleAlias(termName);
-    EdmTerm term = terms.get(fqn);
+    EdmTerm term = fqn == null ? null : terms.get(fqn);
     if (term == null) {
       term = createTerm(fqn);
-      if (term != null) {
+      if (term != null && fqn != null) {
         terms.put(fqn, term);
       }
     }
@@ -413,13 +429,20 @@ public abstract class AbstractEdm implements Edm {
   protected abstract Map<String, String> createAliasToNamespaceInfo();
 
   public void cacheAliasNamespaceInfo(final String alias, final String namespace) {
+    if (aliasToNamespaceInfo == null) {
+      loadAliasToNamespaceInfo();
+    }
     aliasToNamespaceInfo.put(alias, namespace);
   }
 
   protected abstract EdmEntityContainer createEntityContainer(FullQualifiedName containerName);
 
   public void cacheEntityContainer(final FullQualifiedName containerFQN, final EdmEntityContainer container) {
-    entityContainers.put(containerFQN, container);
+    if (containerFQN == null) {
+      defaultEntityContainer = container;
+    } else {
+      entityContainers.put(containerFQN, container);
+    }
   }
 
   protected abstract EdmEnumType createEnumType(FullQualifiedName enumName);
@@ -468,10 +491,15 @@ public abstract class AbstractEdm implements Edm {
     if (function.isBound()) {
       boundFunctions.put(key, function);
     } else {
-      if (!unboundFunctionsByName.containsKey(functionName)) {
-        unboundFunctionsByName.put(functionName, new ArrayList<EdmFunction>());
+      List<EdmFunction> functions = unboundFunctionsByName.get(functionName);
+      if (functions == null) {
+        functions = new CopyOnWriteArrayList<EdmFunction>();
+        final List<EdmFunction> cachedFunctions = unboundFunctionsByName.putIfAbsent(functionName, functions);
+        if (cachedFunctions != null) {
+          functions = cachedFunctions;
+        }
       }
-      unboundFunctionsByName.get(functionName).add(function);
+      functions.add(function);
 
       unboundFunctionsByKey.put(key, function);
     }
@@ -44,10 +44,10 @@ public abstract class AbstractEdmStructuredType extends EdmTypeImpl implements E
 
   private final CsdlStructuralType providerStructuredType;
 
-  private List<String> propertyNames;
-  private Map<String, EdmProperty> properties;
-  private List<String> navigationPropertyNames;
-  private Map<String, EdmNavigationProperty> navigationProperties;
+  private volatile List<String> propertyNames;
+  private volatile Map<String, EdmProperty> properties;
+  private volatile List<String> navigationPropertyNames;
+  private volatile Map<String, EdmNavigationProperty> navigationProperties;
 
   public AbstractEdmStructuredType(
       final Edm edm,
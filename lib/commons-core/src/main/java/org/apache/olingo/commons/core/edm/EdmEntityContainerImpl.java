@@ -20,9 +20,9 @@ package org.apache.olingo.commons.core.edm;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmActionImport;
@@ -51,28 +51,28 @@ import org.apache.olingo.commons.api.ex.ODataException;
 public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntityContainer {
 
   private final CsdlEdmProvider provider;
-  private CsdlEntityContainer container;
+  private volatile CsdlEntityContainer container;
 
   private final FullQualifiedName entityContainerName;
   private final FullQualifiedName parentContainerName;
 
-  private List<EdmSingleton> singletons;
-  private final Map<String, EdmSingleton> singletonCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmSingleton>());
-  private List<EdmEntitySet> entitySets;
-  private final Map<String, EdmEntitySet> entitySetCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmEntitySet>());
-  private List<EdmActionImport> actionImports;
-  private final Map<String, EdmActionImport> actionImportCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmActionImport>());
-  private List<EdmFunctionImport> functionImports;
-  private final Map<String, EdmFunctionImport> functionImportCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmFunctionImport>());
+  private volatile List<EdmSingleton> singletons;
+  private final Map<String, EdmSingleton> singletonCache =
+      new ConcurrentHashMap<String, EdmSingleton>();
+  private volatile List<EdmEntitySet> entitySets;
+  private final Map<String, EdmEntitySet> entitySetCache =
+      new ConcurrentHashMap<String, EdmEntitySet>();
+  private volatile List<EdmActionImport> actionImports;
+  private final Map<String, EdmActionImport> actionImportCache =
+      new ConcurrentHashMap<String, EdmActionImport>();
+  private volatile List<EdmFunctionImport> functionImports;
+  private final Map<String, EdmFunctionImport> functionImportCache =
+      new ConcurrentHashMap<String, EdmFunctionImport>();
 	  private boolean isAnnotationsIncluded = false;
-  private final Map<String, EdmEntitySet> entitySetWithAnnotationsCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmEntitySet>());
-  private final Map<String, EdmSingleton> singletonWithAnnotationsCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmSingleton>());
+  private final Map<String, EdmEntitySet> entitySetWithAnnotationsCache =
+      new ConcurrentHashMap<String, EdmEntitySet>();
+  private final Map<String, EdmSingleton> singletonWithAnnotationsCache =
+      new ConcurrentHashMap<String, EdmSingleton>();
   private boolean isSingletonAnnotationsIncluded = false;
   private final String SLASH = "/";
   private final String DOT = ".";
@@ -107,12 +107,12 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmSingleton getSingleton(final String singletonName) {
-    EdmSingleton singleton = singletonWithAnnotationsCache.get(singletonName);
+    EdmSingleton singleton = singletonName == null ? null : singletonWithAnnotationsCache.get(singletonName);
     if (singleton == null) {
-      singleton = singletonCache.get(singletonName);
+      singleton = singletonName == null ? null : singletonCache.get(singletonName);
       if (singleton == null) {
         singleton = createSingleton(singletonName);
-        if (singleton != null) {
+        if (singleton != null && singletonName != null) {
           if (isSingletonAnnotationsIncluded) {
             singletonWithAnnotationsCache.put(singletonName, singleton);
           } else {
@@ -126,12 +126,12 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmEntitySet getEntitySet(final String entitySetName) {
-    EdmEntitySet entitySet = entitySetWithAnnotationsCache.get(entitySetName);
+    EdmEntitySet entitySet = entitySetName == null ? null : entitySetWithAnnotationsCache.get(entitySetName);
     if (entitySet == null) {
-      entitySet = entitySetCache.get(entitySetName);
+      entitySet = entitySetName == null ? null : entitySetCache.get(entitySetName);
       if (entitySet == null) {
         entitySet = createEntitySet(entitySetName);
-        if (entitySet != null) {
+        if (entitySet != null && entitySetName != null) {
           if (isAnnotationsIncluded) {
             entitySetWithAnnotationsCache.put(entitySetName, entitySet);
           } else {
@@ -146,10 +146,10 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmActionImport getActionImport(final String actionImportName) {
-    EdmActionImport actionImport = actionImportCache.get(actionImportName);
+    EdmActionImport actionImport = actionImportName == null ? null : actionImportCache.get(actionImportName);
     if (actionImport == null) {
       actionImport = createActionImport(actionImportName);
-      if (actionImport != null) {
+      if (actionImport != null && actionImportName != null) {
         actionImportCache.put(actionImportName, actionImport);
       }
     }
@@ -158,10 +158,10 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmFunctionImport getFunctionImport(final String functionImportName) {
-    EdmFunctionImport functionImport = functionImportCache.get(functionImportName);
+    EdmFunctionImport functionImport = functionImportName == null ? null : functionImportCache.get(functionImportName);
     if (functionImport == null) {
       functionImport = createFunctionImport(functionImportName);
-      if (functionImport != null) {
+      if (functionImport != null && functionImportName != null) {
         functionImportCache.put(functionImportName, functionImport);
       }
     }
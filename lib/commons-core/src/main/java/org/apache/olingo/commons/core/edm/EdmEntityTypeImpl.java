@@ -37,13 +37,12 @@ import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
 public class EdmEntityTypeImpl extends AbstractEdmStructuredType implements EdmEntityType {
 
   private CsdlEntityType entityType;
-  private boolean baseTypeChecked = false;
+  private volatile boolean baseTypeChecked = false;
   private final boolean hasStream;
   protected EdmEntityType entityBaseType;
-  private final List<String> keyPredicateNames = Collections.synchronizedList(new ArrayList<String>());
-  private final Map<String, EdmKeyPropertyRef> keyPropertyRefs =
-      Collections.synchronizedMap(new LinkedHashMap<String, EdmKeyPropertyRef>());
-  private List<EdmKeyPropertyRef> keyPropertyRefsList;
+  private List<String> keyPredicateNames = Collections.emptyList();
+  private Map<String, EdmKeyPropertyRef> keyPropertyRefs = Collections.emptyMap();
+  private List<EdmKeyPropertyRef> keyPropertyRefsList = Collections.emptyList();
 
   public EdmEntityTypeImpl(final Edm edm, final FullQualifiedName name, final CsdlEntityType entityType) {
     super(edm, name, EdmTypeKind.ENTITY, entityType);
@@ -54,35 +53,40 @@ public class EdmEntityTypeImpl extends AbstractEdmStructuredType implements EdmE
   @Override
   protected void checkBaseType() {
     if (!baseTypeChecked) {
-      if (baseTypeName != null) {
-        baseType = buildBaseType(baseTypeName);
-        entityBaseType = (EdmEntityType) baseType;
-      }
-      if (baseType == null
-          || (baseType.isAbstract() && ((EdmEntityType) baseType).getKeyPropertyRefs().isEmpty())) {
-        final List<CsdlPropertyRef> key = entityType.getKey();
-        if (key != null) {
-          final List<EdmKeyPropertyRef> edmKey = new ArrayList<EdmKeyPropertyRef>();
-          for (CsdlPropertyRef ref : key) {
-            edmKey.add(new EdmKeyPropertyRefImpl(this, ref));
+      synchronized (this) {
+        if (!baseTypeChecked) {
+          if (baseTypeName != null) {
+            baseType = buildBaseType(baseTypeName);
+            entityBaseType = (EdmEntityType) baseType;
+          }
+          if (baseType == null
+              || (baseType.isAbstract() && ((EdmEntityType) baseType).getKeyPropertyRefs().isEmpty())) {
+            final List<CsdlPropertyRef> key = entityType.getKey();
+            if (key != null) {
+              final List<EdmKeyPropertyRef> edmKey = new ArrayList<EdmKeyPropertyRef>();
+              for (CsdlPropertyRef ref : key) {
+                edmKey.add(new EdmKeyPropertyRefImpl(this, ref));
+              }
+              setEdmKeyPropertyRef(edmKey);
+            }
           }
-          setEdmKeyPropertyRef(edmKey);
+          baseTypeChecked = true;
         }
       }
-      baseTypeChecked = true;
     }
   }
 
   protected void setEdmKeyPropertyRef(final List<EdmKeyPropertyRef> edmKey) {
+    final List<String> names = new ArrayList<String>();
+    final Map<String, EdmKeyPropertyRef> refs = new LinkedHashMap<String, EdmKeyPropertyRef>();
     for (EdmKeyPropertyRef ref : edmKey) {
-      if (ref.getAlias() == null) {
-        keyPredicateNames.add(ref.getName());
-        keyPropertyRefs.put(ref.getName(), ref);
-      } else {
-        keyPredicateNames.add(ref.getAlias());
-        keyPropertyRefs.put(ref.getAlias(), ref);
-      }
+      final String name = ref.getAlias() == null ? ref.getName() : ref.getAlias();
+      names.add(name);
+      refs.put(name, ref);
     }
+    keyPredicateNames = Collections.unmodifiableList(names);
+    keyPropertyRefs = Collections.unmodifiableMap(refs);
+    keyPropertyRefsList = Collections.unmodifiableList(new ArrayList<EdmKeyPropertyRef>(refs.values()));
   }
 
   @Override
@@ -109,19 +113,16 @@ public class EdmEntityTypeImpl extends AbstractEdmStructuredType implements EdmE
     if (keyPredicateNames.isEmpty() && baseType != null) {
       return entityBaseType.getKeyPredicateNames();
     }
-    return Collections.unmodifiableList(keyPredicateNames);
+    return keyPredicateNames;
   }
 
   @Override
   public List<EdmKeyPropertyRef> getKeyPropertyRefs() {
     checkBaseType();
-    if (keyPropertyRefsList == null) {
-      keyPropertyRefsList = new ArrayList<EdmKeyPropertyRef>(keyPropertyRefs.values());
-    }
     if (keyPropertyRefsList.isEmpty() && entityBaseType != null) {
       return entityBaseType.getKeyPropertyRefs();
     }
-    return Collections.unmodifiableList(keyPropertyRefsList);
+    return keyPropertyRefsList;
   }
 
   @Override
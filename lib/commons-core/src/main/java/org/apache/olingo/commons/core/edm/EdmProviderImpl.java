@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.edm.EdmAction;
 import org.apache.olingo.commons.api.edm.EdmAnnotations;
@@ -63,9 +64,9 @@ public class EdmProviderImpl extends AbstractEdm {
 
   private final CsdlEdmProvider provider;
   private final Map<FullQualifiedName, List<CsdlAction>> actionsMap =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<CsdlAction>>());
+      new ConcurrentHashMap<FullQualifiedName, List<CsdlAction>>();
   private final Map<FullQualifiedName, List<CsdlFunction>> functionsMap =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<CsdlFunction>>());
+      new ConcurrentHashMap<FullQualifiedName, List<CsdlFunction>>();
   private List<CsdlSchema> termSchemaDefinition = new ArrayList<CsdlSchema>();
 
   private final String SLASH = "/";
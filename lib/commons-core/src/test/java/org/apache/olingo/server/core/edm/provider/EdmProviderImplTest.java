@@ -28,7 +28,12 @@ import static org.mockito.Mockito.when;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.edm.Edm;
@@ -47,6 +52,7 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
 import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
 import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
@@ -248,4 +254,33 @@ public class EdmProviderImplTest {
 
     assertNull(edm.getAnnotationGroup(WRONG_FQN, null));
   }
+
+  @Test
+  public void concurrentLookups() throws Exception {
+    CsdlEdmProvider localProvider = mock(CsdlEdmProvider.class);
+    when(localProvider.getEntityType(FQN)).thenReturn(new CsdlEntityType().setName(FQN.getName())
+        .setKey(Collections.singletonList(new CsdlPropertyRef().setName("Id")))
+        .setProperties(Collections.singletonList(
+            new CsdlProperty().setName("Id").setType(new FullQualifiedName("Edm", "Int32")))));
+    final Edm localEdm = new EdmProviderImpl(localProvider);
+
+    List<Callable<List<String>>> tasks = new ArrayList<Callable<List<String>>>();
+    for (int i = 0; i < 20; i++) {
+      tasks.add(new Callable<List<String>>() {
+        @Override
+        public List<String> call() {
+          return localEdm.getEntityType(FQN).getKeyPredicateNames();
+        }
+      });
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (Future<List<String>> result : executor.invokeAll(tasks)) {
+        assertEquals(Collections.singletonList("Id"), result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertNull(localEdm.getEntityType(null));
+  }
 }
@@ -18,10 +18,15 @@
  */
 package org.apache.olingo.netty.server.api;
 
+import java.util.Map;
+import java.util.concurrent.Executor;
+
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
 
+import io.netty.channel.ChannelHandler;
+
 public abstract class ODataNetty extends OData {
 
   private static final String IMPLEMENTATION = "org.apache.olingo.netty.server.core.ODataNettyImpl";
@@ -53,4 +58,18 @@ public abstract class ODataNetty extends OData {
    */
   public abstract ODataNettyHandler createNettyHandler(ServiceMetadata serviceMetadata);
 
+  /**
+   * Creates a Netty channel handler which processes OData requests without an <code>HttpObjectAggregator</code>.
+   * The content chunks of a request are passed to the request body as they arrive, and the response body
+   * is written in chunks while the channel is writable.
+   * The channel handler must follow an <code>HttpServerCodec</code> in the pipeline;
+   * each channel needs an own instance.
+   *
+   * @param handler - handler with the registered processors, see {@link #createNettyHandler(ServiceMetadata)}
+   * @param executor - executor on which the requests are processed; must not be an event loop of the channel
+   * @param requestParameters - context path ("contextPath") and number of service-resolution segments ("split")
+   */
+  public abstract ChannelHandler createStreamingChannelHandler(ODataNettyHandler handler, Executor executor,
+      Map<String, String> requestParameters);
+
 }
@@ -39,7 +39,9 @@ import org.apache.olingo.server.api.serializer.EdmDeltaSerializer;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.SkipTokenHelper;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 /**
  * Root object for serving factory tasks and support loose coupling of implementation (core) from the API.
@@ -104,6 +106,7 @@ public abstract class OData {
 
   /**
    * Creates a new ODataHttpHandler for handling OData requests in an HTTP context.
+   * The handler can be shared by all requests, see {@link ODataHttpHandler}.
    *
    * @param serviceMetadata - metadata object required to handle an OData request
    */
@@ -200,6 +203,21 @@ public abstract class OData {
    */
   public abstract Preferences createPreferences(Collection<String> preferHeaders);
 
+  /**
+   * Creates a new cache for parsed request URIs.
+   * It can be registered at all handlers of a service, see {@link UriInfoCache}.
+   * @param maxEntries maximum number of cached URIs; the least recently used ones are removed first
+   */
+  public abstract UriInfoCache createUriInfoCache(int maxEntries);
+
+  /**
+   * Creates a new helper for opaque skiptokens in keyset-based server-driven paging.
+   * It can be used in Processor implementations, see {@link SkipTokenHelper}.
+   * @param secret the non-empty secret the skiptokens are signed with;
+   *               it must be the same for all helpers that should accept each other's skiptokens
+   */
+  public abstract SkipTokenHelper createSkipTokenHelper(byte[] secret);
+
   /**
    * Creates a DebugResponseHelper for the given debugFormat.
    * If the format is not supported no exception is thrown.
@@ -26,7 +26,12 @@ import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 
 /**
- * Handles HTTP requests as OData requests.
+ * <p>Handles HTTP requests as OData requests.</p>
+ * <p>A handler keeps no state of the requests it processes. The supported pattern is therefore
+ * to create the {@link ServiceMetadata} and the handler once, e.g., when the servlet is initialized,
+ * to register all processors and extensions, and then to use the handler for all requests,
+ * also concurrently. Registered processors and extensions are shared by all requests then
+ * and have to be thread-safe.</p>
  */
 public interface ODataHttpHandler extends ODataHandler {
 
@@ -52,4 +52,17 @@ public interface ServiceMetadata {
    * @return metadata ETag support
    */
   ServiceMetadataETagSupport getServiceMetadataETagSupport();
+
+  /**
+   * Loads the complete entity data model from the EDM provider.
+   * Otherwise the model is loaded lazily, piece by piece, when it is first accessed.
+   * Calling this method once at startup, before the service metadata is shared by
+   * request threads, leaves these threads with read-only lookups in the model.
+   * Errors in the EDM provider are reported here and not in the first request.
+   * <p>The default implementation does nothing; the model is then loaded lazily.</p>
+   * @return this service metadata
+   */
+  default ServiceMetadata preload() {
+    return this;
+  }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.async;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Executes requests with the preference <code>respond-async</code> asynchronously and stores their results.</p>
+ * <p>If registered at the ODataHttpHandler, the handler parses and validates such a request, submits its
+ * processing to this service, and immediately responds with <code>202 Accepted</code> and the URL of a
+ * status monitor in the <code>Location</code> header, so that long-running requests do not hold a
+ * thread of the servlet container. A GET request to the status monitor returns <code>202 Accepted</code>
+ * while the request is running and the complete response, serialized as <code>application/http</code>,
+ * once it has finished; a DELETE request cancels the request. Batch operations are always processed
+ * synchronously as part of their batch request.</p>
+ * <p>If the service does not accept a request, e.g., because too many results are pending,
+ * the request is processed synchronously. {@link DefaultAsyncService} is a default implementation.</p>
+ * <p>Implementations must be thread-safe.</p>
+ */
+public interface AsyncService extends OlingoExtension {
+
+  /** The status of an asynchronous request. */
+  enum Status {
+    /** The request has been accepted and its result has not been written completely yet. */
+    RUNNING,
+    /** The result of the request is available. */
+    COMPLETED,
+    /** The request is not known, e.g., because it has been cancelled or its result has expired. */
+    UNKNOWN
+  }
+
+  /** The processing of an asynchronous request. */
+  interface AsyncTask {
+    /**
+     * Processes the request and writes its response, serialized as <code>application/http</code>.
+     * @param output the stream for the result; it is closed by the service
+     * @throws IOException if the result cannot be written
+     */
+    void writeResult(OutputStream output) throws IOException;
+  }
+
+  /**
+   * Submits a request for asynchronous processing.
+   * @param task the processing of the request
+   * @return the ID of the request, to be used in the URL of its status monitor,
+   * or <code>null</code> if the request is not accepted and must be processed synchronously
+   */
+  String submit(AsyncTask task);
+
+  /**
+   * Gets the status of a request.
+   * @param id the ID of the request
+   * @return the status, never <code>null</code>
+   */
+  Status getStatus(String id);
+
+  /**
+   * Removes the result of a completed request from the service.
+   * @param id the ID of the request
+   * @return the result or <code>null</code> if the request is not completed
+   * @throws IOException if the stored result cannot be read
+   */
+  InputStream removeResult(String id) throws IOException;
+
+  /**
+   * Cancels a request and discards its result, if any.
+   * @param id the ID of the request
+   * @return <code>true</code> if the request has been known, <code>false</code> otherwise
+   */
+  boolean cancel(String id);
+}
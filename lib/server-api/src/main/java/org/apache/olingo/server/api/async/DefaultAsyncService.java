@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.async;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes asynchronous requests on a given executor and keeps their results in memory
+ * or, optionally, in files.
+ * <p>The number of requests which are running or whose results have not been retrieved yet is bounded;
+ * further requests are not accepted. A result is discarded if it has not been retrieved within its time
+ * to live, counted from the completion of the request. Expired results are evicted when a new request
+ * is submitted or when the expired request is accessed.</p>
+ * <p>If a spill directory is given, results larger than the spill threshold are written to temporary
+ * files in that directory instead of being kept in memory. The files are deleted when the result has been
+ * read, discarded, or cancelled.</p>
+ */
+public class DefaultAsyncService implements AsyncService {
+
+  private static final String FILE_PREFIX = "olingo-async-";
+  private static final String FILE_SUFFIX = ".http";
+
+  private final Executor executor;
+  private final int maxRequests;
+  private final long timeToLiveNanos;
+  private final File spillDirectory;
+  private final int spillThreshold;
+  private final ConcurrentMap<String, Request> requests = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a service which keeps all results in memory.
+   * @param executor the executor for the asynchronous requests
+   * @param maxRequests the maximum number of requests which are running or whose results are stored
+   * @param timeToLive the time a result is kept after the completion of its request
+   * @param unit the unit of the time to live
+   */
+  public DefaultAsyncService(final Executor executor, final int maxRequests,
+      final long timeToLive, final TimeUnit unit) {
+    this(executor, maxRequests, timeToLive, unit, null, 0);
+  }
+
+  /**
+   * Creates a service which writes results larger than the spill threshold to files.
+   * @param executor the executor for the asynchronous requests
+   * @param maxRequests the maximum number of requests which are running or whose results are stored
+   * @param timeToLive the time a result is kept after the completion of its request
+   * @param unit the unit of the time to live
+   * @param spillDirectory the directory for the result files or <code>null</code> to keep all results in memory
+   * @param spillThreshold the size in bytes up to which a result is kept in memory
+   */
+  public DefaultAsyncService(final Executor executor, final int maxRequests,
+      final long timeToLive, final TimeUnit unit, final File spillDirectory, final int spillThreshold) {
+    if (executor == null || maxRequests <= 0 || timeToLive <= 0 || unit == null) {
+      throw new IllegalArgumentException("An executor, a positive number of requests, "
+          + "and a positive time to live are required.");
+    }
+    this.executor = executor;
+    this.maxRequests = maxRequests;
+    timeToLiveNanos = unit.toNanos(timeToLive);
+    this.spillDirectory = spillDirectory;
+    this.spillThreshold = Math.max(spillThreshold, 0);
+  }
+
+  @Override
+  public String submit(final AsyncTask task) {
+    evictExpired();
+    final Request request = new Request(task);
+    synchronized (requests) {
+      if (requests.size() >= maxRequests) {
+        return null;
+      }
+      requests.put(request.id, request);
+    }
+    try {
+      executor.execute(request);
+    } catch (final RejectedExecutionException e) {
+      requests.remove(request.id);
+      return null;
+    }
+    return request.id;
+  }
+
+  @Override
+  public Status getStatus(final String id) {
+    final Request request = getRequest(id);
+    return request == null ? Status.UNKNOWN : request.status;
+  }
+
+  @Override
+  public InputStream removeResult(final String id) throws IOException {
+    final Request request = getRequest(id);
+    if (request == null || request.status != Status.COMPLETED || !requests.remove(id, request)) {
+      return null;
+    }
+    return request.openResult();
+  }
+
+  @Override
+  public boolean cancel(final String id) {
+    final Request request = requests.remove(id);
+    if (request == null) {
+      return false;
+    }
+    request.cancel();
+    return true;
+  }
+
+  private Request getRequest(final String id) {
+    final Request request = id == null ? null : requests.get(id);
+    if (request != null && request.isExpired(System.nanoTime())) {
+      if (requests.remove(id, request)) {
+        request.discard();
+      }
+      return null;
+    }
+    return request;
+  }
+
+  private void evictExpired() {
+    final long now = System.nanoTime();
+    for (final Request request : requests.values()) {
+      if (request.isExpired(now) && requests.remove(request.id, request)) {
+        request.discard();
+      }
+    }
+  }
+
+  private final class Request implements Runnable {
+    private final String id = UUID.randomUUID().toString();
+    private final AsyncTask task;
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelled;
+    private volatile long expires;
+    private Thread runner;
+    // Written before the status is set to COMPLETED.
+    private byte[] content;
+    private File file;
+
+    private Request(final AsyncTask task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (cancelled) {
+          return;
+        }
+        runner = Thread.currentThread();
+      }
+      final ResultOutputStream output = new ResultOutputStream();
+      boolean completed = false;
+      try {
+        task.writeResult(output);
+        output.close();
+        synchronized (this) {
+          content = output.getContent();
+          file = output.getFile();
+        }
+        expires = System.nanoTime() + timeToLiveNanos;
+        status = Status.COMPLETED;
+        completed = true;
+      } catch (final IOException e) {
+        // The request becomes unknown; its client gets a 404 from the status monitor.
+      } finally {
+        if (!completed) {
+          requests.remove(id, this);
+          output.discard();
+        }
+        synchronized (this) {
+          runner = null;
+          if (cancelled) {
+            // Clear the interrupt of the cancellation so that it does not hit the next task of the thread.
+            Thread.interrupted();
+          }
+        }
+      }
+      if (cancelled) {
+        discard();
+      }
+    }
+
+    private boolean isExpired(final long now) {
+      return status == Status.COMPLETED && now - expires > 0;
+    }
+
+    private InputStream openResult() throws IOException {
+      final byte[] resultContent;
+      final File resultFile;
+      synchronized (this) {
+        resultContent = content;
+        resultFile = file;
+        content = null;
+        file = null;
+      }
+      if (resultFile == null) {
+        return new ByteArrayInputStream(resultContent == null ? new byte[0] : resultContent);
+      }
+      return new FileInputStream(resultFile) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            resultFile.delete();
+          }
+        }
+      };
+    }
+
+    private void cancel() {
+      synchronized (this) {
+        cancelled = true;
+        if (runner != null) {
+          runner.interrupt();
+        }
+      }
+      discard();
+    }
+
+    private synchronized void discard() {
+      content = null;
+      if (file != null) {
+        file.delete();
+        file = null;
+      }
+    }
+  }
+
+  /** Keeps the result in memory up to the spill threshold and writes it to a file beyond. */
+  private final class ResultOutputStream extends OutputStream {
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private File file;
+    private OutputStream fileOutput;
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (fileOutput == null && spillDirectory != null && buffer.size() + len > spillThreshold) {
+        file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, spillDirectory);
+        fileOutput = new BufferedOutputStream(new FileOutputStream(file));
+        buffer.writeTo(fileOutput);
+        buffer = null;
+      }
+      if (fileOutput == null) {
+        buffer.write(b, off, len);
+      } else {
+        fileOutput.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (fileOutput != null) {
+        fileOutput.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (fileOutput != null) {
+        fileOutput.close();
+      }
+    }
+
+    private byte[] getContent() {
+      return buffer == null ? null : buffer.toByteArray();
+    }
+
+    private File getFile() {
+      return file;
+    }
+
+    private void discard() {
+      try {
+        close();
+      } catch (final IOException e) {
+        // The file is deleted anyway.
+      }
+      if (file != null) {
+        file.delete();
+      }
+    }
+  }
+}
@@ -17,6 +17,9 @@
  * under the License.
  */package org.apache.olingo.server.api.batch;
 
+ import java.util.ArrayList;
+ import java.util.List;
+
  import org.apache.olingo.server.api.ODataApplicationException;
  import org.apache.olingo.server.api.ODataLibraryException;
  import org.apache.olingo.server.api.ODataRequest;
@@ -60,6 +63,34 @@
    public ODataResponsePart handleBatchRequest(BatchRequestPart request)
        throws ODataApplicationException, ODataLibraryException;
 
+   /**
+    * Handles all BatchRequestParts of a batch request and keeps their order in the result.
+    * If a {@link ParallelBatchSupport} is registered, consecutive query operations outside of
+    * change sets are executed concurrently; otherwise each part is handled as in
+    * {@link #handleBatchRequest(BatchRequestPart)}.
+    * @param requests Requests to process
+    * @param continueOnError if <code>false</code>, no further parts are handled after the first
+    * part with an error response; the error response is the last one in the result
+    * <p>The default implementation handles the parts sequentially with
+    * {@link #handleBatchRequest(BatchRequestPart)}.</p>
+    * @return corresponding {@link ODataResponsePart}s
+    * @throws ODataApplicationException
+    * @throws ODataLibraryException
+    */
+   public default List<ODataResponsePart> handleBatchRequests(final List<BatchRequestPart> requests,
+       final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+     List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>(requests.size());
+     for (final BatchRequestPart request : requests) {
+       final ODataResponsePart responsePart = handleBatchRequest(request);
+       responseParts.add(responsePart);
+       final int statusCode = responsePart.getResponses().get(0).getStatusCode();
+       if (!continueOnError && statusCode >= 400 && statusCode <= 600) {
+         break;
+       }
+     }
+     return responseParts;
+   }
+
    /**
     * Extracts the boundary of a multipart/mixed header.
     * See RFC 2046#5.1
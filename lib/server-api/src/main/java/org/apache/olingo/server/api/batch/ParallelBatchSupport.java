@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.batch;
+
+import java.util.concurrent.Executor;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Enables the concurrent execution of independent operations of a batch request.</p>
+ * <p>If registered at the ODataHttpHandler, {@link BatchFacade#handleBatchRequests(java.util.List, boolean)}
+ * executes consecutive query (GET) operations outside of change sets concurrently on the executor
+ * returned by {@link #getExecutor()}. Change sets and all other operations are still executed one after
+ * the other, in the order of the batch request, so that they see the results of the preceding operations.</p>
+ * <p>The processors must support concurrent read requests if this extension is registered.</p>
+ */
+public interface ParallelBatchSupport extends OlingoExtension {
+
+  /**
+   * Gets the executor for independent batch operations.
+   * If the executor rejects an operation, the operation is executed in the thread of the batch request.
+   * @return the executor
+   */
+  Executor getExecutor();
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceSingleton;
+
+/**
+ * Aggregates the request durations per phase, resource kind and entity set.
+ * <p>The resource kind is the kind of the last resource-path segment, e.g., <code>entitySet</code>
+ * or <code>navigationProperty</code>, for requests to resources and the kind of the URI,
+ * e.g., <code>metadata</code> or <code>batch</code>, otherwise. The entity set is the entity set
+ * or singleton addressed by the first resource-path segment, if any.</p>
+ * <p>The durations are counted in histograms with one bucket per power of two nanoseconds,
+ * so percentiles are accurate up to a factor of two. Recording does not lock.</p>
+ */
+public class DefaultRequestMetrics implements RequestMetrics {
+
+  private static final String UNKNOWN = "unknown";
+
+  private final ConcurrentMap<Key, Statistics> statistics = new ConcurrentHashMap<>();
+
+  @Override
+  public void record(final Phase phase, final UriInfo uriInfo, final long durationNanos) {
+    final Key key = new Key(phase, getResourceKind(uriInfo), getEntitySet(uriInfo));
+    Statistics entry = statistics.get(key);
+    if (entry == null) {
+      entry = statistics.computeIfAbsent(key, Statistics::new);
+    }
+    entry.add(durationNanos);
+  }
+
+  /**
+   * Gets the statistics of all combinations of phase, resource kind and entity set
+   * for which durations have been recorded.
+   * The statistics are updated by later requests.
+   * @return the statistics, in no particular order
+   */
+  public List<Statistics> getStatistics() {
+    return Collections.unmodifiableList(new ArrayList<>(statistics.values()));
+  }
+
+  /** Removes all recorded durations. */
+  public void clear() {
+    statistics.clear();
+  }
+
+  private String getResourceKind(final UriInfo uriInfo) {
+    if (uriInfo == null) {
+      return UNKNOWN;
+    } else if (uriInfo.getKind() == UriInfoKind.resource) {
+      final List<UriResource> parts = uriInfo.getUriResourceParts();
+      return parts.isEmpty() ? UNKNOWN : parts.get(parts.size() - 1).getKind().name();
+    } else {
+      return uriInfo.getKind().name();
+    }
+  }
+
+  private String getEntitySet(final UriInfo uriInfo) {
+    if (uriInfo == null || uriInfo.getKind() != UriInfoKind.resource || uriInfo.getUriResourceParts().isEmpty()) {
+      return null;
+    }
+    final UriResource first = uriInfo.getUriResourceParts().get(0);
+    if (first instanceof UriResourceEntitySet) {
+      return ((UriResourceEntitySet) first).getEntitySet().getName();
+    } else if (first instanceof UriResourceSingleton) {
+      return ((UriResourceSingleton) first).getSingleton().getName();
+    } else {
+      return null;
+    }
+  }
+
+  /** The recorded durations of one phase for one resource kind and entity set. */
+  public static final class Statistics {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final Key key;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    private Statistics(final Key key) {
+      this.key = key;
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    private void add(final long durationNanos) {
+      final long duration = Math.max(durationNanos, 0);
+      count.increment();
+      total.add(duration);
+      max.accumulate(duration);
+      // Bucket i counts the durations from 2^i to 2^(i+1)-1 nanoseconds; bucket 0 also counts 0.
+      buckets[duration == 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(duration)].increment();
+    }
+
+    public Phase getPhase() {
+      return key.phase;
+    }
+
+    public String getResourceKind() {
+      return key.resourceKind;
+    }
+
+    /** Gets the name of the entity set or singleton or <code>null</code> if the request addressed none. */
+    public String getEntitySet() {
+      return key.entitySet;
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getTotalNanos() {
+      return total.sum();
+    }
+
+    public long getMaxNanos() {
+      return max.get();
+    }
+
+    /**
+     * Gets an upper bound of the given percentile of the durations.
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound in nanoseconds, at most twice the exact value, or 0 if no durations are recorded
+     */
+    public long getPercentileNanos(final double percentile) {
+      final long[] counts = new long[BUCKETS];
+      long sum = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] = buckets[i].sum();
+        sum += counts[i];
+      }
+      final long rank = (long) Math.ceil(sum * Math.min(Math.max(percentile, 0), 100) / 100);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMaxNanos());
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return key.phase + " " + key.resourceKind + (key.entitySet == null ? "" : " " + key.entitySet)
+          + ": count: " + getCount() + ", total: " + getTotalNanos() + ", max: " + getMaxNanos();
+    }
+  }
+
+  private static final class Key {
+    private final Phase phase;
+    private final String resourceKind;
+    private final String entitySet;
+
+    private Key(final Phase phase, final String resourceKind, final String entitySet) {
+      this.phase = phase;
+      this.resourceKind = resourceKind;
+      this.entitySet = entitySet;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return phase == other.phase && resourceKind.equals(other.resourceKind)
+          && (entitySet == null ? other.entitySet == null : entitySet.equals(other.entitySet));
+    }
+
+    @Override
+    public int hashCode() {
+      return (phase.hashCode() * 31 + resourceKind.hashCode()) * 31 + (entitySet == null ? 0 : entitySet.hashCode());
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.debug;
+
+import org.apache.olingo.server.api.OlingoExtension;
+import org.apache.olingo.server.api.uri.UriInfo;
+
+/**
+ * Receives the processing times of all requests, independent of the debug mode.
+ * <p>If registered at the ODataHttpHandler, the handler reports the duration of each
+ * {@link Phase phase} of each request, including the parts of batch requests.
+ * Implementations are called concurrently by all requests and must therefore be thread-safe
+ * and fast; {@link DefaultRequestMetrics} aggregates the durations in lock-free histograms.
+ * If no request metrics are registered, the durations are not measured at all.</p>
+ */
+public interface RequestMetrics extends OlingoExtension {
+
+  /** The measured phases of a request. */
+  enum Phase {
+    /** Parsing of the resource path and the query options. */
+    PARSE,
+    /** Validation of the parsed URI against the HTTP method. */
+    VALIDATE,
+    /** Dispatching to the processor and its execution, including the serialization done by the processor. */
+    PROCESS,
+    /** Writing of the response body, including the serialization of streamed content. */
+    WRITE,
+    /** The complete request, from reading the HTTP request to writing the response. */
+    REQUEST
+  }
+
+  /**
+   * Records the duration of one phase of a request.
+   * This method must not throw an exception.
+   * @param phase the phase
+   * @param uriInfo the URI of the request or <code>null</code> if it could not be parsed
+   * @param durationNanos the duration in nanoseconds
+   */
+  void record(Phase phase, UriInfo uriInfo, long durationNanos);
+}
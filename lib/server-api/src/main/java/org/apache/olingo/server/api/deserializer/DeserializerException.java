@@ -60,7 +60,8 @@ public class DeserializerException extends ODataLibraryException {
     /** parameter: action parameter name */
     INVALID_ACTION_PARAMETER_TYPE,
     /** parameter: parameterName */
-    INVALID_NULL_PARAMETER;
+    INVALID_NULL_PARAMETER,
+    INVALID_SKIPTOKEN;
 
     @Override
     public String getKey() {
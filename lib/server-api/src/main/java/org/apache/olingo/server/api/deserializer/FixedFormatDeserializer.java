@@ -19,7 +19,9 @@
 package org.apache.olingo.server.api.deserializer;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.edm.EdmParameter;
@@ -27,6 +29,7 @@ import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 
 public interface FixedFormatDeserializer {
 
@@ -60,4 +63,38 @@ public interface FixedFormatDeserializer {
    */
   public List<BatchRequestPart> parseBatchRequest(InputStream content, String boundary, BatchOptions options)
       throws BatchDeserializerException;
+
+  /**
+   * Reads batch data from an InputStream part by part.
+   * In contrast to {@link #parseBatchRequest(InputStream, String, BatchOptions)} the content is not read
+   * completely in advance but only as far as needed for the part returned next.
+   * <p>The default implementation reads all parts with
+   * {@link #parseBatchRequest(InputStream, String, BatchOptions)} when the first part is requested.</p>
+   * @param content the data as multipart input stream
+   * @param boundary the boundary between the parts
+   * @param options options for the deserializer
+   * @return an iterator over the batch-request parts
+   */
+  public default BatchRequestPartIterator parseBatchRequestIncrementally(final InputStream content,
+      final String boundary, final BatchOptions options) {
+    return new BatchRequestPartIterator() {
+      private Iterator<BatchRequestPart> parts;
+
+      @Override
+      public boolean hasNext() throws BatchDeserializerException {
+        if (parts == null) {
+          parts = parseBatchRequest(content, boundary, options).iterator();
+        }
+        return parts.hasNext();
+      }
+
+      @Override
+      public BatchRequestPart next() throws BatchDeserializerException {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return parts.next();
+      }
+    };
+  }
 }
@@ -19,7 +19,10 @@
 package org.apache.olingo.server.api.deserializer;
 
 import java.io.InputStream;
+import java.util.Iterator;
 
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmAction;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmProperty;
@@ -51,6 +54,36 @@ public interface ODataDeserializer {
    */
   DeserializerResult entityCollection(InputStream stream, EdmEntityType edmEntityType) throws DeserializerException;
 
+  /**
+   * Deserializes an entity collection stream into an {@link EntityIterator}.
+   * The entities are read from the stream one by one while iterating, so the stream
+   * must not be closed before the iteration has been finished.
+   * Deserialization errors during iteration are reported as
+   * {@link org.apache.olingo.commons.api.ex.ODataRuntimeException ODataRuntimeException}
+   * with the {@link DeserializerException} as cause.
+   * <p>The default implementation reads the complete collection with
+   * {@link #entityCollection(InputStream, EdmEntityType)} and iterates over its entities.</p>
+   * @param stream
+   * @param edmEntityType
+   * @return iterator over the deserialized entities
+   * @throws DeserializerException
+   */
+  default EntityIterator entityCollectionStreamed(final InputStream stream, final EdmEntityType edmEntityType)
+      throws DeserializerException {
+    final Iterator<Entity> entityIterator = entityCollection(stream, edmEntityType).getEntityCollection().iterator();
+    return new EntityIterator() {
+      @Override
+      public boolean hasNext() {
+        return entityIterator.hasNext();
+      }
+
+      @Override
+      public Entity next() {
+        return entityIterator.next();
+      }
+    };
+  }
+
   /**
    * Deserializes an action-parameters stream into a map of key/value pairs.
    * Validates: parameter types, no double parameters, correct json types.
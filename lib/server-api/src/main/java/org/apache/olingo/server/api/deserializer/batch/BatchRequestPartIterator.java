@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.deserializer.batch;
+
+/**
+ * Reads the parts of a batch request one after the other from the request body.
+ * Only the part currently read is held in memory, so the processing of the first parts
+ * can start while the later parts have not been received yet.
+ */
+public interface BatchRequestPartIterator {
+
+  /**
+   * Reads ahead to the next part if necessary and tells whether there is one.
+   * @return true if there is another part
+   * @throws BatchDeserializerException if the next part or the end of the batch request is malformed
+   */
+  boolean hasNext() throws BatchDeserializerException;
+
+  /**
+   * Gets the next part of the batch request.
+   * @return the next {@link BatchRequestPart}
+   * @throws BatchDeserializerException if the next part is malformed
+   * @throws java.util.NoSuchElementException if there are no more parts
+   */
+  BatchRequestPart next() throws BatchDeserializerException;
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataContentWriteErrorCallback;
+import org.apache.olingo.server.api.ODataContentWriteErrorContext;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+
+/**
+ * Batch-response content which collects all parts and serializes them with
+ * {@link FixedFormatSerializer#batchResponse(List, String)} when the content is written.
+ */
+final class BufferedBatchContent implements ODataContent {
+
+  private static final int BUFFER_SIZE = 4096;
+
+  private final FixedFormatSerializer serializer;
+  private final Iterator<ODataResponsePart> responses;
+  private final String boundary;
+  private final ODataContentWriteErrorCallback errorCallback;
+
+  BufferedBatchContent(final FixedFormatSerializer serializer, final Iterator<ODataResponsePart> responses,
+      final String boundary, final ODataContentWriteErrorCallback errorCallback) {
+    this.serializer = serializer;
+    this.responses = responses;
+    this.boundary = boundary;
+    this.errorCallback = errorCallback;
+  }
+
+  @Override
+  public void write(final WritableByteChannel channel) {
+    write(Channels.newOutputStream(channel));
+  }
+
+  @Override
+  public void write(final OutputStream stream) {
+    List<ODataResponsePart> parts = new ArrayList<ODataResponsePart>();
+    while (responses.hasNext()) {
+      parts.add(responses.next());
+    }
+    try {
+      final InputStream content = serializer.batchResponse(parts, boundary);
+      try {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = content.read(buffer)) > -1) {
+          stream.write(buffer, 0, count);
+        }
+        stream.flush();
+      } finally {
+        content.close();
+      }
+    } catch (final BatchSerializerException e) {
+      if (errorCallback != null) {
+        errorCallback.handleError(new ODataContentWriteErrorContext() {
+          @Override
+          public Exception getException() {
+            return e;
+          }
+
+          @Override
+          public ODataLibraryException getODataLibraryException() {
+            return e;
+          }
+        }, Channels.newChannel(stream));
+      }
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Failed batch response serialization", e);
+    }
+  }
+}
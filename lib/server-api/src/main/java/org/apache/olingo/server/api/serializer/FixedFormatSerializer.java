@@ -19,9 +19,12 @@
 package org.apache.olingo.server.api.serializer;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataContentWriteErrorCallback;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 
@@ -57,6 +60,24 @@ public interface FixedFormatSerializer {
    */
   InputStream batchResponse(List<ODataResponsePart> batchResponses, String boundary) throws BatchSerializerException;
 
+  /**
+   * Serializes a batch response into a content which writes each part directly to the output
+   * as soon as the part is taken from the iterator.
+   * The part bodies, also those given as {@link ODataContent}, are not buffered,
+   * so the parts carry no computed Content-Length header.
+   * <br/>
+   * The default implementation collects all parts and writes the result of
+   * {@link #batchResponse(List, String)}.
+   * @param batchResponses the response parts
+   * @param boundary the boundary between the parts
+   * @param errorCallback called if the serialization fails while writing (may be null)
+   * @return the streamed response content
+   */
+  default ODataContent batchResponseStreamed(final Iterator<ODataResponsePart> batchResponses,
+      final String boundary, final ODataContentWriteErrorCallback errorCallback) {
+    return new BufferedBatchContent(this, batchResponses, boundary, errorCallback);
+  }
+
   /**
    * Serializes a ODataResponse into an async response.
    * @param odataResponse the response parts
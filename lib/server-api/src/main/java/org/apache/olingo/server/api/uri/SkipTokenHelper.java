@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.uri;
+
+import java.util.List;
+
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.serializer.SerializerException;
+
+/**
+ * Creates and reads opaque skiptokens for keyset-based server-driven paging.
+ * <p>Instead of counting the entities already delivered, the skiptoken of a next link
+ * contains the position of the last delivered entity: typically the values of the
+ * $orderby expressions for this entity followed by its key values as tie-breaker.
+ * A processor can then continue directly after this position, independent of how many
+ * pages have been delivered before, e.g., with an <code>EntityIterator</code> over
+ * a data source that is sorted the same way.</p>
+ * <p>The skiptokens are signed with the secret of the helper, so a skiptoken is only accepted
+ * if it has been created by a helper with the same secret and for the same scope.
+ * The scope should describe what the position refers to, e.g., the resource path and the
+ * $orderby option of the request; a skiptoken cannot be used in a request with a different scope then.
+ * Skiptokens are signed, not encrypted; their values must not be secret.</p>
+ * <p>Supported values are <code>null</code> and instances of String, Boolean, Byte, Short, Integer, Long,
+ * Float, Double, BigDecimal, BigInteger, UUID, Calendar, Date, java.sql.Timestamp, and byte arrays.
+ * Values are read as instances of the same classes they have been created with
+ * (Calendar values as GregorianCalendar with the same time zone).</p>
+ */
+public interface SkipTokenHelper {
+
+  /**
+   * Creates a skiptoken for the given position.
+   * @param values the values describing the position, e.g., the $orderby values and key values of an entity
+   * @param scope  what the position refers to; the same scope must be used to read the skiptoken
+   * @return the skiptoken, consisting only of characters that need not be percent-encoded in URIs
+   * @throws SerializerException if a value is not supported
+   */
+  String createSkipToken(List<Object> values, String scope) throws SerializerException;
+
+  /**
+   * Reads a skiptoken created by {@link #createSkipToken(List, String)}.
+   * @param skipToken the skiptoken
+   * @param scope     the scope the skiptoken must have been created for
+   * @return the values describing the position
+   * @throws DeserializerException if the skiptoken is malformed, has been modified,
+   *                               or has been created with another secret or for another scope
+   */
+  List<Object> readSkipToken(String skipToken, String scope) throws DeserializerException;
+}
@@ -84,4 +84,5 @@ public interface UriHelper {
    * @throws DeserializerException in case the entity-id is malformed
    */
   UriResourceEntitySet parseEntityId(Edm edm, String entityId, String rawServiceRoot) throws DeserializerException;
+
 }
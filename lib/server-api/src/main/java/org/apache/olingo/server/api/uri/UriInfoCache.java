@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.uri;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * Cache for parsed and validated request URIs.
+ * <p>If registered at the ODataHttpHandler, a request whose method, resource path, query,
+ * base URI and EDM are the same as those of an earlier request reuses the {@link UriInfo}
+ * of that request instead of parsing and validating the URI again.
+ * The same cache instance can be registered at all handlers of a service.</p>
+ * <p>Cached {@link UriInfo} objects are shared between requests, also concurrently;
+ * processors must therefore not modify them.</p>
+ * <p>Implementations must be thread-safe.</p>
+ */
+public interface UriInfoCache extends OlingoExtension {
+
+  /**
+   * Gets the URI info of an earlier request with the same properties.
+   * The EDM is compared by identity.
+   * @param edm     the EDM of the service
+   * @param method  the request method
+   * @param path    the raw resource path
+   * @param query   the raw query, or <code>null</code>
+   * @param baseUri the raw base URI
+   * @return the cached URI info or <code>null</code>
+   */
+  UriInfo get(Edm edm, HttpMethod method, String path, String query, String baseUri);
+
+  /**
+   * Caches the URI info of a request; it has been validated for the request method.
+   * @param edm     the EDM of the service
+   * @param method  the request method
+   * @param path    the raw resource path
+   * @param query   the raw query, or <code>null</code>
+   * @param baseUri the raw base URI
+   * @param uriInfo the URI info to be cached
+   */
+  void put(Edm edm, HttpMethod method, String path, String query, String baseUri, UriInfo uriInfo);
+
+  /** Gets the number of requests that could use a cached URI info. */
+  long getHitCount();
+
+  /** Gets the number of requests whose URI had to be parsed. */
+  long getMissCount();
+
+  /** Gets the current number of cached URI info objects. */
+  int size();
+
+  /** Removes all cached URI info objects. */
+  void clear();
+}
@@ -37,6 +37,7 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ServiceDispatcher;
@@ -68,13 +69,14 @@ public class BatchRequest extends ServiceRequest {
     final BatchOptions options = BatchOptions.with().rawBaseUri(request.getRawBaseUri())
         .rawServiceResolutionUri(this.request.getRawServiceResolutionUri()).build();
 
-    final List<BatchRequestPart> parts = this.odata.createFixedFormatDeserializer()
-        .parseBatchRequest(request.getBody(), boundary, options);
+    final BatchRequestPartIterator parts = this.odata.createFixedFormatDeserializer()
+        .parseBatchRequestIncrementally(request.getBody(), boundary, options);
 
     ODataResponsePart partResponse = null;
     final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
 
-    for (BatchRequestPart part : parts) {
+    while (parts.hasNext()) {
+      final BatchRequestPart part = parts.next();
       if (part.isChangeSet()) {
         String txnId = null;
         try {
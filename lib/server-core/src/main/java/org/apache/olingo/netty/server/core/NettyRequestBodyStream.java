@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * Request body which is read while its content chunks are still being received.
+ * <p>The chunks are queued by the event loop of the channel and read by the thread which processes the request.
+ * If more than {@link #MAX_QUEUED_BYTES} bytes are queued, the channel stops reading from the connection
+ * until the processing thread has read half of them.</p>
+ */
+class NettyRequestBodyStream extends InputStream {
+
+  static final int MAX_QUEUED_BYTES = 64 * 1024;
+
+  private final Channel channel;
+  private final Deque<ByteBuf> chunks = new ArrayDeque<ByteBuf>();
+  private int queuedBytes = 0;
+  private boolean readSuspended = false;
+  private boolean ended = false;
+  private boolean closed = false;
+  private IOException failure;
+
+  NettyRequestBodyStream(final Channel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Adds a content chunk; the stream takes over the ownership of the buffer.
+   * @param chunk the content chunk
+   */
+  synchronized void offer(final ByteBuf chunk) {
+    if (closed || !chunk.isReadable()) {
+      chunk.release();
+      return;
+    }
+    chunks.add(chunk);
+    queuedBytes += chunk.readableBytes();
+    if (queuedBytes > MAX_QUEUED_BYTES && !readSuspended) {
+      readSuspended = true;
+      channel.config().setAutoRead(false);
+    }
+    notifyAll();
+  }
+
+  /** Marks the end of the body; all chunks have been offered. */
+  synchronized void end() {
+    ended = true;
+    notifyAll();
+  }
+
+  /**
+   * Lets all further reads fail, e.g., if the connection has been closed before the body was complete.
+   * @param exception the exception to be thrown by the reads
+   */
+  synchronized void fail(final IOException exception) {
+    failure = exception;
+    notifyAll();
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+  }
+
+  @Override
+  public synchronized int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    final ByteBuf chunk = awaitChunk();
+    if (chunk == null) {
+      return -1;
+    }
+    final int count = Math.min(len, chunk.readableBytes());
+    chunk.readBytes(b, off, count);
+    queuedBytes -= count;
+    if (!chunk.isReadable()) {
+      chunks.poll().release();
+    }
+    if (readSuspended && queuedBytes <= MAX_QUEUED_BYTES / 2) {
+      resumeRead();
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized int available() {
+    return queuedBytes;
+  }
+
+  /** Releases all queued chunks; chunks offered later are released immediately. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    for (final ByteBuf chunk : chunks) {
+      chunk.release();
+    }
+    chunks.clear();
+    queuedBytes = 0;
+    if (readSuspended) {
+      resumeRead();
+    }
+    notifyAll();
+  }
+
+  private ByteBuf awaitChunk() throws IOException {
+    while (chunks.isEmpty()) {
+      if (closed) {
+        throw new IOException("Request body has been closed.");
+      } else if (failure != null) {
+        throw failure;
+      } else if (ended) {
+        return null;
+      }
+      try {
+        wait();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the request body.");
+      }
+    }
+    return chunks.peek();
+  }
+
+  private void resumeRead() {
+    readSuspended = false;
+    channel.config().setAutoRead(true);
+  }
+}
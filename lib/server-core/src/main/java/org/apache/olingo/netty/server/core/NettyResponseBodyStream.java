@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+
+/**
+ * Response body which is written to the channel in chunks of {@link ODataNettyHandlerImpl#COPY_BUFFER_SIZE} bytes.
+ * <p>The writing thread waits while the channel is not writable, i.e., while the outbound buffer
+ * of the channel is above its high water mark, so a slow client cannot make the server buffer
+ * the whole response.</p>
+ */
+class NettyResponseBodyStream extends OutputStream {
+
+  private static final int CHUNK_SIZE = ODataNettyHandlerImpl.COPY_BUFFER_SIZE;
+
+  private final Channel channel;
+  private ByteBuf buffer;
+
+  NettyResponseBodyStream(final Channel channel) {
+    this.channel = channel;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      if (buffer == null) {
+        buffer = channel.alloc().buffer(CHUNK_SIZE, CHUNK_SIZE);
+      }
+      final int count = Math.min(remaining, buffer.maxCapacity() - buffer.writerIndex());
+      buffer.writeBytes(b, offset, count);
+      offset += count;
+      remaining -= count;
+      if (buffer.writerIndex() == buffer.maxCapacity()) {
+        flush();
+      }
+    }
+  }
+
+  /** Writes the buffered bytes as one chunk once the channel is writable. */
+  @Override
+  public void flush() throws IOException {
+    if (buffer != null && buffer.isReadable()) {
+      awaitWritable();
+      channel.writeAndFlush(new DefaultHttpContent(buffer));
+      buffer = null;
+    }
+  }
+
+  /** Writes the remaining bytes; the last chunk of the response is not written. */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      discard();
+    }
+  }
+
+  /** Releases the buffered bytes without writing them, e.g., after the serialization has failed. */
+  void discard() {
+    if (buffer != null) {
+      buffer.release();
+      buffer = null;
+    }
+  }
+
+  /** Wakes up the writing thread; to be called whenever the writability or the state of the channel changes. */
+  synchronized void writabilityChanged() {
+    notifyAll();
+  }
+
+  private synchronized void awaitWritable() throws IOException {
+    while (!channel.isWritable()) {
+      if (!channel.isActive()) {
+        throw new IOException("Connection has been closed.");
+      }
+      try {
+        wait();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the connection.");
+      }
+    }
+  }
+}
@@ -61,8 +61,8 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 
   public static final int COPY_BUFFER_SIZE = 8192;
 
+  private final OData odata;
   private final ODataHandlerImpl handler;
-  private final ServerCoreDebugger debugger;
   
   private static final String CONTEXT_PATH = "contextPath";
   private static final String SPLIT = "split";
@@ -70,11 +70,12 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
   private int split = 0;
 
   public ODataNettyHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata) {
-    debugger = new ServerCoreDebugger(odata);
-    handler = new ODataHandlerImpl(odata, serviceMetadata, debugger);
+    this.odata = odata;
+    handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
   }
   
-  private ODataResponse handleException(final ODataRequest odRequest, final Exception e) {
+  private ODataResponse handleException(final ODataHandlerImpl requestHandler, final ODataRequest odRequest,
+      final Exception e) {
     ODataResponse resp = new ODataResponse();
     ODataServerError serverError;
     if (e instanceof ODataHandlerException) {
@@ -84,7 +85,7 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
     } else {
       serverError = ODataExceptionHelper.createServerErrorObject(e);
     }
-    handler.handleException(odRequest, resp, serverError, e);
+    requestHandler.handleException(odRequest, resp, serverError, e);
     return resp;
   }
   
@@ -158,18 +159,19 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
    * Extract the information part of Netty Request and fill OData Request
    * @param odRequest
    * @param httpRequest
+   * @param body
    * @param split
    * @param contextPath
+   * @param debugger
    * @return
    * @throws ODataLibraryException
    */
   private ODataRequest fillODataRequest(final ODataRequest odRequest, final HttpRequest httpRequest,
-	      final int split, final String contextPath) throws ODataLibraryException {
+	      final InputStream body, final int split, final String contextPath, final ServerCoreDebugger debugger)
+	      throws ODataLibraryException {
 	    final int requestHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillODataRequest");
 	    try {
-	    	ByteBuf byteBuf = ((HttpContent)httpRequest).content();
-	    	ByteBufInputStream inputStream = new ByteBufInputStream(byteBuf);
-	      odRequest.setBody(inputStream);
+	      odRequest.setBody(body);
 	      
 	      odRequest.setProtocol(httpRequest.protocolVersion().text());
 	      odRequest.setMethod(extractMethod(httpRequest));
@@ -295,30 +297,43 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	  }
   }
   
-@SuppressWarnings("unused")
 @Override
 public void processNettyRequest(HttpRequest request, HttpResponse response, 
 		Map<String, String> requestParameters) {
-	  ODataRequest odRequest = new ODataRequest();
-    Exception exception = null;
+    final ByteBuf byteBuf = ((HttpContent) request).content();
+    convertToHttp(response, process(request, new ByteBufInputStream(byteBuf), requestParameters));
+  }
+
+  /**
+   * Processes a Netty request whose body is read from the given stream,
+   * e.g., while the body is still being received.
+   * @param request the Netty request without its content
+   * @param body the request body
+   * @param requestParameters context path and split
+   * @return the OData response
+   */
+  ODataResponse process(final HttpRequest request, final InputStream body,
+      final Map<String, String> requestParameters) {
+    ODataRequest odRequest = new ODataRequest();
     ODataResponse odResponse;
-    
-    final int processMethodHandle = 
-    		debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "process");
+    final ServerCoreDebugger debugger = new ServerCoreDebugger(odata);
+    final ODataHandlerImpl requestHandler = handler.createRequestHandler(debugger);
+
+    final int processMethodHandle =
+        debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "process");
     try {
-      fillODataRequest(odRequest, request, 
-          requestParameters.get(SPLIT) != null? Integer.parseInt(requestParameters.get(SPLIT)) : split, 
-              requestParameters.get(CONTEXT_PATH));
+      fillODataRequest(odRequest, request, body,
+          requestParameters.get(SPLIT) != null? Integer.parseInt(requestParameters.get(SPLIT)) : split,
+              requestParameters.get(CONTEXT_PATH), debugger);
 
-      odResponse = process(odRequest);
+      odResponse = requestHandler.process(odRequest);
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
-      exception = e;
-      odResponse = handleException(odRequest, e);
+      odResponse = handleException(requestHandler, odRequest, e);
     }
     debugger.stopRuntimeMeasurement(processMethodHandle);
 
-    convertToHttp(response, odResponse);
+    return odResponse;
   }
 
   public ODataResponse process(ODataRequest request) {
@@ -20,6 +20,8 @@ package org.apache.olingo.netty.server.core;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
@@ -45,7 +47,11 @@ import org.apache.olingo.server.api.serializer.EdmDeltaSerializer;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.SkipTokenHelper;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+
+import io.netty.channel.ChannelHandler;
 
 public class ODataNettyImpl extends ODataNetty {
   
@@ -72,6 +78,12 @@ public class ODataNettyImpl extends ODataNetty {
     return new ODataNettyHandlerImpl(this, serviceMetadata);
   }
 
+  @Override
+  public ChannelHandler createStreamingChannelHandler(final ODataNettyHandler handler, final Executor executor,
+      final Map<String, String> requestParameters) {
+    return new ODataNettyStreamingHandler((ODataNettyHandlerImpl) handler, executor, requestParameters);
+  }
+
   @Override
   public ODataSerializer createSerializer(ContentType contentType) throws SerializerException {
     return odata.createSerializer(contentType);
@@ -145,6 +157,16 @@ public class ODataNettyImpl extends ODataNetty {
     return odata.createPreferences(preferHeaders);
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(int maxEntries) {
+    return odata.createUriInfoCache(maxEntries);
+  }
+
+  @Override
+  public SkipTokenHelper createSkipTokenHelper(byte[] secret) {
+    return odata.createSkipTokenHelper(secret);
+  }
+
   @Override
   public DebugResponseHelper createDebugResponseHelper(String debugFormat) {
     return odata.createDebugResponseHelper(debugFormat);
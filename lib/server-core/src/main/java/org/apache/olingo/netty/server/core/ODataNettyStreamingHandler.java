@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.olingo.server.api.ODataResponse;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Netty channel handler which processes OData requests without aggregating them.
+ * <p>It is meant to follow an <code>HttpServerCodec</code> in the pipeline, without an
+ * <code>HttpObjectAggregator</code>. The content chunks of a request are passed to the
+ * request body while they arrive, and the response body, also an
+ * {@link org.apache.olingo.server.api.ODataContent ODataContent}, is written in chunks while it is serialized.</p>
+ * <p>Requests are processed on the given executor because reading the request body blocks until its chunks
+ * have been received; the requests of one connection are processed one after the other.
+ * A handler instance keeps the state of one connection, so each channel needs an own instance.</p>
+ */
+public class ODataNettyStreamingHandler extends ChannelInboundHandlerAdapter {
+
+  private final ODataNettyHandlerImpl handler;
+  private final SerialExecutor executor;
+  private final Map<String, String> requestParameters;
+
+  /** Body of the request whose content is currently received; only used in the event loop. */
+  private NettyRequestBodyStream requestBody;
+  /** Body of the response which is currently written. */
+  private volatile NettyResponseBodyStream responseBody;
+
+  public ODataNettyStreamingHandler(final ODataNettyHandlerImpl handler, final Executor executor,
+      final Map<String, String> requestParameters) {
+    this.handler = handler;
+    this.executor = new SerialExecutor(executor);
+    this.requestParameters = requestParameters;
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (msg instanceof HttpRequest) {
+      final HttpRequest request = (HttpRequest) msg;
+      if (request.decoderResult().isFailure()) {
+        ReferenceCountUtil.release(msg);
+        requestBody = null;
+        ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST))
+            .addListener(ChannelFutureListener.CLOSE);
+        return;
+      }
+      requestBody = new NettyRequestBodyStream(ctx.channel());
+      execute(ctx.channel(), request, requestBody);
+    }
+
+    if (msg instanceof HttpContent) {
+      if (requestBody == null) {
+        ReferenceCountUtil.release(msg);
+      } else {
+        requestBody.offer(((HttpContent) msg).content());
+        if (msg instanceof LastHttpContent) {
+          requestBody.end();
+          requestBody = null;
+        }
+      }
+    } else if (!(msg instanceof HttpRequest)) {
+      ctx.fireChannelRead(msg);
+    }
+  }
+
+  @Override
+  public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+    wakeUpResponseBody();
+    ctx.fireChannelWritabilityChanged();
+  }
+
+  @Override
+  public void channelInactive(final ChannelHandlerContext ctx) {
+    if (requestBody != null) {
+      requestBody.fail(new IOException("Connection has been closed before the request was complete."));
+      requestBody = null;
+    }
+    wakeUpResponseBody();
+    ctx.fireChannelInactive();
+  }
+
+  @Override
+  public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+    ctx.close();
+  }
+
+  private void wakeUpResponseBody() {
+    final NettyResponseBodyStream body = responseBody;
+    if (body != null) {
+      body.writabilityChanged();
+    }
+  }
+
+  private void execute(final Channel channel, final HttpRequest request, final NettyRequestBodyStream body) {
+    executor.execute(new RequestTask(channel, request, body));
+  }
+
+  private void process(final Channel channel, final HttpRequest request, final NettyRequestBodyStream body) {
+    try {
+      final ODataResponse odResponse;
+      try {
+        odResponse = handler.process(request, body, requestParameters);
+      } finally {
+        body.close();
+      }
+      writeResponse(channel, request, odResponse);
+    } catch (final IOException e) {
+      channel.close();
+    } catch (final RuntimeException e) {
+      // The status line has possibly already been sent, so the connection is the only way to signal the error.
+      channel.close();
+    }
+  }
+
+  private void writeResponse(final Channel channel, final HttpRequest request, final ODataResponse odResponse)
+      throws IOException {
+    final HttpResponse response = new DefaultHttpResponse(request.protocolVersion(),
+        HttpResponseStatus.valueOf(odResponse.getStatusCode()));
+    for (final Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
+      for (final String headerValue : entry.getValue()) {
+        response.headers().add(entry.getKey(), headerValue);
+      }
+    }
+
+    // HTTP/1.0 does not know chunks; the end of the body is then signaled by closing the connection.
+    final boolean chunked = !HttpVersion.HTTP_1_0.equals(request.protocolVersion());
+    boolean keepAlive = HttpUtil.isKeepAlive(request);
+    if (odResponse.getContent() == null && odResponse.getODataContent() == null) {
+      if (!response.headers().contains(HttpHeaderNames.CONTENT_LENGTH) && mayHaveBody(response.status())) {
+        HttpUtil.setContentLength(response, 0);
+      }
+      HttpUtil.setKeepAlive(response, keepAlive);
+      channel.write(response);
+    } else {
+      keepAlive &= chunked;
+      HttpUtil.setTransferEncodingChunked(response, chunked);
+      HttpUtil.setKeepAlive(response, keepAlive);
+      channel.write(response);
+      writeBody(channel, odResponse);
+    }
+
+    final ChannelFuture future = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    if (!keepAlive) {
+      future.addListener(ChannelFutureListener.CLOSE);
+    }
+  }
+
+  private void writeBody(final Channel channel, final ODataResponse odResponse) throws IOException {
+    final NettyResponseBodyStream body = new NettyResponseBodyStream(channel);
+    responseBody = body;
+    boolean written = false;
+    try {
+      if (odResponse.getContent() != null) {
+        final byte[] buffer = new byte[ODataNettyHandlerImpl.COPY_BUFFER_SIZE];
+        try (InputStream content = odResponse.getContent()) {
+          int count;
+          while ((count = content.read(buffer)) > -1) {
+            body.write(buffer, 0, count);
+          }
+        }
+      } else {
+        odResponse.getODataContent().write(body);
+      }
+      body.close();
+      written = true;
+    } finally {
+      if (!written) {
+        body.discard();
+      }
+      responseBody = null;
+    }
+  }
+
+  private boolean mayHaveBody(final HttpResponseStatus status) {
+    return status.code() >= 200 && status.code() != HttpResponseStatus.NO_CONTENT.code()
+        && status.code() != HttpResponseStatus.NOT_MODIFIED.code();
+  }
+
+  /** A received request to be processed by the executor. */
+  private final class RequestTask implements Runnable {
+    private final Channel channel;
+    private final HttpRequest request;
+    private final NettyRequestBodyStream body;
+
+    private RequestTask(final Channel channel, final HttpRequest request, final NettyRequestBodyStream body) {
+      this.channel = channel;
+      this.request = request;
+      this.body = body;
+    }
+
+    @Override
+    public void run() {
+      process(channel, request, body);
+    }
+
+    /** Fails the request if the executor does not accept it; a response can then no longer be sent. */
+    private void reject() {
+      body.close();
+      channel.close();
+    }
+  }
+
+  /**
+   * Executes the requests of one connection one after the other,
+   * so that the responses are written in the order of the requests.
+   * <br/>
+   * If the executor rejects a request, this and all queued requests fail and the connection is closed;
+   * this can also happen in a worker thread of the executor after the previous request, where
+   * an exception would be lost.
+   */
+  private static final class SerialExecutor {
+    private final Queue<RequestTask> tasks = new ArrayDeque<RequestTask>();
+    private final Executor executor;
+    private RequestTask active;
+
+    private SerialExecutor(final Executor executor) {
+      this.executor = executor;
+    }
+
+    private void execute(final RequestTask task) {
+      final List<RequestTask> rejected;
+      synchronized (this) {
+        tasks.add(task);
+        rejected = active == null ? scheduleNext() : null;
+      }
+      reject(rejected);
+    }
+
+    /** @return the rejected requests or <code>null</code> */
+    private synchronized List<RequestTask> scheduleNext() {
+      active = tasks.poll();
+      if (active != null) {
+        final RequestTask task = active;
+        try {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                task.run();
+              } finally {
+                reject(scheduleNext());
+              }
+            }
+          });
+        } catch (final RejectedExecutionException e) {
+          List<RequestTask> rejected = new ArrayList<RequestTask>(tasks.size() + 1);
+          rejected.add(task);
+          rejected.addAll(tasks);
+          tasks.clear();
+          active = null;
+          return rejected;
+        }
+      }
+      return null;
+    }
+
+    /** Fails the rejected requests outside of the lock, because closing them may wait for other locks. */
+    private static void reject(final List<RequestTask> rejected) {
+      if (rejected != null) {
+        for (final RequestTask task : rejected) {
+          task.reject();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmAction;
+import org.apache.olingo.commons.api.edm.EdmActionImport;
+import org.apache.olingo.commons.api.edm.EdmAnnotations;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmFunction;
+import org.apache.olingo.commons.api.edm.EdmFunctionImport;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.EdmOperation;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmSchema;
+import org.apache.olingo.commons.api.edm.EdmSingleton;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.commons.api.edm.EdmTerm;
+import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
+
+/**
+ * Loads all elements of an Entity Data Model that are otherwise loaded lazily
+ * on first access, so that later accesses only read the caches of the model.
+ */
+final class EdmPreloader {
+
+  private EdmPreloader() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Loads the complete entity data model.
+   * @param edm the entity data model
+   * @throws org.apache.olingo.commons.api.edm.EdmException if the EDM provider reports an error
+   */
+  public static void preload(final Edm edm) {
+    for (final EdmSchema schema : edm.getSchemas()) {
+      for (final EdmEnumType enumType : schema.getEnumTypes()) {
+        enumType.getUnderlyingType();
+        enumType.getMemberNames();
+      }
+      for (final EdmTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+        typeDefinition.getUnderlyingType();
+      }
+      for (final EdmComplexType complexType : schema.getComplexTypes()) {
+        loadStructuredType(complexType);
+      }
+      for (final EdmEntityType entityType : schema.getEntityTypes()) {
+        loadStructuredType(entityType);
+        for (final EdmKeyPropertyRef keyPropertyRef : entityType.getKeyPropertyRefs()) {
+          keyPropertyRef.getProperty();
+        }
+        entityType.hasStream();
+      }
+      for (final EdmAction action : schema.getActions()) {
+        loadOperation(action);
+      }
+      for (final EdmFunction function : schema.getFunctions()) {
+        loadOperation(function);
+      }
+      for (final EdmTerm term : schema.getTerms()) {
+        term.getType();
+      }
+      for (final EdmAnnotations annotationGroup : schema.getAnnotationGroups()) {
+        annotationGroup.getAnnotations();
+      }
+      schema.getAnnotations();
+      loadEntityContainer(schema.getEntityContainer());
+    }
+    loadEntityContainer(edm.getEntityContainer());
+  }
+
+  private static void loadStructuredType(final EdmStructuredType structuredType) {
+    structuredType.getBaseType();
+    for (final String propertyName : structuredType.getPropertyNames()) {
+      final EdmProperty property = structuredType.getStructuralProperty(propertyName);
+      property.getType();
+      property.getAnnotations();
+    }
+    for (final String navigationPropertyName : structuredType.getNavigationPropertyNames()) {
+      final EdmNavigationProperty navigationProperty = structuredType.getNavigationProperty(navigationPropertyName);
+      navigationProperty.getType();
+      navigationProperty.getPartner();
+      navigationProperty.getReferentialConstraints();
+    }
+    structuredType.getAnnotations();
+  }
+
+  private static void loadOperation(final EdmOperation operation) {
+    for (final String parameterName : operation.getParameterNames()) {
+      operation.getParameter(parameterName).getType();
+    }
+    if (operation.getReturnType() != null) {
+      operation.getReturnType().getType();
+    }
+    operation.getAnnotations();
+  }
+
+  private static void loadEntityContainer(final EdmEntityContainer container) {
+    if (container == null) {
+      return;
+    }
+    for (final EdmEntitySet entitySet : container.getEntitySets()) {
+      loadBindingTarget(entitySet);
+    }
+    for (final EdmSingleton singleton : container.getSingletons()) {
+      loadBindingTarget(singleton);
+    }
+    for (final EdmFunctionImport functionImport : container.getFunctionImports()) {
+      functionImport.getUnboundFunctions();
+      functionImport.getReturnedEntitySet();
+      functionImport.getAnnotations();
+    }
+    for (final EdmActionImport actionImport : container.getActionImports()) {
+      actionImport.getUnboundAction();
+      actionImport.getReturnedEntitySet();
+      actionImport.getAnnotations();
+    }
+    container.getAnnotations();
+  }
+
+  private static void loadBindingTarget(final EdmBindingTarget bindingTarget) {
+    bindingTarget.getEntityType();
+    for (final EdmNavigationPropertyBinding binding : bindingTarget.getNavigationPropertyBindings()) {
+      bindingTarget.getRelatedBindingTarget(binding.getPath());
+    }
+    bindingTarget.getAnnotations();
+  }
+}
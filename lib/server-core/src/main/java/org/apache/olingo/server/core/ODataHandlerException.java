@@ -46,7 +46,9 @@ public class ODataHandlerException extends ODataLibraryException {
     /** parameter: prefer header */
     INVALID_PREFER_HEADER,
     /** invalid payload */
-    INVALID_PAYLOAD;
+    INVALID_PAYLOAD,
+    /** parameter: ID of the asynchronous request */
+    ASYNC_REQUEST_NOT_FOUND;
 
     @Override
     public String getKey() {
@@ -18,14 +18,25 @@
  */
 package org.apache.olingo.server.core;
 
-import java.util.LinkedList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.format.PreferenceName;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
@@ -35,7 +46,10 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.async.AsyncService;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.batch.ParallelBatchSupport;
+import org.apache.olingo.server.api.debug.RequestMetrics;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.etag.PreconditionException;
 import org.apache.olingo.server.api.processor.DefaultProcessor;
@@ -45,9 +59,12 @@ import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 import org.apache.olingo.server.api.serializer.RepresentationType;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
+import org.apache.olingo.server.core.prefer.PreferencesImpl;
 import org.apache.olingo.server.core.uri.parser.Parser;
 import org.apache.olingo.server.core.uri.parser.UriParserException;
 import org.apache.olingo.server.core.uri.parser.UriParserSemanticException;
@@ -58,27 +75,88 @@ import org.apache.olingo.server.core.uri.validator.UriValidator;
 
 public class ODataHandlerImpl implements ODataHandler {
 
+  /** The first segment of the resource path of the status monitors of asynchronous requests. */
+  public static final String ASYNC_MONITOR_SEGMENT = "$async";
+  private static final String ASYNC_MONITOR_PATH = "/" + ASYNC_MONITOR_SEGMENT + "/";
+
   private final OData odata;
   private final ServiceMetadata serviceMetadata;
-  private final List<Processor> processors = new LinkedList<>();
+  private final List<Processor> processors;
   private final ServerCoreDebugger debugger;
+  /** Whether this handler processes one single request (and possibly its batch parts). */
+  private final boolean requestScoped;
 
   private CustomContentTypeSupport customContentTypeSupport;
   private CustomETagSupport customETagSupport;
+  private UriInfoCache uriInfoCache;
+  private ParallelBatchSupport parallelBatchSupport;
+  private RequestMetrics requestMetrics;
+  private AsyncService asyncService;
 
   private UriInfo uriInfo;
+  /** Whether the next request may be processed asynchronously; batch operations are always processed in place. */
+  private boolean respondAsyncAllowed;
   private Exception lastThrownException;
 
+  /**
+   * Creates a handler which can be shared between threads once all processors and extensions are registered.
+   * Each request is processed by an own request handler, see {@link #createRequestHandler(ServerCoreDebugger)}.
+   */
   public ODataHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata, final ServerCoreDebugger debugger) {
     this.odata = odata;
     this.serviceMetadata = serviceMetadata;
     this.debugger = debugger;
+    processors = new CopyOnWriteArrayList<>();
+    requestScoped = false;
 
     register(new DefaultRedirectProcessor());
     register(new DefaultProcessor());
   }
 
+  private ODataHandlerImpl(final ODataHandlerImpl handler, final ServerCoreDebugger debugger) {
+    odata = handler.odata;
+    serviceMetadata = handler.serviceMetadata;
+    processors = handler.processors;
+    this.debugger = debugger;
+    requestScoped = true;
+    customContentTypeSupport = handler.customContentTypeSupport;
+    customETagSupport = handler.customETagSupport;
+    uriInfoCache = handler.uriInfoCache;
+    parallelBatchSupport = handler.parallelBatchSupport;
+    requestMetrics = handler.requestMetrics;
+    asyncService = handler.asyncService;
+    respondAsyncAllowed = !handler.requestScoped;
+  }
+
+  /**
+   * Creates a handler for exactly one request, e.g., one HTTP request including all parts of a batch request.
+   * It uses the processors and extensions of this handler but has its own request state,
+   * like the URI info and the last thrown exception, so that requests can be processed concurrently.
+   * @param requestDebugger the debugger for this request
+   */
+  public ODataHandlerImpl createRequestHandler(final ServerCoreDebugger requestDebugger) {
+    return new ODataHandlerImpl(this, requestDebugger);
+  }
+
+  /**
+   * Creates a handler for exactly one request which uses the debugger of this handler.
+   * @see #createRequestHandler(ServerCoreDebugger)
+   */
+  public ODataHandlerImpl createRequestHandler() {
+    return createRequestHandler(debugger);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>If this handler is not request-scoped, the request is processed by a new request handler;
+   * the URI info and the exception of the request are then not available from this handler.</p>
+   */
+  @Override
   public ODataResponse process(final ODataRequest request) {
+    return requestScoped ? processRequest(request) : createRequestHandler(debugger).processRequest(request);
+  }
+
+  private ODataResponse processRequest(final ODataRequest request) {
     ODataResponse response = new ODataResponse();
     final int responseHandle = debugger.startRuntimeMeasurement("ODataHandler", "process");
     try {
@@ -137,7 +215,50 @@ public class ODataHandlerImpl implements ODataHandler {
       throw e;
     }
 
+    final boolean respondAsync = respondAsyncAllowed && asyncService != null && !debugger.isDebugMode();
+    respondAsyncAllowed = false;
+    if (asyncService != null && isAsyncMonitor(request)) {
+      try {
+        handleAsyncMonitor(request, response);
+      } finally {
+        debugger.stopRuntimeMeasurement(measurementHandle);
+      }
+      return;
+    }
+
+    final HttpMethod method = request.getMethod();
+    final UriInfo cachedUriInfo = uriInfoCache == null ? null : uriInfoCache.get(serviceMetadata.getEdm(), method,
+        request.getRawODataPath(), request.getRawQueryPath(), request.getRawBaseUri());
+    if (cachedUriInfo == null) {
+      parseAndValidateUri(request, method, measurementHandle);
+    } else {
+      uriInfo = cachedUriInfo;
+    }
+
+    if (respondAsync && new PreferencesImpl(request.getHeaders(HttpHeader.PREFER)).hasRespondAsync()
+        && processAsync(request, response)) {
+      debugger.stopRuntimeMeasurement(measurementHandle);
+      return;
+    }
+
+    final int measurementDispatcher = debugger.startRuntimeMeasurement("ODataDispatcher", "dispatch");
+    final long metricsDispatcher = startMetricsMeasurement();
+    final UriInfo requestUriInfo = uriInfo;
+    try {
+      new ODataDispatcher(uriInfo, this).dispatch(request, response);
+    } finally {
+      // The parts of a batch request are processed by this handler, too.
+      uriInfo = requestUriInfo;
+      stopMetricsMeasurement(RequestMetrics.Phase.PROCESS, metricsDispatcher);
+      debugger.stopRuntimeMeasurement(measurementDispatcher);
+      debugger.stopRuntimeMeasurement(measurementHandle);
+    }
+  }
+
+  private void parseAndValidateUri(final ODataRequest request, final HttpMethod method, final int measurementHandle)
+      throws ODataLibraryException {
     final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
+    final long metricsUriParser = startMetricsMeasurement();
     try {
       uriInfo = new Parser(serviceMetadata.getEdm(), odata)
           .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
@@ -146,10 +267,11 @@ public class ODataHandlerImpl implements ODataHandler {
       debugger.stopRuntimeMeasurement(measurementHandle);
       throw e;
     }
+    stopMetricsMeasurement(RequestMetrics.Phase.PARSE, metricsUriParser);
     debugger.stopRuntimeMeasurement(measurementUriParser);
 
     final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
-    final HttpMethod method = request.getMethod();
+    final long metricsUriValidator = startMetricsMeasurement();
     try {
       new UriValidator().validate(uriInfo, method);
     } catch (final UriValidationException e) {
@@ -157,14 +279,153 @@ public class ODataHandlerImpl implements ODataHandler {
       debugger.stopRuntimeMeasurement(measurementHandle);
       throw e;
     }
+    stopMetricsMeasurement(RequestMetrics.Phase.VALIDATE, metricsUriValidator);
     debugger.stopRuntimeMeasurement(measurementUriValidator);
 
-    final int measurementDispatcher = debugger.startRuntimeMeasurement("ODataDispatcher", "dispatch");
+    if (uriInfoCache != null) {
+      uriInfoCache.put(serviceMetadata.getEdm(), method,
+          request.getRawODataPath(), request.getRawQueryPath(), request.getRawBaseUri(), uriInfo);
+    }
+  }
+
+  /**
+   * Submits the request to the registered asynchronous service and responds with the URL of its status monitor.
+   * The request is copied, including its body, without the preference <code>respond-async</code>,
+   * and processed later by an own request handler.
+   * @return <code>false</code> if the service has not accepted the request
+   */
+  private boolean processAsync(final ODataRequest request, final ODataResponse response)
+      throws ODataHandlerException {
+    final ODataRequest asyncRequest = copyForAsync(request);
+    final ODataHandlerImpl asyncHandler = createRequestHandler();
+    final String id = asyncService.submit(new AsyncService.AsyncTask() {
+      @Override
+      public void writeResult(final OutputStream output) throws IOException {
+        final ODataResponse asyncResponse = asyncHandler.process(asyncRequest);
+        try {
+          copy(odata.createFixedFormatSerializer().asyncResponse(asyncResponse), output);
+        } catch (final SerializerException e) {
+          throw new IOException(e);
+        }
+      }
+    });
+    if (id == null) {
+      return false;
+    }
+    response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+    response.setHeader(HttpHeader.LOCATION, getAsyncMonitorUri(request, id));
+    response.setHeader(HttpHeader.PREFERENCE_APPLIED, PreferenceName.RESPOND_ASYNC.getName());
+    return true;
+  }
+
+  private ODataRequest copyForAsync(final ODataRequest request) throws ODataHandlerException {
+    final ODataRequest copy = new ODataRequest();
+    copy.setMethod(request.getMethod());
+    copy.setProtocol(request.getProtocol());
+    copy.setRawBaseUri(request.getRawBaseUri());
+    copy.setRawODataPath(request.getRawODataPath());
+    copy.setRawQueryPath(request.getRawQueryPath());
+    copy.setRawRequestUri(request.getRawRequestUri());
+    copy.setRawServiceResolutionUri(request.getRawServiceResolutionUri());
+    for (final Map.Entry<String, List<String>> header : request.getAllHeaders().entrySet()) {
+      if (HttpHeader.PREFER.equalsIgnoreCase(header.getKey())) {
+        final List<String> preferences = withoutRespondAsync(header.getValue());
+        if (!preferences.isEmpty()) {
+          copy.addHeader(header.getKey(), preferences);
+        }
+      } else {
+        copy.addHeader(header.getKey(), header.getValue());
+      }
+    }
+    if (request.getBody() != null) {
+      // The body of the original request is not available anymore once the request has been answered.
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+      try {
+        copy(request.getBody(), body);
+      } catch (final IOException e) {
+        throw new ODataHandlerException("Error reading the request body.", e,
+            ODataHandlerException.MessageKeys.INVALID_PAYLOAD);
+      }
+      copy.setBody(new ByteArrayInputStream(body.toByteArray()));
+      // The original request is processed synchronously if the asynchronous service does not accept it.
+      request.setBody(new ByteArrayInputStream(body.toByteArray()));
+    }
+    return copy;
+  }
+
+  private List<String> withoutRespondAsync(final List<String> preferHeaders) {
+    List<String> result = new ArrayList<>();
+    for (final String preferHeader : preferHeaders) {
+      StringBuilder preferences = new StringBuilder();
+      for (final String preference : preferHeader.split(",")) {
+        final String name = preference.split("[=;]", 2)[0].trim();
+        if (!PreferenceName.RESPOND_ASYNC.getName().equals(name.toLowerCase(Locale.ROOT))) {
+          preferences.append(preferences.length() == 0 ? "" : ",").append(preference);
+        }
+      }
+      if (preferences.length() > 0) {
+        result.add(preferences.toString());
+      }
+    }
+    return result;
+  }
+
+  private boolean isAsyncMonitor(final ODataRequest request) {
+    return request.getRawODataPath() != null && request.getRawODataPath().startsWith(ASYNC_MONITOR_PATH);
+  }
+
+  private String getAsyncMonitorUri(final ODataRequest request, final String id) {
+    return request.getRawBaseUri() + ASYNC_MONITOR_PATH + id;
+  }
+
+  /**
+   * Answers a request to the status monitor of an asynchronous request:
+   * GET returns the result once it is available, DELETE cancels the request.
+   */
+  private void handleAsyncMonitor(final ODataRequest request, final ODataResponse response)
+      throws ODataHandlerException {
+    final String id = request.getRawODataPath().substring(ASYNC_MONITOR_PATH.length());
+    final HttpMethod method = request.getMethod();
+    if (method == HttpMethod.GET) {
+      InputStream result;
+      try {
+        result = asyncService.removeResult(id);
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error reading the result of an asynchronous request.", e);
+      }
+      if (result != null) {
+        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString());
+        response.setHeader(BatchParserCommon.CONTENT_TRANSFER_ENCODING, "binary");
+        response.setContent(result);
+      } else if (asyncService.getStatus(id) == AsyncService.Status.UNKNOWN) {
+        throw new ODataHandlerException("Asynchronous request not found: " + id,
+            ODataHandlerException.MessageKeys.ASYNC_REQUEST_NOT_FOUND, id);
+      } else {
+        response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+        response.setHeader(HttpHeader.LOCATION, getAsyncMonitorUri(request, id));
+      }
+    } else if (method == HttpMethod.DELETE) {
+      if (!asyncService.cancel(id)) {
+        throw new ODataHandlerException("Asynchronous request not found: " + id,
+            ODataHandlerException.MessageKeys.ASYNC_REQUEST_NOT_FOUND, id);
+      }
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    } else {
+      throw new ODataHandlerException("HTTP method " + method + " is not allowed for status monitors.",
+          ODataHandlerException.MessageKeys.HTTP_METHOD_NOT_ALLOWED, method.toString());
+    }
+  }
+
+  private static void copy(final InputStream input, final OutputStream output) throws IOException {
     try {
-      new ODataDispatcher(uriInfo, this).dispatch(request, response);
+      final byte[] buffer = new byte[ODataHttpHandlerImpl.COPY_BUFFER_SIZE];
+      int count;
+      while ((count = input.read(buffer)) >= 0) {
+        output.write(buffer, 0, count);
+      }
     } finally {
-      debugger.stopRuntimeMeasurement(measurementDispatcher);
-      debugger.stopRuntimeMeasurement(measurementHandle);
+      input.close();
     }
   }
 
@@ -213,6 +474,9 @@ public class ODataHandlerImpl implements ODataHandler {
 
       final String formatOption = SystemQueryOptionKind.FORMAT.toString();
       int index = query.indexOf(formatOption);
+      if (index == -1) {
+        return null;
+      }
       int endIndex = query.indexOf('&', index);
       if(endIndex == -1) {
         endIndex = query.length();
@@ -261,6 +525,14 @@ public class ODataHandlerImpl implements ODataHandler {
       this.customContentTypeSupport = (CustomContentTypeSupport) extension;
     } else if(extension instanceof CustomETagSupport) {
       this.customETagSupport = (CustomETagSupport) extension;
+    } else if (extension instanceof UriInfoCache) {
+      this.uriInfoCache = (UriInfoCache) extension;
+    } else if (extension instanceof ParallelBatchSupport) {
+      this.parallelBatchSupport = (ParallelBatchSupport) extension;
+    } else if (extension instanceof RequestMetrics) {
+      this.requestMetrics = (RequestMetrics) extension;
+    } else if (extension instanceof AsyncService) {
+      this.asyncService = (AsyncService) extension;
     } else {
       throw new ODataRuntimeException("Got not supported exception with class name " +
           extension.getClass().getSimpleName());
@@ -275,6 +547,36 @@ public class ODataHandlerImpl implements ODataHandler {
     return customETagSupport;
   }
 
+  /**
+   * Gets the executor for independent batch operations.
+   * In debug mode, all operations are executed sequentially so that the runtime measurements
+   * of the debugger are not recorded concurrently.
+   * @return the executor or <code>null</code> if batch operations are executed sequentially
+   */
+  public Executor getBatchExecutor() {
+    return parallelBatchSupport == null || debugger.isDebugMode() ? null : parallelBatchSupport.getExecutor();
+  }
+
+  /**
+   * Starts a measurement for the registered request metrics.
+   * @return the start time in nanoseconds or 0 if no request metrics are registered
+   * @see System#nanoTime()
+   */
+  public long startMetricsMeasurement() {
+    return requestMetrics == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Reports the duration of a phase of the current request to the registered request metrics, if any.
+   * @param phase the measured phase
+   * @param started the start time returned by {@link #startMetricsMeasurement()}
+   */
+  public void stopMetricsMeasurement(final RequestMetrics.Phase phase, final long started) {
+    if (requestMetrics != null) {
+      requestMetrics.record(phase, uriInfo, System.nanoTime() - started);
+    }
+  }
+
   public Exception getLastThrownException() {
     return lastThrownException;
   }
@@ -48,6 +48,7 @@ import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.debug.DebugSupport;
+import org.apache.olingo.server.api.debug.RequestMetrics;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.processor.Processor;
@@ -59,14 +60,19 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
   public static final int COPY_BUFFER_SIZE = 8192;
   private static final String REQUESTMAPPING = "requestMapping";
 
+  private final OData odata;
   private final ODataHandlerImpl handler;
-  private final ServerCoreDebugger debugger;
 
+  private DebugSupport debugSupport;
   private int split = 0;
 
+  /**
+   * Creates a handler which can be shared between threads once all processors and extensions are registered;
+   * all state of a request is kept in a request-scoped handler and debugger.
+   */
   public ODataHttpHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata) {
-    debugger = new ServerCoreDebugger(odata);
-    handler = new ODataHandlerImpl(odata, serviceMetadata, debugger);
+    this.odata = odata;
+    handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
   }
 
   @Override
@@ -79,17 +85,21 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     ODataRequest odRequest = new ODataRequest();
     Exception exception = null;
     ODataResponse odResponse;
+    final ServerCoreDebugger debugger = new ServerCoreDebugger(odata);
+    debugger.setDebugSupportProcessor(debugSupport);
     debugger.resolveDebugMode(request);
+    final ODataHandlerImpl requestHandler = handler.createRequestHandler(debugger);
+    final long metricsRequest = requestHandler.startMetricsMeasurement();
 
     final int processMethodHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "process");
     try {
-      fillODataRequest(odRequest, request, split);
+      fillODataRequest(odRequest, request, split, debugger);
 
-      odResponse = process(odRequest);
+      odResponse = requestHandler.process(odRequest);
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
       exception = e;
-      odResponse = handleException(odRequest, e);
+      odResponse = handleException(requestHandler, odRequest, e);
     }
     debugger.stopRuntimeMeasurement(processMethodHandle);
 
@@ -97,14 +107,20 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
       Map<String, String> serverEnvironmentVariables = createEnvironmentVariablesMap(request);
       if (exception == null) {
         // This is to ensure that we have access to the thrown OData Exception
-        exception = handler.getLastThrownException();
+        exception = requestHandler.getLastThrownException();
       }
       odResponse =
-          debugger.createDebugResponse(odRequest, odResponse, exception, handler.getUriInfo(),
+          debugger.createDebugResponse(odRequest, odResponse, exception, requestHandler.getUriInfo(),
               serverEnvironmentVariables);
     }
 
-    convertToHttp(response, odResponse);
+    final long metricsWrite = requestHandler.startMetricsMeasurement();
+    try {
+      convertToHttp(response, odResponse);
+    } finally {
+      requestHandler.stopMetricsMeasurement(RequestMetrics.Phase.WRITE, metricsWrite);
+      requestHandler.stopMetricsMeasurement(RequestMetrics.Phase.REQUEST, metricsRequest);
+    }
   }
 
   private Map<String, String> createEnvironmentVariablesMap(final HttpServletRequest request) {
@@ -135,7 +151,8 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     this.split = split;
   }
 
-  private ODataResponse handleException(final ODataRequest odRequest, final Exception e) {
+  private ODataResponse handleException(final ODataHandlerImpl requestHandler, final ODataRequest odRequest,
+      final Exception e) {
     ODataResponse resp = new ODataResponse();
     ODataServerError serverError;
     if (e instanceof ODataHandlerException) {
@@ -145,7 +162,7 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     } else {
       serverError = ODataExceptionHelper.createServerErrorObject(e);
     }
-    handler.handleException(odRequest, resp, serverError, e);
+    requestHandler.handleException(odRequest, resp, serverError, e);
     return resp;
   }
 
@@ -204,7 +221,7 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
   }
   
   private ODataRequest fillODataRequest(final ODataRequest odRequest, final HttpServletRequest httpRequest,
-      final int split) throws ODataLibraryException {
+      final int split, final ServerCoreDebugger debugger) throws ODataLibraryException {
     final int requestHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillODataRequest");
     try {
       odRequest.setBody(httpRequest.getInputStream());
@@ -342,6 +359,6 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
 
   @Override
   public void register(final DebugSupport debugSupport) {
-    debugger.setDebugSupportProcessor(debugSupport);
+    this.debugSupport = debugSupport;
   }
 }
@@ -21,6 +21,8 @@ package org.apache.olingo.server.core;
 import java.util.Collection;
 import java.util.List;
 
+import javax.xml.stream.XMLOutputFactory;
+
 import org.apache.olingo.commons.api.constants.Constantsv00;
 import org.apache.olingo.commons.api.constants.Constantsv01;
 import org.apache.olingo.commons.api.IConstants;
@@ -46,7 +48,9 @@ import org.apache.olingo.server.api.serializer.EdmDeltaSerializer;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.SkipTokenHelper;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.DebugResponseHelperImpl;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import org.apache.olingo.server.core.deserializer.FixedFormatDeserializerImpl;
@@ -60,10 +64,36 @@ import org.apache.olingo.server.core.serializer.json.ODataJsonSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializerWithNavigations;
 import org.apache.olingo.server.core.serializer.xml.ODataXmlSerializer;
+import org.apache.olingo.server.core.serializer.utils.StreamFactories;
+import org.apache.olingo.server.core.uri.SkipTokenHelperImpl;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
+import org.apache.olingo.server.core.uri.UriInfoCacheImpl;
+
+import com.fasterxml.jackson.core.JsonFactory;
 
 public class ODataImpl extends OData {
 
+  private JsonFactory jsonFactory = StreamFactories.getJsonFactory();
+  private XMLOutputFactory xmlOutputFactory = StreamFactories.getXmlOutputFactory();
+
+  /**
+   * Sets the factory for the JSON generators of the serializers created by this instance.
+   * By default a shared factory is used.
+   * @param jsonFactory thread-safe JSON factory
+   */
+  public void setJsonFactory(final JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+  }
+
+  /**
+   * Sets the factory for the XML stream writers of the serializers created by this instance.
+   * By default a shared factory is used.
+   * @param xmlOutputFactory thread-safe XML output factory
+   */
+  public void setXmlOutputFactory(final XMLOutputFactory xmlOutputFactory) {
+    this.xmlOutputFactory = xmlOutputFactory;
+  }
+
   @Override
   public ODataSerializer createSerializer(final ContentType contentType) throws SerializerException {
     ODataSerializer serializer = null;
@@ -74,11 +104,11 @@ public class ODataImpl extends OData {
           || ContentType.VALUE_ODATA_METADATA_MINIMAL.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_NONE.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_FULL.equalsIgnoreCase(metadata)) {
-        serializer = new ODataJsonSerializer(contentType, new Constantsv00());
+        serializer = new ODataJsonSerializer(contentType, new Constantsv00(), jsonFactory);
       }
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
-      serializer = new ODataXmlSerializer();
+      serializer = new ODataXmlSerializer(xmlOutputFactory);
     }
 
     if (serializer == null) {
@@ -105,11 +135,11 @@ public class ODataImpl extends OData {
           || ContentType.VALUE_ODATA_METADATA_MINIMAL.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_NONE.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_FULL.equalsIgnoreCase(metadata)) {
-        serializer = new ODataJsonSerializer(contentType, constants);
+        serializer = new ODataJsonSerializer(contentType, constants, jsonFactory);
       }
     } else if (contentType != null && (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML))) {
-      serializer = new ODataXmlSerializer();
+      serializer = new ODataXmlSerializer(xmlOutputFactory);
     }
 
     if (serializer == null) {
@@ -130,7 +160,7 @@ public class ODataImpl extends OData {
   @Override
   public EdmAssistedSerializer createEdmAssistedSerializer(final ContentType contentType) throws SerializerException {
     if (contentType != null && contentType.isCompatible(ContentType.APPLICATION_JSON)) {
-      return new EdmAssistedJsonSerializer(contentType);
+      return new EdmAssistedJsonSerializer(contentType, jsonFactory);
     }
     throw new SerializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
@@ -144,10 +174,10 @@ public class ODataImpl extends OData {
       throws SerializerException {
     if (contentType != null && contentType.isCompatible(ContentType.APPLICATION_JSON)) {
       if(versions!=null && !versions.isEmpty()){
-       return getMaxVersion(versions)>4 ?  new JsonDeltaSerializerWithNavigations(contentType):
-         new JsonDeltaSerializer(contentType);
+       return getMaxVersion(versions)>4 ?  new JsonDeltaSerializerWithNavigations(contentType, jsonFactory):
+         new JsonDeltaSerializer(contentType, jsonFactory);
       }
-      return new JsonDeltaSerializerWithNavigations(contentType);
+      return new JsonDeltaSerializerWithNavigations(contentType, jsonFactory);
     }
     throw new SerializerException("Unsupported format: " + 
     ((contentType != null) ? contentType.toContentTypeString() : null),
@@ -244,6 +274,16 @@ public class ODataImpl extends OData {
     return new PreferencesImpl(preferHeaders);
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(final int maxEntries) {
+    return new UriInfoCacheImpl(maxEntries);
+  }
+
+  @Override
+  public SkipTokenHelper createSkipTokenHelper(final byte[] secret) {
+    return new SkipTokenHelperImpl(secret);
+  }
+
   @Override
   public DebugResponseHelper createDebugResponseHelper(final String debugFormat) {
     // TODO: What should we do with invalid formats?
@@ -29,6 +29,7 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.core.serializer.utils.MetadataDocumentCache;
 
 /**
  */
@@ -37,6 +38,7 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   private final Edm edm;
   private final List<EdmxReference> references;
   private final ServiceMetadataETagSupport serviceMetadataETagSupport;
+  private final MetadataDocumentCache metadataDocumentCache = new MetadataDocumentCache();
 
   public ServiceMetadataImpl(final CsdlEdmProvider edmProvider, final List<EdmxReference> references,
       final ServiceMetadataETagSupport serviceMetadataETagSupport) {
@@ -65,4 +67,17 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   public ServiceMetadataETagSupport getServiceMetadataETagSupport() {
     return serviceMetadataETagSupport;
   }
+
+  @Override
+  public ServiceMetadata preload() {
+    EdmPreloader.preload(edm);
+    return this;
+  }
+
+  /**
+   * Gets the cache for the serialized metadata documents of this service metadata.
+   */
+  public MetadataDocumentCache getMetadataDocumentCache() {
+    return metadataDocumentCache;
+  }
 }
@@ -18,6 +18,16 @@
  */
 package org.apache.olingo.server.core.batchhandler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
@@ -28,10 +38,13 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
 import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 
 public class BatchFacadeImpl implements BatchFacade {
+  private final ODataHandler oDataHandler;
   private final BatchPartHandler partHandler;
+  private final Executor executor;
 
   /**
    * Creates a new BatchFacade.
@@ -41,6 +54,21 @@ public class BatchFacadeImpl implements BatchFacade {
    */
   public BatchFacadeImpl(final ODataHandler oDataHandler, final BatchProcessor batchProcessor,
                          final boolean isStrict) {
+    this(oDataHandler, batchProcessor, isStrict, null);
+  }
+
+  /**
+   * Creates a new BatchFacade which executes independent query operations concurrently.
+   * @param oDataHandler   handler
+   * @param batchProcessor batch processor
+   * @param isStrict       mode switch (currently not used)
+   * @param executor       executor for independent operations; if <code>null</code>,
+   *                       all operations are executed sequentially
+   */
+  public BatchFacadeImpl(final ODataHandler oDataHandler, final BatchProcessor batchProcessor,
+                         final boolean isStrict, final Executor executor) {
+    this.oDataHandler = oDataHandler;
+    this.executor = executor;
     partHandler = new BatchPartHandler(oDataHandler, batchProcessor, this);
   }
 
@@ -56,6 +84,102 @@ public class BatchFacadeImpl implements BatchFacade {
     return partHandler.handleBatchRequest(request);
   }
 
+  @Override
+  public List<ODataResponsePart> handleBatchRequests(final List<BatchRequestPart> requests,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>(requests.size());
+    int index = 0;
+    while (index < requests.size()) {
+      int end = index + 1;
+      if (executor != null) {
+        while (end < requests.size() && isQuery(requests.get(index)) && isQuery(requests.get(end))) {
+          end++;
+        }
+      }
+      final List<ODataResponsePart> handled = end - index > 1 ?
+          handleConcurrently(requests.subList(index, end)) :
+          handleSequentially(requests.subList(index, end));
+      for (final ODataResponsePart responsePart : handled) {
+        responseParts.add(responsePart);
+        if (!continueOnError && isError(responsePart)) {
+          return responseParts;
+        }
+      }
+      index = end;
+    }
+    return responseParts;
+  }
+
+  private List<ODataResponsePart> handleSequentially(final List<BatchRequestPart> requests)
+      throws ODataApplicationException, ODataLibraryException {
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>(requests.size());
+    for (final BatchRequestPart request : requests) {
+      responseParts.add(handleBatchRequest(request));
+    }
+    return responseParts;
+  }
+
+  private List<ODataResponsePart> handleConcurrently(final List<BatchRequestPart> requests) {
+    final List<FutureTask<ODataResponse>> tasks = new ArrayList<FutureTask<ODataResponse>>(requests.size());
+    for (final BatchRequestPart request : requests) {
+      final ODataHandler handler = createConcurrentHandler();
+      final ODataRequest oDataRequest = request.getRequests().get(0);
+      final FutureTask<ODataResponse> task = new FutureTask<ODataResponse>(new Callable<ODataResponse>() {
+        @Override
+        public ODataResponse call() {
+          return partHandler.handle(handler, oDataRequest);
+        }
+      });
+      try {
+        executor.execute(task);
+      } catch (final RejectedExecutionException e) {
+        task.run();
+      }
+      tasks.add(task);
+    }
+
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>(tasks.size());
+    for (final FutureTask<ODataResponse> task : tasks) {
+      responseParts.add(new ODataResponsePart(getResponse(task), false));
+    }
+    return responseParts;
+  }
+
+  private ODataResponse getResponse(final FutureTask<ODataResponse> task) {
+    try {
+      return task.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataRuntimeException("Interrupted while waiting for a batch operation.", e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new ODataRuntimeException("Error while executing a batch operation.", e);
+    }
+  }
+
+  /**
+   * The request state of a request handler must not be shared between concurrent requests,
+   * so each concurrent operation gets its own request handler.
+   */
+  private ODataHandler createConcurrentHandler() {
+    return oDataHandler instanceof ODataHandlerImpl ?
+        ((ODataHandlerImpl) oDataHandler).createRequestHandler() :
+        oDataHandler;
+  }
+
+  private boolean isQuery(final BatchRequestPart request) {
+    return !request.isChangeSet() && request.getRequests().get(0).getMethod() == HttpMethod.GET;
+  }
+
+  private boolean isError(final ODataResponsePart responsePart) {
+    final int statusCode = responsePart.getResponses().get(0).getStatusCode();
+    return statusCode >= 400 && statusCode <= 600;
+  }
+
   @Override
   public String extractBoundaryFromContentType(final String contentType) throws BatchDeserializerException {
     return BatchParserCommon.getBoundary(contentType, 0);
@@ -74,7 +74,18 @@ public class BatchPartHandler {
       response = oDataHandler.process(request);
     }
 
-    // Add content id to response
+    return addContentId(request, response);
+  }
+
+  /**
+   * Handles a request outside of a change set with the given handler,
+   * e.g., with an own request handler if requests are processed concurrently.
+   */
+  public ODataResponse handle(final ODataHandler handler, final ODataRequest request) {
+    return addContentId(request, handler.process(request));
+  }
+
+  private ODataResponse addContentId(final ODataRequest request, final ODataResponse response) {
     final String contentId = request.getHeader(HttpHeader.CONTENT_ID);
     if (contentId != null) {
       response.setHeader(HttpHeader.CONTENT_ID, contentId);
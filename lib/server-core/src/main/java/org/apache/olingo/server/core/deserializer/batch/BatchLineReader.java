@@ -44,6 +44,7 @@ public class BatchLineReader {
   private byte[] buffer;
   private int offset = 0;
   private int limit = 0;
+  private int lineCounter = 0;
 
   public BatchLineReader(final InputStream reader) {
     this(reader, BUFFER_SIZE);
@@ -78,20 +79,29 @@ public class BatchLineReader {
 
   public List<Line> toLineList() throws IOException {
     final List<Line> result = new ArrayList<>();
-    String currentLine = readLine();
-    if (currentLine != null) {
-      currentBoundary = currentLine.trim();
-      int counter = 1;
-      result.add(new Line(currentLine, counter++));
-
-      while ((currentLine = readLine()) != null) {
-        result.add(new Line(currentLine, counter++));
-      }
+    Line currentLine;
+    while ((currentLine = nextLine()) != null) {
+      result.add(currentLine);
     }
 
     return result;
   }
 
+  /**
+   * Reads the next line of the message.
+   * @return the next line, numbered from one, or <code>null</code> at the end of the message
+   */
+  public Line nextLine() throws IOException {
+    final String currentLine = readLine();
+    if (currentLine == null) {
+      return null;
+    }
+    if (lineCounter == 0) {
+      currentBoundary = currentLine.trim();
+    }
+    return new Line(currentLine, ++lineCounter);
+  }
+
   private void updateCurrentCharset(final String currentLine) {
     if (currentLine != null) {
       if (currentLine.startsWith(HttpHeader.CONTENT_TYPE)) {
@@ -153,7 +153,7 @@ public class BatchParserCommon {
     return messageParts;
   }
 
-  private static void removeEndingCRLFFromList(final List<Line> list) {
+  public static void removeEndingCRLFFromList(final List<Line> list) {
     if (!list.isEmpty()) {
       Line lastLine = list.remove(list.size() - 1);
       list.add(removeEndingCRLF(lastLine));
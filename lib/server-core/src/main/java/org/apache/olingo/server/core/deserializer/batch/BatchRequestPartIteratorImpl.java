@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
+
+/**
+ * Splits a batch request into its body parts while reading it.
+ * Only the lines of the body part currently parsed are kept in memory.
+ */
+public class BatchRequestPartIteratorImpl implements BatchRequestPartIterator {
+
+  private final BatchLineReader reader;
+  private final String boundary;
+  private final boolean isStrict;
+  private final BatchRequestTransformator transformator;
+  private final Pattern boundaryPattern;
+  private final Pattern boundaryDelimiterPattern;
+  private final List<BatchRequestPart> pendingParts = new LinkedList<>();
+
+  private boolean isPreambleRead = false;
+  private boolean isEndReached = false;
+  private int firstLineNumber = 0;
+
+  public BatchRequestPartIteratorImpl(final InputStream content, final String boundary, final BatchOptions options) {
+    reader = new BatchLineReader(content);
+    this.boundary = boundary;
+    isStrict = options.isStrict();
+    transformator = new BatchRequestTransformator(options.getRawBaseUri(), options.getRawServiceResolutionUri());
+
+    final String quotedBoundary = Pattern.quote(boundary);
+    boundaryDelimiterPattern = Pattern.compile("--" + quotedBoundary + "--\\s*");
+    boundaryPattern = Pattern.compile("--" + quotedBoundary + "\\s*");
+  }
+
+  @Override
+  public boolean hasNext() throws BatchDeserializerException {
+    try {
+      while (pendingParts.isEmpty() && !isEndReached) {
+        readBodyPart();
+      }
+    } catch (final IOException e) {
+      throw new ODataRuntimeException(e);
+    }
+    return !pendingParts.isEmpty();
+  }
+
+  @Override
+  public BatchRequestPart next() throws BatchDeserializerException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return pendingParts.remove(0);
+  }
+
+  private void readBodyPart() throws IOException, BatchDeserializerException {
+    if (!isPreambleRead) {
+      readUntilBoundary();
+      isPreambleRead = true;
+      if (isEndReached) {
+        return;
+      }
+    }
+    final List<Line> bodyPartLines = readUntilBoundary();
+    final BatchBodyPart bodyPart = new BatchBodyPart(bodyPartLines, boundary, isStrict).parse();
+    pendingParts.addAll(transformator.transform(bodyPart));
+  }
+
+  private List<Line> readUntilBoundary() throws IOException, BatchDeserializerException {
+    final List<Line> lines = new LinkedList<>();
+    Line currentLine;
+    while ((currentLine = reader.nextLine()) != null) {
+      if (firstLineNumber == 0) {
+        firstLineNumber = currentLine.getLineNumber();
+      }
+      if (boundaryDelimiterPattern.matcher(currentLine.toString()).matches()) {
+        isEndReached = true;
+        reader.close();
+        BatchParserCommon.removeEndingCRLFFromList(lines);
+        return lines;
+      } else if (boundaryPattern.matcher(currentLine.toString()).matches()) {
+        BatchParserCommon.removeEndingCRLFFromList(lines);
+        return lines;
+      } else {
+        lines.add(currentLine);
+      }
+    }
+    reader.close();
+    isEndReached = true;
+    throw new BatchDeserializerException("Missing close boundary delimiter",
+        BatchDeserializerException.MessageKeys.MISSING_CLOSE_DELIMITER, Integer.toString(firstLineNumber));
+  }
+}
@@ -31,6 +31,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.IConstants;
@@ -42,6 +43,7 @@ import org.apache.olingo.commons.api.data.DeletedEntity.Reason;
 import org.apache.olingo.commons.api.data.Delta;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.data.Property;
@@ -71,6 +73,7 @@ import org.apache.olingo.commons.api.edm.geo.MultiPolygon;
 import org.apache.olingo.commons.api.edm.geo.Point;
 import org.apache.olingo.commons.api.edm.geo.Polygon;
 import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
@@ -86,11 +89,14 @@ import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class ODataJsonDeserializer implements ODataDeserializer {
@@ -141,34 +147,26 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   public DeserializerResult entityCollection(final InputStream stream, final EdmEntityType edmEntityType)
       throws DeserializerException {
     try {
-      return DeserializerResultImpl.with().entityCollection(
-          consumeEntityCollectionNode(edmEntityType, parseJsonTree(stream), null))
-          .build();
+      final StreamedEntityIterator iterator = new StreamedEntityIterator(createParser(stream), edmEntityType);
+      EntityCollection entitySet = new EntityCollection();
+      Entity entity;
+      while ((entity = iterator.read()) != null) {
+        entitySet.getEntities().add(entity);
+      }
+      return DeserializerResultImpl.with().entityCollection(entitySet).build();
     } catch (final IOException e) {
       throw wrapParseException(e);
     }
   }
 
-  private EntityCollection consumeEntityCollectionNode(final EdmEntityType edmEntityType, final ObjectNode tree,
-      final ExpandTreeBuilder expandBuilder) throws DeserializerException {
-    EntityCollection entitySet = new EntityCollection();
-
-    // Consume entities
-    JsonNode jsonNode = tree.get(Constants.VALUE);
-    if (jsonNode != null) {
-      entitySet.getEntities().addAll(consumeEntitySetArray(edmEntityType, jsonNode, expandBuilder));
-      tree.remove(Constants.VALUE);
-    } else {
-      throw new DeserializerException("Could not find value array.",
-          DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
-    }
-
-    if (tree.isObject()) {
-      removeAnnotations(tree);
+  @Override
+  public EntityIterator entityCollectionStreamed(final InputStream stream, final EdmEntityType edmEntityType)
+      throws DeserializerException {
+    try {
+      return new StreamedEntityIterator(createParser(stream), edmEntityType);
+    } catch (final IOException e) {
+      throw wrapParseException(e);
     }
-    assertJsonNodeIsEmpty(tree);
-
-    return entitySet;
   }
 
   private List<Entity> consumeEntitySetArray(final EdmEntityType edmEntityType, final JsonNode jsonNode,
@@ -194,12 +192,11 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   public DeserializerResult entity(final InputStream stream, final EdmEntityType edmEntityType)
       throws DeserializerException {
     try {
-      final ObjectNode tree = parseJsonTree(stream);
+      final JsonParser parser = createParser(stream);
+      assertStartObject(parser.nextToken());
       final ExpandTreeBuilder expandBuilder = ExpandTreeBuilderImpl.create();
 
-      EdmEntityType derivedEdmEntityType = (EdmEntityType) getDerivedType(edmEntityType, tree);
-
-      return DeserializerResultImpl.with().entity(consumeEntityNode(derivedEdmEntityType, tree, expandBuilder))
+      return DeserializerResultImpl.with().entity(readEntity(parser, edmEntityType, expandBuilder))
           .expandOption(expandBuilder.build())
           .build();
     } catch (final IOException e) {
@@ -207,8 +204,67 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
+  /**
+   * Reads an entity from the JSON object the parser is positioned at, token by token.
+   * Expanded navigation properties are read recursively from the stream,
+   * all other members are read as (small) JSON trees and consumed afterwards.
+   * @param parser parser positioned at the start of the JSON object
+   * @param edmEntityType the expected entity type; a derived type can be given by the type annotation
+   * @param expandBuilder builder for the expand tree, may be <code>null</code>
+   */
+  private Entity readEntity(final JsonParser parser, final EdmEntityType edmEntityType,
+      final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    final ObjectNode node = JsonNodeFactory.instance.objectNode();
+    final Map<String, Link> inlineLinks = new HashMap<>();
+    EdmEntityType derivedEdmEntityType = edmEntityType;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      final JsonToken token = parser.nextToken();
+      assertNotDuplicate(name, node.has(name) || inlineLinks.containsKey(name));
+      final EdmNavigationProperty edmNavigationProperty = derivedEdmEntityType.getNavigationProperty(name);
+      if (edmNavigationProperty != null
+          && (token == JsonToken.START_ARRAY && edmNavigationProperty.isCollection()
+          || token == JsonToken.START_OBJECT && !edmNavigationProperty.isCollection())) {
+        inlineLinks.put(name, readLink(parser, edmNavigationProperty, expandBuilder));
+      } else {
+        node.set(name, readJsonTree(parser));
+        if (name.equals(constants.getType())) {
+          derivedEdmEntityType = (EdmEntityType) getDerivedType(edmEntityType, node);
+        }
+      }
+    }
+    return consumeEntityNode(derivedEdmEntityType, node, expandBuilder, inlineLinks);
+  }
+
+  private Link readLink(final JsonParser parser, final EdmNavigationProperty edmNavigationProperty,
+      final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    Link link = new Link();
+    link.setTitle(edmNavigationProperty.getName());
+    final ExpandTreeBuilder childExpandBuilder = (expandBuilder != null) ? expandBuilder.expand(edmNavigationProperty)
+        : null;
+    if (edmNavigationProperty.isCollection()) {
+      link.setType(Constants.ENTITY_SET_NAVIGATION_LINK_TYPE);
+      EntityCollection inlineEntitySet = new EntityCollection();
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        assertEntityStart(token);
+        inlineEntitySet.getEntities().add(readEntity(parser, edmNavigationProperty.getType(), childExpandBuilder));
+      }
+      link.setInlineEntitySet(inlineEntitySet);
+    } else {
+      link.setType(Constants.ENTITY_NAVIGATION_LINK_TYPE);
+      link.setInlineEntity(readEntity(parser, edmNavigationProperty.getType(), childExpandBuilder));
+    }
+    return link;
+  }
+
   private Entity consumeEntityNode(final EdmEntityType edmEntityType, final ObjectNode tree,
       final ExpandTreeBuilder expandBuilder) throws DeserializerException {
+    return consumeEntityNode(edmEntityType, tree, expandBuilder, Collections.<String, Link> emptyMap());
+  }
+
+  private Entity consumeEntityNode(final EdmEntityType edmEntityType, final ObjectNode tree,
+      final ExpandTreeBuilder expandBuilder, final Map<String, Link> inlineLinks) throws DeserializerException {
     Entity entity = new Entity();
     entity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
     
@@ -219,7 +275,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     consumeEntityProperties(edmEntityType, tree, entity);
 
     // Check and consume all expanded Navigation Properties
-    consumeExpandedNavigationProperties(edmEntityType, tree, entity, expandBuilder);
+    consumeExpandedNavigationProperties(edmEntityType, tree, entity, expandBuilder, inlineLinks);
 
     // consume delta json node fields for v4.01
     consumeDeltaJsonNodeFields(edmEntityType, tree, entity, expandBuilder);
@@ -305,12 +361,37 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   public DeserializerResult actionParameters(final InputStream stream, final EdmAction edmAction)
       throws DeserializerException {
     try {
-      ObjectNode tree = parseJsonTree(stream);
-      Map<String, Parameter> parameters = consumeParameters(edmAction, tree);
-
-      if (tree.isObject()) {
-        removeAnnotations(tree);
+      final JsonParser parser = createParser(stream);
+      assertStartObject(parser.nextToken());
+      final List<String> parameterNames = getPayloadParameterNames(edmAction);
+      ObjectNode tree = JsonNodeFactory.instance.objectNode();
+      Map<String, Parameter> entityCollectionParameters = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        final JsonToken token = parser.nextToken();
+        assertNotDuplicate(name, tree.has(name) || entityCollectionParameters.containsKey(name));
+        final EdmParameter edmParameter = parameterNames.contains(name) ? edmAction.getParameter(name) : null;
+        if (edmParameter != null && edmParameter.getType().getKind() == EdmTypeKind.ENTITY
+            && edmParameter.isCollection() && token == JsonToken.START_ARRAY) {
+          // Entity collections are the potentially large parameters; they are read entity by entity.
+          EntityCollection entityCollection = new EntityCollection();
+          JsonToken elementToken;
+          while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            assertEntityStart(elementToken);
+            entityCollection.getEntities().add(readEntity(parser, (EdmEntityType) edmParameter.getType(), null));
+          }
+          Parameter parameter = new Parameter();
+          parameter.setName(name);
+          parameter.setValue(ValueType.COLLECTION_ENTITY, entityCollection);
+          entityCollectionParameters.put(name, parameter);
+        } else {
+          tree.set(name, readJsonTree(parser));
+        }
       }
+      Map<String, Parameter> parameters = consumeParameters(edmAction, parameterNames, tree,
+          entityCollectionParameters);
+
+      removeAnnotations(tree);
       assertJsonNodeIsEmpty(tree);
       return DeserializerResultImpl.with().actionParameters(parameters).build();
 
@@ -319,10 +400,14 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
-  private ObjectNode parseJsonTree(final InputStream stream) throws IOException, DeserializerException {
+  private JsonParser createParser(final InputStream stream) throws IOException {
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true);
-    JsonParser parser = new JsonFactory(objectMapper).createParser(stream);
+    return new JsonFactory(objectMapper).createParser(stream);
+  }
+
+  private ObjectNode parseJsonTree(final InputStream stream) throws IOException, DeserializerException {
+    JsonParser parser = createParser(stream);
     final JsonNode tree = parser.getCodec().readTree(parser);
     if (tree == null || !tree.isObject()) {
       throw new DeserializerException("Invalid JSON syntax.",
@@ -331,13 +416,44 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     return (ObjectNode) tree;
   }
 
-  private Map<String, Parameter> consumeParameters(final EdmAction edmAction, final ObjectNode node)
-      throws DeserializerException {
+  /** Reads the JSON value the parser is positioned at as tree. */
+  private JsonNode readJsonTree(final JsonParser parser) throws IOException {
+    final JsonNode node = parser.getCodec().readTree(parser);
+    return node == null ? NullNode.getInstance() : node;
+  }
+
+  private void assertStartObject(final JsonToken token) throws DeserializerException {
+    if (token != JsonToken.START_OBJECT) {
+      throw new DeserializerException("Invalid JSON syntax.",
+          DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+    }
+  }
+
+  private void assertEntityStart(final JsonToken token) throws DeserializerException {
+    if (token != JsonToken.START_OBJECT) {
+      throw new DeserializerException("Nested Arrays and primitive values are not allowed for an entity value.",
+          DeserializerException.MessageKeys.INVALID_ENTITY);
+    }
+  }
+
+  private void assertNotDuplicate(final String name, final boolean isDuplicate) throws DeserializerException {
+    if (isDuplicate) {
+      throw new DeserializerException("Duplicate json property detected: " + name,
+          DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
+    }
+  }
+
+  private List<String> getPayloadParameterNames(final EdmAction edmAction) {
     List<String> parameterNames = edmAction.getParameterNames();
     if (edmAction.isBound()) {
       // The binding parameter must not occur in the payload.
       parameterNames = parameterNames.subList(1, parameterNames.size());
     }
+    return parameterNames;
+  }
+
+  private Map<String, Parameter> consumeParameters(final EdmAction edmAction, final List<String> parameterNames,
+      final ObjectNode node, final Map<String, Parameter> entityCollectionParameters) throws DeserializerException {
     Map<String, Parameter> parameters = new LinkedHashMap<>();
     for (final String paramName : parameterNames) {
       final EdmParameter edmParameter = edmAction.getParameter(paramName);
@@ -348,7 +464,9 @@ public class ODataJsonDeserializer implements ODataDeserializer {
       case ENUM:
       case COMPLEX:
       case ENTITY:
-        Parameter parameter = createParameter(node.get(paramName), paramName, edmParameter);
+        Parameter parameter = entityCollectionParameters.containsKey(paramName) ?
+            entityCollectionParameters.get(paramName) :
+            createParameter(node.get(paramName), paramName, edmParameter);
         parameters.put(paramName, parameter);
         node.remove(paramName);
         break;
@@ -468,12 +586,16 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   }
 
   private void consumeExpandedNavigationProperties(final EdmEntityType edmEntityType, final ObjectNode node,
-      final Entity entity, final ExpandTreeBuilder expandBuilder) throws DeserializerException {
+      final Entity entity, final ExpandTreeBuilder expandBuilder, final Map<String, Link> inlineLinks)
+      throws DeserializerException {
     List<String> navigationPropertyNames = edmEntityType.getNavigationPropertyNames();
     for (String navigationPropertyName : navigationPropertyNames) {
       // read expanded navigation property
       JsonNode jsonNode = node.get(navigationPropertyName);
-      if (jsonNode != null) {
+      if (inlineLinks.containsKey(navigationPropertyName)) {
+        // already read from the stream
+        entity.getNavigationLinks().add(inlineLinks.get(navigationPropertyName));
+      } else if (jsonNode != null) {
         EdmNavigationProperty edmNavigationProperty = edmEntityType.getNavigationProperty(navigationPropertyName);
         checkNotNullOrValidNull(jsonNode, edmNavigationProperty);
 
@@ -1123,4 +1245,90 @@ public class ODataJsonDeserializer implements ODataDeserializer {
         && (edmStructuredType.getFullQualifiedName().equals(edmStructuredTypeToAssign.getFullQualifiedName())
             || isAssignable(edmStructuredType, edmStructuredTypeToAssign.getBaseType()));
   }
+
+  /**
+   * Iterator over the entities of an entity-collection document;
+   * the entities are read one by one from the stream while iterating.
+   * Deserialization errors during iteration are thrown as {@link ODataRuntimeException}
+   * with the {@link DeserializerException} as cause.
+   */
+  private class StreamedEntityIterator extends EntityIterator {
+
+    private final JsonParser parser;
+    private final EdmEntityType edmEntityType;
+    private final ObjectNode tree = JsonNodeFactory.instance.objectNode();
+    private Entity next;
+    private boolean finished = false;
+
+    private StreamedEntityIterator(final JsonParser parser, final EdmEntityType edmEntityType)
+        throws IOException, DeserializerException {
+      this.parser = parser;
+      this.edmEntityType = edmEntityType;
+      assertStartObject(parser.nextToken());
+      // Move to the start of the value array; preceding members are kept for validation.
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        final JsonToken token = parser.nextToken();
+        assertNotDuplicate(name, tree.has(name));
+        if (Constants.VALUE.equals(name)) {
+          if (token != JsonToken.START_ARRAY) {
+            throw new DeserializerException("The content of the value tag must be an Array but is not.",
+                DeserializerException.MessageKeys.VALUE_TAG_MUST_BE_AN_ARRAY);
+          }
+          return;
+        }
+        tree.set(name, readJsonTree(parser));
+      }
+      throw new DeserializerException("Could not find value array.",
+          DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
+    }
+
+    /** Reads the next entity or returns <code>null</code> at the end of the value array. */
+    private Entity read() throws IOException, DeserializerException {
+      if (finished) {
+        return null;
+      }
+      final JsonToken token = parser.nextToken();
+      if (token == JsonToken.END_ARRAY) {
+        finished = true;
+        // Consume members following the value array.
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String name = parser.getCurrentName();
+          parser.nextToken();
+          assertNotDuplicate(name, tree.has(name) || Constants.VALUE.equals(name));
+          tree.set(name, readJsonTree(parser));
+        }
+        removeAnnotations(tree);
+        assertJsonNodeIsEmpty(tree);
+        parser.close();
+        return null;
+      }
+      assertEntityStart(token);
+      return readEntity(parser, edmEntityType, null);
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !finished) {
+        try {
+          next = read();
+        } catch (final IOException e) {
+          throw new ODataRuntimeException(wrapParseException(e));
+        } catch (final DeserializerException e) {
+          throw new ODataRuntimeException(e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Entity entity = next;
+      next = null;
+      return entity;
+    }
+  }
 }
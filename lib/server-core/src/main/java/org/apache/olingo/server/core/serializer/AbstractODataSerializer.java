@@ -21,8 +21,11 @@ package org.apache.olingo.server.core.serializer;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.ServiceMetadataImpl;
+import org.apache.olingo.server.core.serializer.utils.MetadataDocumentCache;
 
 public abstract class AbstractODataSerializer implements ODataSerializer {
 
@@ -44,4 +47,19 @@ public abstract class AbstractODataSerializer implements ODataSerializer {
       }
     }
   }
+
+  /**
+   * Gets the cache for serialized metadata documents if the service metadata provides one.
+   * @return the cache or <code>null</code>
+   */
+  protected MetadataDocumentCache getMetadataDocumentCache(final ServiceMetadata serviceMetadata) {
+    return serviceMetadata instanceof ServiceMetadataImpl ?
+        ((ServiceMetadataImpl) serviceMetadata).getMetadataDocumentCache() :
+        null;
+  }
+
+  protected String getMetadataETag(final ServiceMetadata serviceMetadata) {
+    return serviceMetadata == null || serviceMetadata.getServiceMetadataETagSupport() == null ? null :
+        serviceMetadata.getServiceMetadataETagSupport().getMetadataETag();
+  }
 }
@@ -22,11 +22,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -36,14 +38,17 @@ import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataContentWriteErrorCallback;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.BatchSerializerException.MessageKeys;
+import org.apache.olingo.server.core.ODataWritableContent.WriteErrorContext;
 import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 
 public class BatchResponseSerializer {
   private static final int BUFFER_SIZE = 4096;
+  private static final Charset CHARSET_ISO_8859_1 = Charset.forName("iso-8859-1");
   private static final String DOUBLE_DASH = "--";
   private static final String COLON = ":";
   private static final String SP = " ";
@@ -51,79 +56,96 @@ public class BatchResponseSerializer {
 
   public InputStream serialize(final List<ODataResponsePart> responses, final String boundary)
       throws BatchSerializerException {
-    BodyBuilder builder = createBody(responses, boundary);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      writeBody(responses.iterator(), boundary, output, true);
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Error on reading request content", e);
+    }
 
-    return new ByteArrayInputStream(builder.getContent());
+    return new ByteArrayInputStream(output.toByteArray());
   }
 
-  private BodyBuilder createBody(final List<ODataResponsePart> batchResponses, final String boundary)
-      throws BatchSerializerException {
-    final BodyBuilder builder = new BodyBuilder();
+  /**
+   * Creates a batch response content which writes every part directly into the output
+   * at the time it is taken from the iterator.
+   * The bodies of the parts are copied without being buffered, so the parts get no
+   * Content-Length header besides the one their responses already have.
+   * @param responses the response parts
+   * @param boundary the boundary between the parts
+   * @param errorCallback called if the serialization fails while the content is written (may be null)
+   * @return the streamed batch response content
+   */
+  public ODataContent serializeStreamed(final Iterator<ODataResponsePart> responses, final String boundary,
+      final ODataContentWriteErrorCallback errorCallback) {
+    return new StreamedBatchContent(responses, boundary, errorCallback);
+  }
 
-    for (final ODataResponsePart part : batchResponses) {
-      builder.append(getDashBoundary(boundary));
+  private void writeBody(final Iterator<ODataResponsePart> batchResponses, final String boundary,
+      final OutputStream output, final boolean withContentLength) throws BatchSerializerException, IOException {
+    while (batchResponses.hasNext()) {
+      final ODataResponsePart part = batchResponses.next();
+      append(getDashBoundary(boundary), output);
 
       if (part.isChangeSet()) {
-        appendChangeSet(part, builder);
+        appendChangeSet(part, output, withContentLength);
       } else {
-        appendBodyPart(part.getResponses().get(0), builder, false);
+        appendBodyPart(part.getResponses().get(0), output, false, withContentLength);
       }
     }
-    builder.append(getCloseDelimiter(boundary));
-
-    return builder;
+    append(getCloseDelimiter(boundary), output);
   }
 
-  private void appendChangeSet(final ODataResponsePart part, final BodyBuilder builder)
-      throws BatchSerializerException {
+  private void appendChangeSet(final ODataResponsePart part, final OutputStream output,
+      final boolean withContentLength) throws BatchSerializerException, IOException {
     final String changeSetBoundary = generateBoundary("changeset");
 
-    appendChangeSetHeader(builder, changeSetBoundary);
-    builder.append(CRLF);
+    appendChangeSetHeader(output, changeSetBoundary);
+    append(CRLF, output);
 
     for (final ODataResponse response : part.getResponses()) {
-      builder.append(getDashBoundary(changeSetBoundary));
-      appendBodyPart(response, builder, true);
+      append(getDashBoundary(changeSetBoundary), output);
+      appendBodyPart(response, output, true, withContentLength);
     }
 
-    builder.append(getCloseDelimiter(changeSetBoundary));
+    append(getCloseDelimiter(changeSetBoundary), output);
   }
 
-  private void appendBodyPart(final ODataResponse response, final BodyBuilder builder, final boolean isChangeSet)
-      throws BatchSerializerException {
-
-    appendBodyPartHeader(response, builder, isChangeSet);
-    builder.append(CRLF);
-
-    appendStatusLine(response, builder);
-    Body body = new Body(response);
-    appendResponseHeader(response, body.getLength(), builder);
-    builder.append(CRLF);
-
-    builder.append(body);
-    builder.append(CRLF);
+  private void appendBodyPart(final ODataResponse response, final OutputStream output, final boolean isChangeSet,
+      final boolean withContentLength) throws BatchSerializerException, IOException {
+
+    appendBodyPartHeader(response, output, isChangeSet);
+    append(CRLF, output);
+
+    appendStatusLine(response, output);
+    if (withContentLength) {
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+      appendResponseBody(response, body);
+      appendResponseHeader(response, output);
+      appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(body.size()), output);
+      append(CRLF, output);
+      body.writeTo(output);
+    } else {
+      appendResponseHeader(response, output);
+      append(CRLF, output);
+      appendResponseBody(response, output);
+    }
+    append(CRLF, output);
   }
 
-  private void appendChangeSetHeader(final BodyBuilder builder, final String changeSetBoundary) {
+  private void appendChangeSetHeader(final OutputStream output, final String changeSetBoundary)
+      throws IOException {
     appendHeader(HttpHeader.CONTENT_TYPE, ContentType.MULTIPART_MIXED
-        + "; boundary=" + changeSetBoundary, builder);
+        + "; boundary=" + changeSetBoundary, output);
   }
 
-  private void appendHeader(final String name, final String value, final BodyBuilder builder) {
-    builder.append(name)
-        .append(COLON)
-        .append(SP)
-        .append(value)
-        .append(CRLF);
+  private void appendHeader(final String name, final String value, final OutputStream output)
+      throws IOException {
+    append(name + COLON + SP + value + CRLF, output);
   }
 
-  private void appendStatusLine(final ODataResponse response, final BodyBuilder builder) {
-    builder.append("HTTP/1.1")
-        .append(SP)
-        .append(response.getStatusCode())
-        .append(SP)
-        .append(getStatusCodeInfo(response))
-        .append(CRLF);
+  private void appendStatusLine(final ODataResponse response, final OutputStream output) throws IOException {
+    append("HTTP/1.1" + SP + response.getStatusCode() + SP + getStatusCodeInfo(response) + CRLF, output);
   }
 
   private String getStatusCodeInfo(final ODataResponse response) {
@@ -134,34 +156,58 @@ public class BatchResponseSerializer {
     return status.getInfo();
   }
 
-  private void appendResponseHeader(final ODataResponse response, final int contentLength,
-      final BodyBuilder builder) {
+  private void appendResponseHeader(final ODataResponse response, final OutputStream output)
+      throws IOException {
     final Map<String, List<String>> header = response.getAllHeaders();
 
     for (final Map.Entry<String, List<String>> entry : header.entrySet()) {
       // Requests never have a content id header.
       if (!entry.getKey().equalsIgnoreCase(HttpHeader.CONTENT_ID)) {
-        appendHeader(entry.getKey(), entry.getValue().get(0), builder);
+        appendHeader(entry.getKey(), entry.getValue().get(0), output);
       }
     }
-
-    appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(contentLength), builder);
   }
 
-  private void appendBodyPartHeader(final ODataResponse response, final BodyBuilder builder,
-      final boolean isChangeSet) throws BatchSerializerException {
-    appendHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString(), builder);
-    appendHeader(BatchParserCommon.CONTENT_TRANSFER_ENCODING, BatchParserCommon.BINARY_ENCODING, builder);
+  private void appendBodyPartHeader(final ODataResponse response, final OutputStream output,
+      final boolean isChangeSet) throws BatchSerializerException, IOException {
+    appendHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString(), output);
+    appendHeader(BatchParserCommon.CONTENT_TRANSFER_ENCODING, BatchParserCommon.BINARY_ENCODING, output);
 
     if (isChangeSet) {
       if (response.getHeader(HttpHeader.CONTENT_ID) != null) {
-        appendHeader(HttpHeader.CONTENT_ID, response.getHeader(HttpHeader.CONTENT_ID), builder);
+        appendHeader(HttpHeader.CONTENT_ID, response.getHeader(HttpHeader.CONTENT_ID), output);
       } else {
         throw new BatchSerializerException("Missing content id", MessageKeys.MISSING_CONTENT_ID);
       }
     }
   }
 
+  /**
+   * Copies the body of the response as bytes (no charset conversion).
+   */
+  private void appendResponseBody(final ODataResponse response, final OutputStream output) throws IOException {
+    if (response == null) {
+      return;
+    }
+    if (response.getContent() != null) {
+      final ByteBuffer inBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+      final WritableByteChannel oc = Channels.newChannel(output);
+      try (ReadableByteChannel ic = Channels.newChannel(response.getContent())) {
+        while (ic.read(inBuffer) > 0) {
+          inBuffer.flip();
+          oc.write(inBuffer);
+          inBuffer.rewind();
+        }
+      }
+    } else if (response.getODataContent() != null) {
+      response.getODataContent().write(output);
+    }
+  }
+
+  private void append(final String string, final OutputStream output) throws IOException {
+    output.write(string.getBytes(CHARSET_ISO_8859_1));
+  }
+
   private String getDashBoundary(final String boundary) {
     return DOUBLE_DASH + boundary + CRLF;
   }
@@ -175,103 +221,37 @@ public class BatchResponseSerializer {
   }
 
   /**
-   * Builder class to create the body and the header.
+   * Batch response content which serializes the response parts while it is written.
    */
-  private static class BodyBuilder {
-    private static final Charset CHARSET_ISO_8859_1 = Charset.forName("iso-8859-1");
-    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
-    private boolean isClosed = false;
-
-    public byte[] getContent() {
-      isClosed = true;
-      byte[] tmp = new byte[buffer.position()];
-      buffer.flip();
-      buffer.get(tmp, 0, buffer.limit());
-      return tmp;
-    }
-
-    public BodyBuilder append(final String string) {
-      byte[] b = string.getBytes(CHARSET_ISO_8859_1);
-      put(b);
-      return this;
-    }
-
-    private void put(final byte[] b) {
-      if (isClosed) {
-        throw new ODataRuntimeException("BodyBuilder is closed.");
-      }
-      if (buffer.remaining() < b.length) {
-        buffer.flip();
-        int newSize = (buffer.limit() * 2) + b.length;
-        ByteBuffer tmp = ByteBuffer.allocate(newSize);
-        tmp.put(buffer);
-        buffer = tmp;
-      }
-      buffer.put(b);
-    }
-
-    public BodyBuilder append(final int statusCode) {
-      return append(String.valueOf(statusCode));
-    }
-
-    public BodyBuilder append(final Body body) {
-      put(body.getContent());
-      return this;
+  private class StreamedBatchContent implements ODataContent {
+    private final Iterator<ODataResponsePart> responses;
+    private final String boundary;
+    private final ODataContentWriteErrorCallback errorCallback;
+
+    StreamedBatchContent(final Iterator<ODataResponsePart> responses, final String boundary,
+        final ODataContentWriteErrorCallback errorCallback) {
+      this.responses = responses;
+      this.boundary = boundary;
+      this.errorCallback = errorCallback;
     }
 
     @Override
-    public String toString() {
-      return new String(buffer.array(), 0, buffer.position(), CHARSET_ISO_8859_1);
+    public void write(final WritableByteChannel channel) {
+      write(Channels.newOutputStream(channel));
     }
-  }
-
-  /**
-   * Body part which is read and stored as bytes (no charset conversion).
-   */
-  private static class Body {
-    private final byte[] content;
-
-    Body(final ODataResponse response) {
-      content = getBody(response);
-    }
-
-    private int getLength() {
-      return content.length;
-    }
-
-    private byte[] getContent() {
-      return content; //NOSONAR
-    }
-
-    private byte[] getBody(final ODataResponse response) {
-      if (response == null || (response.getContent() == null && 
-          response.getODataContent() == null)) {
-        return new byte[0];
-      }
 
+    @Override
+    public void write(final OutputStream stream) {
       try {
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        ByteBuffer inBuffer = ByteBuffer.allocate(BUFFER_SIZE);
-        if (response.getContent() == null) {
-          if (response.getODataContent() != null) {
-            ODataContent res = response.getODataContent();
-            res.write(Channels.newChannel(output));
-            }
-        } else {
-          try (WritableByteChannel oc = Channels.newChannel(output)) {
-            try (ReadableByteChannel ic = Channels.newChannel(response.getContent())) {
-              while (ic.read(inBuffer) > 0) {
-                inBuffer.flip();
-                oc.write(inBuffer);
-                inBuffer.rewind();
-              }
-            }
-          }
+        writeBody(responses, boundary, stream, false);
+        stream.flush();
+      } catch (final BatchSerializerException e) {
+        if (errorCallback != null) {
+          errorCallback.handleError(new WriteErrorContext(e), Channels.newChannel(stream));
         }
-        return output.toByteArray();
-      } catch (IOException e) {
-        throw new ODataRuntimeException("Error on reading request content", e);
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Failed batch response serialization", e);
       }
     }
   }
-}
\ No newline at end of file
+}
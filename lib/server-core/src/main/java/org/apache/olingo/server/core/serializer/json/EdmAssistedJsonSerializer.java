@@ -56,6 +56,7 @@ import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
+import org.apache.olingo.server.core.serializer.utils.StreamFactories;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -67,11 +68,22 @@ public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
   protected final boolean isIEEE754Compatible;
   protected final boolean isODataMetadataNone;
   protected final boolean isODataMetadataFull;
+  private final JsonFactory jsonFactory;
 
   public EdmAssistedJsonSerializer(final ContentType contentType) {
+    this(contentType, StreamFactories.getJsonFactory());
+  }
+
+  /**
+   * Creates a serializer writing with the given JSON factory.
+   * @param contentType the content type, evaluated for its format parameters
+   * @param jsonFactory the factory for the JSON generators; must be thread-safe if shared
+   */
+  public EdmAssistedJsonSerializer(final ContentType contentType, final JsonFactory jsonFactory) {
     this.isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     this.isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     this.isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
+    this.jsonFactory = jsonFactory;
   }
 
   @Override
@@ -98,7 +110,7 @@ public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       if (obj instanceof AbstractEntityCollection) {
         doSerialize(entityType, (AbstractEntityCollection) obj, contextURLString, metadataETag, json);
       } else if (obj instanceof Entity) {
@@ -60,6 +60,7 @@ import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.StreamFactories;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -78,11 +79,22 @@ public class JsonDeltaSerializer implements EdmDeltaSerializer {
   private final boolean isIEEE754Compatible;
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
+  private final JsonFactory jsonFactory;
 
   public JsonDeltaSerializer(final ContentType contentType) {
+    this(contentType, StreamFactories.getJsonFactory());
+  }
+
+  /**
+   * Creates a serializer writing with the given JSON factory.
+   * @param contentType the content type, evaluated for its format parameters
+   * @param jsonFactory the factory for the JSON generators; must be thread-safe if shared
+   */
+  public JsonDeltaSerializer(final ContentType contentType, final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
+    this.jsonFactory = jsonFactory;
   }
 
   @Override
@@ -93,7 +105,7 @@ public class JsonDeltaSerializer implements EdmDeltaSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       boolean pagination = false;
       json.writeStartObject();
 
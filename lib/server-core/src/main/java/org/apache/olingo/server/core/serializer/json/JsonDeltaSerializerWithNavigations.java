@@ -66,6 +66,7 @@ import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.StreamFactories;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -76,11 +77,22 @@ public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
   private final boolean isIEEE754Compatible;
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
+  private final JsonFactory jsonFactory;
 
   public JsonDeltaSerializerWithNavigations(final ContentType contentType) {
+    this(contentType, StreamFactories.getJsonFactory());
+  }
+
+  /**
+   * Creates a serializer writing with the given JSON factory.
+   * @param contentType the content type, evaluated for its format parameters
+   * @param jsonFactory the factory for the JSON generators; must be thread-safe if shared
+   */
+  public JsonDeltaSerializerWithNavigations(final ContentType contentType, final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
+    this.jsonFactory = jsonFactory;
   }
 
   @Override
@@ -92,7 +104,7 @@ public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
     
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+      try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
         json.writeStartObject();
 
         final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -18,15 +18,20 @@
  */
 package org.apache.olingo.server.core.serializer.json;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Base64;
@@ -90,6 +95,8 @@ import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.MetadataDocumentCache;
+import org.apache.olingo.server.core.serializer.utils.StreamFactories;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 
@@ -111,23 +118,45 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     geoValueTypeToJsonName = Collections.unmodifiableMap(temp);
   }
 
+  /** The kinds of the built-in primitive types; type definitions are not contained. */
+  private static final Map<EdmPrimitiveType, EdmPrimitiveTypeKind> primitiveTypeKinds;
+  static {
+    Map<EdmPrimitiveType, EdmPrimitiveTypeKind> temp = new IdentityHashMap<>();
+    for (final EdmPrimitiveTypeKind kind : EdmPrimitiveTypeKind.values()) {
+      temp.put(EdmPrimitiveTypeFactory.getInstance(kind), kind);
+    }
+    primitiveTypeKinds = Collections.unmodifiableMap(temp);
+  }
+
   private final boolean isIEEE754Compatible;
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
   private IConstants constants;
+  private final JsonFactory jsonFactory;
+  /** The last used write plan per type. */
+  private final ConcurrentMap<EdmStructuredType, PropertyWritePlan> writePlans = new ConcurrentHashMap<>();
 
-  public ODataJsonSerializer(final ContentType contentType, final IConstants constants) {
+  /**
+   * Creates a serializer writing with the given JSON factory.
+   * @param contentType the content type, evaluated for its format parameters
+   * @param constants the constants of the OData version
+   * @param jsonFactory the factory for the JSON generators; must be thread-safe if shared
+   */
+  public ODataJsonSerializer(final ContentType contentType, final IConstants constants,
+      final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
     this.constants = constants;
+    this.jsonFactory = jsonFactory;
+  }
+
+  public ODataJsonSerializer(final ContentType contentType, final IConstants constants) {
+    this(contentType, constants, StreamFactories.getJsonFactory());
   }
 
   public ODataJsonSerializer(final ContentType contentType) {
-    isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
-    isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
-    isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
-    this.constants = new Constantsv00();
+    this(contentType, new Constantsv00());
   }
 
   @Override
@@ -138,7 +167,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
 
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       new ServiceDocumentJsonSerializer(metadata, serviceRoot, isODataMetadataNone).writeServiceDocument(json);
 
       json.close();
@@ -154,23 +183,23 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
 
   @Override
   public SerializerResult metadataDocument(final ServiceMetadata serviceMetadata) throws SerializerException {
-    OutputStream outputStream = null;
-    SerializerException cachedException = null;
-
-    
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
-    outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
-      new MetadataDocumentJsonSerializer(serviceMetadata).writeMetadataDocument(json);
-      json.close();
-      return SerializerResultImpl.with().content(buffer.getInputStream()).build();
-    } catch (final IOException e) {
-      cachedException =
-          new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
-      throw cachedException;
-    } finally {
-      closeCircleStreamBufferOutput(outputStream, cachedException);
+    final MetadataDocumentCache cache = getMetadataDocumentCache(serviceMetadata);
+    final String format = ContentType.APPLICATION_JSON.toContentTypeString();
+    final String metadataETag = getMetadataETag(serviceMetadata);
+    byte[] document = cache == null ? null : cache.get(format, metadataETag);
+    if (document == null) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
+        new MetadataDocumentJsonSerializer(serviceMetadata).writeMetadataDocument(json);
+      } catch (final IOException e) {
+        throw new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
+      }
+      document = outputStream.toByteArray();
+      if (cache != null) {
+        cache.put(format, metadataETag, document);
+      }
     }
+    return SerializerResultImpl.with().content(new ByteArrayInputStream(document)).build();
   }
 
   @Override
@@ -180,7 +209,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       new ODataErrorSerializer().writeErrorDocument(json, error);
 
       json.close();
@@ -204,7 +233,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -253,7 +282,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException;
     boolean pagination = false;
     try {
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -292,7 +321,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       String name =  contextURL == null ? null:contextURL.getEntitySetOrSingletonOrType();
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -508,31 +537,26 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final List<Property> properties,
       final SelectOption select, final JsonGenerator json, Linked linked, ExpandOption expand)
       throws IOException, SerializerException {
-    final boolean all = ExpandSelectHelper.isAll(select);
-    final Set<String> selected = all ? new HashSet<>() :
-        ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
-    addKeyPropertiesToSelected(selected, type);
-    Set<List<String>> expandedPaths = ExpandSelectHelper.getExpandedItemsPath(expand);
-    for (final String propertyName : type.getPropertyNames()) {
-      if (all || selected.contains(propertyName)) {
-        final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
-        final Property property = findProperty(propertyName, properties);
-        final Set<List<String>> selectedPaths = all || edmProperty.isPrimitive() ? null :
-            ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName);
-        writeProperty(metadata, edmProperty, property, selectedPaths, json, expandedPaths, linked, expand);
-      }
+    final PropertyWritePlan plan = getWritePlan(type, select, expand);
+    final Set<List<String>> expandedPaths = plan.getExpandedPaths();
+    for (final PropertyWritePlan.PropertyEntry entry : plan.getEntries()) {
+      writeProperty(metadata, entry.getEdmProperty(), entry.findProperty(properties), entry.getSelectedPaths(),
+          json, expandedPaths, linked, expand);
     }
   }
-  
-  private void addKeyPropertiesToSelected(Set<String> selected, EdmStructuredType type) {
-    if (!selected.isEmpty() && type instanceof EdmEntityType) {
-      List<String> keyNames = ((EdmEntityType) type).getKeyPredicateNames();
-      for (String key : keyNames) {
-        if (!selected.contains(key)) {
-          selected.add(key);
-        }
-      }
+
+  /**
+   * Gets the plan which properties to write; it is computed only once for all entities
+   * written with the same type and options.
+   */
+  private PropertyWritePlan getWritePlan(final EdmStructuredType type, final SelectOption select,
+      final ExpandOption expand) {
+    PropertyWritePlan plan = writePlans.get(type);
+    if (plan == null || !plan.isFor(type, select, expand)) {
+      plan = PropertyWritePlan.create(type, select, expand);
+      writePlans.put(type, plan);
     }
+    return plan;
   }
 
   protected void writeNavigationProperties(final ServiceMetadata metadata,
@@ -915,23 +939,28 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   protected void writePrimitiveValue(final String name, final EdmPrimitiveType type, final Object primitiveValue,
       final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
       final Boolean isUnicode, final JsonGenerator json) throws EdmPrimitiveTypeException, IOException {
+    final EdmPrimitiveTypeKind kind = primitiveTypeKinds.get(type);
+    if (kind != null && primitiveValue != null
+        && writeTypedPrimitiveValue(kind, primitiveValue, maxLength, precision, isUnicode, json)) {
+      return;
+    }
     final String value = type.valueToString(primitiveValue,
         isNullable, maxLength, precision, scale, isUnicode);
     if (value == null) {
       json.writeNull();
-    } else if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Boolean)) {
+    } else if (kind == EdmPrimitiveTypeKind.Boolean) {
       json.writeBoolean(Boolean.parseBoolean(value));
-    } else if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Byte)
-        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Double)
-        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int16)
-        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int32)
-        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.SByte)
-        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Single)
-        || (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Decimal)
-        || type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int64))
+    } else if (kind == EdmPrimitiveTypeKind.Byte
+        || kind == EdmPrimitiveTypeKind.Double
+        || kind == EdmPrimitiveTypeKind.Int16
+        || kind == EdmPrimitiveTypeKind.Int32
+        || kind == EdmPrimitiveTypeKind.SByte
+        || kind == EdmPrimitiveTypeKind.Single
+        || (kind == EdmPrimitiveTypeKind.Decimal
+        || kind == EdmPrimitiveTypeKind.Int64)
         && !isIEEE754Compatible) {
       json.writeNumber(value);
-    } else if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Stream)) {
+    } else if (kind == EdmPrimitiveTypeKind.Stream) {
       if (primitiveValue instanceof Link) {
         Link stream = (Link)primitiveValue;
         if (!isODataMetadataNone) {
@@ -956,6 +985,80 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     }
   }
 
+  /**
+   * Writes the value directly with its Java type, without converting it to a string first.
+   * Only values that certainly fulfill the facets' constraints are written;
+   * for all others the string conversion of the primitive type does the validation.
+   * @return <code>true</code> if the value has been written
+   */
+  private boolean writeTypedPrimitiveValue(final EdmPrimitiveTypeKind kind, final Object value,
+      final Integer maxLength, final Integer precision, final Boolean isUnicode, final JsonGenerator json)
+      throws IOException {
+    switch (kind) {
+    case Boolean:
+      if (value instanceof Boolean) {
+        json.writeBoolean((Boolean) value);
+        return true;
+      }
+      break;
+    case Byte:
+      return writeIntegralValue(value, 0, 255, json);
+    case SByte:
+      return writeIntegralValue(value, Byte.MIN_VALUE, Byte.MAX_VALUE, json);
+    case Int16:
+      return writeIntegralValue(value, Short.MIN_VALUE, Short.MAX_VALUE, json);
+    case Int32:
+      return writeIntegralValue(value, Integer.MIN_VALUE, Integer.MAX_VALUE, json);
+    case Int64:
+      return !isIEEE754Compatible && writeIntegralValue(value, Long.MIN_VALUE, Long.MAX_VALUE, json);
+    case Decimal:
+      return !isIEEE754Compatible && precision == null
+          && writeIntegralValue(value, Long.MIN_VALUE, Long.MAX_VALUE, json);
+    case Double:
+      if (value instanceof Double && !((Double) value).isNaN() && !((Double) value).isInfinite()) {
+        json.writeNumber((Double) value);
+        return true;
+      }
+      // Integers and floats have their own textual representation.
+      return value instanceof Float ? writeFloatValue((Float) value, json)
+          : writeIntegralValue(value, Integer.MIN_VALUE, Integer.MAX_VALUE, json);
+    case Single:
+      return value instanceof Float ? writeFloatValue((Float) value, json)
+          : writeIntegralValue(value, Short.MIN_VALUE, Short.MAX_VALUE, json);
+    case String:
+      if (value instanceof String
+          && (maxLength == null || ((String) value).length() <= maxLength)
+          && (isUnicode == null || isUnicode)) {
+        json.writeString((String) value);
+        return true;
+      }
+      break;
+    default:
+      break;
+    }
+    return false;
+  }
+
+  private boolean writeIntegralValue(final Object value, final long min, final long max, final JsonGenerator json)
+      throws IOException {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      final long longValue = ((Number) value).longValue();
+      if (longValue >= min && longValue <= max) {
+        json.writeNumber(longValue);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean writeFloatValue(final Float value, final JsonGenerator json) throws IOException {
+    if (value.isNaN() || value.isInfinite()) {
+      return false;
+    }
+    json.writeNumber(value);
+    return true;
+  }
+
   /** Writes a geospatial value following the GeoJSON specification defined in RFC 7946. */
   protected void writeGeoValue(final String name, final EdmPrimitiveType type, final Geospatial geoValue,
       final Boolean isNullable, JsonGenerator json, SRID parentSrid)
@@ -1107,7 +1210,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1152,7 +1255,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
         contextURL.getEntitySetOrSingletonOrType();
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);      
@@ -1207,7 +1310,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1244,7 +1347,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1290,7 +1393,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     final UriHelper uriHelper = new UriHelperImpl();
     outputStream = buffer.getOutputStream();
-    try (final JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (final JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
 
       json.writeStartObject();
       writeContextURL(contextURL, json);
@@ -1320,7 +1423,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     CircleStreamBuffer buffer = new CircleStreamBuffer();
     final UriHelper uriHelper = new UriHelperImpl();
     outputStream = buffer.getOutputStream();
-    try (final JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (final JsonGenerator json = jsonFactory.createGenerator(outputStream)) {
       json.writeStartObject();
 
       writeContextURL(contextURL, json);
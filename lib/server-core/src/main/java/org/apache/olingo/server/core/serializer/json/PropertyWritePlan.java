@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+
+/**
+ * The properties of a structured type to be written for a combination of
+ * $select and $expand options, in the order of the type's property names.
+ * <br/>
+ * A plan is computed once and then used for all entities of that type in the response.
+ * The position of each property in the property list of the last written entity is remembered,
+ * so the property is usually found without scanning the list.
+ */
+final class PropertyWritePlan {
+
+  private final EdmStructuredType type;
+  private final SelectOption select;
+  private final ExpandOption expand;
+  private final List<PropertyEntry> entries;
+  private final Set<List<String>> expandedPaths;
+
+  private PropertyWritePlan(final EdmStructuredType type, final SelectOption select, final ExpandOption expand) {
+    this.type = type;
+    this.select = select;
+    this.expand = expand;
+    final boolean all = ExpandSelectHelper.isAll(select);
+    final Set<String> selected = all ? Collections.<String> emptySet() : getSelectedPropertyNames(type, select);
+    List<PropertyEntry> temp = new ArrayList<>();
+    for (final String propertyName : type.getPropertyNames()) {
+      if (all || selected.contains(propertyName)) {
+        final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
+        temp.add(new PropertyEntry(edmProperty, all || edmProperty.isPrimitive() ? null :
+            ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName)));
+      }
+    }
+    entries = Collections.unmodifiableList(temp);
+    expandedPaths = ExpandSelectHelper.getExpandedItemsPath(expand);
+  }
+
+  static PropertyWritePlan create(final EdmStructuredType type, final SelectOption select,
+      final ExpandOption expand) {
+    return new PropertyWritePlan(type, select, expand);
+  }
+
+  /** Selected property names, including the key properties of entity types. */
+  private static Set<String> getSelectedPropertyNames(final EdmStructuredType type, final SelectOption select) {
+    Set<String> selected = new HashSet<>(ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems()));
+    if (!selected.isEmpty() && type instanceof EdmEntityType) {
+      selected.addAll(((EdmEntityType) type).getKeyPredicateNames());
+    }
+    return selected;
+  }
+
+  /** Returns whether this plan has been computed for exactly these type and options. */
+  boolean isFor(final EdmStructuredType type, final SelectOption select, final ExpandOption expand) {
+    return this.type == type && this.select == select && this.expand == expand;
+  }
+
+  List<PropertyEntry> getEntries() {
+    return entries;
+  }
+
+  Set<List<String>> getExpandedPaths() {
+    return expandedPaths;
+  }
+
+  /** A property to be written, with its selected sub-paths. */
+  static final class PropertyEntry {
+
+    private final String name;
+    private final EdmProperty edmProperty;
+    private final Set<List<String>> selectedPaths;
+    /** Position hint; it is only read and written as a whole, so concurrent use is harmless. */
+    private int position;
+
+    private PropertyEntry(final EdmProperty edmProperty, final Set<List<String>> selectedPaths) {
+      name = edmProperty.getName();
+      this.edmProperty = edmProperty;
+      this.selectedPaths = selectedPaths;
+    }
+
+    EdmProperty getEdmProperty() {
+      return edmProperty;
+    }
+
+    Set<List<String>> getSelectedPaths() {
+      return selectedPaths;
+    }
+
+    /** Finds the property with the name of this entry in the given list. */
+    Property findProperty(final List<Property> properties) {
+      final int hint = position;
+      if (hint < properties.size()) {
+        final Property property = properties.get(hint);
+        if (name.equals(property.getName())) {
+          return property;
+        }
+      }
+      for (int index = 0; index < properties.size(); index++) {
+        final Property property = properties.get(index);
+        if (name.equals(property.getName())) {
+          position = index;
+          return property;
+        }
+      }
+      return null;
+    }
+  }
+}
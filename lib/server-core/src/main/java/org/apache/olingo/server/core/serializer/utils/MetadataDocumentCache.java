@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache for the serialized metadata document of one service metadata instance.
+ * <br/>
+ * One document is kept per format; it is valid as long as the metadata ETag
+ * (which may be <code>null</code>) does not change.
+ */
+public class MetadataDocumentCache {
+
+  private final ConcurrentMap<String, CachedDocument> documents = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the cached document.
+   * @param format format of the document, e.g., the content type without parameters
+   * @param metadataETag current ETag of the metadata document (can be <code>null</code>)
+   * @return the serialized document or <code>null</code> if no valid document is cached
+   */
+  public byte[] get(final String format, final String metadataETag) {
+    final CachedDocument document = documents.get(format);
+    return document == null || !isEqual(document.metadataETag, metadataETag) ? null : document.content;
+  }
+
+  /**
+   * Caches the document, replacing any other document of this format.
+   * @param format format of the document, e.g., the content type without parameters
+   * @param metadataETag current ETag of the metadata document (can be <code>null</code>)
+   * @param content the serialized document; must not be modified afterwards
+   */
+  public void put(final String format, final String metadataETag, final byte[] content) {
+    documents.put(format, new CachedDocument(metadataETag, content));
+  }
+
+  private static boolean isEqual(final String first, final String second) {
+    return first == null ? second == null : first.equals(second);
+  }
+
+  private static class CachedDocument {
+    private final String metadataETag;
+    private final byte[] content;
+
+    private CachedDocument(final String metadataETag, final byte[] content) {
+      this.metadataETag = metadataETag;
+      this.content = content;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import javax.xml.stream.XMLOutputFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * Shared factories for the JSON generators and XML stream writers of the serializers.
+ * <br/>
+ * Both factories are thread-safe once configured, so they are created only once
+ * instead of for every serialization call; the JSON factory additionally recycles
+ * its internal buffers per thread.
+ */
+public final class StreamFactories {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+  private StreamFactories() {}
+
+  /**
+   * Gets the shared JSON factory.
+   * It must not be re-configured because it is used by all serializers.
+   */
+  public static JsonFactory getJsonFactory() {
+    return JSON_FACTORY;
+  }
+
+  /**
+   * Gets the shared XML output factory.
+   * It must not be re-configured because it is used by all serializers.
+   */
+  public static XMLOutputFactory getXmlOutputFactory() {
+    return XML_OUTPUT_FACTORY;
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.SkipTokenHelper;
+
+/**
+ * Skiptokens consist of the Base64url-encoded binary representation of the values,
+ * a dot, and the Base64url-encoded, truncated HMAC-SHA256 signature of scope and values.
+ * Each value is written as a one-byte type tag followed by its data.
+ */
+public class SkipTokenHelperImpl implements SkipTokenHelper {
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final int SIGNATURE_LENGTH = 16;
+  private static final char SEPARATOR = '.';
+  private static final byte VERSION = 1;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte BOOLEAN = 2;
+  private static final byte BYTE = 3;
+  private static final byte SHORT = 4;
+  private static final byte INTEGER = 5;
+  private static final byte LONG = 6;
+  private static final byte FLOAT = 7;
+  private static final byte DOUBLE = 8;
+  private static final byte BIG_DECIMAL = 9;
+  private static final byte BIG_INTEGER = 10;
+  private static final byte UUID_VALUE = 11;
+  private static final byte CALENDAR = 12;
+  private static final byte DATE = 13;
+  private static final byte TIMESTAMP = 14;
+  private static final byte BINARY = 15;
+
+  private final SecretKeySpec key;
+
+  public SkipTokenHelperImpl(final byte[] secret) {
+    if (secret == null || secret.length == 0) {
+      throw new IllegalArgumentException("The secret must not be empty.");
+    }
+    key = new SecretKeySpec(secret, ALGORITHM);
+  }
+
+  @Override
+  public String createSkipToken(final List<Object> values, final String scope) throws SerializerException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      DataOutputStream output = new DataOutputStream(bytes);
+      output.writeByte(VERSION);
+      output.writeInt(values.size());
+      for (final Object value : values) {
+        writeValue(output, value);
+      }
+      output.flush();
+    } catch (final IOException e) {
+      throw new SerializerException("Could not write skiptoken", e, SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+    final byte[] payload = bytes.toByteArray();
+    return Base64.encodeBase64URLSafeString(payload) + SEPARATOR
+        + Base64.encodeBase64URLSafeString(sign(payload, scope));
+  }
+
+  @Override
+  public List<Object> readSkipToken(final String skipToken, final String scope) throws DeserializerException {
+    final int index = skipToken == null ? -1 : skipToken.indexOf(SEPARATOR);
+    if (index <= 0) {
+      throw invalid(null);
+    }
+    try {
+      final byte[] payload = Base64.decodeBase64(skipToken.substring(0, index));
+      final byte[] signature = Base64.decodeBase64(skipToken.substring(index + 1));
+      if (!MessageDigest.isEqual(sign(payload, scope), signature)) {
+        throw invalid(null);
+      }
+
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+      if (input.readByte() != VERSION) {
+        throw invalid(null);
+      }
+      final int size = input.readInt();
+      if (size < 0 || size > payload.length) {
+        throw invalid(null);
+      }
+      List<Object> values = new ArrayList<Object>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(readValue(input));
+      }
+      if (input.available() > 0) {
+        throw invalid(null);
+      }
+      return Collections.unmodifiableList(values);
+    } catch (final IOException e) {
+      throw invalid(e);
+    } catch (final IllegalArgumentException e) {
+      throw invalid(e);
+    }
+  }
+
+  private void writeValue(final DataOutputStream output, final Object value) throws IOException,
+      SerializerException {
+    if (value == null) {
+      output.writeByte(NULL);
+    } else if (value instanceof String) {
+      output.writeByte(STRING);
+      writeBytes(output, ((String) value).getBytes(UTF_8));
+    } else if (value instanceof Boolean) {
+      output.writeByte(BOOLEAN);
+      output.writeBoolean((Boolean) value);
+    } else if (value instanceof Byte) {
+      output.writeByte(BYTE);
+      output.writeByte((Byte) value);
+    } else if (value instanceof Short) {
+      output.writeByte(SHORT);
+      output.writeShort((Short) value);
+    } else if (value instanceof Integer) {
+      output.writeByte(INTEGER);
+      output.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      output.writeByte(LONG);
+      output.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      output.writeByte(FLOAT);
+      output.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      output.writeByte(DOUBLE);
+      output.writeDouble((Double) value);
+    } else if (value instanceof BigDecimal) {
+      output.writeByte(BIG_DECIMAL);
+      output.writeInt(((BigDecimal) value).scale());
+      writeBytes(output, ((BigDecimal) value).unscaledValue().toByteArray());
+    } else if (value instanceof BigInteger) {
+      output.writeByte(BIG_INTEGER);
+      writeBytes(output, ((BigInteger) value).toByteArray());
+    } else if (value instanceof UUID) {
+      output.writeByte(UUID_VALUE);
+      output.writeLong(((UUID) value).getMostSignificantBits());
+      output.writeLong(((UUID) value).getLeastSignificantBits());
+    } else if (value instanceof Calendar) {
+      output.writeByte(CALENDAR);
+      output.writeLong(((Calendar) value).getTimeInMillis());
+      writeBytes(output, ((Calendar) value).getTimeZone().getID().getBytes(UTF_8));
+    } else if (value instanceof Timestamp) {
+      output.writeByte(TIMESTAMP);
+      output.writeLong(((Timestamp) value).getTime());
+      output.writeInt(((Timestamp) value).getNanos());
+    } else if (value.getClass() == Date.class) {
+      output.writeByte(DATE);
+      output.writeLong(((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      output.writeByte(BINARY);
+      writeBytes(output, (byte[]) value);
+    } else {
+      throw new SerializerException("Unsupported skiptoken value " + value.getClass().getName(),
+          SerializerException.MessageKeys.WRONG_PRIMITIVE_VALUE, value.getClass().getName(), value.toString());
+    }
+  }
+
+  private Object readValue(final DataInputStream input) throws IOException, DeserializerException {
+    final byte type = input.readByte();
+    switch (type) {
+    case NULL:
+      return null;
+    case STRING:
+      return new String(readBytes(input), UTF_8);
+    case BOOLEAN:
+      return input.readBoolean();
+    case BYTE:
+      return input.readByte();
+    case SHORT:
+      return input.readShort();
+    case INTEGER:
+      return input.readInt();
+    case LONG:
+      return input.readLong();
+    case FLOAT:
+      return input.readFloat();
+    case DOUBLE:
+      return input.readDouble();
+    case BIG_DECIMAL:
+      final int scale = input.readInt();
+      return new BigDecimal(new BigInteger(readBytes(input)), scale);
+    case BIG_INTEGER:
+      return new BigInteger(readBytes(input));
+    case UUID_VALUE:
+      return new UUID(input.readLong(), input.readLong());
+    case CALENDAR:
+      final long millis = input.readLong();
+      Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone(new String(readBytes(input), UTF_8)));
+      calendar.setTimeInMillis(millis);
+      return calendar;
+    case DATE:
+      return new Date(input.readLong());
+    case TIMESTAMP:
+      Timestamp timestamp = new Timestamp(input.readLong());
+      timestamp.setNanos(input.readInt());
+      return timestamp;
+    case BINARY:
+      return readBytes(input);
+    default:
+      throw invalid(null);
+    }
+  }
+
+  private void writeBytes(final DataOutputStream output, final byte[] bytes) throws IOException {
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private byte[] readBytes(final DataInputStream input) throws IOException, DeserializerException {
+    final int length = input.readInt();
+    if (length < 0 || length > input.available()) {
+      throw invalid(null);
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return bytes;
+  }
+
+  /** Signs the length of the scope, the scope, and the payload, so that no other combination has the same input. */
+  private byte[] sign(final byte[] payload, final String scope) {
+    final byte[] scopeBytes = scope == null ? new byte[0] : scope.getBytes(UTF_8);
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      mac.update(new byte[] { (byte) (scopeBytes.length >>> 24), (byte) (scopeBytes.length >>> 16),
+          (byte) (scopeBytes.length >>> 8), (byte) scopeBytes.length });
+      mac.update(scopeBytes);
+      mac.update(payload);
+      return Arrays.copyOf(mac.doFinal(), SIGNATURE_LENGTH);
+    } catch (final GeneralSecurityException e) {
+      // Every Java platform must support HmacSHA256.
+      throw new ODataRuntimeException("Could not sign skiptoken", e);
+    }
+  }
+
+  private DeserializerException invalid(final Exception cause) {
+    return new DeserializerException("Invalid skiptoken", cause, DeserializerException.MessageKeys.INVALID_SKIPTOKEN);
+  }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.olingo.server.core.uri;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.Entity;
@@ -30,6 +32,7 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.commons.core.Decoder;
 import org.apache.olingo.commons.core.Encoder;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
@@ -42,6 +45,7 @@ import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.UriResourceKind;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 import org.apache.olingo.server.core.ODataImpl;
 import org.apache.olingo.server.core.serializer.utils.ContextURLHelper;
 import org.apache.olingo.server.core.uri.parser.Parser;
@@ -165,4 +169,46 @@ public class UriHelperImpl implements UriHelper {
           entityId);
     }
   }
+
+  /**
+   * Builds the next link of a response from the parts of the request URI.
+   * An existing $skiptoken system query option is replaced by the given skiptoken;
+   * all other query options are taken over unchanged.
+   * @param rawBaseUri the base URI of the request, see <code>ODataRequest.getRawBaseUri()</code>
+   * @param rawODataPath the OData path of the request, see <code>ODataRequest.getRawODataPath()</code>
+   * @param rawQueryPath the query of the request or <code>null</code>,
+   *                     see <code>ODataRequest.getRawQueryPath()</code>
+   * @param skipToken the (not percent-encoded) skiptoken for the next page
+   * @return the next link
+   */
+  public static URI buildNextLink(final String rawBaseUri, final String rawODataPath, final String rawQueryPath,
+      final String skipToken) throws SerializerException {
+    StringBuilder result = new StringBuilder(rawBaseUri).append(rawODataPath).append('?');
+    if (rawQueryPath != null) {
+      for (final String option : rawQueryPath.split("&")) {
+        if (!option.isEmpty() && !isSkipToken(option)) {
+          result.append(option).append('&');
+        }
+      }
+    }
+    result.append(Encoder.encode(SystemQueryOptionKind.SKIPTOKEN.toString()))
+        .append('=').append(Encoder.encode(skipToken));
+    try {
+      return new URI(result.toString());
+    } catch (final URISyntaxException e) {
+      throw new SerializerException("Invalid next link", e,
+          SerializerException.MessageKeys.WRONG_PROPERTY_VALUE, "nextLink", result.toString());
+    }
+  }
+
+  private static boolean isSkipToken(final String option) {
+    final int index = option.indexOf('=');
+    try {
+      return SystemQueryOptionKind.SKIPTOKEN.toString().equals(
+          Decoder.decode(index < 0 ? option : option.substring(0, index)));
+    } catch (final IllegalArgumentException e) {
+      // A malformed option name is taken over unchanged.
+      return false;
+    }
+  }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+
+/**
+ * Bounded cache of parsed and validated request URIs;
+ * the least recently used entry is removed if the cache is full.
+ */
+public class UriInfoCacheImpl implements UriInfoCache {
+
+  private final Map<Key, UriInfo> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public UriInfoCacheImpl(final int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("The maximum number of entries must be positive.");
+    }
+    entries = new LinkedHashMap<Key, UriInfo>(16, 0.75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, UriInfo> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public UriInfo get(final Edm edm, final HttpMethod method, final String path, final String query,
+      final String baseUri) {
+    UriInfo uriInfo;
+    synchronized (entries) {
+      uriInfo = entries.get(new Key(edm, method, path, query, baseUri));
+    }
+    (uriInfo == null ? misses : hits).incrementAndGet();
+    return uriInfo;
+  }
+
+  @Override
+  public void put(final Edm edm, final HttpMethod method, final String path, final String query,
+      final String baseUri, final UriInfo uriInfo) {
+    synchronized (entries) {
+      entries.put(new Key(edm, method, path, query, baseUri), uriInfo);
+    }
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /** The properties of a request that determine its URI info; the EDM is compared by identity. */
+  private static final class Key {
+    private final Edm edm;
+    private final HttpMethod method;
+    private final String path;
+    private final String query;
+    private final String baseUri;
+    private final int hashCode;
+
+    private Key(final Edm edm, final HttpMethod method, final String path, final String query,
+        final String baseUri) {
+      this.edm = edm;
+      this.method = method;
+      this.path = path;
+      this.query = query;
+      this.baseUri = baseUri;
+      int result = System.identityHashCode(edm);
+      result = 31 * result + (method == null ? 0 : method.hashCode());
+      result = 31 * result + hashCode(path);
+      result = 31 * result + hashCode(query);
+      hashCode = 31 * result + hashCode(baseUri);
+    }
+
+    private static int hashCode(final String value) {
+      return value == null ? 0 : value.hashCode();
+    }
+
+    private static boolean isEqual(final String first, final String second) {
+      return first == null ? second == null : first.equals(second);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return edm == other.edm && method == other.method && isEqual(path, other.path)
+          && isEqual(query, other.query) && isEqual(baseUri, other.baseUri);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class NettyRequestBodyStreamTest {
+
+  @Test
+  public void readChunks() throws Exception {
+    final NettyRequestBodyStream body = new NettyRequestBodyStream(new EmbeddedChannel());
+    body.offer(Unpooled.copiedBuffer(new byte[] { 1, 2, 3 }));
+    body.offer(Unpooled.EMPTY_BUFFER);
+    body.offer(Unpooled.copiedBuffer(new byte[] { 4 }));
+    body.end();
+
+    final byte[] b = new byte[5];
+    assertEquals(3, body.read(b, 0, 5));
+    assertEquals(1, body.read(b, 3, 2));
+    assertEquals(4, b[3]);
+    assertEquals(-1, body.read());
+    body.close();
+  }
+
+  @Test
+  public void suspendReading() throws Exception {
+    final EmbeddedChannel channel = new EmbeddedChannel();
+    final NettyRequestBodyStream body = new NettyRequestBodyStream(channel);
+    final int chunkSize = NettyRequestBodyStream.MAX_QUEUED_BYTES / 4;
+    for (int i = 0; i < 5; i++) {
+      body.offer(Unpooled.wrappedBuffer(new byte[chunkSize]));
+    }
+    assertFalse(channel.config().isAutoRead());
+
+    final byte[] b = new byte[chunkSize];
+    assertEquals(chunkSize, body.read(b));
+    assertEquals(chunkSize, body.read(b));
+    assertFalse(channel.config().isAutoRead());
+    assertEquals(chunkSize, body.read(b));
+    assertTrue(channel.config().isAutoRead());
+    body.close();
+  }
+
+  @Test
+  public void closeReleasesChunks() throws Exception {
+    final EmbeddedChannel channel = new EmbeddedChannel();
+    final NettyRequestBodyStream body = new NettyRequestBodyStream(channel);
+    final ByteBuf first = Unpooled.buffer().writeBytes(new byte[NettyRequestBodyStream.MAX_QUEUED_BYTES + 1]);
+    body.offer(first);
+    assertFalse(channel.config().isAutoRead());
+    body.close();
+    assertEquals(0, first.refCnt());
+    assertTrue(channel.config().isAutoRead());
+
+    final ByteBuf late = Unpooled.buffer().writeBytes(new byte[] { 1 });
+    body.offer(late);
+    assertEquals(0, late.refCnt());
+  }
+
+  @Test
+  public void failedConnection() throws Exception {
+    final NettyRequestBodyStream body = new NettyRequestBodyStream(new EmbeddedChannel());
+    body.offer(Unpooled.copiedBuffer(new byte[] { 1 }));
+    body.fail(new IOException("closed"));
+    assertEquals(1, body.read());
+    try {
+      body.read();
+      fail("Expected an IOException.");
+    } catch (final IOException e) {
+      assertEquals("closed", e.getMessage());
+    }
+    body.close();
+  }
+}
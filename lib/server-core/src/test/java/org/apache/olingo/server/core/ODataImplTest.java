@@ -20,9 +20,15 @@ package org.apache.olingo.server.core;
 
 import static org.junit.Assert.assertNotNull;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import javax.xml.stream.XMLOutputFactory;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -31,6 +37,8 @@ import org.apache.olingo.server.api.serializer.SerializerException;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.fasterxml.jackson.core.JsonFactory;
+
 public class ODataImplTest {
 
   private final OData odata = OData.newInstance();
@@ -57,6 +65,23 @@ public class ODataImplTest {
     assertNotNull(odata.createDeserializer(ContentType.APPLICATION_JSON, versions));
   }
 
+  @Test
+  public void serializerWithConfiguredFactories() throws Exception {
+    final JsonFactory jsonFactory = Mockito.spy(new JsonFactory());
+    final XMLOutputFactory xmlOutputFactory = Mockito.spy(XMLOutputFactory.newInstance());
+    final ODataImpl odataImpl = new ODataImpl();
+    odataImpl.setJsonFactory(jsonFactory);
+    odataImpl.setXmlOutputFactory(xmlOutputFactory);
+    final ServiceMetadata metadata = odataImpl.createServiceMetadata(new CsdlAbstractEdmProvider() {},
+        Collections.<EdmxReference> emptyList());
+
+    odataImpl.createSerializer(ContentType.JSON).serviceDocument(metadata, null);
+    Mockito.verify(jsonFactory).createGenerator(Mockito.any(OutputStream.class));
+
+    odataImpl.createSerializer(ContentType.APPLICATION_XML).serviceDocument(metadata, null);
+    Mockito.verify(xmlOutputFactory).createXMLStreamWriter(Mockito.any(OutputStream.class), Mockito.anyString());
+  }
+
   public void xmlDeserializer() throws DeserializerException {
     assertNotNull(odata.createDeserializer(ContentType.APPLICATION_XML));
   }
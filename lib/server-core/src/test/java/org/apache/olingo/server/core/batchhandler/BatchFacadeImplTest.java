@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.batchhandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BatchFacadeImplTest {
+
+  private ExecutorService executor;
+  private ODataHandler handler;
+  private BatchProcessor processor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(3);
+    handler = mock(ODataHandler.class);
+    processor = mock(BatchProcessor.class);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void concurrentQueries() throws Exception {
+    // Each query waits until all queries have been started; this succeeds only if they run concurrently.
+    final CountDownLatch started = new CountDownLatch(3);
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        started.countDown();
+        return createResponse(started.await(10, TimeUnit.SECONDS) ?
+            HttpStatusCode.OK : HttpStatusCode.INTERNAL_SERVER_ERROR);
+      }
+    });
+
+    final BatchFacade facade = new BatchFacadeImpl(handler, processor, true, executor);
+    final List<ODataResponsePart> responseParts = facade.handleBatchRequests(
+        Arrays.asList(createQuery("1"), createQuery("2"), createQuery("3")), false);
+
+    assertEquals(3, responseParts.size());
+    for (int i = 0; i < 3; i++) {
+      final ODataResponse response = responseParts.get(i).getResponses().get(0);
+      assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+      assertEquals(String.valueOf(i + 1), response.getHeader(HttpHeader.CONTENT_ID));
+    }
+  }
+
+  @Test
+  public void stopAfterError() throws Exception {
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataRequest request = (ODataRequest) invocation.getArguments()[0];
+        return createResponse("2".equals(request.getHeader(HttpHeader.CONTENT_ID)) ?
+            HttpStatusCode.NOT_FOUND : HttpStatusCode.OK);
+      }
+    });
+    final BatchRequestPart changeSet = new BatchRequestPart(true, createRequest(HttpMethod.POST, "4"));
+
+    final BatchFacade facade = new BatchFacadeImpl(handler, processor, true, executor);
+    final List<ODataResponsePart> responseParts = facade.handleBatchRequests(
+        Arrays.asList(createQuery("1"), createQuery("2"), createQuery("3"), changeSet), false);
+
+    assertEquals(2, responseParts.size());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        responseParts.get(1).getResponses().get(0).getStatusCode());
+    verify(processor, never()).processChangeSet(any(BatchFacade.class), anyListOf(ODataRequest.class));
+  }
+
+  @Test
+  public void changeSetInOrder() throws Exception {
+    when(handler.process(any(ODataRequest.class))).thenReturn(createResponse(HttpStatusCode.OK));
+    final BatchRequestPart changeSet = new BatchRequestPart(true, createRequest(HttpMethod.POST, "2"));
+    final ODataResponsePart changeSetResponse =
+        new ODataResponsePart(createResponse(HttpStatusCode.CREATED), true);
+    final BatchFacade facade = new BatchFacadeImpl(handler, processor, true, executor);
+    when(processor.processChangeSet(facade, changeSet.getRequests())).thenReturn(changeSetResponse);
+
+    final List<ODataResponsePart> responseParts = facade.handleBatchRequests(
+        Arrays.asList(createQuery("1"), changeSet, createQuery("3"), createQuery("4")), true);
+
+    assertEquals(4, responseParts.size());
+    assertEquals(changeSetResponse, responseParts.get(1));
+    assertEquals(HttpStatusCode.OK.getStatusCode(), responseParts.get(3).getResponses().get(0).getStatusCode());
+  }
+
+  @Test
+  public void rejectedExecution() throws Exception {
+    when(handler.process(any(ODataRequest.class))).thenReturn(createResponse(HttpStatusCode.OK));
+    final Executor rejectingExecutor = new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    };
+
+    final BatchFacade facade = new BatchFacadeImpl(handler, processor, true, rejectingExecutor);
+    final List<ODataResponsePart> responseParts = facade.handleBatchRequests(
+        Arrays.asList(createQuery("1"), createQuery("2")), false);
+
+    assertEquals(2, responseParts.size());
+    assertEquals(HttpStatusCode.OK.getStatusCode(), responseParts.get(1).getResponses().get(0).getStatusCode());
+  }
+
+  private BatchRequestPart createQuery(final String contentId) {
+    return new BatchRequestPart(false, createRequest(HttpMethod.GET, contentId));
+  }
+
+  private ODataRequest createRequest(final HttpMethod method, final String contentId) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawODataPath("ESAllPrim");
+    request.addHeader(HttpHeader.CONTENT_ID, contentId);
+    return request;
+  }
+
+  private ODataResponse createResponse(final HttpStatusCode status) {
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(status.getStatusCode());
+    return response;
+  }
+}
@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.ODataRequest;
@@ -32,6 +33,7 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -1131,6 +1133,51 @@ public class BatchRequestParserTest {
     parseBatchWithForbiddenHeader(HttpHeader.TE + ": deflate");
   }
 
+  @Test
+  public void incrementalParsing() throws Exception {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + MIME_HEADERS
+        + CRLF
+        + HttpMethod.GET + " " + PROPERTY_URI + HTTP_VERSION + CRLF
+        + "Custom: " + new String(new char[100000]).replace('\0', 'x') + CRLF
+        + CRLF
+        + CRLF
+        + "--" + BOUNDARY + "--";
+    final CountingInputStream in = new CountingInputStream(IOUtils.toInputStream(batch));
+    final BatchRequestPartIterator iterator = new BatchParser().parseBatchRequestIncrementally(in, BOUNDARY,
+        BatchOptions.with().rawBaseUri(SERVICE_ROOT).build());
+
+    Assert.assertTrue(iterator.hasNext());
+    Assert.assertEquals(HttpMethod.GET, iterator.next().getRequests().get(0).getMethod());
+    Assert.assertTrue(in.getByteCount() < batch.length());
+
+    Assert.assertTrue(iterator.hasNext());
+    final ODataRequest request = iterator.next().getRequests().get(0);
+    Assert.assertEquals(100000, request.getHeader("Custom").length());
+    Assert.assertFalse(iterator.hasNext());
+    Assert.assertEquals(batch.length(), in.getByteCount());
+  }
+
+  @Test
+  public void incrementalParsingMissingCloseDelimiter() throws Exception {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + GET_REQUEST;
+    final BatchRequestPartIterator iterator = new BatchParser().parseBatchRequestIncrementally(
+        IOUtils.toInputStream(batch), BOUNDARY, BatchOptions.with().rawBaseUri(SERVICE_ROOT).build());
+
+    Assert.assertNotNull(iterator.next());
+    try {
+      iterator.hasNext();
+      Assert.fail("No exception thrown. Expected: " + MessageKeys.MISSING_CLOSE_DELIMITER);
+    } catch (final BatchDeserializerException e) {
+      Assert.assertEquals(MessageKeys.MISSING_CLOSE_DELIMITER, e.getMessageKey());
+    }
+  }
+
   private void parseBatchWithForbiddenHeader(final String header) {
     parseInvalidBatchBody(createBatchWithGetRequest(PROPERTY_URI, header), MessageKeys.FORBIDDEN_HEADER);
   }
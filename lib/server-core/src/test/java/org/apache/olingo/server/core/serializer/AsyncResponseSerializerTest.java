@@ -21,6 +21,7 @@ package org.apache.olingo.server.core.serializer;
 import static org.junit.Assert.assertEquals;
 
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Random;
 
 import org.apache.commons.io.IOUtils;
@@ -28,6 +29,7 @@ import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.junit.Test;
 
 public class AsyncResponseSerializerTest {
@@ -70,6 +72,29 @@ public class AsyncResponseSerializerTest {
         + testData, result);
   }
 
+  @Test
+  public void streamedBatchResponse() throws Exception {
+    ODataResponse partResponse = new ODataResponse();
+    partResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    partResponse.setContent(IOUtils.toInputStream("Walter Winter"));
+
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setODataContent(new BatchResponseSerializer().serializeStreamed(
+        Collections.singletonList(new ODataResponsePart(partResponse, false)).iterator(), "batch", null));
+
+    AsyncResponseSerializer serializer = new AsyncResponseSerializer();
+    InputStream in = serializer.serialize(response);
+    String result = IOUtils.toString(in);
+    assertEquals("HTTP/1.1 200 OK" + CRLF + CRLF
+        + "--batch" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF + CRLF
+        + "HTTP/1.1 200 OK" + CRLF + CRLF
+        + "Walter Winter" + CRLF
+        + "--batch--" + CRLF, result);
+  }
+
   private String testData(final int amount) {
     StringBuilder result = new StringBuilder();
     Random r = new Random();
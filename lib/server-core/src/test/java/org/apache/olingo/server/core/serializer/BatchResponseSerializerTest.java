@@ -20,6 +20,7 @@ package org.apache.olingo.server.core.serializer;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -27,9 +28,12 @@ import static org.mockito.Mockito.mock;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
@@ -43,9 +47,13 @@ import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataContentWriteErrorCallback;
+import org.apache.olingo.server.api.ODataContentWriteErrorContext;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.core.deserializer.batch.BatchLineReader;
@@ -678,4 +686,128 @@ public class BatchResponseSerializerTest {
     assertEquals("{\"@odata.context\":\"../../$metadata\",\"value\":[]}" + CRLF, body.get(line++));
     assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
   }
+
+  @Test
+  public void streamedBatchResponse() throws Exception {
+    final List<ODataResponsePart> parts = new ArrayList<ODataResponsePart>();
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.TEXT_PLAIN.toContentTypeString());
+    response.setContent(IOUtils.toInputStream("Walter Winter" + CRLF));
+    parts.add(new ODataResponsePart(Collections.singletonList(response), false));
+
+    ODataResponse changeSetResponse = new ODataResponse();
+    changeSetResponse.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    changeSetResponse.setHeader(HttpHeader.CONTENT_ID, "1");
+    parts.add(new ODataResponsePart(Collections.singletonList(changeSetResponse), true));
+
+    final Iterator<ODataResponsePart> iterator = parts.iterator();
+    final ODataContent content = new BatchResponseSerializer().serializeStreamed(iterator, BOUNDARY, null);
+    assertNotNull(content);
+    assertTrue(iterator.hasNext());
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    content.write(output);
+    assertFalse(iterator.hasNext());
+
+    final BatchLineReader reader = new BatchLineReader(new ByteArrayInputStream(output.toByteArray()));
+    final List<String> body = reader.toList();
+    reader.close();
+
+    int line = 0;
+    assertEquals(22, body.size());
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 200 OK" + CRLF, body.get(line++));
+    assertEquals("Content-Type: text/plain" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("Walter Winter" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertTrue(body.get(line++).startsWith("Content-Type: multipart/mixed; boundary=changeset_"));
+    assertEquals(CRLF, body.get(line++));
+    assertTrue(body.get(line++).startsWith("--changeset_"));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals("Content-ID: 1" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 204 No Content" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertTrue(body.get(line++).startsWith("--changeset_"));
+    assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
+  }
+
+  @Test
+  public void streamedODataContentResponse() throws Exception {
+    ServiceMetadata serviceMetadata = mock(ServiceMetadata.class);
+    final EdmEntityType edmEntityType = mock(EdmEntityType.class);
+    EntityIterator entityCollection = new EntityIterator() {
+
+      @Override
+      public Entity next() {
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return false;
+      }
+    };
+
+    SerializerStreamResult serializerResult = OData.newInstance()
+        .createSerializer(ContentType.APPLICATION_JSON).entityCollectionStreamed(
+            serviceMetadata,
+            edmEntityType,
+            entityCollection,
+            EntityCollectionSerializerOptions.with()
+                .contextURL(ContextURL.with().oDataPath("http://host/svc").build()).build());
+    ODataResponse response = new ODataResponse();
+    response.setODataContent(serializerResult.getODataContent());
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+
+    final ODataContent content = new BatchResponseSerializer().serializeStreamed(
+        Collections.singletonList(new ODataResponsePart(response, false)).iterator(), BOUNDARY, null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    content.write(Channels.newChannel(output));
+
+    final BatchLineReader reader = new BatchLineReader(new ByteArrayInputStream(output.toByteArray()));
+    final List<String> body = reader.toList();
+    reader.close();
+
+    int line = 0;
+    assertEquals(8, body.size());
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 200 OK" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("{\"@odata.context\":\"../../$metadata\",\"value\":[]}" + CRLF, body.get(line++));
+    assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
+  }
+
+  @Test
+  public void streamedChangeSetWithoutContentId() throws Exception {
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+
+    final List<ODataContentWriteErrorContext> errors = new ArrayList<ODataContentWriteErrorContext>();
+    final ODataContent content = new BatchResponseSerializer().serializeStreamed(
+        Collections.singletonList(new ODataResponsePart(response, true)).iterator(), BOUNDARY,
+        new ODataContentWriteErrorCallback() {
+          @Override
+          public void handleError(final ODataContentWriteErrorContext context, final WritableByteChannel channel) {
+            errors.add(context);
+          }
+        });
+    content.write(new ByteArrayOutputStream());
+
+    assertEquals(1, errors.size());
+    assertEquals(BatchSerializerException.MessageKeys.MISSING_CONTENT_ID,
+        ((BatchSerializerException) errors.get(0).getODataLibraryException()).getMessageKey());
+  }
 }
+
@@ -20,10 +20,19 @@ package org.apache.olingo.server.core.serializer;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.PrimitiveValueSerializerOptions;
 import org.apache.olingo.server.api.serializer.SerializerException;
@@ -53,4 +62,47 @@ public class FixedFormatSerializerTest {
     assertEquals("42", IOUtils.toString(serializer.primitiveValue(type, 42,
         PrimitiveValueSerializerOptions.with().nullable(true).build())));
   }
+
+  @Test
+  public void defaultBatchResponseStreamed() throws Exception {
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setContent(IOUtils.toInputStream("42"));
+    final List<ODataResponsePart> parts = Collections.singletonList(new ODataResponsePart(response, false));
+
+    // Implements only the methods without default implementation.
+    final FixedFormatSerializer custom = new FixedFormatSerializer() {
+      @Override
+      public InputStream binary(final byte[] binary) throws SerializerException {
+        return serializer.binary(binary);
+      }
+
+      @Override
+      public InputStream count(final Integer count) throws SerializerException {
+        return serializer.count(count);
+      }
+
+      @Override
+      public InputStream primitiveValue(final EdmPrimitiveType type, final Object value,
+          final PrimitiveValueSerializerOptions options) throws SerializerException {
+        return serializer.primitiveValue(type, value, options);
+      }
+
+      @Override
+      public InputStream batchResponse(final List<ODataResponsePart> batchResponses, final String boundary)
+          throws BatchSerializerException {
+        return serializer.batchResponse(batchResponses, boundary);
+      }
+
+      @Override
+      public InputStream asyncResponse(final ODataResponse odataResponse) throws SerializerException {
+        return serializer.asyncResponse(odataResponse);
+      }
+    };
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    custom.batchResponseStreamed(parts.iterator(), "batch_123", null).write(output);
+
+    response.setContent(IOUtils.toInputStream("42"));
+    assertEquals(IOUtils.toString(serializer.batchResponse(parts, "batch_123")), output.toString("UTF-8"));
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.olingo.server.core.serializer.xml;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -45,6 +46,7 @@ import org.apache.olingo.commons.api.edm.EdmSchema;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.annotation.EdmConstantExpression;
 import org.apache.olingo.commons.api.edm.annotation.EdmExpression.EdmExpressionType;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
 import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
 import org.apache.olingo.commons.api.edm.provider.CsdlAliasInfo;
@@ -97,6 +99,7 @@ import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.ServiceMetadataImpl;
@@ -124,6 +127,25 @@ public class MetadataDocumentXmlSerializerTest {
         IOUtils.toString(serializer.metadataDocument(metadata).getContent()));
   }
 
+  @Test
+  public void metadataDocumentIsCachedPerETag() throws Exception {
+    ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    when(eTagSupport.getMetadataETag()).thenReturn("W/\"1\"");
+    ServiceMetadataImpl metadata = new ServiceMetadataImpl(new CsdlAbstractEdmProvider() {},
+        Collections.<EdmxReference> emptyList(), eTagSupport);
+    final String format = ContentType.APPLICATION_XML.toContentTypeString();
+
+    final String document = IOUtils.toString(serializer.metadataDocument(metadata).getContent());
+    assertNotNull(metadata.getMetadataDocumentCache().get(format, "W/\"1\""));
+    assertNull(metadata.getMetadataDocumentCache().get(format, "W/\"2\""));
+    assertEquals(document, IOUtils.toString(serializer.metadataDocument(metadata).getContent()));
+
+    when(eTagSupport.getMetadataETag()).thenReturn("W/\"2\"");
+    assertEquals(document, IOUtils.toString(serializer.metadataDocument(metadata).getContent()));
+    assertNotNull(metadata.getMetadataDocumentCache().get(format, "W/\"2\""));
+    assertNull(metadata.getMetadataDocumentCache().get(format, "W/\"1\""));
+  }
+
   /** Writes simplest (empty) Schema. */
   @Test
   public void writeMetadataWithEmptySchema() throws Exception {
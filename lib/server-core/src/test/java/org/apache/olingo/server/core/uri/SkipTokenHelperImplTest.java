@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.SkipTokenHelper;
+import org.junit.Test;
+
+public class SkipTokenHelperImplTest {
+
+  private static final String SCOPE = "/ESAllPrim?$orderby=PropertyString desc";
+
+  private final SkipTokenHelper helper = new SkipTokenHelperImpl("secret".getBytes());
+
+  @Test
+  public void roundTrip() throws Exception {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT+01:30"));
+    calendar.setTimeInMillis(1234567890123L);
+    Timestamp timestamp = new Timestamp(1234567890000L);
+    timestamp.setNanos(123456789);
+    final List<Object> values = Arrays.<Object> asList(null, "Ä & ?", true, (byte) -1, (short) 32767,
+        Integer.MIN_VALUE, Long.MAX_VALUE, 1.5F, -2.5E-300, new BigDecimal("-123.4500"),
+        new BigInteger("123456789012345678901234567890"), UUID.fromString("01234567-89ab-cdef-0123-456789abcdef"),
+        calendar, new Date(42), timestamp);
+
+    final String skipToken = helper.createSkipToken(values, SCOPE);
+    assertTrue(skipToken.matches("[A-Za-z0-9_\\-]+\\.[A-Za-z0-9_\\-]+"));
+    final List<Object> read = helper.readSkipToken(skipToken, SCOPE);
+    assertEquals(values.size(), read.size());
+    for (int i = 0; i < values.size(); i++) {
+      if (values.get(i) != null) {
+        assertEquals(values.get(i).getClass(), read.get(i).getClass());
+      }
+    }
+    assertEquals(values.subList(0, 12), read.subList(0, 12));
+    assertEquals(calendar.getTimeInMillis(), ((Calendar) read.get(12)).getTimeInMillis());
+    assertEquals(calendar.getTimeZone().getID(), ((Calendar) read.get(12)).getTimeZone().getID());
+    assertEquals(values.subList(13, 15), read.subList(13, 15));
+
+    final byte[] binary = { 0, 1, -128, 127 };
+    assertArrayEquals(binary, (byte[]) helper.readSkipToken(
+        helper.createSkipToken(Collections.<Object> singletonList(binary), SCOPE), SCOPE).get(0));
+    assertTrue(helper.readSkipToken(helper.createSkipToken(Collections.emptyList(), null), null).isEmpty());
+  }
+
+  @Test
+  public void otherScope() throws Exception {
+    final String skipToken = helper.createSkipToken(Arrays.<Object> asList("a", 1), SCOPE);
+    expectInvalid(helper, skipToken, "/ESAllPrim?$orderby=PropertyString");
+    expectInvalid(helper, skipToken, null);
+  }
+
+  @Test
+  public void otherSecret() throws Exception {
+    final String skipToken = helper.createSkipToken(Arrays.<Object> asList("a", 1), SCOPE);
+    expectInvalid(new SkipTokenHelperImpl("other".getBytes()), skipToken, SCOPE);
+    assertEquals(Arrays.<Object> asList("a", 1),
+        new SkipTokenHelperImpl("secret".getBytes()).readSkipToken(skipToken, SCOPE));
+  }
+
+  @Test
+  public void modifiedSkipToken() throws Exception {
+    final String skipToken = helper.createSkipToken(Arrays.<Object> asList("a", 1), SCOPE);
+    final int index = skipToken.indexOf('.');
+    final String otherValues = helper.createSkipToken(Arrays.<Object> asList("b", 1), SCOPE);
+    expectInvalid(helper, otherValues.substring(0, otherValues.indexOf('.')) + skipToken.substring(index), SCOPE);
+    expectInvalid(helper, skipToken.substring(0, index), SCOPE);
+    expectInvalid(helper, skipToken.substring(0, skipToken.length() - 2), SCOPE);
+    expectInvalid(helper, "1*10", SCOPE);
+    expectInvalid(helper, ".", SCOPE);
+    expectInvalid(helper, "", SCOPE);
+    expectInvalid(helper, null, SCOPE);
+  }
+
+  @Test(expected = SerializerException.class)
+  public void unsupportedValue() throws Exception {
+    helper.createSkipToken(Collections.<Object> singletonList(new Object()), SCOPE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptySecret() {
+    new SkipTokenHelperImpl(new byte[0]);
+  }
+
+  private void expectInvalid(final SkipTokenHelper helper, final String skipToken, final String scope) {
+    try {
+      helper.readSkipToken(skipToken, scope);
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(DeserializerException.MessageKeys.INVALID_SKIPTOKEN, e.getMessageKey());
+    }
+  }
+}
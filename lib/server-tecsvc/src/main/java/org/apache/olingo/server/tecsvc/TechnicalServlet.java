@@ -59,18 +59,24 @@ public class TechnicalServlet extends HttpServlet {
    */
   private static final String metadataETag = "W/\"" + UUID.randomUUID() + "\"";
 
+  private transient OData odata;
+  private transient ServiceMetadata serviceMetadata;
+
+  @Override
+  public void init() throws ServletException {
+    odata = OData.newInstance();
+    EdmxReference reference = new EdmxReference(URI.create("../v4.0/cs02/vocabularies/Org.OData.Core.V1.xml"));
+    reference.addInclude(new EdmxReferenceInclude("Org.OData.Core.V1", "Core"));
+    serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(),
+        Collections.singletonList(reference),
+        new MetadataETagSupport(metadataETag)).preload();
+  }
+
   @Override
   protected void service(final HttpServletRequest request, HttpServletResponse response)
       throws ServletException, IOException {
     try {
-      OData odata = OData.newInstance();
-      EdmxReference reference = new EdmxReference(URI.create("../v4.0/cs02/vocabularies/Org.OData.Core.V1.xml"));
-      reference.addInclude(new EdmxReferenceInclude("Org.OData.Core.V1", "Core"));
-      final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
-          new EdmTechProvider(),
-          Collections.singletonList(reference),
-          new MetadataETagSupport(metadataETag));
-
       HttpSession session = request.getSession(true);
       DataProvider dataProvider = (DataProvider) session.getAttribute(DataProvider.class.getName());
       if (dataProvider == null) {
@@ -20,6 +20,7 @@ package org.apache.olingo.server.tecsvc.data;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -79,6 +81,8 @@ public class DataProvider {
   private AtomicLong KEY_STRING = new AtomicLong(0);
 
   private Map<String, EntityCollection> data;
+  private final Map<String, SearchIndex> searchIndexes = new ConcurrentHashMap<String, SearchIndex>();
+  private final Map<String, KeyIndex> keyIndexes = new ConcurrentHashMap<String, KeyIndex>();
   private final OData odata;
   private final Edm edm;
 
@@ -101,6 +105,55 @@ public class DataProvider {
     final EntityCollection entitySet = readAll(edmEntitySet);
     return entitySet == null ? null : read(edmEntitySet.getEntityType(), entitySet, keys);
   }
+
+  /**
+   * Gets the search index over the entities of an entity set.
+   * The index is built with the first call and then kept up to date
+   * by the create, update, and delete methods of this data provider.
+   * @param entityCollection the entity collection as returned by {@link #readAll(EdmEntitySet)}
+   * @return the search index, or <code>null</code> if the collection is not an entity set of this data provider
+   */
+  public SearchIndex getSearchIndex(final EntityCollection entityCollection) {
+    final String entitySetName = getEntitySetName(entityCollection);
+    if (entitySetName == null) {
+      return null;
+    }
+    SearchIndex searchIndex = searchIndexes.get(entitySetName);
+    // Entities could have been added or removed without this data provider knowing about it.
+    if (searchIndex == null || searchIndex.size() != entityCollection.getEntities().size()) {
+      searchIndex = new SearchIndex(entityCollection.getEntities());
+      searchIndexes.put(entitySetName, searchIndex);
+    }
+    return searchIndex;
+  }
+
+  /**
+   * Gets the key index over the entities of an entity set, built with the first call
+   * and then kept up to date like the search index.
+   * @return the key index, or <code>null</code> if the collection is not an entity set of this data provider
+   *         or its keys cannot be indexed
+   */
+  private KeyIndex getKeyIndex(final EdmEntityType edmEntityType, final EntityCollection entityCollection) {
+    final String entitySetName = getEntitySetName(entityCollection);
+    if (entitySetName == null) {
+      return null;
+    }
+    KeyIndex keyIndex = keyIndexes.get(entitySetName);
+    if (keyIndex == null || keyIndex.size() != entityCollection.getEntities().size()) {
+      keyIndex = new KeyIndex(edmEntityType.getKeyPropertyRefs(), entityCollection.getEntities());
+      keyIndexes.put(entitySetName, keyIndex);
+    }
+    return keyIndex.isUsable() ? keyIndex : null;
+  }
+
+  private String getEntitySetName(final EntityCollection entityCollection) {
+    for (final Map.Entry<String, EntityCollection> entry : data.entrySet()) {
+      if (entry.getValue() == entityCollection) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
   
   private Object findPropertyRefValue(Entity entity, EdmKeyPropertyRef refType) {
     final int INDEX_ERROR_CODE = -1;
@@ -130,30 +183,33 @@ public class DataProvider {
   public Entity read(final EdmEntityType edmEntityType, final EntityCollection entitySet,
       final List<UriParameter> keys) throws DataProviderException {
     try {
+      final KeyIndex keyIndex = getKeyIndex(edmEntityType, entitySet);
+      if (keyIndex != null && keyIndex.size() > 0 && keys.size() == keyIndex.getKeyCount()) {
+        Object[] keyValues = new Object[keys.size()];
+        for (final UriParameter key : keys) {
+          final EdmKeyPropertyRef refType = edmEntityType.getKeyPropertyRef(key.getName());
+          final int position = refType == null ? -1 : keyIndex.getPosition(refType.getName());
+          if (position < 0) {
+            break;
+          }
+          keyValues[position] = readKeyValue(key, refType, keyIndex.getValueClass(position));
+        }
+        final List<Object> indexKey = Arrays.asList(keyValues);
+        if (!indexKey.contains(null)) {
+          final Entity entity = keyIndex.get(indexKey);
+          // A lookup without result is only trusted if the index has not detected changed keys meanwhile.
+          if (entity != null || keyIndex.isUsable()) {
+            return entity;
+          }
+        }
+      }
+
       for (final Entity entity : entitySet.getEntities()) {
         boolean found = true;
         for (final UriParameter key : keys) {
           EdmKeyPropertyRef refType = edmEntityType.getKeyPropertyRef(key.getName());
           Object value =  findPropertyRefValue(entity, refType);
-          
-          final EdmProperty property = refType.getProperty();
-          final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
-          
-          if (key.getExpression() != null && !(key.getExpression() instanceof Literal)) {
-            throw new DataProviderException("Expression in key value is not supported yet!",
-                HttpStatusCode.NOT_IMPLEMENTED);
-          }
-          Object keyValue = null;
-          final String text = key.getAlias() == null ? key.getText() : ((Literal) key.getExpression()).getText();
-          if (Calendar.class.isAssignableFrom(value.getClass())) {
-            keyValue = type.valueOfString(type.fromUriLiteral(text),
-                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-                property.isUnicode(), Calendar.class);
-          } else {
-            keyValue = type.valueOfString(type.fromUriLiteral(text),
-                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-                property.isUnicode(), value.getClass());
-          }
+          final Object keyValue = readKeyValue(key, refType, value.getClass());
           if (!value.equals(keyValue)) {
             found = false;
             break;
@@ -169,9 +225,32 @@ public class DataProvider {
     }
   }
 
+  private Object readKeyValue(final UriParameter key, final EdmKeyPropertyRef refType, final Class<?> valueClass)
+      throws DataProviderException, EdmPrimitiveTypeException {
+    final EdmProperty property = refType.getProperty();
+    final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+
+    if (key.getExpression() != null && !(key.getExpression() instanceof Literal)) {
+      throw new DataProviderException("Expression in key value is not supported yet!",
+          HttpStatusCode.NOT_IMPLEMENTED);
+    }
+    final String text = key.getAlias() == null ? key.getText() : ((Literal) key.getExpression()).getText();
+    return type.valueOfString(type.fromUriLiteral(text),
+        property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
+        property.isUnicode(), Calendar.class.isAssignableFrom(valueClass) ? Calendar.class : valueClass);
+  }
+
   public void delete(final EdmEntitySet edmEntitySet, final Entity entity) throws DataProviderException {
     deleteLinksTo(entity);
     readAll(edmEntitySet).getEntities().remove(entity);
+    final KeyIndex keyIndex = keyIndexes.get(edmEntitySet.getName());
+    if (keyIndex != null) {
+      keyIndex.remove(entity);
+    }
+    final SearchIndex searchIndex = searchIndexes.get(edmEntitySet.getName());
+    if (searchIndex != null) {
+      searchIndex.remove(entity);
+    }
   }
 
   public void deleteLinksTo(final Entity to) throws DataProviderException {
@@ -200,7 +279,8 @@ public class DataProvider {
     final EdmEntityType edmEntityType = edmEntitySet.getEntityType();
     EntityCollection entitySet = readAll(edmEntitySet);
     final List<Entity> entities = entitySet.getEntities();
-    final Map<String, Object> newKey = findFreeComposedKey(entities, edmEntityType);
+    final Map<String, Object> newKey = findFreeComposedKey(entities, edmEntityType,
+        getKeyIndex(edmEntityType, entitySet));
     Entity newEntity = new Entity();
     newEntity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
     for (final String keyName : edmEntityType.getKeyPredicateNames()) {
@@ -214,12 +294,20 @@ public class DataProvider {
       throw new DataProviderException("Unable to set entity ID!", HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
     entities.add(newEntity);
+    final KeyIndex keyIndex = keyIndexes.get(edmEntitySet.getName());
+    if (keyIndex != null) {
+      keyIndex.add(newEntity);
+    }
+    final SearchIndex searchIndex = searchIndexes.get(edmEntitySet.getName());
+    if (searchIndex != null) {
+      searchIndex.add(newEntity);
+    }
 
     return newEntity;
   }
 
-  private Map<String, Object> findFreeComposedKey(final List<Entity> entities, final EdmEntityType entityType)
-      throws DataProviderException {
+  private Map<String, Object> findFreeComposedKey(final List<Entity> entities, final EdmEntityType entityType,
+      final KeyIndex keyIndex) throws DataProviderException {
     // Weak key construction
     final HashMap<String, Object> keys = new HashMap<String, Object>();
     List<String> keyPredicateNames = entityType.getKeyPredicateNames();
@@ -234,27 +322,27 @@ public class DataProvider {
       if (EdmPrimitiveTypeKind.Int16.getFullQualifiedName().equals(typeName)) {
         newValue = (short) KEY_INT_16.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!isFree(newValue, keyName, entities, keyIndex)) {
           newValue = (short) KEY_INT_16.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.Int32.getFullQualifiedName().equals(typeName)) {
         newValue = KEY_INT_32.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!isFree(newValue, keyName, entities, keyIndex)) {
           newValue = KEY_INT_32.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.Int64.getFullQualifiedName().equals(typeName)) {
         // Integer keys
         newValue = KEY_INT_64.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!isFree(newValue, keyName, entities, keyIndex)) {
           newValue = KEY_INT_64.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.String.getFullQualifiedName().equals(typeName)) {
         // String keys
         newValue = String.valueOf(KEY_STRING.incrementAndGet());
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (!isFree(newValue, keyName, entities, keyIndex)) {
           newValue = String.valueOf(KEY_STRING.incrementAndGet());
         }
       } else if (type instanceof EdmEnumType) {
@@ -273,7 +361,12 @@ public class DataProvider {
     return keys;
   }
 
-  private boolean isFree(final Object value, final String keyPropertyName, final List<Entity> entities) {
+  private boolean isFree(final Object value, final String keyPropertyName, final List<Entity> entities,
+      final KeyIndex keyIndex) {
+    final int position = keyIndex == null ? -1 : keyIndex.getPosition(keyPropertyName);
+    if (position >= 0) {
+      return !keyIndex.containsValue(position, value);
+    }
     for (final Entity entity : entities) {
       if (value != null && value.equals(entity.getProperty(keyPropertyName).getValue())) {
         return false;
@@ -359,6 +452,10 @@ public class DataProvider {
     if (entity.getETag() != null) {
       entity.setETag("W/\"" + UUID.randomUUID() + "\"");
     }
+    // Every change of an entity ends with a call of this method, so the search indexes are updated here.
+    for (final SearchIndex searchIndex : searchIndexes.values()) {
+      searchIndex.update(entity);
+    }
   }
 
   private void handleDeleteSingleNavigationProperties(final EdmEntitySet edmEntitySet, final Entity entity,
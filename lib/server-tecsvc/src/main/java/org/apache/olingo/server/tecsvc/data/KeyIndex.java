@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+
+/**
+ * Hash index over the keys of the entities of an entity set.
+ * <p>The key of an entity is the list of the values of its key properties, in the order of the
+ * key-property references of the entity type; key properties inside complex properties are found
+ * along the path of their key-property reference.</p>
+ * <p>The index is only usable as long as all keys are complete and unique and all values of a key property
+ * are of the same Java class, so that a key given as text can be converted into the indexed form.
+ * Entities without a complete or unique key make the index unusable; they are still counted,
+ * so that the size of an unusable index matches the entity set and the index is not rebuilt again and again.
+ * All methods are synchronized.</p>
+ */
+class KeyIndex {
+
+  private final String[] names;
+  private final String[] aliases;
+  private final String[][] paths;
+  private final Class<?>[] valueClasses;
+  private final Map<List<Object>, Entity> entities = new HashMap<List<Object>, Entity>();
+  private final Map<Entity, List<Object>> keys = new IdentityHashMap<Entity, List<Object>>();
+  /** Entities that could not be indexed because their key is incomplete or not unique. */
+  private final Set<Entity> rejected = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+  private final List<Map<Object, Integer>> valueCounts;
+  private boolean usable = true;
+
+  KeyIndex(final List<EdmKeyPropertyRef> keyPropertyRefs, final List<Entity> entities) {
+    final int size = keyPropertyRefs.size();
+    names = new String[size];
+    aliases = new String[size];
+    paths = new String[size][];
+    valueClasses = new Class<?>[size];
+    valueCounts = new ArrayList<Map<Object, Integer>>(size);
+    for (int position = 0; position < size; position++) {
+      final EdmKeyPropertyRef keyPropertyRef = keyPropertyRefs.get(position);
+      names[position] = keyPropertyRef.getName();
+      aliases[position] = keyPropertyRef.getAlias();
+      paths[position] = keyPropertyRef.getName().split("/");
+      valueCounts.add(new HashMap<Object, Integer>());
+    }
+    for (final Entity entity : entities) {
+      add(entity);
+    }
+  }
+
+  synchronized boolean isUsable() {
+    return usable;
+  }
+
+  /** Returns the number of entities added to the index, including those that could not be indexed. */
+  synchronized int size() {
+    return keys.size() + rejected.size();
+  }
+
+  int getKeyCount() {
+    return names.length;
+  }
+
+  /**
+   * Returns the position of a key property in the key.
+   * @param name the name (path) or the alias of the key property
+   * @return the position, or -1 if there is no such key property
+   */
+  int getPosition(final String name) {
+    for (int position = 0; position < names.length; position++) {
+      if (name.equals(names[position]) || name.equals(aliases[position])) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  /** Returns the Java class of the values of a key property, or <code>null</code> if the index is empty. */
+  synchronized Class<?> getValueClass(final int position) {
+    return valueClasses[position];
+  }
+
+  /**
+   * Gets the entity with the given key.
+   * @param key the key values in the order of the key-property references
+   * @return the entity or <code>null</code>
+   */
+  synchronized Entity get(final List<Object> key) {
+    final Entity entity = entities.get(key);
+    // Keys could have been changed without the index knowing about it.
+    if (entity != null && !key.equals(keyOf(entity))) {
+      usable = false;
+      return null;
+    }
+    return entity;
+  }
+
+  /** Determines whether an entity has the given value for the key property at the given position. */
+  synchronized boolean containsValue(final int position, final Object value) {
+    return valueCounts.get(position).containsKey(value);
+  }
+
+  synchronized void add(final Entity entity) {
+    if (keys.containsKey(entity) || rejected.contains(entity)) {
+      return;
+    }
+    final List<Object> key = keyOf(entity);
+    if (key == null || entities.containsKey(key)) {
+      usable = false;
+      rejected.add(entity);
+      return;
+    }
+    for (int position = 0; position < valueClasses.length; position++) {
+      final Object value = key.get(position);
+      if (valueClasses[position] == null) {
+        valueClasses[position] = value.getClass();
+      } else if (valueClasses[position] != value.getClass()) {
+        usable = false;
+      }
+      final Integer count = valueCounts.get(position).get(value);
+      valueCounts.get(position).put(value, count == null ? 1 : count + 1);
+    }
+    entities.put(key, entity);
+    keys.put(entity, key);
+  }
+
+  synchronized void remove(final Entity entity) {
+    rejected.remove(entity);
+    final List<Object> key = keys.remove(entity);
+    if (key != null) {
+      entities.remove(key);
+      for (int position = 0; position < valueClasses.length; position++) {
+        final Map<Object, Integer> counts = valueCounts.get(position);
+        final Integer count = counts.get(key.get(position));
+        if (count != null && count > 1) {
+          counts.put(key.get(position), count - 1);
+        } else {
+          counts.remove(key.get(position));
+        }
+      }
+    }
+  }
+
+  /** Returns the key of an entity, or <code>null</code> if a key property or its value is missing. */
+  private List<Object> keyOf(final Entity entity) {
+    Object[] key = new Object[paths.length];
+    for (int position = 0; position < paths.length; position++) {
+      final String[] path = paths[position];
+      Property property = entity.getProperty(path[0]);
+      for (int i = 1; i < path.length && property != null; i++) {
+        property = property.isComplex() && !property.isNull() ?
+            findProperty(path[i], property.asComplex().getValue()) :
+            null;
+      }
+      if (property == null || property.isNull()) {
+        return null;
+      }
+      key[position] = property.getValue();
+    }
+    return Arrays.asList(key);
+  }
+
+  private static Property findProperty(final String name, final List<Property> properties) {
+    for (final Property property : properties) {
+      if (name.equals(property.getName())) {
+        return property;
+      }
+    }
+    return null;
+  }
+}
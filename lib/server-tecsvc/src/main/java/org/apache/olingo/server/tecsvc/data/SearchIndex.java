@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.tecsvc.data.DataProvider.DataProviderException;
+
+/**
+ * Inverted index over the texts of the entities of an entity set, used for <code>$search</code>.
+ * <p>The string representations of all primitive property values are split at whitespace into tokens,
+ * and for each token a posting list (a bit set of entity slots) is kept.
+ * Search terms match substrings of property values, so the trigrams of the tokens are indexed as well
+ * to find the tokens containing a search term without looking at all of them.</p>
+ * <p>The index is built once; afterwards it has to be told about created, changed, and deleted entities.
+ * All methods are synchronized.</p>
+ */
+public class SearchIndex {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final int GRAM_LENGTH = 3;
+  private static final int MIN_COMPACTION_SIZE = 64;
+
+  /** Indexed entities by slot; removed entities leave an empty slot until the next compaction. */
+  private final List<Entity> entities = new ArrayList<Entity>();
+  /** Texts by slot, grouped by top-level property. */
+  private final List<String[][]> texts = new ArrayList<String[][]>();
+  private final Map<Entity, Integer> slots = new IdentityHashMap<Entity, Integer>();
+  private final BitSet live = new BitSet();
+  private final BitSet withText = new BitSet();
+  private final Map<String, BitSet> postings = new HashMap<String, BitSet>();
+  private final Map<String, Set<String>> grams = new HashMap<String, Set<String>>();
+
+  public SearchIndex(final List<Entity> entities) {
+    for (final Entity entity : entities) {
+      add(entity);
+    }
+  }
+
+  /** Returns the number of indexed entities. */
+  public synchronized int size() {
+    return slots.size();
+  }
+
+  public synchronized void add(final Entity entity) {
+    if (slots.containsKey(entity)) {
+      update(entity);
+    } else {
+      insert(entity, texts(entity));
+    }
+  }
+
+  /** Re-indexes the properties of an entity; entities not in the index are ignored. */
+  public synchronized void update(final Entity entity) {
+    final Integer slot = slots.get(entity);
+    if (slot != null) {
+      unindex(slot);
+      final String[][] entityTexts = texts(entity);
+      texts.set(slot, entityTexts);
+      index(slot, entityTexts);
+    }
+  }
+
+  public synchronized void remove(final Entity entity) {
+    final Integer slot = slots.remove(entity);
+    if (slot != null) {
+      unindex(slot);
+      entities.set(slot, null);
+      texts.set(slot, null);
+      live.clear(slot);
+      if (entities.size() > MIN_COMPACTION_SIZE && entities.size() > 2 * slots.size()) {
+        compact();
+      }
+    }
+  }
+
+  /**
+   * Returns the indexed entities matching the search expression.
+   * The result is the same as evaluating the expression against each entity in turn.
+   * @param expression the search expression
+   * @return the matching entities, compared by identity, in no particular order
+   */
+  public synchronized Set<Entity> search(final SearchExpression expression) throws DataProviderException {
+    final BitSet result = evaluate(expression);
+    Set<Entity> matches = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+    for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+      matches.add(entities.get(slot));
+    }
+    return matches;
+  }
+
+  /** Converts a primitive value into the string a search term is matched against. */
+  public static String asString(final Object primitive) {
+    // TODO: improve 'string' conversion; maybe consider only String properties
+    if (primitive instanceof String) {
+      return (String) primitive;
+    } else if (primitive instanceof Calendar) {
+      return DatatypeConverter.printDateTime((Calendar) primitive);
+    } else if (primitive instanceof byte[]) {
+      return DatatypeConverter.printBase64Binary((byte[]) primitive);
+    } else {
+      return primitive.toString();
+    }
+  }
+
+  private BitSet evaluate(final SearchExpression expression) throws DataProviderException {
+    if (expression.isSearchTerm()) {
+      return match(expression.asSearchTerm().getSearchTerm());
+    } else if (expression.isSearchUnary()) {
+      BitSet result = (BitSet) live.clone();
+      result.andNot(evaluate(expression.asSearchUnary().getOperand()));
+      return result;
+    } else if (expression.isSearchBinary()) {
+      return evaluate(expression.asSearchBinary());
+    }
+    throw new DataProviderException("Found unknown SearchExpression: " + expression,
+        HttpStatusCode.INTERNAL_SERVER_ERROR);
+  }
+
+  private BitSet evaluate(final SearchBinary binary) throws DataProviderException {
+    final SearchExpression left = binary.getLeftOperand();
+    final SearchExpression right = binary.getRightOperand();
+    final boolean and = binary.getOperator() == SearchBinaryOperatorKind.AND;
+    if (!and && binary.getOperator() != SearchBinaryOperatorKind.OR) {
+      throw new DataProviderException("Found unknown SearchBinaryOperatorKind: " + binary.getOperator(),
+          HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+
+    if (left.isSearchTerm() == right.isSearchTerm()) {
+      BitSet result = evaluate(left);
+      if (and) {
+        if (!result.isEmpty()) {
+          result.and(evaluate(right));
+        }
+      } else {
+        result.or(evaluate(right));
+      }
+      return result;
+    }
+
+    // A search term combined with a composed expression is evaluated property by property:
+    // the composed expression has to hold for (at least) one single property.
+    final BitSet result = evaluate(left.isSearchTerm() ? left : right);
+    final SearchExpression other = left.isSearchTerm() ? right : left;
+    if (and) {
+      for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+        if (!matchesAnyProperty(other, texts.get(slot))) {
+          result.clear(slot);
+        }
+      }
+    } else {
+      BitSet candidates = (BitSet) live.clone();
+      candidates.andNot(result);
+      for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+        if (matchesAnyProperty(other, texts.get(slot))) {
+          result.set(slot);
+        }
+      }
+    }
+    return result;
+  }
+
+  private BitSet match(final String term) {
+    if (term.isEmpty()) {
+      return (BitSet) withText.clone();
+    }
+    final List<String> words = tokenize(term);
+    if (words.size() == 1 && words.get(0).length() == term.length()) {
+      return matchWord(term);
+    }
+    // The term contains whitespace; all its words must occur, and then the whole term is checked.
+    BitSet result = (BitSet) withText.clone();
+    for (final String word : words) {
+      result.and(matchWord(word));
+    }
+    for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+      if (!contains(texts.get(slot), term)) {
+        result.clear(slot);
+      }
+    }
+    return result;
+  }
+
+  private BitSet matchWord(final String word) {
+    BitSet result = new BitSet();
+    for (final String token : candidateTokens(word)) {
+      if (token.contains(word)) {
+        result.or(postings.get(token));
+      }
+    }
+    return result;
+  }
+
+  private Collection<String> candidateTokens(final String word) {
+    if (word.length() < GRAM_LENGTH) {
+      return postings.keySet();
+    }
+    Set<String> smallest = null;
+    for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+      final Set<String> tokens = grams.get(word.substring(i, i + GRAM_LENGTH));
+      if (tokens == null) {
+        return Collections.emptySet();
+      } else if (smallest == null || tokens.size() < smallest.size()) {
+        smallest = tokens;
+      }
+    }
+    return smallest;
+  }
+
+  private boolean matchesAnyProperty(final SearchExpression expression, final String[][] entityTexts) {
+    for (final String[] propertyTexts : entityTexts) {
+      if (matches(expression, propertyTexts)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matches(final SearchExpression expression, final String[] propertyTexts) {
+    if (expression.isSearchTerm()) {
+      return contains(propertyTexts, expression.asSearchTerm().getSearchTerm());
+    } else if (expression.isSearchUnary()) {
+      return !matches(expression.asSearchUnary().getOperand(), propertyTexts);
+    } else {
+      final SearchBinary binary = expression.asSearchBinary();
+      return binary.getOperator() == SearchBinaryOperatorKind.AND ?
+          matches(binary.getLeftOperand(), propertyTexts) && matches(binary.getRightOperand(), propertyTexts) :
+          matches(binary.getLeftOperand(), propertyTexts) || matches(binary.getRightOperand(), propertyTexts);
+    }
+  }
+
+  private static boolean contains(final String[][] entityTexts, final String term) {
+    for (final String[] propertyTexts : entityTexts) {
+      if (contains(propertyTexts, term)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean contains(final String[] propertyTexts, final String term) {
+    for (final String text : propertyTexts) {
+      if (text.contains(term)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void insert(final Entity entity, final String[][] entityTexts) {
+    final int slot = entities.size();
+    entities.add(entity);
+    texts.add(entityTexts);
+    slots.put(entity, slot);
+    live.set(slot);
+    index(slot, entityTexts);
+  }
+
+  private void index(final int slot, final String[][] entityTexts) {
+    for (final String[] propertyTexts : entityTexts) {
+      for (final String text : propertyTexts) {
+        withText.set(slot);
+        for (final String token : tokenize(text)) {
+          BitSet posting = postings.get(token);
+          if (posting == null) {
+            posting = new BitSet();
+            postings.put(token, posting);
+            for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+              final String gram = token.substring(i, i + GRAM_LENGTH);
+              Set<String> tokens = grams.get(gram);
+              if (tokens == null) {
+                tokens = new HashSet<String>();
+                grams.put(gram, tokens);
+              }
+              tokens.add(token);
+            }
+          }
+          posting.set(slot);
+        }
+      }
+    }
+  }
+
+  private void unindex(final int slot) {
+    withText.clear(slot);
+    for (final String[] propertyTexts : texts.get(slot)) {
+      for (final String text : propertyTexts) {
+        for (final String token : tokenize(text)) {
+          final BitSet posting = postings.get(token);
+          if (posting != null) {
+            posting.clear(slot);
+            if (posting.isEmpty()) {
+              postings.remove(token);
+              for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+                final String gram = token.substring(i, i + GRAM_LENGTH);
+                final Set<String> tokens = grams.get(gram);
+                if (tokens != null && tokens.remove(token) && tokens.isEmpty()) {
+                  grams.remove(gram);
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void compact() {
+    final List<Entity> remainingEntities = new ArrayList<Entity>(slots.size());
+    final List<String[][]> remainingTexts = new ArrayList<String[][]>(slots.size());
+    for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+      remainingEntities.add(entities.get(slot));
+      remainingTexts.add(texts.get(slot));
+    }
+    entities.clear();
+    texts.clear();
+    slots.clear();
+    live.clear();
+    withText.clear();
+    postings.clear();
+    grams.clear();
+    for (int i = 0; i < remainingEntities.size(); i++) {
+      insert(remainingEntities.get(i), remainingTexts.get(i));
+    }
+  }
+
+  private static List<String> tokenize(final String text) {
+    List<String> tokens = new ArrayList<String>();
+    for (final String token : WHITESPACE.split(text)) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  private static String[][] texts(final Entity entity) {
+    final List<Property> properties = entity.getProperties();
+    String[][] result = new String[properties.size()][];
+    for (int i = 0; i < result.length; i++) {
+      List<String> propertyTexts = new ArrayList<String>();
+      collectTexts(properties.get(i), propertyTexts);
+      result[i] = propertyTexts.toArray(new String[propertyTexts.size()]);
+    }
+    return result;
+  }
+
+  private static void collectTexts(final Property property, List<String> propertyTexts) {
+    if (property.isNull()) {
+      return;
+    } else if (property.isPrimitive()) {
+      if (property.isCollection()) {
+        for (final Object primitive : property.asCollection()) {
+          if (primitive != null) {
+            propertyTexts.add(asString(primitive));
+          }
+        }
+      } else {
+        propertyTexts.add(asString(property.asPrimitive()));
+      }
+    } else if (property.isComplex()) {
+      if (property.isCollection()) {
+        for (final Object member : property.asCollection()) {
+          if (member != null) {
+            for (final Property innerProperty : ((ComplexValue) member).getValue()) {
+              collectTexts(innerProperty, propertyTexts);
+            }
+          }
+        }
+      } else {
+        for (final Property innerProperty : property.asComplex().getValue()) {
+          collectTexts(innerProperty, propertyTexts);
+        }
+      }
+    }
+  }
+}
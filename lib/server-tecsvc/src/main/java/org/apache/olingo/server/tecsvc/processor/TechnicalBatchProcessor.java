@@ -33,6 +33,7 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.batch.BatchFacade;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.prefer.PreferencesApplied;
 import org.apache.olingo.server.api.processor.BatchProcessor;
@@ -71,11 +72,13 @@ public class TechnicalBatchProcessor extends TechnicalProcessor implements Batch
     final BatchOptions options = BatchOptions.with()
         .rawBaseUri(request.getRawBaseUri())
         .rawServiceResolutionUri(request.getRawServiceResolutionUri()).build();
-    final List<BatchRequestPart> parts = odata.createFixedFormatDeserializer().parseBatchRequest(request.getBody(),
-        boundary, options);
+    // The parts are parsed one by one so that the first parts are processed while the later ones are read.
+    final BatchRequestPartIterator parts = odata.createFixedFormatDeserializer()
+        .parseBatchRequestIncrementally(request.getBody(), boundary, options);
     final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
 
-    for (BatchRequestPart part : parts) {
+    while (parts.hasNext()) {
+      final BatchRequestPart part = parts.next();
       final ODataResponsePart responsePart = facade.handleBatchRequest(part);
       responseParts.add(responsePart); // Also add failed responses.
       final int statusCode = responsePart.getResponses().get(0).getStatusCode();
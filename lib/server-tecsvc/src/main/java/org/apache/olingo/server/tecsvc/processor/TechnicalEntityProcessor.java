@@ -23,8 +23,10 @@ import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.ContextURL;
@@ -60,6 +62,7 @@ import org.apache.olingo.server.api.processor.EntityProcessor;
 import org.apache.olingo.server.api.processor.MediaEntityProcessor;
 import org.apache.olingo.server.api.processor.ReferenceCollectionProcessor;
 import org.apache.olingo.server.api.processor.ReferenceProcessor;
+import org.apache.olingo.server.api.serializer.EdmAssistedSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ReferenceCollectionSerializerOptions;
@@ -82,6 +85,7 @@ import org.apache.olingo.server.tecsvc.async.TechnicalAsyncService;
 import org.apache.olingo.server.tecsvc.data.DataProvider;
 import org.apache.olingo.server.tecsvc.data.RequestValidator;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.ExpandSystemQueryOptionHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.ApplyHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.CountHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.DeltaTokenHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
@@ -89,6 +93,7 @@ import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHan
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SearchHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.ServerSidePagingHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SystemQueryOptionsRuntimeException;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 
@@ -108,11 +113,65 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
   @Override
   public void readEntityCollection(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, ODataLibraryException {
+    if (uriInfo.getApplyOption() != null) {
+      readAppliedEntityCollection(request, response, uriInfo, requestedContentType);
+      return;
+    }
     validateOptions(uriInfo.asUriInfoResource());
 
     readEntityCollection(request, response, uriInfo, requestedContentType, false);
   }
 
+  /**
+   * Reads an entity collection transformed by the $apply system query option.
+   * The transformed entities can have dynamic properties, e.g., aggregated values;
+   * they are therefore serialized with the EDM-assisted serializer, which supports only JSON.
+   * Of the other system query options only $count, $skip, and $top are supported;
+   * they are applied to the transformed entities.
+   */
+  private void readAppliedEntityCollection(final ODataRequest request, final ODataResponse response,
+      final UriInfo uriInfo, final ContentType requestedContentType)
+      throws ODataApplicationException, ODataLibraryException {
+    final EdmEntitySet edmEntitySet = getEdmEntitySet(uriInfo.asUriInfoResource());
+    if (edmEntitySet == null || uriInfo.getFilterOption() != null || uriInfo.getSearchOption() != null
+        || uriInfo.getOrderByOption() != null || uriInfo.getExpandOption() != null
+        || uriInfo.getSelectOption() != null || uriInfo.getSkipTokenOption() != null) {
+      throw new ODataApplicationException("Not all of the specified options are supported.",
+          HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+    }
+
+    final EntityCollection entitySetInitial = readEntityCollection(uriInfo);
+    final EntityCollection applied = ApplyHandler.applyApplySystemQueryOption(uriInfo.getApplyOption(),
+        entitySetInitial == null ? new EntityCollection() : entitySetInitial, uriInfo, serviceMetadata.getEdm());
+
+    // Only the properties are part of the result; untransformed entities are the stored ones,
+    // so the navigation links are left out and the "database" stays unchanged.
+    EntityCollection entitySet = new EntityCollection();
+    Set<String> propertyNames = new LinkedHashSet<String>();
+    for (final Entity entity : applied.getEntities()) {
+      Entity result = new Entity();
+      result.getProperties().addAll(entity.getProperties());
+      entitySet.getEntities().add(result);
+      for (final Property property : entity.getProperties()) {
+        propertyNames.add(property.getName());
+      }
+    }
+    CountHandler.applyCountSystemQueryOption(uriInfo.getCountOption(), entitySet);
+    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
+    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
+
+    final ContextURL contextURL = isODataMetadataNone(requestedContentType) ? null :
+        ContextURL.with().entitySet(edmEntitySet)
+            .selectList(propertyNames.isEmpty() ? null : String.join(",", propertyNames))
+            .build();
+    response.setContent(odata.createEdmAssistedSerializer(requestedContentType)
+        .entityCollection(serviceMetadata, edmEntitySet.getEntityType(), entitySet,
+            EdmAssistedSerializerOptions.with().contextURL(contextURL).build())
+        .getContent());
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
+  }
+
   @Override
   public void countEntityCollection(final ODataRequest request, final ODataResponse response,
       final UriInfo uriInfo) throws ODataApplicationException, ODataLibraryException {
@@ -122,7 +181,8 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     EntityCollection entitySet = new EntityCollection();
     entitySet.getEntities().addAll(entitySetInitial.getEntities());
     FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entitySet, uriInfo, serviceMetadata.getEdm());
-    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet);
+    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet,
+        uriInfo.getSearchOption() == null ? null : dataProvider.getSearchIndex(entitySetInitial));
     int count =  entitySet.getEntities().size();
     for (SystemQueryOption systemQueryOption : uriInfo.getSystemQueryOptions()) {
       if (systemQueryOption.getName().contains(DELTATOKEN)) {
@@ -484,8 +544,7 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     final SelectOption select = uriInfo.getSelectOption();
 
     final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-    final Entity entitySerialization = expandHandler.transformEntityGraphToTree(entity, edmEntitySet, expand, null);
-    expandHandler.applyExpandQueryOptions(entitySerialization, edmEntitySet, expand, uriInfo,
+    final Entity entitySerialization = expandHandler.expandEntity(entity, edmEntitySet, expand, uriInfo,
         serviceMetadata.getEdm());
 
     final SerializerResult serializerResult = isReference ?
@@ -605,34 +664,38 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     entitySet.getOperations().addAll(entitySetInitial.getOperations());
 
     // Apply system query options.
-    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet);
+    // The search index can only be used if the whole entity set has been read.
+    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet,
+        uriInfo.getSearchOption() == null ? null : dataProvider.getSearchIndex(entitySetInitial));
     FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entitySet, uriInfo, serviceMetadata.getEdm());
     CountHandler.applyCountSystemQueryOption(uriInfo.getCountOption(), entitySet);
-    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), entitySet, uriInfo, serviceMetadata.getEdm());
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), uriInfo.getSkipOption(), uriInfo.getTopOption(),
+        entitySet, uriInfo, serviceMetadata.getEdm());
     SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
     TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
 
     final Integer pageSize = odata.createPreferences(request.getHeaders(HttpHeader.PREFER)).getMaxPageSize();
-    final Integer serverPageSize = ServerSidePagingHandler.applyServerSidePaging(uriInfo.getSkipTokenOption(),
+    final Integer serverPageSize = ServerSidePagingHandler.applyServerSidePaging(uriInfo,
         entitySet,
         edmEntitySet,
-        request.getRawRequestUri(),
-        pageSize);
+        request,
+        pageSize,
+        odata,
+        serviceMetadata.getEdm());
 
     // Apply expand system query option
     final ExpandOption expand = uriInfo.getExpandOption();
     final SelectOption select = uriInfo.getSelectOption();
 
-    // Transform the entity graph to a tree. The construction is controlled by the expand tree.
-    // Apply all expand system query options to the tree.
-    // So the expanded navigation properties can be modified for serialization,
-    // without affecting the data stored in the database.
-    final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-    final EntityCollection entitySetSerialization = expandHandler.transformEntitySetGraphToTree(entitySet,
-        edmEntitySet,
-        expand, null);
-    expandHandler.applyExpandQueryOptions(entitySetSerialization, edmEntitySet, expand, uriInfo,
-        serviceMetadata.getEdm());
+    // Apply all expand system query options. Entities whose expanded navigation properties
+    // are modified by nested options are replaced by views, without affecting the data stored in the database.
+    // Streamed responses are written after the status code has been set and delta responses are
+    // serialized without unwrapping exceptions of nested options, so their entities are expanded in advance.
+    final boolean isStreamed = !isReference && isStreaming(edmEntitySet, requestedContentType);
+    final ExpandSystemQueryOptionHandler expandHandler =
+        new ExpandSystemQueryOptionHandler(!isStreamed && !hasDeltaToken(uriInfo));
+    final EntityCollection entitySetSerialization = expandHandler.expandEntitySet(entitySet, edmEntitySet,
+        expand, uriInfo, serviceMetadata.getEdm());
     final CountOption countOption = uriInfo.getCountOption();
     final List<SystemQueryOption> systemQueryOptions = uriInfo.getSystemQueryOptions();
     String deltaToken = null;
@@ -680,7 +743,7 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
       final SerializerResult serializerResult =
           serializeReferenceCollection(entitySetSerialization, edmEntitySet, requestedContentType, countOption);
       response.setContent(serializerResult.getContent());
-    } else if(isStreaming(edmEntitySet, requestedContentType)) {
+    } else if(isStreamed) {
       final SerializerStreamResult serializerResult =
           serializeEntityCollectionStreamed(request,
               entitySetSerialization, edmEntitySet, edmEntityType, requestedContentType,
@@ -715,6 +778,16 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
       response.setHeader(HttpHeader.ODATA_VERSION,request.getHeaders(HttpHeader.ODATA_MAX_VERSION).get(0));
     }
   }
+
+  private boolean hasDeltaToken(final UriInfo uriInfo) {
+    for (SystemQueryOption systemQueryOption : uriInfo.getSystemQueryOptions()) {
+      if (systemQueryOption.getName().contains(DELTATOKEN)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private List<Entity> readNavigationEntities(final UriInfo uriInfo) {   
 
     final List<UriResource> resourcePaths = uriInfo.getUriResourceParts();
@@ -764,20 +837,26 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
   private SerializerResult serializeEntityCollection(final ODataRequest request, final EntityCollection
       entityCollection, final EdmEntitySet edmEntitySet, final EdmEntityType edmEntityType,
       final ContentType requestedFormat, final ExpandOption expand, final SelectOption select,
-      final CountOption countOption, String id, final boolean isContNav) throws ODataLibraryException {
+      final CountOption countOption, String id, final boolean isContNav)
+      throws ODataLibraryException, ODataApplicationException {
 
-    return odata.createSerializer(requestedFormat, request.getHeaders(HttpHeader.ODATA_VERSION))
-        .entityCollection(
-        serviceMetadata,
-        edmEntityType,
-        entityCollection,
-        EntityCollectionSerializerOptions.with()
-            .contextURL(isODataMetadataNone(requestedFormat) ? null :
-                getContextUrl(request.getRawODataPath(), edmEntitySet, edmEntityType, false, expand, select, isContNav))
-            .count(countOption)
-            .expand(expand).select(select)
-            .id(id)
-            .build());
+    try {
+      return odata.createSerializer(requestedFormat, request.getHeaders(HttpHeader.ODATA_VERSION))
+          .entityCollection(
+          serviceMetadata,
+          edmEntityType,
+          entityCollection,
+          EntityCollectionSerializerOptions.with()
+              .contextURL(isODataMetadataNone(requestedFormat) ? null :
+                  getContextUrl(request.getRawODataPath(), edmEntitySet, edmEntityType, false, expand, select,
+                      isContNav))
+              .count(countOption)
+              .expand(expand).select(select)
+              .id(id)
+              .build());
+    } catch (final SystemQueryOptionsRuntimeException e) {
+      throw expandException(e);
+    }
   }
 
   // serialise as streamed collection
@@ -882,7 +961,7 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
 
   private SerializerResult serializeEntity(final ODataRequest request, final Entity entity,
       final EdmEntitySet edmEntitySet, final EdmEntityType edmEntityType,
-      final ContentType requestedFormat) throws ODataLibraryException {
+      final ContentType requestedFormat) throws ODataLibraryException, ODataApplicationException {
     return serializeEntity(request, entity, edmEntitySet, edmEntityType, requestedFormat, null, null, false);
   }
 
@@ -890,18 +969,30 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
       final EdmEntitySet edmEntitySet, final EdmEntityType edmEntityType,
       final ContentType requestedFormat,
       final ExpandOption expand, final SelectOption select, final boolean isContNav)
-      throws ODataLibraryException {
+      throws ODataLibraryException, ODataApplicationException {
 
     ContextURL contextUrl = isODataMetadataNone(requestedFormat) ? null :
         getContextUrl(request.getRawODataPath(), edmEntitySet, edmEntityType, true, expand, select,isContNav);
-    return odata.createSerializer(requestedFormat, request.getHeaders(HttpHeader.ODATA_VERSION)).entity(
-        serviceMetadata,
-        edmEntityType,
-        entity,
-        EntitySerializerOptions.with()
-            .contextURL(contextUrl)
-            .expand(expand).select(select)
-            .build());
+    try {
+      return odata.createSerializer(requestedFormat, request.getHeaders(HttpHeader.ODATA_VERSION)).entity(
+          serviceMetadata,
+          edmEntityType,
+          entity,
+          EntitySerializerOptions.with()
+              .contextURL(contextUrl)
+              .expand(expand).select(select)
+              .build());
+    } catch (final SystemQueryOptionsRuntimeException e) {
+      throw expandException(e);
+    }
+  }
+
+  /**
+   * Nested system query options of lazily expanded navigation properties are applied
+   * while the serializer iterates over the expanded entities; their exceptions arrive wrapped.
+   */
+  private ODataApplicationException expandException(final SystemQueryOptionsRuntimeException e) {
+    return SystemQueryOptionsRuntimeException.unwrap(e, "Exception in expand evaluation");
   }
 
   private ContextURL getContextUrl(String rawODataPath, final EdmEntitySet entitySet, final EdmEntityType entityType,
@@ -19,10 +19,9 @@
 package org.apache.olingo.server.tecsvc.processor.queryoptions;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Locale;
-import java.util.Set;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
@@ -30,7 +29,6 @@ import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.edm.EdmElement;
-import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
 import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
@@ -39,154 +37,194 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
-import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
-import org.apache.olingo.server.api.uri.queryoption.FilterOption;
-import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
-import org.apache.olingo.server.api.uri.queryoption.SkipOption;
-import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.CountHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SystemQueryOptionsRuntimeException;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
 
 public class ExpandSystemQueryOptionHandler {
 
-  public void applyExpandQueryOptions(final EntityCollection entitySet, final EdmEntitySet edmEntitySet,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
-    }
+  private final boolean lazy;
 
-    for (final Entity entity : entitySet.getEntities()) {
-      applyExpandOptionToEntity(entity, edmEntitySet, expandOption, uriInfo, edm);
-    }
+  public ExpandSystemQueryOptionHandler() {
+    this(true);
+  }
+
+  /**
+   * @param lazy whether nested entity collections not modified by their own options are expanded
+   *             while the serializer iterates over them; if <code>false</code>, all entities are expanded
+   *             in advance, so that exceptions of nested options are thrown before serialization
+   */
+  public ExpandSystemQueryOptionHandler(final boolean lazy) {
+    this.lazy = lazy;
   }
 
-  public void applyExpandQueryOptions(final Entity entity, final EdmEntitySet edmEntitySet,
+  /**
+   * Expands the entities of a collection for serialization, applying the nested system query options.
+   * <p>The stored data is neither changed nor copied. An entity is only replaced by a view
+   * if nested options modify one of its expanded navigation properties, directly or further down;
+   * the view shares everything else with the entity. A nested entity collection is materialized
+   * only if nested options filter, count, order, or page it or if this handler is not lazy;
+   * otherwise its entities are expanded one by one while the serializer iterates over it.</p>
+   * @param entitySet the entities to expand; as they are replaced in the given collection,
+   *                  this must not be a collection of the stored data
+   * @return the given collection
+   */
+  public EntityCollection expandEntitySet(final EntityCollection entitySet, final EdmBindingTarget edmBindingTarget,
       final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
+    if (modifiesCollections(expandOption)) {
+      for (ListIterator<Entity> iterator = entitySet.getEntities().listIterator(); iterator.hasNext();) {
+        iterator.set(expand(iterator.next(), edmBindingTarget, expandOption, uriInfo, edm));
+      }
     }
-
-    applyExpandOptionToEntity(entity, edmEntitySet, expandOption, uriInfo, edm);
+    return entitySet;
   }
 
-  private void applyExpandOptionToEntity(final Entity entity, final EdmBindingTarget edmBindingTarget,
+  /**
+   * Expands an entity for serialization, applying the nested system query options.
+   * @return the entity itself or a view of it, see {@link #expandEntitySet}
+   */
+  public Entity expandEntity(final Entity entity, final EdmBindingTarget edmBindingTarget,
       final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    return modifiesCollections(expandOption) ? expand(entity, edmBindingTarget, expandOption, uriInfo, edm) : entity;
+  }
 
-    final EdmEntityType entityType = edmBindingTarget.getEntityType();
-
-    for (ExpandItem item : expandOption.getExpandItems()) {
-      if(item.getLevelsOption() != null) {
-        throw new ODataApplicationException("$levels is not implemented", 
-            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
-      }
-      
-      List<EdmNavigationProperty> navigationProperties = new ArrayList<EdmNavigationProperty>();
-      if(item.isStar()) {
-        List<EdmNavigationPropertyBinding> bindings = edmBindingTarget.getNavigationPropertyBindings();
-        for (EdmNavigationPropertyBinding binding : bindings) {
-          EdmElement property = entityType.getProperty(binding.getPath());
-          if(property instanceof EdmNavigationProperty) {
-            navigationProperties.add((EdmNavigationProperty) property);
-          }
-        }
-      } else {
-        final List<UriResource> uriResourceParts = item.getResourcePath().getUriResourceParts();
-        if (uriResourceParts.get(0) instanceof UriResourceNavigation) {
-          navigationProperties.add(((UriResourceNavigation) uriResourceParts.get(0)).getProperty());
-        }
+  private Entity expand(final Entity entity, final EdmBindingTarget edmBindingTarget,
+      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    List<Link> navigationLinks = null;
+    for (final ExpandItem item : expandOption.getExpandItems()) {
+      final boolean modifiesNested = modifiesCollections(item.getExpandOption());
+      if (!modifiesNested && !modifiesCollection(item)) {
+        continue;
       }
-
-      for (EdmNavigationProperty navigationProperty: navigationProperties) {
+      for (final EdmNavigationProperty navigationProperty : getNavigationProperties(item, edmBindingTarget)) {
         final String navPropertyName = navigationProperty.getName();
+        final List<Link> links = navigationLinks == null ? entity.getNavigationLinks() : navigationLinks;
+        final int index = lastIndexOf(links, navPropertyName);
+        if (index < 0) {
+          continue;
+        }
+        final Link link = links.get(index);
         final EdmBindingTarget targetEdmEntitySet = edmBindingTarget.getRelatedBindingTarget(navPropertyName);
-
-        final Link link = entity.getNavigationLink(navPropertyName);
-        if (link != null && entityType.getNavigationProperty(navPropertyName).isCollection()) {
-          applyOptionsToEntityCollection(link.getInlineEntitySet(),
-              targetEdmEntitySet,
-              item.getFilterOption(),
-              item.getOrderByOption(),
-              item.getCountOption(),
-              item.getSkipOption(),
-              item.getTopOption(),
-              item.getExpandOption(),
-              uriInfo, edm);
+        final Link newLink = newLink(link);
+        if (navigationProperty.isCollection()) {
+          if (link.getInlineEntitySet() == null) {
+            continue;
+          }
+          newLink.setInlineEntitySet(
+              expandNestedEntitySet(link.getInlineEntitySet(), targetEdmEntitySet, item, uriInfo, edm));
+        } else {
+          if (link.getInlineEntity() == null || !modifiesNested) {
+            continue;
+          }
+          newLink.setInlineEntity(
+              expand(link.getInlineEntity(), targetEdmEntitySet, item.getExpandOption(), uriInfo, edm));
         }
+        if (navigationLinks == null) {
+          navigationLinks = new ArrayList<Link>(entity.getNavigationLinks());
+        }
+        navigationLinks.set(index, newLink);
       }
     }
+    return navigationLinks == null ? entity : new ExpandedEntity(entity, navigationLinks);
   }
 
-  private void applyOptionsToEntityCollection(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget,
-      final FilterOption filterOption, final OrderByOption orderByOption, final CountOption countOption,
-      final SkipOption skipOption, final TopOption topOption, final ExpandOption expandOption,
-      final UriInfoResource uriInfo, final Edm edm)
+  private EntityCollection expandNestedEntitySet(final EntityCollection entitySet,
+      final EdmBindingTarget edmBindingTarget, final ExpandItem item, final UriInfoResource uriInfo, final Edm edm)
       throws ODataApplicationException {
+    final ExpandOption expandOption = item.getExpandOption();
+    if (lazy && !modifiesCollection(item)) {
+      // Only entities further down are modified; expand them while the collection is serialized.
+      return new ExpandedEntityCollection(entitySet, entity -> {
+        try {
+          return expand(entity, edmBindingTarget, expandOption, uriInfo, edm);
+        } catch (final ODataApplicationException e) {
+          throw new SystemQueryOptionsRuntimeException(e);
+        }
+      });
+    }
 
-    FilterHandler.applyFilterSystemQuery(filterOption, entitySet, uriInfo, edm);
-    OrderByHandler.applyOrderByOption(orderByOption, entitySet, uriInfo, edm);
-    CountHandler.applyCountSystemQueryOption(countOption, entitySet);
-    SkipHandler.applySkipSystemQueryHandler(skipOption, entitySet);
-    TopHandler.applyTopSystemQueryOption(topOption, entitySet);
+    EntityCollection newEntitySet = newEntitySet(entitySet);
+    newEntitySet.getEntities().addAll(entitySet.getEntities());
+    if (item.hasCountPath()) {
+      newEntitySet.setCount(entitySet.getEntities().size());
+    }
+    FilterHandler.applyFilterSystemQuery(item.getFilterOption(), newEntitySet, uriInfo, edm);
+    CountHandler.applyCountSystemQueryOption(item.getCountOption(), newEntitySet);
+    OrderByHandler.applyOrderByOption(item.getOrderByOption(), item.getSkipOption(), item.getTopOption(),
+        newEntitySet, uriInfo, edm);
+    SkipHandler.applySkipSystemQueryHandler(item.getSkipOption(), newEntitySet);
+    TopHandler.applyTopSystemQueryOption(item.getTopOption(), newEntitySet);
 
     // Apply nested expand system query options to remaining entities
-    if (expandOption != null) {
-      for (final Entity entity : entitySet.getEntities()) {
-        applyExpandOptionToEntity(entity, edmBindingTarget, expandOption, uriInfo, edm);
+    if (modifiesCollections(expandOption)) {
+      for (ListIterator<Entity> iterator = newEntitySet.getEntities().listIterator(); iterator.hasNext();) {
+        iterator.set(expand(iterator.next(), edmBindingTarget, expandOption, uriInfo, edm));
       }
     }
+    return newEntitySet;
   }
 
-  public EntityCollection transformEntitySetGraphToTree(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget, final ExpandOption expand, 
-      final ExpandItem expandItem) throws ODataApplicationException {
-
-    final EntityCollection newEntitySet = newEntitySet(entitySet);
-
-    for (final Entity entity : entitySet.getEntities()) {
-      newEntitySet.getEntities().add(transformEntityGraphToTree(entity, edmBindingTarget, expand, expandItem));
-    }
-    if (expandItem != null && expandItem.hasCountPath()) {
-      newEntitySet.setCount(entitySet.getEntities().size());
+  /**
+   * Determines whether nested system query options modify any expanded collection in the expand tree.
+   * Unsupported options in the expand tree are rejected.
+   */
+  private boolean modifiesCollections(final ExpandOption expandOption) throws ODataApplicationException {
+    boolean modifies = false;
+    if (hasExpandItems(expandOption)) {
+      for (final ExpandItem item : expandOption.getExpandItems()) {
+        if (item.getLevelsOption() != null) {
+          throw new ODataApplicationException("$levels is not implemented",
+              HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+        }
+        final boolean modifiesNested = modifiesCollections(item.getExpandOption());
+        modifies = modifies || modifiesNested || modifiesCollection(item);
+      }
     }
-    return newEntitySet;
+    return modifies;
   }
 
-  public Entity transformEntityGraphToTree(final Entity entity, final EdmBindingTarget edmEntitySet,
-      final ExpandOption expand, final ExpandItem parentExpandItem) throws ODataApplicationException {
-    final Entity newEntity = newEntity(entity);
-    if (hasExpandItems(expand)) {
-      final boolean expandAll = expandAll(expand);
-      final Set<String> expanded = expandAll ? null : getExpandedPropertyNames(expand.getExpandItems());
-      final EdmEntityType edmType = edmEntitySet.getEntityType();
-
-      for (final Link link : entity.getNavigationLinks()) {
-        final String propertyName = link.getTitle();
-
-        if (expandAll || expanded.contains(propertyName)) {
-          final EdmNavigationProperty edmNavigationProperty = edmType.getNavigationProperty(propertyName);
-          final EdmBindingTarget edmBindingTarget = edmEntitySet.getRelatedBindingTarget(propertyName);
-          final Link newLink = newLink(link);
-          newEntity.getNavigationLinks().add(newLink);
-          final ExpandItem expandItem = getInnerExpandItem(expand, propertyName);
+  private boolean modifiesCollection(final ExpandItem item) {
+    return item.getFilterOption() != null
+        || item.getCountOption() != null
+        || item.getOrderByOption() != null
+        || item.getSkipOption() != null
+        || item.getTopOption() != null
+        || item.hasCountPath();
+  }
 
-          if (edmNavigationProperty.isCollection()) {
-            newLink.setInlineEntitySet(transformEntitySetGraphToTree(link.getInlineEntitySet(),
-                edmBindingTarget, expandItem.getExpandOption(), expandItem));
-          } else {
-            newLink.setInlineEntity(transformEntityGraphToTree(link.getInlineEntity(),
-                edmBindingTarget,expandItem.getExpandOption(), expandItem));
-          }
+  private List<EdmNavigationProperty> getNavigationProperties(final ExpandItem item,
+      final EdmBindingTarget edmBindingTarget) {
+    List<EdmNavigationProperty> navigationProperties = new ArrayList<EdmNavigationProperty>();
+    if (item.isStar()) {
+      final EdmEntityType entityType = edmBindingTarget.getEntityType();
+      for (final EdmNavigationPropertyBinding binding : edmBindingTarget.getNavigationPropertyBindings()) {
+        final EdmElement property = entityType.getProperty(binding.getPath());
+        if (property instanceof EdmNavigationProperty) {
+          navigationProperties.add((EdmNavigationProperty) property);
         }
       }
+    } else {
+      final List<UriResource> uriResourceParts = item.getResourcePath().getUriResourceParts();
+      if (uriResourceParts.get(0) instanceof UriResourceNavigation) {
+        navigationProperties.add(((UriResourceNavigation) uriResourceParts.get(0)).getProperty());
+      }
+    }
+    return navigationProperties;
+  }
 
+  /** Finds the link {@link Entity#getNavigationLink(String)} would return. */
+  private int lastIndexOf(final List<Link> links, final String title) {
+    for (int index = links.size() - 1; index >= 0; index--) {
+      if (title.equals(links.get(index).getTitle())) {
+        return index;
+      }
     }
-    return newEntity;
+    return -1;
   }
 
   public EntityCollection newEntitySet(final EntityCollection entitySet) {
@@ -200,27 +238,6 @@ public class ExpandSystemQueryOptionHandler {
     return newEntitySet;
   }
 
-  private Entity newEntity(final Entity entity) {
-    Entity newEntity = new Entity();
-
-    newEntity.getProperties().addAll(entity.getProperties());
-    newEntity.getAnnotations().addAll(entity.getAnnotations());
-    newEntity.setId(entity.getId());
-    newEntity.setBaseURI(entity.getBaseURI());
-    newEntity.setType(entity.getType());
-    newEntity.setETag(entity.getETag());
-    newEntity.setMediaContentSource(entity.getMediaContentSource());
-    newEntity.setMediaContentType(entity.getMediaContentType());
-    newEntity.setMediaETag(entity.getMediaETag());
-    newEntity.setSelfLink(entity.getSelfLink());
-    newEntity.setEditLink(entity.getEditLink());
-    newEntity.getAssociationLinks().addAll(entity.getAssociationLinks());
-    newEntity.getNavigationBindings().addAll(entity.getNavigationBindings());
-    newEntity.getOperations().addAll(entity.getOperations());
-    newEntity.getNavigationLinks().addAll(entity.getNavigationLinks());
-    return newEntity;
-  }
-
   private Link newLink(final Link link) {
     final Link newLink = new Link();
     newLink.setMediaETag(link.getMediaETag());
@@ -234,41 +251,4 @@ public class ExpandSystemQueryOptionHandler {
   private boolean hasExpandItems(final ExpandOption expand) {
     return expand != null && expand.getExpandItems() != null && !expand.getExpandItems().isEmpty();
   }
-
-  private boolean expandAll(final ExpandOption expand) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if (item.isStar()) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private Set<String> getExpandedPropertyNames(final List<ExpandItem> expandItems) throws ODataApplicationException {
-    Set<String> expanded = new HashSet<String>();
-    for (final ExpandItem item : expandItems) {
-      final List<UriResource> resourceParts = item.getResourcePath().getUriResourceParts();
-      final UriResource resource = resourceParts.get(0);
-      if (resource instanceof UriResourceNavigation) {
-        expanded.add(((UriResourceNavigation) resource).getProperty().getName());
-      }
-    }
-    return expanded;
-  }
-
-  private ExpandItem getInnerExpandItem(final ExpandOption expand, final String propertyName) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if(item.isStar()) {
-        return item;
-      }
-
-      final UriResource resource = item.getResourcePath().getUriResourceParts().get(0);
-      if (resource instanceof UriResourceNavigation
-          && propertyName.equals(((UriResourceNavigation) resource).getProperty().getName())) {
-        return item;
-      }
-    }
-
-    return null;
-  }
 }
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.net.URI;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Annotation;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Operation;
+import org.apache.olingo.commons.api.data.Property;
+
+/**
+ * Read-only view of an entity with its own navigation links.
+ * Everything else is read from the underlying entity, so nothing is copied.
+ */
+class ExpandedEntity extends Entity {
+
+  private final Entity entity;
+  private final List<Link> navigationLinks;
+
+  ExpandedEntity(final Entity entity, final List<Link> navigationLinks) {
+    this.entity = entity;
+    this.navigationLinks = navigationLinks;
+  }
+
+  @Override
+  public List<Link> getNavigationLinks() {
+    return navigationLinks;
+  }
+
+  @Override
+  public Link getNavigationLink(final String name) {
+    return getOneByTitle(name, navigationLinks);
+  }
+
+  @Override
+  public List<Link> getAssociationLinks() {
+    return entity.getAssociationLinks();
+  }
+
+  @Override
+  public Link getAssociationLink(final String name) {
+    return entity.getAssociationLink(name);
+  }
+
+  @Override
+  public List<Link> getNavigationBindings() {
+    return entity.getNavigationBindings();
+  }
+
+  @Override
+  public Link getNavigationBinding(final String name) {
+    return entity.getNavigationBinding(name);
+  }
+
+  @Override
+  public String getETag() {
+    return entity.getETag();
+  }
+
+  @Override
+  public String getType() {
+    return entity.getType();
+  }
+
+  @Override
+  public Link getSelfLink() {
+    return entity.getSelfLink();
+  }
+
+  @Override
+  public Link getEditLink() {
+    return entity.getEditLink();
+  }
+
+  @Override
+  public List<Link> getMediaEditLinks() {
+    return entity.getMediaEditLinks();
+  }
+
+  @Override
+  public List<Operation> getOperations() {
+    return entity.getOperations();
+  }
+
+  @Override
+  public List<Property> getProperties() {
+    return entity.getProperties();
+  }
+
+  @Override
+  public Property getProperty(final String name) {
+    return entity.getProperty(name);
+  }
+
+  @Override
+  public String getMediaContentType() {
+    return entity.getMediaContentType();
+  }
+
+  @Override
+  public URI getMediaContentSource() {
+    return entity.getMediaContentSource();
+  }
+
+  @Override
+  public String getMediaETag() {
+    return entity.getMediaETag();
+  }
+
+  @Override
+  public boolean isMediaEntity() {
+    return entity.isMediaEntity();
+  }
+
+  @Override
+  public URI getBaseURI() {
+    return entity.getBaseURI();
+  }
+
+  @Override
+  public URI getId() {
+    return entity.getId();
+  }
+
+  @Override
+  public String getTitle() {
+    return entity.getTitle();
+  }
+
+  @Override
+  public List<Annotation> getAnnotations() {
+    return entity.getAnnotations();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return this == o;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+
+  @Override
+  public String toString() {
+    return entity.toString();
+  }
+}
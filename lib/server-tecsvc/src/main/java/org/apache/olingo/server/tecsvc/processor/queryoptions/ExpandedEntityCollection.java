@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.olingo.commons.api.data.Annotation;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Operation;
+
+/**
+ * Read-only view of an entity collection whose entities are expanded one by one
+ * while iterating over the collection, so the expanded entities are never held all at once.
+ * Exceptions during expansion are thrown as runtime exceptions by the iterator.
+ */
+class ExpandedEntityCollection extends EntityCollection {
+
+  private final EntityCollection entitySet;
+  private final Function<Entity, Entity> expander;
+
+  ExpandedEntityCollection(final EntityCollection entitySet, final Function<Entity, Entity> expander) {
+    this.entitySet = entitySet;
+    this.expander = expander;
+  }
+
+  @Override
+  public Iterator<Entity> iterator() {
+    final Iterator<Entity> iterator = entitySet.iterator();
+    return new Iterator<Entity>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Entity next() {
+        return expander.apply(iterator.next());
+      }
+    };
+  }
+
+  /** Returns an unmodifiable list of the expanded entities; each call expands them anew. */
+  @Override
+  public List<Entity> getEntities() {
+    List<Entity> entities = new ArrayList<Entity>(entitySet.getEntities().size());
+    for (final Entity entity : this) {
+      entities.add(entity);
+    }
+    return Collections.unmodifiableList(entities);
+  }
+
+  @Override
+  public Integer getCount() {
+    return entitySet.getCount();
+  }
+
+  @Override
+  public URI getNext() {
+    return entitySet.getNext();
+  }
+
+  @Override
+  public URI getDeltaLink() {
+    return entitySet.getDeltaLink();
+  }
+
+  @Override
+  public List<Operation> getOperations() {
+    return entitySet.getOperations();
+  }
+
+  @Override
+  public URI getBaseURI() {
+    return entitySet.getBaseURI();
+  }
+
+  @Override
+  public URI getId() {
+    return entitySet.getId();
+  }
+
+  @Override
+  public List<Annotation> getAnnotations() {
+    return entitySet.getAnnotations();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return this == o;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+
+  @Override
+  public String toString() {
+    return entitySet.toString();
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+
+/**
+ * Node of an expression tree compiled by the {@link FilterExpressionCompiler}.
+ * <br/>
+ * Compiled expressions do not hold any state of an evaluation,
+ * so the same instance can be used for many entities and by concurrent threads.
+ */
+public abstract class CompiledExpression {
+
+  /**
+   * Evaluates the expression for the given entity;
+   * the result is the same as the result of the {@link ExpressionVisitorImpl}.
+   */
+  public abstract VisitorOperand evaluate(Entity entity) throws ExpressionVisitException, ODataApplicationException;
+}
@@ -0,0 +1,554 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.UntypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+
+/**
+ * Compiles an expression tree into a tree of {@link CompiledExpression}s.
+ * <br/>
+ * Literals are typed once during compilation, primitive properties directly
+ * below the entity are looked up by their position in the entity, and comparisons
+ * of such properties with numeric literals (or equality checks with string literals)
+ * are done without creating operands. All other nodes delegate to the operations
+ * of the {@link ExpressionVisitorImpl}, so the results are the same as if
+ * the expression were visited for each entity.
+ */
+public class FilterExpressionCompiler implements ExpressionVisitor<CompiledExpression> {
+
+  private static final EdmPrimitiveType primBoolean;
+  private static final EdmPrimitiveType primString;
+  private static final EdmPrimitiveType[] integerTypes;
+  private static final EdmPrimitiveType[] decimalTypes;
+
+  private static final TypedOperand TRUE_OPERAND;
+  private static final TypedOperand FALSE_OPERAND;
+
+  static {
+    final OData oData = OData.newInstance();
+    primBoolean = oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
+    primString = oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.String);
+    integerTypes = new EdmPrimitiveType[] {
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.SByte),
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Byte),
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Int16),
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Int32),
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Int64) };
+    decimalTypes = new EdmPrimitiveType[] {
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Single),
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Double),
+        oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Decimal) };
+
+    TRUE_OPERAND = new TypedOperand(true, primBoolean);
+    FALSE_OPERAND = new TypedOperand(false, primBoolean);
+  }
+
+  private final UriInfoResource uriInfo;
+  private final Edm edm;
+  /** Used for all operations which do not depend on the current entity. */
+  private final ExpressionVisitorImpl operations;
+
+  public FilterExpressionCompiler(final UriInfoResource uriInfo, final Edm edm) {
+    this.uriInfo = uriInfo;
+    this.edm = edm;
+    operations = new ExpressionVisitorImpl((Entity) null, uriInfo, edm);
+  }
+
+  /** Compiles the expression. */
+  public CompiledExpression compile(final Expression expression)
+      throws ExpressionVisitException, ODataApplicationException {
+    return expression.accept(this);
+  }
+
+  @Override
+  public CompiledExpression visitBinaryOperator(final BinaryOperatorKind operator, final CompiledExpression left,
+      final CompiledExpression right) throws ExpressionVisitException, ODataApplicationException {
+    final CompiledExpression operation = new BinaryOperation(operator, left, right);
+    switch (operator) {
+    case EQ:
+    case NE:
+    case GT:
+    case GE:
+    case LT:
+    case LE:
+      if (left instanceof PropertyAccess && right instanceof Constant) {
+        return createComparison(operator, (PropertyAccess) left, (Constant) right, operation);
+      } else if (left instanceof Constant && right instanceof PropertyAccess) {
+        return createComparison(mirror(operator), (PropertyAccess) right, (Constant) left, operation);
+      }
+      return operation;
+    default:
+      return operation;
+    }
+  }
+
+  @Override
+  public CompiledExpression visitBinaryOperator(final BinaryOperatorKind operator, final CompiledExpression left,
+      final List<CompiledExpression> right) throws ExpressionVisitException, ODataApplicationException {
+    return new BinaryListOperation(operator, left, right);
+  }
+
+  @Override
+  public CompiledExpression visitUnaryOperator(final UnaryOperatorKind operator, final CompiledExpression operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new CompiledExpression() {
+      @Override
+      public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+        return operations.visitUnaryOperator(operator, operand.evaluate(entity));
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitMethodCall(final MethodKind methodCall, final List<CompiledExpression> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new CompiledExpression() {
+      @Override
+      public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+        return operations.visitMethodCall(methodCall, evaluateAll(parameters, entity));
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    return new EntityVisit() {
+      @Override
+      protected VisitorOperand visit(final ExpressionVisitorImpl visitor)
+          throws ExpressionVisitException, ODataApplicationException {
+        return visitor.visitLambdaExpression(lambdaFunction, lambdaVariable, expression);
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitLiteral(final Literal literal)
+      throws ExpressionVisitException, ODataApplicationException {
+    final UntypedOperand operand = new UntypedOperand(literal.getText());
+    try {
+      return new Constant(operand.asTypedOperand());
+    } catch (final ODataApplicationException e) {
+      // The error is reported if the literal is used during evaluation.
+      return new Constant(operand);
+    }
+  }
+
+  @Override
+  public CompiledExpression visitMember(final Member member)
+      throws ExpressionVisitException, ODataApplicationException {
+    final List<UriResource> uriResourceParts = member.getResourcePath().getUriResourceParts();
+    if (uriResourceParts.size() == 1 && uriResourceParts.get(0) instanceof UriResourcePrimitiveProperty
+        && !((UriResourcePrimitiveProperty) uriResourceParts.get(0)).isCollection()) {
+      return new PropertyAccess(((UriResourcePrimitiveProperty) uriResourceParts.get(0)).getProperty());
+    }
+    return new EntityVisit() {
+      @Override
+      protected VisitorOperand visit(final ExpressionVisitorImpl visitor)
+          throws ExpressionVisitException, ODataApplicationException {
+        return visitor.visitMember(member);
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitAlias(final String aliasName)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new EntityVisit() {
+      @Override
+      protected VisitorOperand visit(final ExpressionVisitorImpl visitor)
+          throws ExpressionVisitException, ODataApplicationException {
+        return visitor.visitAlias(aliasName);
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitTypeLiteral(final EdmType type)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new EntityVisit() {
+      @Override
+      protected VisitorOperand visit(final ExpressionVisitorImpl visitor)
+          throws ExpressionVisitException, ODataApplicationException {
+        return visitor.visitTypeLiteral(type);
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitLambdaReference(final String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new EntityVisit() {
+      @Override
+      protected VisitorOperand visit(final ExpressionVisitorImpl visitor)
+          throws ExpressionVisitException, ODataApplicationException {
+        return visitor.visitLambdaReference(variableName);
+      }
+    };
+  }
+
+  @Override
+  public CompiledExpression visitEnum(final EdmEnumType type, final List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    try {
+      return new Constant(operations.visitEnum(type, enumValues));
+    } catch (final ODataApplicationException e) {
+      // The error is reported if the value is used during evaluation.
+      return new EntityVisit() {
+        @Override
+        protected VisitorOperand visit(final ExpressionVisitorImpl visitor)
+            throws ExpressionVisitException, ODataApplicationException {
+          return visitor.visitEnum(type, enumValues);
+        }
+      };
+    }
+  }
+
+  private static List<VisitorOperand> evaluateAll(final List<CompiledExpression> expressions, final Entity entity)
+      throws ExpressionVisitException, ODataApplicationException {
+    List<VisitorOperand> operands = new ArrayList<VisitorOperand>(expressions.size());
+    for (final CompiledExpression expression : expressions) {
+      operands.add(expression.evaluate(entity));
+    }
+    return operands;
+  }
+
+  private static BinaryOperatorKind mirror(final BinaryOperatorKind operator) {
+    switch (operator) {
+    case GT:
+      return BinaryOperatorKind.LT;
+    case GE:
+      return BinaryOperatorKind.LE;
+    case LT:
+      return BinaryOperatorKind.GT;
+    case LE:
+      return BinaryOperatorKind.GE;
+    default:
+      return operator;
+    }
+  }
+
+  private static boolean isOneOf(final EdmType type, final EdmPrimitiveType[] types) {
+    for (final EdmPrimitiveType candidate : types) {
+      if (candidate.equals(type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates a specialized comparison of a property with a constant
+   * if the visitor would compare numbers or test strings for equality;
+   * otherwise the given generic operation is returned.
+   */
+  private static CompiledExpression createComparison(final BinaryOperatorKind operator,
+      final PropertyAccess property, final Constant constant, final CompiledExpression operation) {
+    if (!(constant.operand instanceof TypedOperand) || constant.operand.getValue() == null) {
+      return operation;
+    }
+    final EdmType propertyType = property.edmProperty.getType();
+    final EdmType constantType = ((TypedOperand) constant.operand).getType();
+    final Object value = constant.operand.getValue();
+
+    final boolean isIntegerProperty = isOneOf(propertyType, integerTypes);
+    final boolean isIntegerConstant = isOneOf(constantType, integerTypes) && value instanceof BigInteger;
+    if (isIntegerProperty && isIntegerConstant && ((BigInteger) value).bitLength() < Long.SIZE) {
+      return new IntegerComparison(operator, property, ((BigInteger) value).longValue(), operation);
+    }
+    if ((isIntegerProperty || isOneOf(propertyType, decimalTypes))
+        && (isIntegerConstant || isOneOf(constantType, decimalTypes) && value instanceof BigDecimal)) {
+      return new DecimalComparison(operator, property, new BigDecimal(value.toString()), operation,
+          isIntegerProperty);
+    }
+    if ((operator == BinaryOperatorKind.EQ || operator == BinaryOperatorKind.NE)
+        && propertyType == primString && constantType == primString) {
+      return new StringComparison(operator, property, (String) value, operation);
+    }
+    return operation;
+  }
+
+  /** Value known at compile time. */
+  private static class Constant extends CompiledExpression {
+    private final VisitorOperand operand;
+
+    private Constant(final VisitorOperand operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) {
+      return operand;
+    }
+  }
+
+  /** Visits a part of the expression which depends on the entity with a new visitor for each entity. */
+  private abstract class EntityVisit extends CompiledExpression {
+
+    protected abstract VisitorOperand visit(ExpressionVisitorImpl visitor)
+        throws ExpressionVisitException, ODataApplicationException;
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      return visit(new ExpressionVisitorImpl(entity, uriInfo, edm));
+    }
+  }
+
+  private class BinaryOperation extends CompiledExpression {
+    private final BinaryOperatorKind operator;
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+
+    private BinaryOperation(final BinaryOperatorKind operator, final CompiledExpression left,
+        final CompiledExpression right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      final VisitorOperand leftOperand = left.evaluate(entity);
+      final VisitorOperand rightOperand = right.evaluate(entity);
+      if (isBooleanConstant(leftOperand) && isBooleanConstant(rightOperand)) {
+        if (operator == BinaryOperatorKind.AND) {
+          return leftOperand == TRUE_OPERAND && rightOperand == TRUE_OPERAND ? TRUE_OPERAND : FALSE_OPERAND;
+        } else if (operator == BinaryOperatorKind.OR) {
+          return leftOperand == TRUE_OPERAND || rightOperand == TRUE_OPERAND ? TRUE_OPERAND : FALSE_OPERAND;
+        }
+      }
+      return operations.visitBinaryOperator(operator, leftOperand, rightOperand);
+    }
+
+    private boolean isBooleanConstant(final VisitorOperand operand) {
+      return operand == TRUE_OPERAND || operand == FALSE_OPERAND;
+    }
+  }
+
+  private class BinaryListOperation extends CompiledExpression {
+    private final BinaryOperatorKind operator;
+    private final CompiledExpression left;
+    private final List<CompiledExpression> right;
+
+    private BinaryListOperation(final BinaryOperatorKind operator, final CompiledExpression left,
+        final List<CompiledExpression> right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      return operations.visitBinaryOperator(operator, left.evaluate(entity), evaluateAll(right, entity));
+    }
+  }
+
+  /**
+   * Reads a primitive property directly below the entity.
+   * The position of the property found last is tried first; entities of the same type
+   * usually have their properties in the same order.
+   */
+  private static class PropertyAccess extends CompiledExpression {
+    private final EdmProperty edmProperty;
+    private final String name;
+    /** Only a hint, so concurrent updates without synchronization do no harm. */
+    private int position = 0;
+
+    private PropertyAccess(final EdmProperty edmProperty) {
+      this.edmProperty = edmProperty;
+      name = edmProperty.getName();
+    }
+
+    protected Property getProperty(final Entity entity) {
+      final List<Property> properties = entity.getProperties();
+      final int hint = position;
+      if (hint < properties.size() && name.equals(properties.get(hint).getName())) {
+        return properties.get(hint);
+      }
+      for (int index = 0; index < properties.size(); index++) {
+        if (name.equals(properties.get(index).getName())) {
+          position = index;
+          return properties.get(index);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) {
+      // A missing property results in the same exception as in the visitor.
+      return new TypedOperand(getProperty(entity).getValue(), edmProperty.getType(), edmProperty);
+    }
+  }
+
+  /**
+   * Comparison of a property with a constant.
+   * Values the specialized comparison cannot handle are evaluated by the generic operation.
+   */
+  private abstract static class Comparison extends CompiledExpression {
+    private final BinaryOperatorKind operator;
+    private final PropertyAccess property;
+    private final CompiledExpression operation;
+
+    protected Comparison(final BinaryOperatorKind operator, final PropertyAccess property,
+        final CompiledExpression operation) {
+      this.operator = operator;
+      this.property = property;
+      this.operation = operation;
+    }
+
+    /**
+     * Compares the (non-null) value with the constant.
+     * @return the sign of the comparison or <code>null</code> if the value cannot be handled here
+     */
+    protected abstract Integer compareTo(Object value);
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      final Property found = property.getProperty(entity);
+      if (found == null) {
+        return operation.evaluate(entity);
+      }
+      final Object value = found.getValue();
+      if (value == null) {
+        // Only null is equal to null.
+        return operator == BinaryOperatorKind.NE ? TRUE_OPERAND : FALSE_OPERAND;
+      }
+      final Integer result = compareTo(value);
+      if (result == null) {
+        return operation.evaluate(entity);
+      }
+      boolean matches;
+      switch (operator) {
+      case EQ:
+        matches = result == 0;
+        break;
+      case NE:
+        matches = result != 0;
+        break;
+      case GT:
+        matches = result > 0;
+        break;
+      case GE:
+        matches = result >= 0;
+        break;
+      case LT:
+        matches = result < 0;
+        break;
+      default:
+        matches = result <= 0;
+        break;
+      }
+      return matches ? TRUE_OPERAND : FALSE_OPERAND;
+    }
+  }
+
+  private static boolean isInteger(final Object value) {
+    return value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long
+        || value instanceof BigInteger;
+  }
+
+  private static class IntegerComparison extends Comparison {
+    private final long constant;
+
+    private IntegerComparison(final BinaryOperatorKind operator, final PropertyAccess property, final long constant,
+        final CompiledExpression operation) {
+      super(operator, property, operation);
+      this.constant = constant;
+    }
+
+    @Override
+    protected Integer compareTo(final Object value) {
+      if (value instanceof BigInteger) {
+        return ((BigInteger) value).compareTo(BigInteger.valueOf(constant));
+      }
+      return isInteger(value) ? Long.compare(((Number) value).longValue(), constant) : null;
+    }
+  }
+
+  private static class DecimalComparison extends Comparison {
+    private final BigDecimal constant;
+    private final boolean isIntegerProperty;
+
+    private DecimalComparison(final BinaryOperatorKind operator, final PropertyAccess property,
+        final BigDecimal constant, final CompiledExpression operation, final boolean isIntegerProperty) {
+      super(operator, property, operation);
+      this.constant = constant;
+      this.isIntegerProperty = isIntegerProperty;
+    }
+
+    @Override
+    protected Integer compareTo(final Object value) {
+      if (value instanceof BigDecimal) {
+        return ((BigDecimal) value).compareTo(constant);
+      } else if (isIntegerProperty && !isInteger(value)) {
+        return null;
+      }
+      // The visitor converts the value via its string representation, too.
+      try {
+        return new BigDecimal(value.toString()).compareTo(constant);
+      } catch (final NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+
+  private static class StringComparison extends Comparison {
+    private final String constant;
+
+    private StringComparison(final BinaryOperatorKind operator, final PropertyAccess property,
+        final String constant, final CompiledExpression operation) {
+      super(operator, property, operation);
+      this.constant = constant;
+    }
+
+    @Override
+    protected Integer compareTo(final Object value) {
+      return value instanceof String ? ((String) value).equals(constant) ? 0 : 1 : null;
+    }
+  }
+}
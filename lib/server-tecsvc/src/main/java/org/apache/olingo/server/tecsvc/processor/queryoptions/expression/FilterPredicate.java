@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SystemQueryOptionsRuntimeException;
+
+/**
+ * The expression of a $filter system query option, compiled once
+ * and then applicable to any number of entities, also concurrently.
+ * <br/>
+ * An entity matches if the expression does not evaluate to <code>false</code>.
+ */
+public class FilterPredicate implements Predicate<Entity> {
+
+  private static final EdmPrimitiveType primBoolean =
+      OData.newInstance().createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
+
+  private final CompiledExpression expression;
+
+  private FilterPredicate(final CompiledExpression expression) {
+    this.expression = expression;
+  }
+
+  public static FilterPredicate compile(final FilterOption filterOption, final UriInfoResource uriInfo,
+      final Edm edm) throws ExpressionVisitException, ODataApplicationException {
+    return new FilterPredicate(new FilterExpressionCompiler(uriInfo, edm).compile(filterOption.getExpression()));
+  }
+
+  /**
+   * Evaluates the filter expression for the entity.
+   * @return <code>false</code> if the entity has to be filtered out
+   * @throws ODataApplicationException if the expression does not result in a boolean value
+   */
+  public boolean matches(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+    final TypedOperand typedOperand = expression.evaluate(entity).asTypedOperand();
+    if (typedOperand.is(primBoolean)) {
+      return !Boolean.FALSE.equals(typedOperand.getTypedValue(Boolean.class));
+    } else {
+      throw new ODataApplicationException(
+          "Invalid filter expression. Filter expressions must return a value of type Edm.Boolean",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <br/>
+   * Exceptions during evaluation are wrapped into a {@link SystemQueryOptionsRuntimeException}.
+   */
+  @Override
+  public boolean test(final Entity entity) {
+    try {
+      return matches(entity);
+    } catch (final ExpressionVisitException e) {
+      throw new SystemQueryOptionsRuntimeException(e);
+    } catch (final ODataApplicationException e) {
+      throw new SystemQueryOptionsRuntimeException(e);
+    }
+  }
+}
@@ -350,6 +350,10 @@ public class BinaryOperator {
     final BigInteger left = this.left.getTypedValue(BigInteger.class);
     final BigInteger right = this.right.getTypedValue(BigInteger.class);
 
+    if ((operator == BinaryOperatorKind.DIV || operator == BinaryOperatorKind.MOD) && right.signum() == 0) {
+      throw new ODataApplicationException("Division by zero", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT);
+    }
     switch (operator) {
     case ADD:
       return left.add(right);
@@ -0,0 +1,656 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceCount;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression.StandardMethod;
+import org.apache.olingo.server.api.uri.queryoption.apply.BottomTop;
+import org.apache.olingo.server.api.uri.queryoption.apply.Compute;
+import org.apache.olingo.server.api.uri.queryoption.apply.ComputeExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.Concat;
+import org.apache.olingo.server.api.uri.queryoption.apply.Filter;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
+import org.apache.olingo.server.api.uri.queryoption.apply.Search;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.CompiledExpression;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterExpressionCompiler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+
+/**
+ * Applies the transformations of the $apply system query option to entities.
+ * <br/>
+ * The transformations are evaluated as a pipeline over a stream of entities:
+ * filter, search, and compute handle one entity after the other while the input is read;
+ * aggregate and groupby with a nested aggregate consume their input in one pass,
+ * grouping by hash and accumulating the values with accumulators specialized for
+ * the kinds of primitive values they see. Only bottom/top, concat, and groupby with
+ * other nested transformations keep their input in memory.
+ * <br/>
+ * The input entities are not changed; computed and aggregated values are returned in new entities.
+ * Custom aggregates and aggregation methods, expand, custom functions, rollup, and aggregation
+ * or grouping along navigation paths are not supported.
+ */
+public class ApplyHandler {
+
+  private static final String DECIMAL_TYPE = "Edm.Decimal";
+
+  public static EntityCollection applyApplySystemQueryOption(final ApplyOption applyOption,
+      final EntityCollection entitySet, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
+
+    if (applyOption == null) {
+      return entitySet;
+    }
+
+    try {
+      EntityCollection result = new EntityCollection();
+      result.getEntities().addAll(
+          apply(applyOption.getApplyItems(), entitySet.getEntities().stream(), uriInfo, edm)
+              .collect(Collectors.<Entity> toList()));
+      return result;
+    } catch (final SystemQueryOptionsRuntimeException e) {
+      throw SystemQueryOptionsRuntimeException.unwrap(e, "Exception in apply evaluation");
+    }
+  }
+
+  /**
+   * Applies the transformations to the entities of an iterator, e.g., an EntityIterator.
+   * Transformations which do not need the complete input are evaluated while the result is read;
+   * exceptions during their evaluation are thrown as {@link SystemQueryOptionsRuntimeException}.
+   */
+  public static Iterator<Entity> applyApplySystemQueryOption(final ApplyOption applyOption,
+      final Iterator<Entity> entities, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
+
+    if (applyOption == null) {
+      return entities;
+    }
+
+    try {
+      return apply(applyOption.getApplyItems(),
+          StreamSupport.stream(Spliterators.spliteratorUnknownSize(entities, Spliterator.ORDERED), false),
+          uriInfo, edm).iterator();
+    } catch (final SystemQueryOptionsRuntimeException e) {
+      throw SystemQueryOptionsRuntimeException.unwrap(e, "Exception in apply evaluation");
+    }
+  }
+
+  private static Stream<Entity> apply(final List<ApplyItem> applyItems, final Stream<Entity> input,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    Stream<Entity> entities = input;
+    for (final ApplyItem item : applyItems) {
+      switch (item.getKind()) {
+      case IDENTITY:
+        break;
+      case FILTER:
+        entities = filter((Filter) item, entities, uriInfo, edm);
+        break;
+      case SEARCH:
+        entities = search((Search) item, entities);
+        break;
+      case COMPUTE:
+        entities = compute((Compute) item, entities, uriInfo, edm);
+        break;
+      case AGGREGATE:
+        entities = aggregate((Aggregate) item, entities, uriInfo, edm);
+        break;
+      case GROUP_BY:
+        entities = groupBy((GroupBy) item, entities, uriInfo, edm);
+        break;
+      case BOTTOM_TOP:
+        entities = bottomTop((BottomTop) item, entities, uriInfo, edm);
+        break;
+      case CONCAT:
+        entities = concat((Concat) item, entities, uriInfo, edm);
+        break;
+      default:
+        throw notImplemented("The transformation " + item.getKind() + " is not supported.");
+      }
+    }
+    return entities;
+  }
+
+  private static Stream<Entity> filter(final Filter filter, final Stream<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    try {
+      return entities.filter(FilterPredicate.compile(filter.getFilterOption(), uriInfo, edm));
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException("Exception in filter evaluation",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  private static Stream<Entity> search(final Search search, final Stream<Entity> entities) {
+    final SearchExpression expression = search.getSearchOption().getSearchExpression();
+    return entities.filter(entity -> {
+      try {
+        return SearchHandler.isTrue(expression, entity);
+      } catch (final ODataApplicationException e) {
+        throw new SystemQueryOptionsRuntimeException(e);
+      }
+    });
+  }
+
+  private static Stream<Entity> compute(final Compute compute, final Stream<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final List<ComputeExpression> expressions = compute.getExpressions();
+    final List<CompiledExpression> compiled = new ArrayList<>(expressions.size());
+    for (final ComputeExpression expression : expressions) {
+      compiled.add(compile(expression.getExpression(), uriInfo, edm));
+    }
+    return entities.map(entity -> {
+      Entity result = copy(entity);
+      for (int i = 0; i < compiled.size(); i++) {
+        final TypedOperand operand = evaluate(compiled.get(i), entity);
+        result.addProperty(new Property(operand.isNull() ? null : getTypeName(operand.getType()),
+            expressions.get(i).getAlias(), ValueType.PRIMITIVE, operand.getValue()));
+      }
+      return result;
+    });
+  }
+
+  private static Stream<Entity> aggregate(final Aggregate aggregate, final Stream<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final List<Aggregation> aggregations = compileAggregations(aggregate, uriInfo, edm);
+    final Accumulator[] accumulators = createAccumulators(aggregations);
+    entities.forEachOrdered(entity -> accumulate(aggregations, accumulators, entity));
+    Entity result = new Entity();
+    addResults(result, aggregations, accumulators);
+    return Stream.of(result);
+  }
+
+  private static Stream<Entity> groupBy(final GroupBy groupBy, final Stream<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final List<String> names = getGroupingProperties(groupBy);
+    final List<ApplyItem> nestedItems = groupBy.getApplyOption() == null ?
+        Collections.<ApplyItem> emptyList() :
+        groupBy.getApplyOption().getApplyItems();
+
+    if (nestedItems.size() == 1 && nestedItems.get(0).getKind() == ApplyItem.Kind.AGGREGATE) {
+      // The usual case is evaluated in one pass, without keeping the entities of the groups.
+      final List<Aggregation> aggregations = compileAggregations((Aggregate) nestedItems.get(0), uriInfo, edm);
+      Map<List<Object>, AggregatedGroup> groups = new LinkedHashMap<>();
+      entities.forEachOrdered(entity -> {
+        final List<Object> key = getGroupKey(names, entity);
+        AggregatedGroup group = groups.get(key);
+        if (group == null) {
+          group = new AggregatedGroup(getGroupProperties(names, entity), createAccumulators(aggregations));
+          groups.put(key, group);
+        }
+        accumulate(aggregations, group.accumulators, entity);
+      });
+      return groups.values().stream().map(group -> {
+        Entity result = new Entity();
+        result.getProperties().addAll(group.properties);
+        addResults(result, aggregations, group.accumulators);
+        return result;
+      });
+    }
+
+    Map<List<Object>, List<Entity>> groups = new LinkedHashMap<>();
+    entities.forEachOrdered(entity -> {
+      final List<Object> key = getGroupKey(names, entity);
+      List<Entity> group = groups.get(key);
+      if (group == null) {
+        group = new ArrayList<>();
+        groups.put(key, group);
+      }
+      group.add(entity);
+    });
+    List<Entity> results = new ArrayList<>();
+    for (final List<Entity> group : groups.values()) {
+      final List<Property> groupProperties = getGroupProperties(names, group.get(0));
+      if (nestedItems.isEmpty()) {
+        Entity result = new Entity();
+        result.getProperties().addAll(groupProperties);
+        results.add(result);
+      } else {
+        apply(nestedItems, group.stream(), uriInfo, edm).forEachOrdered(entity -> {
+          Entity result = new Entity();
+          result.getProperties().addAll(groupProperties);
+          for (final Property property : entity.getProperties()) {
+            if (!names.contains(property.getName())) {
+              result.addProperty(property);
+            }
+          }
+          results.add(result);
+        });
+      }
+    }
+    return results.stream();
+  }
+
+  private static Stream<Entity> bottomTop(final BottomTop bottomTop, final Stream<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final Object numberValue = evaluate(compile(bottomTop.getNumber(), uriInfo, edm), null).getValue();
+    if (!(numberValue instanceof Number)) {
+      throw new ODataApplicationException("The number of " + bottomTop.getMethod() + " must be numeric.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+    final BigDecimal number = toDecimal(numberValue);
+    final CompiledExpression value = compile(bottomTop.getValue(), uriInfo, edm);
+
+    List<Map.Entry<BigDecimal, Entity>> values = new ArrayList<>();
+    entities.forEachOrdered(entity -> {
+      final Object entityValue = evaluate(value, entity).getValue();
+      if (entityValue != null) {
+        values.add(new AbstractMap.SimpleImmutableEntry<>(toDecimal(entityValue), entity));
+      }
+    });
+    final boolean top = bottomTop.getMethod() == BottomTop.Method.TOP_COUNT
+        || bottomTop.getMethod() == BottomTop.Method.TOP_SUM
+        || bottomTop.getMethod() == BottomTop.Method.TOP_PERCENT;
+    final Comparator<Map.Entry<BigDecimal, Entity>> ascending = Map.Entry.comparingByKey();
+    values.sort(top ? ascending.reversed() : ascending);
+
+    BigDecimal limit;
+    switch (bottomTop.getMethod()) {
+    case BOTTOM_COUNT:
+    case TOP_COUNT:
+      return values.stream().limit(Math.max(number.longValue(), 0)).map(Map.Entry::getValue);
+    case BOTTOM_PERCENT:
+    case TOP_PERCENT:
+      BigDecimal total = BigDecimal.ZERO;
+      for (final Map.Entry<BigDecimal, Entity> entry : values) {
+        total = total.add(entry.getKey());
+      }
+      limit = total.multiply(number).divide(BigDecimal.valueOf(100), MathContext.DECIMAL128);
+      break;
+    default:
+      limit = number;
+      break;
+    }
+    // The smallest number of entities with the highest (or lowest) values which add up to at least the limit.
+    List<Entity> result = new ArrayList<>();
+    BigDecimal sum = BigDecimal.ZERO;
+    for (final Map.Entry<BigDecimal, Entity> entry : values) {
+      if (sum.compareTo(limit) >= 0) {
+        break;
+      }
+      result.add(entry.getValue());
+      sum = sum.add(entry.getKey());
+    }
+    return result.stream();
+  }
+
+  private static Stream<Entity> concat(final Concat concat, final Stream<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final List<Entity> input = entities.collect(Collectors.<Entity> toList());
+    Stream<Entity> result = Stream.empty();
+    for (final ApplyOption applyOption : concat.getApplyOptions()) {
+      result = Stream.concat(result, apply(applyOption.getApplyItems(), input.stream(), uriInfo, edm));
+    }
+    return result;
+  }
+
+  private static List<Aggregation> compileAggregations(final Aggregate aggregate, final UriInfoResource uriInfo,
+      final Edm edm) throws ODataApplicationException {
+    List<Aggregation> aggregations = new ArrayList<>();
+    for (final AggregateExpression expression : aggregate.getExpressions()) {
+      if (expression.getInlineAggregateExpression() != null || !expression.getFrom().isEmpty()) {
+        throw notImplemented("Aggregation along paths and with 'from' is not supported.");
+      }
+      final List<UriResource> path = expression.getPath();
+      if (expression.getExpression() == null && path.size() == 1 && path.get(0) instanceof UriResourceCount) {
+        aggregations.add(new Aggregation(expression.getAlias(), null, null));
+      } else if (expression.getExpression() != null && path.isEmpty() && expression.getStandardMethod() != null) {
+        aggregations.add(new Aggregation(expression.getAlias(), expression.getStandardMethod(),
+            compile(expression.getExpression(), uriInfo, edm)));
+      } else {
+        throw notImplemented("Custom aggregates and custom aggregation methods are not supported.");
+      }
+    }
+    return aggregations;
+  }
+
+  private static Accumulator[] createAccumulators(final List<Aggregation> aggregations) {
+    Accumulator[] accumulators = new Accumulator[aggregations.size()];
+    for (int i = 0; i < accumulators.length; i++) {
+      accumulators[i] = aggregations.get(i).createAccumulator();
+    }
+    return accumulators;
+  }
+
+  private static void accumulate(final List<Aggregation> aggregations, final Accumulator[] accumulators,
+      final Entity entity) {
+    for (int i = 0; i < accumulators.length; i++) {
+      final CompiledExpression expression = aggregations.get(i).expression;
+      accumulators[i].add(expression == null ? null : evaluate(expression, entity));
+    }
+  }
+
+  private static void addResults(final Entity entity, final List<Aggregation> aggregations,
+      final Accumulator[] accumulators) {
+    for (int i = 0; i < accumulators.length; i++) {
+      entity.addProperty(accumulators[i].getResult(aggregations.get(i).alias));
+    }
+  }
+
+  private static List<String> getGroupingProperties(final GroupBy groupBy) throws ODataApplicationException {
+    List<String> names = new ArrayList<>();
+    for (final GroupByItem item : groupBy.getGroupByItems()) {
+      if (item.isRollupAll() || !item.getRollup().isEmpty()) {
+        throw notImplemented("Rollup is not supported.");
+      }
+      final List<UriResource> path = item.getPath();
+      if (path.size() != 1 || !(path.get(0) instanceof UriResourcePrimitiveProperty)) {
+        throw notImplemented("Only primitive properties of the entity can be grouped.");
+      }
+      names.add(((UriResourcePrimitiveProperty) path.get(0)).getProperty().getName());
+    }
+    return names;
+  }
+
+  private static List<Object> getGroupKey(final List<String> names, final Entity entity) {
+    Object[] values = new Object[names.size()];
+    for (int i = 0; i < values.length; i++) {
+      final Property property = entity.getProperty(names.get(i));
+      values[i] = property == null ? null : property.getValue();
+    }
+    return Arrays.asList(values);
+  }
+
+  private static List<Property> getGroupProperties(final List<String> names, final Entity entity) {
+    List<Property> properties = new ArrayList<>(names.size());
+    for (final String name : names) {
+      final Property property = entity.getProperty(name);
+      properties.add(property == null ? new Property(null, name, ValueType.PRIMITIVE, null) : property);
+    }
+    return properties;
+  }
+
+  /** Copies the entity without its content; the properties are shared with the original. */
+  private static Entity copy(final Entity entity) {
+    Entity copy = new Entity();
+    copy.setType(entity.getType());
+    copy.setId(entity.getId());
+    copy.getProperties().addAll(entity.getProperties());
+    copy.getNavigationLinks().addAll(entity.getNavigationLinks());
+    return copy;
+  }
+
+  private static CompiledExpression compile(final Expression expression, final UriInfoResource uriInfo,
+      final Edm edm) throws ODataApplicationException {
+    try {
+      return new FilterExpressionCompiler(uriInfo, edm).compile(expression);
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException("Exception in apply evaluation",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  private static TypedOperand evaluate(final CompiledExpression expression, final Entity entity) {
+    try {
+      return expression.evaluate(entity).asTypedOperand();
+    } catch (final ExpressionVisitException e) {
+      throw new SystemQueryOptionsRuntimeException(e);
+    } catch (final ODataApplicationException e) {
+      throw new SystemQueryOptionsRuntimeException(e);
+    }
+  }
+
+  private static String getTypeName(final EdmType type) {
+    return type == null ? null : type.getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  private static BigDecimal toDecimal(final Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+        || value instanceof Byte) {
+      return BigDecimal.valueOf(((Number) value).longValue());
+    } else if (value instanceof Number) {
+      return BigDecimal.valueOf(((Number) value).doubleValue());
+    }
+    throw new SystemQueryOptionsRuntimeException(new ODataApplicationException(
+        "Only numeric values can be aggregated.", HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT));
+  }
+
+  private static ODataApplicationException notImplemented(final String message) {
+    return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  /** An aggregate expression with a standard method or, if the method is <code>null</code>, $count. */
+  private static final class Aggregation {
+    private final String alias;
+    private final StandardMethod method;
+    private final CompiledExpression expression;
+
+    private Aggregation(final String alias, final StandardMethod method, final CompiledExpression expression) {
+      this.alias = alias;
+      this.method = method;
+      this.expression = expression;
+    }
+
+    private Accumulator createAccumulator() {
+      if (method == null) {
+        return new CountAccumulator();
+      }
+      switch (method) {
+      case SUM:
+        return new SumAccumulator();
+      case AVERAGE:
+        return new AverageAccumulator();
+      case MIN:
+        return new MinMaxAccumulator(false);
+      case MAX:
+        return new MinMaxAccumulator(true);
+      default:
+        return new CountDistinctAccumulator();
+      }
+    }
+  }
+
+  private static final class AggregatedGroup {
+    private final List<Property> properties;
+    private final Accumulator[] accumulators;
+
+    private AggregatedGroup(final List<Property> properties, final Accumulator[] accumulators) {
+      this.properties = properties;
+      this.accumulators = accumulators;
+    }
+  }
+
+  /** Accumulates the values of one aggregate expression for one group. */
+  private abstract static class Accumulator {
+
+    /** Adds the value of the aggregated expression for the next entity; the operand is <code>null</code> for $count. */
+    protected abstract void add(TypedOperand operand);
+
+    protected abstract Property getResult(String alias);
+  }
+
+  private static class CountAccumulator extends Accumulator {
+    private long count;
+
+    @Override
+    protected void add(final TypedOperand operand) {
+      count++;
+    }
+
+    @Override
+    protected Property getResult(final String alias) {
+      return new Property(DECIMAL_TYPE, alias, ValueType.PRIMITIVE, BigDecimal.valueOf(count));
+    }
+  }
+
+  /**
+   * Sums up integer values in a long as long as the sum does not overflow,
+   * floating-point values in a double, and all other values as BigDecimal.
+   */
+  private static class SumAccumulator extends Accumulator {
+    private long longSum;
+    private double doubleSum;
+    private boolean hasDouble;
+    private BigDecimal decimalSum = BigDecimal.ZERO;
+    protected long count;
+
+    @Override
+    protected void add(final TypedOperand operand) {
+      final Object value = operand.getValue();
+      if (value == null) {
+        return;
+      }
+      count++;
+      if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+        final long longValue = ((Number) value).longValue();
+        try {
+          longSum = Math.addExact(longSum, longValue);
+        } catch (final ArithmeticException e) {
+          decimalSum = decimalSum.add(BigDecimal.valueOf(longSum)).add(BigDecimal.valueOf(longValue));
+          longSum = 0;
+        }
+      } else if (value instanceof Double || value instanceof Float) {
+        doubleSum += ((Number) value).doubleValue();
+        hasDouble = true;
+      } else {
+        decimalSum = decimalSum.add(toDecimal(value));
+      }
+    }
+
+    protected BigDecimal getSum() {
+      final BigDecimal sum = decimalSum.add(BigDecimal.valueOf(longSum));
+      if (!hasDouble) {
+        return sum;
+      }
+      if (Double.isNaN(doubleSum) || Double.isInfinite(doubleSum)) {
+        // The result is an Edm.Decimal, which has no representation for NaN and infinity.
+        throw new SystemQueryOptionsRuntimeException(new ODataApplicationException(
+            "The sum of the floating-point values is not a finite number.",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT));
+      }
+      return sum.add(BigDecimal.valueOf(doubleSum));
+    }
+
+    @Override
+    protected Property getResult(final String alias) {
+      return new Property(DECIMAL_TYPE, alias, ValueType.PRIMITIVE, getSum());
+    }
+  }
+
+  private static class AverageAccumulator extends SumAccumulator {
+
+    @Override
+    protected Property getResult(final String alias) {
+      return new Property(DECIMAL_TYPE, alias, ValueType.PRIMITIVE,
+          count == 0 ? null : getSum().divide(BigDecimal.valueOf(count), MathContext.DECIMAL128));
+    }
+  }
+
+  private static class MinMaxAccumulator extends Accumulator {
+    private final boolean max;
+    private Object result;
+    private EdmType type;
+
+    private MinMaxAccumulator(final boolean max) {
+      this.max = max;
+    }
+
+    @Override
+    protected void add(final TypedOperand operand) {
+      final Object value = operand.getValue();
+      if (value == null) {
+        return;
+      }
+      if (result == null) {
+        result = value;
+        type = operand.getType();
+      } else {
+        final int comparison = compare(value, result);
+        if (max ? comparison > 0 : comparison < 0) {
+          result = value;
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(final Object value, final Object other) {
+      if (value.getClass() == other.getClass() && value instanceof Comparable) {
+        return ((Comparable<Object>) value).compareTo(other);
+      } else if (value instanceof Number && other instanceof Number) {
+        return toDecimal(value).compareTo(toDecimal(other));
+      }
+      throw new SystemQueryOptionsRuntimeException(new ODataApplicationException(
+          "The values cannot be compared.", HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT));
+    }
+
+    @Override
+    protected Property getResult(final String alias) {
+      return new Property(getTypeName(type), alias, ValueType.PRIMITIVE, result);
+    }
+  }
+
+  private static class CountDistinctAccumulator extends Accumulator {
+    private final Set<Object> values = new HashSet<>();
+
+    @Override
+    protected void add(final TypedOperand operand) {
+      if (operand.getValue() != null) {
+        values.add(operand.getValue());
+      }
+    }
+
+    @Override
+    protected Property getResult(final String alias) {
+      return new Property(DECIMAL_TYPE, alias, ValueType.PRIMITIVE, BigDecimal.valueOf(values.size()));
+    }
+  }
+}
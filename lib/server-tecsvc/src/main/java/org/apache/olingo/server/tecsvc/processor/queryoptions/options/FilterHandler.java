@@ -24,23 +24,20 @@ import java.util.Locale;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.Edm;
-import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
-import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
-import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.queryoption.FilterOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate;
 
+/**
+ * Filters an entity collection according to the $filter system query option.
+ * <br/>
+ * The filter expression is compiled once per request into a {@link FilterPredicate}.
+ */
 public class FilterHandler {
 
-  protected static final EdmPrimitiveType primBoolean =
-      OData.newInstance().createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
-
   public static void applyFilterSystemQuery(final FilterOption filterOption, final EntityCollection entitySet,
       final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
 
@@ -49,21 +46,12 @@ public class FilterHandler {
     }
 
     try {
+      final FilterPredicate predicate = FilterPredicate.compile(filterOption, uriInfo, edm);
       final Iterator<Entity> iter = entitySet.getEntities().iterator();
 
       while (iter.hasNext()) {
-        final VisitorOperand operand = filterOption.getExpression()
-            .accept(new ExpressionVisitorImpl(iter.next(), uriInfo, edm));
-        final TypedOperand typedOperand = operand.asTypedOperand();
-
-        if (typedOperand.is(primBoolean)) {
-          if (Boolean.FALSE.equals(typedOperand.getTypedValue(Boolean.class))) {
-            iter.remove();
-          }
-        } else {
-          throw new ODataApplicationException(
-              "Invalid filter expression. Filter expressions must return a value of type Edm.Boolean",
-              HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+        if (!predicate.matches(iter.next())) {
+          iter.remove();
         }
       }
 
@@ -6,9 +6,9 @@
  * to you under the Apache License, Version 2.0 (the
  * "License"); you may not use this file except in compliance
  * with the License. You may obtain a copy of the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
@@ -18,88 +18,234 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Locale;
+import java.util.List;
+import java.util.PriorityQueue;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.Edm;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
 
+/**
+ * Sorts an entity collection according to the $orderby system query option.
+ * <br/>
+ * The order keys are evaluated once per entity and stored column-wise
+ * (integer and floating-point keys in primitive arrays); the entities are then sorted
+ * by comparing these keys. If only the first entities are needed (because of $top)
+ * a bounded heap is used instead of sorting the whole collection.
+ */
 public class OrderByHandler {
   public static void applyOrderByOption(final OrderByOption orderByOption, final EntityCollection entitySet,
       final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    applyOrderByOption(orderByOption, null, null, entitySet, uriInfo, edm);
+  }
+
+  /**
+   * Sorts the entity collection; if a $top option is given, only the entities
+   * which can be part of the result after applying $skip and $top are kept.
+   */
+  public static void applyOrderByOption(final OrderByOption orderByOption, final SkipOption skipOption,
+      final TopOption topOption, final EntityCollection entitySet, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
 
     if (orderByOption == null) {
       return;
     }
 
     try {
-      applyOrderByOptionInternal(orderByOption, entitySet, uriInfo, edm);
+      applyOrderByOptionInternal(orderByOption, getLimit(skipOption, topOption), entitySet, uriInfo, edm);
     } catch (SystemQueryOptionsRuntimeException e) {
-      if (e.getCause() instanceof ODataApplicationException) {
-        // Throw the nested exception, to send the correct HTTP status code in the HTTP response
-        throw (ODataApplicationException) e.getCause();
-      } else {
-        throw new ODataApplicationException("Exception in orderBy evaluation",
-            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
-      }
+      throw SystemQueryOptionsRuntimeException.unwrap(e, "Exception in orderBy evaluation");
     }
   }
 
-  private static void applyOrderByOptionInternal(final OrderByOption orderByOption, final EntityCollection entitySet,
-      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    Collections.sort(entitySet.getEntities(), new Comparator<Entity>() {
+  private static int getLimit(final SkipOption skipOption, final TopOption topOption) {
+    // Invalid values are reported by the skip and top handlers.
+    if (topOption == null || topOption.getValue() < 0 || skipOption != null && skipOption.getValue() < 0) {
+      return Integer.MAX_VALUE;
+    }
+    final long limit = (long) topOption.getValue() + (skipOption == null ? 0 : skipOption.getValue());
+    return (int) Math.min(limit, Integer.MAX_VALUE);
+  }
+
+  private static void applyOrderByOptionInternal(final OrderByOption orderByOption, final int limit,
+      final EntityCollection entitySet, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
+    final List<Entity> entities = entitySet.getEntities();
+    final List<OrderByItem> orders = orderByOption.getOrders();
+    final SortKeys[] keys = new SortKeys[orders.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = SortKeys.create(evaluate(orders.get(i), entities, uriInfo, edm), orders.get(i).isDescending());
+    }
+
+    // The position is the last criterion so that the sort is stable, also in the heap.
+    final Comparator<Integer> comparator = new Comparator<Integer>() {
       @Override
-      @SuppressWarnings("unchecked")
-      public int compare(final Entity e1, final Entity e2) {
-        // Evaluate the first order option for both entities.
-        // If and only if the result of the previous order option is equal to 0
-        // evaluate the next order option until all options are evaluated or they are not equal.
+      public int compare(final Integer first, final Integer second) {
         int result = 0;
+        for (int i = 0; i < keys.length && result == 0; i++) {
+          result = keys[i].compare(first, second);
+        }
+        return result == 0 ? Integer.compare(first, second) : result;
+      }
+    };
+
+    Integer[] positions;
+    if (limit < entities.size()) {
+      final PriorityQueue<Integer> heap = new PriorityQueue<Integer>(limit + 1, Collections.reverseOrder(comparator));
+      for (int position = 0; position < entities.size(); position++) {
+        heap.add(position);
+        if (heap.size() > limit) {
+          heap.poll();
+        }
+      }
+      positions = heap.toArray(new Integer[heap.size()]);
+    } else {
+      positions = new Integer[entities.size()];
+      for (int position = 0; position < positions.length; position++) {
+        positions[position] = position;
+      }
+    }
+    Arrays.sort(positions, comparator);
+
+    final List<Entity> sorted = new ArrayList<Entity>(positions.length);
+    for (final Integer position : positions) {
+      sorted.add(entities.get(position));
+    }
+    entities.clear();
+    entities.addAll(sorted);
+  }
+
+  private static Object[] evaluate(final OrderByItem item, final List<Entity> entities,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final Object[] values = new Object[entities.size()];
+    for (int i = 0; i < values.length; i++) {
+      try {
+        final TypedOperand operand =
+            item.getExpression().accept(new ExpressionVisitorImpl(entities.get(i), uriInfo, edm)).asTypedOperand();
+        values[i] = operand.isNull() ? null : operand.getValue();
+      } catch (ExpressionVisitException e) {
+        throw new SystemQueryOptionsRuntimeException(e);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * The values of one order criterion for all entities.
+   * Null values are sorted before all other values;
+   * values of different types or without natural order are regarded as equal.
+   */
+  private abstract static class SortKeys {
+    private final boolean[] isNull;
+    private final boolean descending;
+
+    protected SortKeys(final Object[] values, final boolean descending) {
+      isNull = new boolean[values.length];
+      for (int i = 0; i < values.length; i++) {
+        isNull[i] = values[i] == null;
+      }
+      this.descending = descending;
+    }
+
+    protected abstract int compareValues(int first, int second);
+
+    public int compare(final int first, final int second) {
+      final int result = isNull[first] || isNull[second] ?
+          Boolean.compare(!isNull[first], !isNull[second]) :
+          compareValues(first, second);
+      return descending ? -result : result;
+    }
+
+    public static SortKeys create(final Object[] values, final boolean descending) {
+      final Class<?> type = getCommonType(values);
+      if (type == Byte.class || type == Short.class || type == Integer.class || type == Long.class) {
+        return new IntegerKeys(values, descending);
+      } else if (type == Float.class || type == Double.class) {
+        return new FloatingPointKeys(values, descending);
+      } else {
+        return new ObjectKeys(values, descending);
+      }
+    }
 
-        for (int i = 0; i < orderByOption.getOrders().size() && result == 0; i++) {
-          try {
-            final OrderByItem item = orderByOption.getOrders().get(i);
-            final TypedOperand op1 =
-                item.getExpression().accept(new ExpressionVisitorImpl(e1, uriInfo, edm)).asTypedOperand();
-            final TypedOperand op2 =
-                item.getExpression().accept(new ExpressionVisitorImpl(e2, uriInfo, edm)).asTypedOperand();
-
-            if (op1.isNull() || op2.isNull()) {
-              if (op1.isNull() && op2.isNull()) {
-                result = 0; // null is equals to null
-              } else {
-                result = op1.isNull() ? -1 : 1;
-              }
-            } else {
-              Object o1 = op1.getValue();
-              Object o2 = op2.getValue();
-
-              if (o1.getClass() == o2.getClass() && o1 instanceof Comparable) {
-                result = ((Comparable<Object>) o1).compareTo(o2);
-              } else {
-                result = 0;
-              }
-            }
-
-            result = item.isDescending() ? result * -1 : result;
-          } catch (ODataApplicationException e) {
-            throw new SystemQueryOptionsRuntimeException(e);
-          } catch (ExpressionVisitException e) {
-            throw new SystemQueryOptionsRuntimeException(e);
+    /** Returns the class of all non-null values or <code>null</code> if there is no such single class. */
+    private static Class<?> getCommonType(final Object[] values) {
+      Class<?> type = null;
+      for (final Object value : values) {
+        if (value != null) {
+          if (type == null) {
+            type = value.getClass();
+          } else if (type != value.getClass()) {
+            return null;
           }
         }
-        return result;
       }
-    });
+      return type;
+    }
+  }
+
+  private static class IntegerKeys extends SortKeys {
+    private final long[] values;
+
+    private IntegerKeys(final Object[] values, final boolean descending) {
+      super(values, descending);
+      this.values = new long[values.length];
+      for (int i = 0; i < values.length; i++) {
+        this.values[i] = values[i] == null ? 0 : ((Number) values[i]).longValue();
+      }
+    }
+
+    @Override
+    protected int compareValues(final int first, final int second) {
+      return Long.compare(values[first], values[second]);
+    }
+  }
+
+  private static class FloatingPointKeys extends SortKeys {
+    private final double[] values;
+
+    private FloatingPointKeys(final Object[] values, final boolean descending) {
+      super(values, descending);
+      this.values = new double[values.length];
+      for (int i = 0; i < values.length; i++) {
+        this.values[i] = values[i] == null ? 0 : ((Number) values[i]).doubleValue();
+      }
+    }
+
+    @Override
+    protected int compareValues(final int first, final int second) {
+      return Double.compare(values[first], values[second]);
+    }
+  }
+
+  private static class ObjectKeys extends SortKeys {
+    private final Object[] values;
+
+    private ObjectKeys(final Object[] values, final boolean descending) {
+      super(values, descending);
+      this.values = values;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected int compareValues(final int first, final int second) {
+      final Object o1 = values[first];
+      final Object o2 = values[second];
+      return o1.getClass() == o2.getClass() && o1 instanceof Comparable ?
+          ((Comparable<Object>) o1).compareTo(o2) :
+          0;
+    }
   }
 }
@@ -18,12 +18,10 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
-import java.util.Calendar;
 import java.util.Iterator;
 import java.util.ListIterator;
 import java.util.Locale;
-
-import javax.xml.bind.DatatypeConverter;
+import java.util.Set;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
@@ -35,6 +33,7 @@ import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
 import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
 import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
 import org.apache.olingo.server.api.uri.queryoption.search.SearchTerm;
+import org.apache.olingo.server.tecsvc.data.SearchIndex;
 
 public class SearchHandler {
 
@@ -54,20 +53,36 @@ public class SearchHandler {
     }
   }
 
+  /**
+   * Applies the search system query option with the help of a search index.
+   * @param searchOption the search option (optional)
+   * @param entitySet the entities to filter; they must all be contained in the search index
+   * @param searchIndex the search index, or <code>null</code> to look at each entity in turn
+   */
+  public static void applySearchSystemQueryOption(final SearchOption searchOption, EntityCollection entitySet,
+      final SearchIndex searchIndex) throws ODataApplicationException {
+    if (searchIndex == null) {
+      applySearchSystemQueryOption(searchOption, entitySet);
+    } else if (searchOption != null) {
+      final Set<Entity> matches = searchIndex.search(searchOption.getSearchExpression());
+      entitySet.getEntities().removeIf(entity -> !matches.contains(entity));
+    }
+  }
+
   private static boolean isTrue(final SearchTerm term, final Property property) {
     if (property.isNull()) {
       return false;
     } else if (property.isPrimitive()) {
       if (property.isCollection()) {
         for (final Object primitive : property.asCollection()) {
-          final String propertyString = asString(primitive);
+          final String propertyString = SearchIndex.asString(primitive);
           if (propertyString != null && propertyString.contains(term.getSearchTerm())) {
             return true;
           }
         }
         return false;
       } else {
-        final String propertyString = asString(property.asPrimitive());
+        final String propertyString = SearchIndex.asString(property.asPrimitive());
         return propertyString != null && propertyString.contains(term.getSearchTerm());
       }
     } else if (property.isComplex()) {
@@ -91,19 +106,6 @@ public class SearchHandler {
     }
   }
 
-  private static String asString(final Object primitive) {
-    // TODO: improve 'string' conversion; maybe consider only String properties
-    if (primitive instanceof String) {
-      return (String) primitive;
-    } else if (primitive instanceof Calendar) {
-      return DatatypeConverter.printDateTime((Calendar) primitive);
-    } else if (primitive instanceof byte[]) {
-      return DatatypeConverter.printBase64Binary((byte[]) primitive);
-    } else {
-      return primitive.toString();
-    }
-  }
-
   private static boolean isTrue(final SearchBinary binary, final Entity entity) throws ODataApplicationException {
     SearchExpression left = binary.getLeftOperand();
     SearchExpression right = binary.getRightOperand();
@@ -172,7 +174,7 @@ public class SearchHandler {
     }
   }
   
-  private static boolean isTrue(final SearchExpression searchExpression, final Entity entity)
+  static boolean isTrue(final SearchExpression searchExpression, final Entity entity)
       throws ODataApplicationException {
     if (searchExpression.isSearchBinary()) {
       return isTrue(searchExpression.asSearchBinary(), entity);
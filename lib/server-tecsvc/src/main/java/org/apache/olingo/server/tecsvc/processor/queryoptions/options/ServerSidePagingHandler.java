@@ -19,40 +19,81 @@
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
 import java.net.URI;
-import java.net.URISyntaxException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.SkipTokenHelper;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
 import org.apache.olingo.server.api.uri.queryoption.SkipTokenOption;
-import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.core.uri.UriHelperImpl;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
 
 public class ServerSidePagingHandler {
   private static final int MAX_PAGE_SIZE = 10;
   private static final String ES_SERVER_SIDE_PAGING = "ESServerSidePaging";
   private static final String ES_STREAM_SERVER_SIDE_PAGING = "ESStreamServerSidePaging";
 
+  /** The secret for signing skiptokens; skiptokens are only valid as long as the service is running. */
+  private static final byte[] SKIP_TOKEN_SECRET = new byte[32];
+
+  static {
+    new SecureRandom().nextBytes(SKIP_TOKEN_SECRET);
+  }
+
   /**
    * <p>Applies server-side paging to the given entity collection.</p>
    * <p>The next link is constructed and set in the data. It must support client-specified
    * page sizes. Therefore, the format <code>page*pageSize</code> (with a literal asterisk)
-   * has been chosen for the skiptoken.</p> 
-   * @param skipTokenOption   the current skiptoken option (from a previous response's next link)
+   * has been chosen for the skiptoken.</p>
+   * <p>If the request has a $orderby option, the skiptoken is an opaque, signed token instead
+   * which contains the page size, the $orderby values, and the key values of the last entity
+   * of the page. The next page starts directly after this entity, found by binary search in the
+   * sorted data; entities with the same $orderby values are ordered by their keys.</p>
+   * @param uriInfo           the URI info with the current skiptoken option (from a previous response's next link)
+   *                          and the $orderby option the data has been sorted with
    * @param entityCollection  the data
    * @param edmEntitySet      the EDM entity set to decide whether paging must be done
-   * @param rawRequestUri     the request URI (used to construct the next link)
+   * @param request           the request (used to construct the next link)
    * @param preferredPageSize the client's preference for page size
+   * @param odata             the OData instance
+   * @param edm               the EDM
    * @return the chosen page size (or <code>null</code> if no paging has been done);
    *         could be used in the Preference-Applied HTTP header
    * @throws ODataApplicationException
    */
-  public static Integer applyServerSidePaging(final SkipTokenOption skipTokenOption, EntityCollection entityCollection,
-      final EdmEntitySet edmEntitySet, final String rawRequestUri, final Integer preferredPageSize)
-      throws ODataApplicationException {
+  public static Integer applyServerSidePaging(final UriInfo uriInfo, EntityCollection entityCollection,
+      final EdmEntitySet edmEntitySet, final ODataRequest request, final Integer preferredPageSize,
+      final OData odata, final Edm edm) throws ODataApplicationException {
 
     if (edmEntitySet != null && shouldApplyServerSidePaging(edmEntitySet)) {
+      final SkipTokenOption skipTokenOption = uriInfo.getSkipTokenOption();
+      final OrderByOption orderByOption = uriInfo.getOrderByOption();
+      if (orderByOption != null) {
+        return applyKeysetPaging(skipTokenOption, orderByOption, entityCollection, edmEntitySet, request,
+            preferredPageSize, uriInfo, odata, edm);
+      }
+
       final int pageSize = getPageSize(getPageSize(skipTokenOption), preferredPageSize);
       final int page = getPage(skipTokenOption);
       final int itemsToSkip = pageSize * page;
@@ -64,7 +105,7 @@ public class ServerSidePagingHandler {
 
         // Determine if a new next Link has to be provided.
         if (remainingItems > pageSize) {
-          entityCollection.setNext(createNextLink(rawRequestUri, page + 1, pageSize));
+          entityCollection.setNext(createNextLink(request, (page + 1) + "*" + pageSize));
         }
       } else {
         throw new ODataApplicationException("Nothing found.", HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
@@ -74,24 +115,102 @@ public class ServerSidePagingHandler {
     return null;
   }
 
-  private static URI createNextLink(final String rawRequestUri, final int page, final int pageSize)
-      throws ODataApplicationException {
-    // Remove a maybe existing skiptoken, making sure that the query part is not empty.
-    String nextlink = rawRequestUri.contains("?") ?
-        rawRequestUri.replaceAll("(\\$|%24)skiptoken=.+&?", "").replaceAll("(\\?|&)$", "") :
-        rawRequestUri;
+  private static Integer applyKeysetPaging(final SkipTokenOption skipTokenOption,
+      final OrderByOption orderByOption, EntityCollection entityCollection, final EdmEntitySet edmEntitySet,
+      final ODataRequest request, final Integer preferredPageSize, final UriInfo uriInfo, final OData odata,
+      final Edm edm) throws ODataApplicationException {
+    final SkipTokenHelper helper = odata.createSkipTokenHelper(SKIP_TOKEN_SECRET);
+    final String scope = request.getRawODataPath() + "?$orderby=" + orderByOption.getText();
+    final KeysetOrder order = new KeysetOrder(orderByOption.getOrders(),
+        edmEntitySet.getEntityType().getKeyPropertyRefs(), uriInfo, edm);
+    final List<Entity> entities = entityCollection.getEntities();
+
+    int pageSize = getPageSize(0, preferredPageSize);
+    int position = 0;
+    List<Entity> page = new ArrayList<Entity>();
+    if (skipTokenOption != null) {
+      List<Object> values;
+      try {
+        values = helper.readSkipToken(skipTokenOption.getValue(), scope);
+      } catch (final DeserializerException e) {
+        throw new ODataApplicationException("Invalid skip token", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+            Locale.ROOT, e);
+      }
+      if (values.size() != 1 + order.size() + order.keySize() || !(values.get(0) instanceof Integer)
+          || (Integer) values.get(0) < 1) {
+        throw new ODataApplicationException("Invalid skip token", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+            Locale.ROOT);
+      }
+      pageSize = (Integer) values.get(0);
+      final Object[] lastValues = values.subList(1, 1 + order.size()).toArray();
+      final List<Object> lastKey = values.subList(1 + order.size(), values.size());
+
+      // Find the first entity that is not sorted before the last entity of the previous page.
+      int low = 0;
+      int high = entities.size();
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (order.compareValues(order.getValues(entities.get(middle)), lastValues) < 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      // Of the entities with the same $orderby values, only those with greater keys follow.
+      position = low;
+      List<Entity> run = new ArrayList<Entity>();
+      for (; position < entities.size()
+          && order.compareValues(order.getValues(entities.get(position)), lastValues) == 0; position++) {
+        if (order.compareKeys(order.getKey(entities.get(position)), lastKey) > 0) {
+          run.add(entities.get(position));
+        }
+      }
+      Collections.sort(run, order);
+      page.addAll(run);
+    }
 
-    // Add a question mark or an ampersand, depending on the current query part.
-    nextlink += nextlink.contains("?") ? '&' : '?';
+    // Add runs of entities with the same $orderby values, ordered by their keys, until the page is full.
+    while (page.size() <= pageSize && position < entities.size()) {
+      final Object[] values = order.getValues(entities.get(position));
+      int end = position + 1;
+      while (end < entities.size() && order.compareValues(order.getValues(entities.get(end)), values) == 0) {
+        end++;
+      }
+      List<Entity> run = new ArrayList<Entity>(entities.subList(position, end));
+      Collections.sort(run, order);
+      page.addAll(run);
+      position = end;
+    }
+
+    final boolean hasNext = page.size() > pageSize;
+    if (hasNext) {
+      page = page.subList(0, pageSize);
+    }
+    entities.clear();
+    entities.addAll(page);
 
-    // Append the new skiptoken.
-    nextlink += SystemQueryOptionKind.SKIPTOKEN.toString().replace("$", "%24")  // poor man's percent encoding
-        + '='
-        + page + "%2A" + pageSize;  // "%2A" is a percent-encoded asterisk
+    if (hasNext) {
+      final Entity last = page.get(pageSize - 1);
+      List<Object> values = new ArrayList<Object>();
+      values.add(pageSize);
+      values.addAll(Arrays.asList(order.getValues(last)));
+      values.addAll(order.getKey(last));
+      try {
+        entityCollection.setNext(createNextLink(request, helper.createSkipToken(values, scope)));
+      } catch (final SerializerException e) {
+        throw new ODataApplicationException("Exception while constructing next link",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+      }
+    }
+    return pageSize;
+  }
 
+  private static URI createNextLink(final ODataRequest request, final String skipToken)
+      throws ODataApplicationException {
     try {
-      return new URI(nextlink);
-    } catch (final URISyntaxException e) {
+      return UriHelperImpl.buildNextLink(request.getRawBaseUri(), request.getRawODataPath(),
+          request.getRawQueryPath(), skipToken);
+    } catch (final SerializerException e) {
       throw new ODataApplicationException("Exception while constructing next link",
           HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
     }
@@ -138,4 +257,102 @@ public class ServerSidePagingHandler {
       return 0;
     }
   }
+
+  /**
+   * The order of the entities for keyset paging: by the $orderby values, then by the key values.
+   * Null values are sorted before all other values; values of different types
+   * or without natural order are regarded as equal, as in the {@link OrderByHandler}.
+   */
+  private static class KeysetOrder implements Comparator<Entity> {
+    private final List<OrderByItem> orders;
+    private final String[][] keyPaths;
+    private final UriInfo uriInfo;
+    private final Edm edm;
+
+    private KeysetOrder(final List<OrderByItem> orders, final List<EdmKeyPropertyRef> keyPropertyRefs,
+        final UriInfo uriInfo, final Edm edm) {
+      this.orders = orders;
+      keyPaths = new String[keyPropertyRefs.size()][];
+      for (int i = 0; i < keyPaths.length; i++) {
+        keyPaths[i] = keyPropertyRefs.get(i).getName().split("/");
+      }
+      this.uriInfo = uriInfo;
+      this.edm = edm;
+    }
+
+    private int size() {
+      return orders.size();
+    }
+
+    private int keySize() {
+      return keyPaths.length;
+    }
+
+    private Object[] getValues(final Entity entity) throws ODataApplicationException {
+      Object[] values = new Object[orders.size()];
+      for (int i = 0; i < values.length; i++) {
+        try {
+          final TypedOperand operand = orders.get(i).getExpression()
+              .accept(new ExpressionVisitorImpl(entity, uriInfo, edm)).asTypedOperand();
+          values[i] = operand.isNull() ? null : operand.getValue();
+        } catch (final ExpressionVisitException e) {
+          throw new ODataApplicationException("Exception in orderBy evaluation",
+              HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+        }
+      }
+      return values;
+    }
+
+    private List<Object> getKey(final Entity entity) {
+      Object[] key = new Object[keyPaths.length];
+      for (int i = 0; i < keyPaths.length; i++) {
+        Property property = entity.getProperty(keyPaths[i][0]);
+        for (int j = 1; j < keyPaths[i].length && property != null && !property.isNull(); j++) {
+          property = findProperty(keyPaths[i][j], property.asComplex().getValue());
+        }
+        key[i] = property == null ? null : property.getValue();
+      }
+      return Arrays.asList(key);
+    }
+
+    private int compareValues(final Object[] first, final Object[] second) {
+      int result = 0;
+      for (int i = 0; i < first.length && result == 0; i++) {
+        result = orders.get(i).isDescending() ? compareValue(second[i], first[i]) : compareValue(first[i], second[i]);
+      }
+      return result;
+    }
+
+    private int compareKeys(final List<Object> first, final List<Object> second) {
+      int result = 0;
+      for (int i = 0; i < first.size() && result == 0; i++) {
+        result = compareValue(first.get(i), second.get(i));
+      }
+      return result;
+    }
+
+    @Override
+    public int compare(final Entity first, final Entity second) {
+      return compareKeys(getKey(first), getKey(second));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValue(final Object first, final Object second) {
+      if (first == null || second == null) {
+        return Boolean.compare(first != null, second != null);
+      }
+      return first.getClass() == second.getClass() && first instanceof Comparable ?
+          ((Comparable<Object>) first).compareTo(second) :
+          0;
+    }
+
+    private static Property findProperty(final String name, final List<Property> properties) {
+      for (final Property property : properties) {
+        if (name.equals(property.getName())) {
+          return property;
+        }
+      }
+      return null;
+    }
+  }
 }
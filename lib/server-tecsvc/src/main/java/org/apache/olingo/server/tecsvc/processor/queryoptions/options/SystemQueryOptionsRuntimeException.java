@@ -18,8 +18,12 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
+import java.util.Locale;
+
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
 
 public class SystemQueryOptionsRuntimeException extends ODataRuntimeException {
 
@@ -28,4 +32,18 @@ public class SystemQueryOptionsRuntimeException extends ODataRuntimeException {
   public SystemQueryOptionsRuntimeException(final ODataException cause) {
     super(cause);
   }
+
+  /**
+   * Gets the exception to be thrown instead of the given wrapping exception.
+   * @param e the wrapping exception
+   * @param message the message used if the wrapped exception is no {@link ODataApplicationException}
+   * @return the wrapped exception or an exception for an internal server error
+   */
+  public static ODataApplicationException unwrap(final SystemQueryOptionsRuntimeException e, final String message) {
+    if (e.getCause() instanceof ODataApplicationException) {
+      // Return the nested exception, to send the correct HTTP status code in the HTTP response
+      return (ODataApplicationException) e.getCause();
+    }
+    return new ODataApplicationException(message, HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+  }
 }
@@ -26,6 +26,7 @@ import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
@@ -85,6 +86,58 @@ public class DataProviderTest {
     
   }
 
+  @Test
+  public void esFourKeyAliasEntity() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    final EdmEntitySet esFourKeyAlias = entityContainer.getEntitySet("ESFourKeyAlias");
+    final Entity entity = dataProvider.readAll(esFourKeyAlias).getEntities().get(0);
+
+    Assert.assertEquals(entity, dataProvider.read(esFourKeyAlias, Arrays.asList(
+        mockParameter("KeyAlias3", "'Num111'"),
+        mockParameter("PropertyInt16", "1"),
+        mockParameter("KeyAlias1", "11"),
+        mockParameter("KeyAlias2", "'Num11'"))));
+    Assert.assertNull(dataProvider.read(esFourKeyAlias, Arrays.asList(
+        mockParameter("PropertyInt16", "1"),
+        mockParameter("KeyAlias1", "11"),
+        mockParameter("KeyAlias2", "'Num12'"),
+        mockParameter("KeyAlias3", "'Num111'"))));
+  }
+
+  @Test
+  public void readAfterCreateAndDelete() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    Assert.assertNull(dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "1"))));
+
+    final Entity entity = dataProvider.create(esAllPrim);
+    Assert.assertEquals((short) 1, entity.getProperty("PropertyInt16").getValue());
+    Assert.assertSame(entity, dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "1"))));
+    Assert.assertEquals((short) 2, dataProvider.create(esAllPrim).getProperty("PropertyInt16").getValue());
+
+    dataProvider.delete(esAllPrim, entity);
+    Assert.assertNull(dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "1"))));
+    Assert.assertEquals(5, dataProvider.readAll(esAllPrim).getEntities().size());
+  }
+
+  @Test
+  public void keyIndexCountsEntitiesWithoutUsableKey() throws Exception {
+    final List<Entity> entities = new DataProvider(oData, edm).readAll(esAllPrim).getEntities();
+    final Entity duplicate = new Entity().addProperty(
+        new Property(null, "PropertyInt16", ValueType.PRIMITIVE, entities.get(0).getProperty("PropertyInt16")
+            .getValue()));
+    final Entity withoutKey = new Entity();
+    entities.add(duplicate);
+    entities.add(withoutKey);
+
+    final KeyIndex keyIndex = new KeyIndex(esAllPrim.getEntityType().getKeyPropertyRefs(), entities);
+    Assert.assertFalse(keyIndex.isUsable());
+    Assert.assertEquals(entities.size(), keyIndex.size());
+    keyIndex.add(duplicate);
+    Assert.assertEquals(entities.size(), keyIndex.size());
+    keyIndex.remove(withoutKey);
+    Assert.assertEquals(entities.size() - 1, keyIndex.size());
+  }
+
   @Test
   public void esAllPrim() throws Exception {
     final DataProvider data = new DataProvider(oData, edm);
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SearchHandler;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  @Test
+  public void sameResultsAsSearchHandler() throws Exception {
+    final String[] searches = {
+        "First",
+        "Resource",
+        "e",
+        "32767",
+        "\"First Resource\"",
+        "\"Resource -\"",
+        "First AND Resource",
+        "First OR Second",
+        "NOT First",
+        "NOT First AND NOT Second",
+        "First AND NOT positive",
+        "Resource OR NOT values",
+        "Resource AND (First OR Second)",
+        "unknown" };
+    for (final String search : searches) {
+      assertSameResults("ESAllPrim", search);
+      assertSameResults("ESCompAllPrim", search);
+      assertSameResults("ESCollAllPrim", search);
+    }
+  }
+
+  @Test
+  public void incrementalUpdates() throws Exception {
+    final Entity first = createEntity("first entity");
+    final Entity second = createEntity("second entity");
+    SearchIndex index = new SearchIndex(Arrays.asList(first, second));
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(2, index.search(search("entity")).size());
+    Assert.assertTrue(index.search(search("irs")).contains(first));
+
+    final Entity third = createEntity("third");
+    index.add(third);
+    Assert.assertEquals(3, index.search(search("t")).size());
+
+    second.getProperty("Text").setValue(ValueType.PRIMITIVE, "changed");
+    index.update(second);
+    Assert.assertTrue(index.search(search("second")).isEmpty());
+    Assert.assertTrue(index.search(search("change")).contains(second));
+
+    index.remove(first);
+    Assert.assertEquals(2, index.size());
+    Assert.assertTrue(index.search(search("first")).isEmpty());
+    Assert.assertEquals(2, index.search(search("NOT unknown")).size());
+  }
+
+  @Test
+  public void compaction() throws Exception {
+    List<Entity> entities = new ArrayList<Entity>();
+    for (int i = 0; i < 200; i++) {
+      entities.add(createEntity("entity number " + i));
+    }
+    SearchIndex index = new SearchIndex(entities);
+    for (int i = 0; i < 150; i++) {
+      index.remove(entities.get(i));
+    }
+    Assert.assertEquals(50, index.size());
+    Assert.assertEquals(50, index.search(search("entity")).size());
+    Assert.assertTrue(index.search(search("\"number 199\"")).contains(entities.get(199)));
+    Assert.assertEquals(10, index.search(search("\"number 15\"")).size());
+    Assert.assertTrue(index.search(search("number AND NOT entity")).isEmpty());
+  }
+
+  private void assertSameResults(final String entitySetName, final String search) throws Exception {
+    final UriInfo uriInfo = parse(entitySetName, search);
+    final List<Entity> entities = new DataProvider(oData, edm)
+        .readAll(edm.getEntityContainer().getEntitySet(entitySetName)).getEntities();
+    EntityCollection expected = new EntityCollection();
+    expected.getEntities().addAll(entities);
+    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), expected);
+    EntityCollection actual = new EntityCollection();
+    actual.getEntities().addAll(entities);
+    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), actual, new SearchIndex(entities));
+    Assert.assertEquals(entitySetName + " " + search, expected.getEntities(), actual.getEntities());
+  }
+
+  private SearchExpression search(final String search) throws Exception {
+    return parse("ESAllPrim", search).getSearchOption().getSearchExpression();
+  }
+
+  private UriInfo parse(final String entitySetName, final String search) throws Exception {
+    return new Parser(edm, oData).parseUri(entitySetName, "$search=" + search, null, null);
+  }
+
+  private Entity createEntity(final String text) {
+    return new Entity().addProperty(new Property(null, "Text", ValueType.PRIMITIVE, text));
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SystemQueryOptionsRuntimeException;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpandSystemQueryOptionHandlerTest {
+
+  private static final String NAV_PROPERTY = "NavPropertyETKeyNavMany";
+  private static final String EXPAND = "$expand=" + NAV_PROPERTY + "($expand=" + NAV_PROPERTY
+      + "($filter=PropertyCompAllPrim/PropertyDouble mod 2 eq 0))";
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet entitySet = edm.getEntityContainer().getEntitySet("ESKeyNav");
+
+  @Test
+  public void lazyExpansionThrowsWhileIterating() throws Exception {
+    final UriInfo uriInfo = parse();
+    final EntityCollection expanded = new ExpandSystemQueryOptionHandler()
+        .expandEntitySet(readAll(), entitySet, uriInfo.getExpandOption(), uriInfo, edm);
+    try {
+      for (final Entity entity : expanded) {
+        for (final Entity nested : getExpanded(entity)) {
+          Assert.assertNotNull(nested);
+        }
+      }
+      Assert.fail("Expected an exception while iterating");
+    } catch (final SystemQueryOptionsRuntimeException e) {
+      Assert.assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          SystemQueryOptionsRuntimeException.unwrap(e, null).getStatusCode());
+    }
+  }
+
+  @Test
+  public void eagerExpansionThrowsInAdvance() throws Exception {
+    final UriInfo uriInfo = parse();
+    try {
+      new ExpandSystemQueryOptionHandler(false)
+          .expandEntitySet(readAll(), entitySet, uriInfo.getExpandOption(), uriInfo, edm);
+      Assert.fail("Expected an exception during expansion");
+    } catch (final ODataApplicationException e) {
+      Assert.assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void eagerExpansionKeepsData() throws Exception {
+    final UriInfo uriInfo = new Parser(edm, oData).parseUri("ESKeyNav",
+        "$expand=" + NAV_PROPERTY + "($expand=" + NAV_PROPERTY + "($top=1))", null, null);
+    final EntityCollection lazy = new ExpandSystemQueryOptionHandler()
+        .expandEntitySet(readAll(), entitySet, uriInfo.getExpandOption(), uriInfo, edm);
+    final EntityCollection eager = new ExpandSystemQueryOptionHandler(false)
+        .expandEntitySet(readAll(), entitySet, uriInfo.getExpandOption(), uriInfo, edm);
+    Assert.assertEquals(describe(lazy), describe(eager));
+  }
+
+  /** Lists the keys of the entities, of their expanded entities, and of the entities expanded there. */
+  private String describe(final EntityCollection entities) {
+    StringBuilder result = new StringBuilder();
+    for (final Entity entity : entities) {
+      result.append(entity.getProperty("PropertyInt16").getValue()).append('(');
+      for (final Entity nested : getExpanded(entity)) {
+        result.append(nested.getProperty("PropertyInt16").getValue()).append('(');
+        for (final Entity nested2 : getExpanded(nested)) {
+          result.append(nested2.getProperty("PropertyInt16").getValue()).append(' ');
+        }
+        result.append(')');
+      }
+      result.append(')');
+    }
+    return result.toString();
+  }
+
+  private List<Entity> getExpanded(final Entity entity) {
+    final Link link = entity.getNavigationLink(NAV_PROPERTY);
+    return link == null || link.getInlineEntitySet() == null ?
+        Collections.<Entity> emptyList() :
+        link.getInlineEntitySet().getEntities();
+  }
+
+  private UriInfo parse() throws Exception {
+    return new Parser(edm, oData).parseUri("ESKeyNav", EXPAND, null, null);
+  }
+
+  private EntityCollection readAll() throws Exception {
+    EntityCollection entities = new EntityCollection();
+    entities.getEntities().addAll(new DataProvider(oData, edm).readAll(entitySet).getEntities());
+    return entities;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterPredicateTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  @Test
+  public void sameResultsAsVisitor() throws Exception {
+    final String[] filters = {
+        "PropertyInt16 eq 32767",
+        "PropertyInt16 ne 32767",
+        "PropertyInt16 gt 0",
+        "0 lt PropertyInt16",
+        "PropertyInt16 le -32768",
+        "PropertyInt64 ge 0",
+        "PropertyByte eq 255",
+        "PropertyDouble lt 0",
+        "PropertyDecimal ge 34",
+        "PropertySingle gt 1.5",
+        "PropertyInt32 gt 1.5",
+        "PropertyString eq 'First Resource - positive values'",
+        "PropertyString ne 'First Resource - positive values'",
+        "PropertyString lt 'S'",
+        "PropertyInt16 gt 0 and PropertyString eq 'First Resource - positive values'",
+        "PropertyInt16 lt 0 or PropertyInt64 eq 0",
+        "not (PropertyInt16 eq 0)",
+        "PropertyInt16 add 1 gt 0",
+        "startswith(PropertyString,'First')",
+        "PropertyBoolean",
+        "PropertyBoolean eq false",
+        "PropertyDate eq 2012-12-03",
+        "PropertyInt16 eq null",
+        "PropertyString eq null" };
+    for (final String filter : filters) {
+      assertSameResults("ESAllPrim", filter);
+    }
+  }
+
+  @Test
+  public void sameResultsAsVisitorForPaths() throws Exception {
+    assertSameResults("ESTwoKeyNav", "PropertyComp/PropertyInt16 eq 11");
+    assertSameResults("ESTwoKeyNav", "PropertyString eq '2'");
+    assertSameResults("ESKeyNav", "NavPropertyETTwoKeyNavOne/PropertyString eq '1'");
+  }
+
+  @Test
+  public void nullValues() throws Exception {
+    final FilterPredicate predicate = compile("ESAllPrim", "PropertyInt16 eq 1");
+    final FilterPredicate negated = compile("ESAllPrim", "PropertyInt16 ne 1");
+    final Entity entity = new Entity().addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, null));
+    Assert.assertFalse(predicate.matches(entity));
+    Assert.assertTrue(negated.matches(entity));
+  }
+
+  @Test
+  public void integerDivisionByZero() throws Exception {
+    final Entity entity = readAll("ESAllPrim").get(0);
+    for (final String filter : new String[] { "PropertyInt16 div 0 eq 0", "PropertyInt16 mod 0 eq 0" }) {
+      try {
+        compile("ESAllPrim", filter).matches(entity);
+        Assert.fail("Expected an exception for " + filter);
+      } catch (final ODataApplicationException e) {
+        Assert.assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+      }
+    }
+  }
+
+  @Test
+  public void reusableAcrossThreads() throws Exception {
+    final FilterPredicate predicate = compile("ESAllPrim", "PropertyInt16 gt 0 or PropertyString eq ''");
+    final List<Entity> data = readAll("ESAllPrim");
+    final List<Entity> entities = new ArrayList<Entity>();
+    for (int i = 0; i < 1000; i++) {
+      entities.addAll(data);
+    }
+    int expected = 0;
+    for (final Entity entity : entities) {
+      expected += predicate.matches(entity) ? 1 : 0;
+    }
+    Assert.assertTrue(expected > 0 && expected < entities.size());
+    Assert.assertEquals(expected, entities.parallelStream().filter(predicate).count());
+  }
+
+  private void assertSameResults(final String entitySetName, final String filter) throws Exception {
+    final UriInfo uriInfo = parse(entitySetName, filter);
+    final FilterPredicate predicate = FilterPredicate.compile(uriInfo.getFilterOption(), uriInfo, edm);
+    final List<Entity> entities = readAll(entitySetName);
+    List<Boolean> expected = new ArrayList<Boolean>();
+    List<Boolean> actual = new ArrayList<Boolean>();
+    for (final Entity entity : entities) {
+      final TypedOperand operand = uriInfo.getFilterOption().getExpression()
+          .accept(new ExpressionVisitorImpl(entity, uriInfo, edm)).asTypedOperand();
+      expected.add(!Boolean.FALSE.equals(operand.getValue()));
+      actual.add(predicate.matches(entity));
+    }
+    Assert.assertEquals(filter, expected, actual);
+  }
+
+  private FilterPredicate compile(final String entitySetName, final String filter) throws Exception {
+    final UriInfo uriInfo = parse(entitySetName, filter);
+    return FilterPredicate.compile(uriInfo.getFilterOption(), uriInfo, edm);
+  }
+
+  private UriInfo parse(final String entitySetName, final String filter) throws Exception {
+    return new Parser(edm, oData).parseUri(entitySetName, "$filter=" + filter, null, null);
+  }
+
+  private List<Entity> readAll(final String entitySetName) throws Exception {
+    return new DataProvider(oData, edm).readAll(edm.getEntityContainer().getEntitySet(entitySetName))
+        .getEntities();
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApplyHandlerTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  @Test
+  public void aggregate() throws Exception {
+    final List<Entity> entities = readAll("ESAllPrim");
+    long sum = 0;
+    long max = Long.MIN_VALUE;
+    for (final Entity entity : entities) {
+      final long value = ((Number) entity.getProperty("PropertyInt16").getValue()).longValue();
+      sum += value;
+      max = Math.max(max, value);
+    }
+
+    final Entity result = applySingle("ESAllPrim",
+        "aggregate(PropertyInt16 with sum as Sum,$count as Count,PropertyInt16 with max as Max,"
+            + "PropertyInt16 with average as Average)");
+    Assert.assertEquals(BigDecimal.valueOf(sum), result.getProperty("Sum").getValue());
+    Assert.assertEquals(BigDecimal.valueOf(entities.size()), result.getProperty("Count").getValue());
+    Assert.assertEquals(max, ((Number) result.getProperty("Max").getValue()).longValue());
+    Assert.assertEquals("Edm.Int16", result.getProperty("Max").getType());
+    Assert.assertEquals(0, BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(entities.size()),
+        MathContext.DECIMAL128).compareTo((BigDecimal) result.getProperty("Average").getValue()));
+  }
+
+  @Test
+  public void aggregateEmpty() throws Exception {
+    final Entity result = applySingle("ESAllPrim",
+        "filter(PropertyInt16 eq 42)/aggregate(PropertyInt16 with sum as Sum,$count as Count,"
+            + "PropertyInt16 with min as Min)");
+    Assert.assertEquals(BigDecimal.ZERO, result.getProperty("Sum").getValue());
+    Assert.assertEquals(BigDecimal.ZERO, result.getProperty("Count").getValue());
+    Assert.assertNull(result.getProperty("Min").getValue());
+  }
+
+  @Test
+  public void sumBeyondLong() throws Exception {
+    final Entity result = applySingle("ESAllPrim", "aggregate(PropertyInt64 with sum as Sum)",
+        entities("PropertyInt64", Long.MAX_VALUE, Long.MAX_VALUE, -1L, null));
+    Assert.assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).subtract(BigDecimal.ONE),
+        result.getProperty("Sum").getValue());
+  }
+
+  @Test
+  public void sumNotFinite() throws Exception {
+    assertBadRequest("aggregate(PropertyDouble with sum as Sum)",
+        entities("PropertyDouble", 1.5, Double.NaN));
+    assertBadRequest("aggregate(PropertyDouble with average as Average)",
+        entities("PropertyDouble", Double.POSITIVE_INFINITY, 1.5));
+    // The sum overflows although the values are finite.
+    assertBadRequest("aggregate(PropertyDouble with sum as Sum)",
+        entities("PropertyDouble", Double.MAX_VALUE, Double.MAX_VALUE));
+  }
+
+  @Test
+  public void groupBy() throws Exception {
+    final List<Entity> entities = readAll("ESAllPrim");
+    Set<Object> distinct = new HashSet<Object>();
+    for (final Entity entity : entities) {
+      distinct.add(entity.getProperty("PropertyBoolean").getValue());
+    }
+
+    final EntityCollection result = apply("ESAllPrim",
+        "groupby((PropertyBoolean),aggregate($count as Count,PropertyString with countdistinct as Strings))");
+    Assert.assertEquals(distinct.size(), result.getEntities().size());
+    long count = 0;
+    for (final Entity entity : result.getEntities()) {
+      Assert.assertEquals(3, entity.getProperties().size());
+      Assert.assertTrue(distinct.contains(entity.getProperty("PropertyBoolean").getValue()));
+      count += ((BigDecimal) entity.getProperty("Count").getValue()).longValue();
+    }
+    Assert.assertEquals(entities.size(), count);
+
+    // Other nested transformations keep the groups in memory.
+    final EntityCollection filtered = apply("ESAllPrim",
+        "groupby((PropertyBoolean),filter(PropertyInt16 ge -32768)/aggregate($count as Count))");
+    Assert.assertEquals(result.getEntities().size(), filtered.getEntities().size());
+    for (int i = 0; i < result.getEntities().size(); i++) {
+      Assert.assertEquals(result.getEntities().get(i).getProperty("Count").getValue(),
+          filtered.getEntities().get(i).getProperty("Count").getValue());
+    }
+
+    Assert.assertEquals(distinct.size(), apply("ESAllPrim", "groupby((PropertyBoolean))").getEntities().size());
+  }
+
+  @Test
+  public void filterAndCompute() throws Exception {
+    final List<Entity> entities = readAll("ESAllPrim");
+    final int propertyCount = entities.get(0).getProperties().size();
+    int positive = 0;
+    for (final Entity entity : entities) {
+      positive += ((Number) entity.getProperty("PropertyInt16").getValue()).intValue() > 0 ? 1 : 0;
+    }
+
+    final UriInfo uriInfo = parse("ESAllPrim", "filter(PropertyInt16 gt 0)/compute(PropertyInt16 add 1 as Next)");
+    EntityCollection entitySet = new EntityCollection();
+    entitySet.getEntities().addAll(entities);
+    final EntityCollection result =
+        ApplyHandler.applyApplySystemQueryOption(uriInfo.getApplyOption(), entitySet, uriInfo, edm);
+    Assert.assertEquals(positive, result.getEntities().size());
+    for (final Entity entity : result.getEntities()) {
+      Assert.assertEquals(((Number) entity.getProperty("PropertyInt16").getValue()).longValue() + 1,
+          ((Number) entity.getProperty("Next").getValue()).longValue());
+    }
+    // The input entities are not changed.
+    for (final Entity entity : entities) {
+      Assert.assertEquals(propertyCount, entity.getProperties().size());
+    }
+  }
+
+  @Test
+  public void topAndBottom() throws Exception {
+    final List<Entity> entities = readAll("ESAllPrim");
+    long max = Long.MIN_VALUE;
+    long min = Long.MAX_VALUE;
+    for (final Entity entity : entities) {
+      final long value = ((Number) entity.getProperty("PropertyInt16").getValue()).longValue();
+      max = Math.max(max, value);
+      min = Math.min(min, value);
+    }
+    Assert.assertEquals(max, ((Number) applySingle("ESAllPrim", "topcount(1,PropertyInt16)")
+        .getProperty("PropertyInt16").getValue()).longValue());
+    Assert.assertEquals(min, ((Number) applySingle("ESAllPrim", "bottomcount(1,PropertyInt16)")
+        .getProperty("PropertyInt16").getValue()).longValue());
+    Assert.assertEquals(max, ((Number) applySingle("ESAllPrim", "topsum(1,PropertyInt16)")
+        .getProperty("PropertyInt16").getValue()).longValue());
+  }
+
+  @Test
+  public void concat() throws Exception {
+    final EntityCollection result = apply("ESAllPrim",
+        "concat(aggregate($count as Count),topcount(2,PropertyInt16))");
+    Assert.assertEquals(3, result.getEntities().size());
+    Assert.assertEquals(BigDecimal.valueOf(readAll("ESAllPrim").size()),
+        result.getEntities().get(0).getProperty("Count").getValue());
+  }
+
+  @Test
+  public void iterator() throws Exception {
+    final UriInfo uriInfo = parse("ESAllPrim", "filter(PropertyInt16 ne 0)/compute(PropertyInt16 mul 2 as Double)");
+    final Iterator<Entity> result = ApplyHandler.applyApplySystemQueryOption(uriInfo.getApplyOption(),
+        readAll("ESAllPrim").iterator(), uriInfo, edm);
+    List<Entity> entities = new ArrayList<Entity>();
+    while (result.hasNext()) {
+      entities.add(result.next());
+    }
+    Assert.assertFalse(entities.isEmpty());
+    for (final Entity entity : entities) {
+      Assert.assertNotNull(entity.getProperty("Double"));
+    }
+  }
+
+  @Test
+  public void notImplemented() throws Exception {
+    try {
+      apply("ESAllPrim", "aggregate(PropertyInt16 with Custom.Method as Custom)");
+      Assert.fail("Expected an ODataApplicationException.");
+    } catch (final ODataApplicationException e) {
+      Assert.assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private void assertBadRequest(final String apply, final List<Entity> entities) throws Exception {
+    try {
+      apply("ESAllPrim", apply, entities);
+      Assert.fail("Expected an ODataApplicationException.");
+    } catch (final ODataApplicationException e) {
+      Assert.assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private List<Entity> entities(final String propertyName, final Object... values) {
+    List<Entity> entities = new ArrayList<Entity>();
+    for (final Object value : values) {
+      entities.add(new Entity().addProperty(new Property(null, propertyName, ValueType.PRIMITIVE, value)));
+    }
+    return entities;
+  }
+
+  private Entity applySingle(final String entitySetName, final String apply) throws Exception {
+    return applySingle(entitySetName, apply, readAll(entitySetName));
+  }
+
+  private Entity applySingle(final String entitySetName, final String apply, final List<Entity> entities)
+      throws Exception {
+    final EntityCollection result = apply(entitySetName, apply, entities);
+    Assert.assertEquals(1, result.getEntities().size());
+    return result.getEntities().get(0);
+  }
+
+  private EntityCollection apply(final String entitySetName, final String apply) throws Exception {
+    return apply(entitySetName, apply, readAll(entitySetName));
+  }
+
+  private EntityCollection apply(final String entitySetName, final String apply, final List<Entity> entities)
+      throws Exception {
+    final UriInfo uriInfo = parse(entitySetName, apply);
+    EntityCollection entitySet = new EntityCollection();
+    entitySet.getEntities().addAll(entities);
+    return ApplyHandler.applyApplySystemQueryOption(uriInfo.getApplyOption(), entitySet, uriInfo, edm);
+  }
+
+  private UriInfo parse(final String entitySetName, final String apply) throws Exception {
+    return new Parser(edm, oData).parseUri(entitySetName, "$apply=" + apply, null, null);
+  }
+
+  private List<Entity> readAll(final String entitySetName) throws Exception {
+    return new DataProvider(oData, edm).readAll(edm.getEntityContainer().getEntitySet(entitySetName))
+        .getEntities();
+  }
+}
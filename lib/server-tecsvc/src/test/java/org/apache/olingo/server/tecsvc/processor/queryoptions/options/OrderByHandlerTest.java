@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderByHandlerTest {
+
+  private static final int SIZE = 50;
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  @Test
+  public void top() throws Exception {
+    assertLikeFullSort("PropertyInt16", null, 5);
+    assertLikeFullSort("PropertyInt16", null, 1);
+    assertLikeFullSort("PropertyInt16", null, 0);
+  }
+
+  @Test
+  public void topAndSkip() throws Exception {
+    assertLikeFullSort("PropertyInt16", 3, 5);
+    assertLikeFullSort("PropertyInt16", 20, 1);
+    assertLikeFullSort("PropertyInt16", 0, SIZE - 1);
+  }
+
+  @Test
+  public void skipOnly() throws Exception {
+    assertLikeFullSort("PropertyInt16", 7, null);
+  }
+
+  @Test
+  public void beyondCollection() throws Exception {
+    assertLikeFullSort("PropertyInt16", null, SIZE);
+    assertLikeFullSort("PropertyInt16", null, SIZE + 10);
+    assertLikeFullSort("PropertyInt16", SIZE - 5, 10);
+    assertLikeFullSort("PropertyInt16", SIZE + 5, 10);
+  }
+
+  @Test
+  public void nullValues() throws Exception {
+    assertLikeFullSort("PropertyString", null, 10);
+    assertLikeFullSort("PropertyString", 2, 3);
+    assertLikeFullSort("PropertyDouble desc", null, 10);
+    assertLikeFullSort("PropertyDouble desc", SIZE - 10, 5);
+  }
+
+  @Test
+  public void descending() throws Exception {
+    assertLikeFullSort("PropertyInt16 desc", null, 5);
+    assertLikeFullSort("PropertyInt16 desc", 4, 8);
+    assertLikeFullSort("PropertyString desc", 1, 12);
+  }
+
+  @Test
+  public void multipleKeys() throws Exception {
+    assertLikeFullSort("PropertyString,PropertyDouble desc", null, 7);
+    assertLikeFullSort("PropertyDouble desc,PropertyInt16", 5, 10);
+    assertLikeFullSort("PropertyBoolean,PropertyString desc,PropertyInt16", 3, 20);
+  }
+
+  @Test
+  public void incomparableValues() throws Exception {
+    assertLikeFullSort("PropertyBinary", null, 5);
+    assertLikeFullSort("PropertyBinary", 10, 10);
+    assertLikeFullSort("PropertyBinary desc,PropertyInt16", 2, 6);
+    assertLikeFullSort("PropertyInt16,PropertyBinary", 2, 6);
+  }
+
+  @Test
+  public void stability() throws Exception {
+    assertLikeFullSort("PropertyBoolean", null, 10);
+    assertLikeFullSort("PropertyBoolean desc", 15, 10);
+    assertLikeFullSort("PropertyBoolean", null, null);
+
+    // Without any distinguishing key the original order must survive unchanged, also within a page.
+    final List<Integer> sorted = sort("PropertyBinary", 10, 10);
+    for (int index = 0; index < sorted.size(); index++) {
+      Assert.assertEquals(Integer.valueOf(10 + index), sorted.get(index));
+    }
+  }
+
+  private void assertLikeFullSort(final String orderBy, final Integer skip, final Integer top) throws Exception {
+    Assert.assertEquals("$orderby=" + orderBy + ", $skip=" + skip + ", $top=" + top,
+        referenceSort(orderBy, skip, top), sort(orderBy, skip, top));
+  }
+
+  /** Sorts with the handler and applies the paging options afterwards, like the technical processor does. */
+  private List<Integer> sort(final String orderBy, final Integer skip, final Integer top) throws Exception {
+    final UriInfo uriInfo = parse(orderBy, skip, top);
+    EntityCollection entitySet = new EntityCollection();
+    entitySet.getEntities().addAll(createEntities());
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), uriInfo.getSkipOption(), uriInfo.getTopOption(),
+        entitySet, uriInfo, edm);
+    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
+    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
+    return ids(entitySet.getEntities());
+  }
+
+  /** Sorts the whole collection with a stable sort (nulls first) and cuts out the requested page. */
+  private List<Integer> referenceSort(final String orderBy, final Integer skip, final Integer top) {
+    List<Entity> entities = createEntities();
+    final String[] items = orderBy.split(",");
+    Collections.sort(entities, new Comparator<Entity>() {
+      @Override
+      public int compare(final Entity entity1, final Entity entity2) {
+        for (final String item : items) {
+          final String[] parts = item.split(" ");
+          final int result = compareValues(entity1.getProperty(parts[0]).getValue(),
+              entity2.getProperty(parts[0]).getValue());
+          if (result != 0) {
+            return parts.length > 1 && "desc".equals(parts[1]) ? -result : result;
+          }
+        }
+        return 0;
+      }
+    });
+    final int from = Math.min(skip == null ? 0 : skip, entities.size());
+    final int to = top == null ? entities.size() : Math.min(from + top, entities.size());
+    return ids(entities.subList(from, to));
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private int compareValues(final Object value1, final Object value2) {
+    if (value1 == null) {
+      return value2 == null ? 0 : -1;
+    } else if (value2 == null) {
+      return 1;
+    }
+    return value1 instanceof Comparable ? ((Comparable) value1).compareTo(value2) : 0;
+  }
+
+  /**
+   * Creates entities with many duplicate keys and some null values;
+   * the unique PropertyInt32 value records the original position.
+   */
+  private List<Entity> createEntities() {
+    List<Entity> entities = new ArrayList<Entity>();
+    for (int index = 0; index < SIZE; index++) {
+      entities.add(new Entity()
+          .addProperty(property("PropertyInt16", (short) ((index * 7) % 5)))
+          .addProperty(property("PropertyInt32", index))
+          .addProperty(property("PropertyString", index % 11 == 0 ? null : "String " + (index * 3) % 4))
+          .addProperty(property("PropertyBoolean", index % 3 == 0))
+          .addProperty(property("PropertyDouble", index % 6 == 0 ? null : (index % 4) * 0.5))
+          .addProperty(property("PropertyBinary", new byte[] { (byte) (SIZE - index) })));
+    }
+    return entities;
+  }
+
+  private Property property(final String name, final Object value) {
+    return new Property(null, name, ValueType.PRIMITIVE, value);
+  }
+
+  private List<Integer> ids(final List<Entity> entities) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for (final Entity entity : entities) {
+      ids.add((Integer) entity.getProperty("PropertyInt32").getValue());
+    }
+    return ids;
+  }
+
+  private UriInfo parse(final String orderBy, final Integer skip, final Integer top) throws Exception {
+    return new Parser(edm, oData).parseUri("ESAllPrim",
+        "$orderby=" + orderBy + (skip == null ? "" : "&$skip=" + skip) + (top == null ? "" : "&$top=" + top),
+        null, null);
+  }
+}
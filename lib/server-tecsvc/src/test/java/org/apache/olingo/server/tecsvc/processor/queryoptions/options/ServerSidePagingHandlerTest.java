@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServerSidePagingHandlerTest {
+
+  private static final String BASE_URI = "http://host/service";
+  private static final String ES_SERVER_SIDE_PAGING = "ESServerSidePaging";
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet entitySet = edm.getEntityContainer().getEntitySet(ES_SERVER_SIDE_PAGING);
+  private List<Entity> data;
+
+  @Before
+  public void readData() throws Exception {
+    data = new ArrayList<Entity>(new DataProvider(oData, edm).readAll(entitySet).getEntities());
+    // Entities with the same $orderby values must be ordered by their keys, not by their positions.
+    Collections.reverse(data);
+  }
+
+  @Test
+  public void pageCounter() throws Exception {
+    EntityCollection page = readPage(null, 7);
+    Assert.assertEquals(7, page.getEntities().size());
+    Assert.assertEquals(BASE_URI + "/" + ES_SERVER_SIDE_PAGING + "?%24skiptoken=1%2A7", page.getNext().toString());
+
+    page = readPage("$count=true&%24skiptoken=2%2A7", null);
+    Assert.assertEquals(7, page.getEntities().size());
+    Assert.assertEquals(503 - 14, getKey(page.getEntities().get(0)));
+    Assert.assertEquals(BASE_URI + "/" + ES_SERVER_SIDE_PAGING + "?$count=true&%24skiptoken=3%2A7",
+        page.getNext().toString());
+  }
+
+  @Test
+  public void seekAfterLastEntity() throws Exception {
+    final String orderBy = "$orderby=PropertyInt16%20mod%203%20desc";
+    List<Integer> keys = new ArrayList<Integer>();
+    EntityCollection page = readPage(orderBy, 8);
+    int pages = 1;
+    while (page.getNext() != null) {
+      Assert.assertEquals(8, page.getEntities().size());
+      for (final Entity entity : page.getEntities()) {
+        keys.add(getKey(entity));
+      }
+      final String query = page.getNext().getRawQuery();
+      Assert.assertTrue(query.startsWith(orderBy + "&%24skiptoken="));
+      // The page size is taken from the skiptoken.
+      page = readPage(query, null);
+      pages++;
+    }
+    for (final Entity entity : page.getEntities()) {
+      keys.add(getKey(entity));
+    }
+
+    Assert.assertEquals(503 / 8 + 1, pages);
+    Assert.assertEquals(503, keys.size());
+    for (int i = 1; i < keys.size(); i++) {
+      final int previous = keys.get(i - 1);
+      final int current = keys.get(i);
+      Assert.assertTrue(previous % 3 > current % 3 || previous % 3 == current % 3 && previous < current);
+    }
+  }
+
+  @Test
+  public void seekAfterDeletedEntity() throws Exception {
+    final String orderBy = "$orderby=PropertyString";
+    final EntityCollection page = readPage(orderBy, 5);
+    final Entity last = page.getEntities().get(4);
+    Assert.assertEquals("Number:102", last.getProperty("PropertyString").getValue());
+    data.remove(last);
+    final EntityCollection nextPage = readPage(page.getNext().getRawQuery(), null);
+    Assert.assertEquals(5, nextPage.getEntities().size());
+    Assert.assertEquals("Number:103", nextPage.getEntities().get(0).getProperty("PropertyString").getValue());
+  }
+
+  @Test
+  public void invalidSkipToken() throws Exception {
+    final String query = readPage("$orderby=PropertyString", null).getNext().getRawQuery();
+    expectBadRequest(query.replace("PropertyString", "PropertyInt16"));
+    expectBadRequest(query.substring(0, query.length() - 1));
+    expectBadRequest("$orderby=PropertyString&$skiptoken=1%2A10");
+  }
+
+  private EntityCollection readPage(final String query, final Integer pageSize) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, oData).parseUri(ES_SERVER_SIDE_PAGING, query, null, null);
+    EntityCollection entityCollection = new EntityCollection();
+    entityCollection.getEntities().addAll(data);
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), entityCollection, uriInfo, edm);
+    ODataRequest request = new ODataRequest();
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("/" + ES_SERVER_SIDE_PAGING);
+    request.setRawQueryPath(query);
+    ServerSidePagingHandler.applyServerSidePaging(uriInfo, entityCollection, entitySet, request, pageSize,
+        oData, edm);
+    return entityCollection;
+  }
+
+  private void expectBadRequest(final String query) throws Exception {
+    try {
+      readPage(query, null);
+      Assert.fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      Assert.assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private int getKey(final Entity entity) {
+    return ((Number) entity.getProperty("PropertyInt16").getValue()).intValue();
+  }
+}
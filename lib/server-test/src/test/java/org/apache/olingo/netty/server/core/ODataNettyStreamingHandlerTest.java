@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.netty.server.api.ODataNetty;
+import org.apache.olingo.netty.server.api.ODataNettyHandler;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.TechnicalEntityProcessor;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+
+public class ODataNettyStreamingHandlerTest {
+
+  private static EventLoopGroup group;
+  private static ExecutorService executor;
+  private static Channel serverChannel;
+  private static String serviceRoot;
+
+  @BeforeClass
+  public static void startServer() throws Exception {
+    final ODataNetty odata = ODataNetty.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final ODataNettyHandler handler = odata.createNettyHandler(metadata);
+    handler.register(new TechnicalEntityProcessor(new DataProvider(odata, metadata.getEdm()), metadata));
+
+    group = new NioEventLoopGroup(1);
+    executor = Executors.newCachedThreadPool();
+    serverChannel = new ServerBootstrap()
+        .group(group)
+        .channel(NioServerSocketChannel.class)
+        .childHandler(new ChannelInitializer<SocketChannel>() {
+          @Override
+          protected void initChannel(final SocketChannel channel) {
+            channel.pipeline().addLast(new HttpServerCodec(), odata.createStreamingChannelHandler(
+                handler, executor, Collections.singletonMap("contextPath", "/odata.svc")));
+          }
+        })
+        .bind("localhost", 0).sync().channel();
+    serviceRoot = "http://localhost:" + ((InetSocketAddress) serverChannel.localAddress()).getPort() + "/odata.svc/";
+  }
+
+  @AfterClass
+  public static void stopServer() throws Exception {
+    serverChannel.close().sync();
+    group.shutdownGracefully().sync();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void readEntitySet() throws Exception {
+    final HttpURLConnection connection = (HttpURLConnection) new URL(serviceRoot + "ESAllPrim").openConnection();
+    connection.setRequestProperty(HttpHeader.ACCEPT, "application/json");
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), connection.getResponseCode());
+    assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+    final String content = read(connection.getInputStream());
+    assertTrue(content.contains("\"PropertyInt16\":32767"));
+    assertTrue(content.endsWith("]}"));
+  }
+
+  @Test
+  public void createEntityWithChunkedBody() throws Exception {
+    final HttpURLConnection connection = (HttpURLConnection) new URL(serviceRoot + "ESAllPrim").openConnection();
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty(HttpHeader.CONTENT_TYPE, "application/json");
+    connection.setRequestProperty(HttpHeader.ACCEPT, "application/json");
+    connection.setDoOutput(true);
+    connection.setChunkedStreamingMode(8);
+    final OutputStream output = connection.getOutputStream();
+    output.write("{\"PropertyInt16\":42,\"PropertyString\":\"streamed request body\"}".getBytes("UTF-8"));
+    output.close();
+
+    assertEquals(HttpStatusCode.CREATED.getStatusCode(), connection.getResponseCode());
+    final String content = read(connection.getInputStream());
+    assertTrue(content.contains("\"PropertyString\":\"streamed request body\""));
+  }
+
+  @Test
+  public void errorResponse() throws Exception {
+    final HttpURLConnection connection = (HttpURLConnection) new URL(serviceRoot + "ESAllPrim(-1)").openConnection();
+    connection.setRequestProperty(HttpHeader.ACCEPT, "application/json");
+
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), connection.getResponseCode());
+    assertTrue(read(connection.getErrorStream()).contains("\"error\""));
+  }
+
+  @Test
+  public void rejectedQueuedRequest() throws Exception {
+    final ODataNetty odata = ODataNetty.newInstance();
+    final ODataNettyHandler handler = odata.createNettyHandler(odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList()));
+    // Accepts the first request and rejects all others.
+    final List<Runnable> accepted = new ArrayList<Runnable>();
+    final Executor rejectingExecutor = new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        if (!accepted.isEmpty()) {
+          throw new RejectedExecutionException();
+        }
+        accepted.add(command);
+      }
+    };
+    final EmbeddedChannel channel = new EmbeddedChannel(new ODataNettyStreamingHandler(
+        (ODataNettyHandlerImpl) handler, rejectingExecutor, Collections.singletonMap("contextPath", "/odata.svc")));
+
+    channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/odata.svc/$metadata"));
+    channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/odata.svc/"));
+    assertEquals(1, accepted.size());
+    assertTrue(channel.isOpen());
+
+    // The second request is scheduled after the first one and rejected.
+    accepted.get(0).run();
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(HttpResponseStatus.OK, response.status());
+    channel.runPendingTasks();
+    assertFalse(channel.isOpen());
+  }
+
+  private String read(final InputStream stream) throws Exception {
+    try {
+      return IOUtils.toString(stream, "UTF-8");
+    } finally {
+      stream.close();
+    }
+  }
+}
@@ -21,7 +21,9 @@ package org.apache.olingo.server.core;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -32,15 +34,25 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
@@ -57,7 +69,11 @@ import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.async.AsyncService;
+import org.apache.olingo.server.api.async.DefaultAsyncService;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.debug.DefaultRequestMetrics;
+import org.apache.olingo.server.api.debug.RequestMetrics;
 import org.apache.olingo.server.api.processor.ActionComplexCollectionProcessor;
 import org.apache.olingo.server.api.processor.ActionComplexProcessor;
 import org.apache.olingo.server.api.processor.ActionEntityCollectionProcessor;
@@ -84,8 +100,11 @@ import org.apache.olingo.server.api.processor.ReferenceCollectionProcessor;
 import org.apache.olingo.server.api.processor.ReferenceProcessor;
 import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
 import org.apache.olingo.server.tecsvc.processor.TechnicalActionProcessor;
+import org.apache.olingo.server.tecsvc.processor.TechnicalEntityProcessor;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
 import org.junit.Test;
@@ -402,6 +421,328 @@ public class ODataHandlerImplTest {
     assertNull(handler.getUriInfo());
   }
 
+  @Test
+  public void uriInfoCache() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final UriInfoCache cache = odata.createUriInfoCache(1);
+
+    final UriInfo uriInfo = dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.GET, "ESAllPrim(1)");
+    assertSame(uriInfo, dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.GET, "ESAllPrim(1)"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    final UriInfo deleteUriInfo =
+        dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.DELETE, "ESAllPrim(1)");
+    assertNotSame(uriInfo, deleteUriInfo);
+    assertEquals(1, cache.size());
+    assertNotSame(uriInfo, dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.GET, "ESAllPrim(1)"));
+
+    // Invalid URIs are not cached.
+    dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.GET, "ESAllPrim(1)/Unknown");
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void customUriInfoCache() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final Map<String, UriInfo> entries = new HashMap<String, UriInfo>();
+    final UriInfoCache cache = new UriInfoCache() {
+      @Override
+      public UriInfo get(final Edm edm, final HttpMethod method, final String path, final String query,
+          final String baseUri) {
+        return entries.get(method + " " + path);
+      }
+
+      @Override
+      public void put(final Edm edm, final HttpMethod method, final String path, final String query,
+          final String baseUri, final UriInfo uriInfo) {
+        assertSame(serviceMetadata.getEdm(), edm);
+        entries.put(method + " " + path, uriInfo);
+      }
+
+      @Override
+      public long getHitCount() {
+        return 0;
+      }
+
+      @Override
+      public long getMissCount() {
+        return 0;
+      }
+
+      @Override
+      public int size() {
+        return entries.size();
+      }
+
+      @Override
+      public void clear() {
+        entries.clear();
+      }
+    };
+
+    final UriInfo uriInfo = dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.GET, "ESAllPrim(1)");
+    assertEquals(1, cache.size());
+    assertSame(uriInfo, dispatchWithCache(odata, serviceMetadata, cache, HttpMethod.GET, "ESAllPrim(1)"));
+  }
+
+  @Test
+  public void errorInLazilyExpandedCollection() throws Exception {
+    // The nested $filter is applied while the serializer iterates over the outer expanded collection.
+    final ODataResponse response = dispatchToTechnicalService("ESKeyNav",
+        "$expand=NavPropertyETKeyNavMany($expand=NavPropertyETKeyNavMany("
+            + "$filter=PropertyCompAllPrim/PropertyDouble%20mod%202%20eq%200))");
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), response.getStatusCode());
+    assertNotNull(response.getContent());
+  }
+
+  @Test
+  public void errorInExpandedCollectionOfDeltaResponse() throws Exception {
+    final ODataResponse response = dispatchToTechnicalService("ESKeyNav",
+        "$deltatoken=1&$expand=NavPropertyETKeyNavMany($expand=NavPropertyETKeyNavMany("
+            + "$filter=PropertyCompAllPrim/PropertyDouble%20mod%202%20eq%200))");
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), response.getStatusCode());
+    assertNotNull(response.getContent());
+  }
+
+  private ODataResponse dispatchToTechnicalService(final String path, final String query) {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    handler.register(new TechnicalEntityProcessor(new DataProvider(odata, serviceMetadata.getEdm()),
+        serviceMetadata));
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    return handler.process(request);
+  }
+
+  @Test
+  public void requestMetrics() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final DefaultRequestMetrics metrics = new DefaultRequestMetrics();
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    handler.register(metrics);
+    handler.register(mock(EntityProcessor.class));
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESAllPrim(1)");
+    handler.process(request);
+    handler.process(request);
+    request.setRawODataPath("$metadata");
+    handler.process(request);
+
+    final List<DefaultRequestMetrics.Statistics> statistics = metrics.getStatistics();
+    assertEquals(6, statistics.size());
+    for (final DefaultRequestMetrics.Statistics entry : statistics) {
+      if ("entitySet".equals(entry.getResourceKind())) {
+        assertEquals("ESAllPrim", entry.getEntitySet());
+        assertEquals(2, entry.getCount());
+      } else {
+        assertEquals("metadata", entry.getResourceKind());
+        assertNull(entry.getEntitySet());
+        assertEquals(1, entry.getCount());
+      }
+      assertTrue(entry.getPhase() == RequestMetrics.Phase.PARSE || entry.getPhase() == RequestMetrics.Phase.VALIDATE
+          || entry.getPhase() == RequestMetrics.Phase.PROCESS);
+      assertTrue(entry.getTotalNanos() >= entry.getMaxNanos());
+      assertTrue(entry.getPercentileNanos(50) <= entry.getMaxNanos());
+    }
+
+    metrics.clear();
+    assertTrue(metrics.getStatistics().isEmpty());
+  }
+
+  @Test
+  public void respondAsync() throws Exception {
+    final Executor direct = new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        command.run();
+      }
+    };
+    final ODataHandlerImpl handler = createAsyncHandler(new DefaultAsyncService(direct, 10, 1, TimeUnit.MINUTES));
+
+    ODataResponse response = dispatchAsync(handler, HttpMethod.GET, "$metadata", true);
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    assertEquals("respond-async", response.getHeader(HttpHeader.PREFERENCE_APPLIED));
+    final String location = response.getHeader(HttpHeader.LOCATION);
+    assertTrue(location.startsWith(BASE_URI + "/$async/"));
+    final String monitor = location.substring(BASE_URI.length() + 1);
+
+    response = dispatchAsync(handler, HttpMethod.GET, monitor, false);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals(ContentType.APPLICATION_HTTP.toContentTypeString(), response.getHeader(HttpHeader.CONTENT_TYPE));
+    final String result = IOUtils.toString(response.getContent());
+    assertTrue(result.startsWith("HTTP/1.1 200 OK\r\n"));
+    assertThat(result, containsString("<edmx:Edmx"));
+
+    // The result is removed once it has been retrieved.
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        dispatchAsync(handler, HttpMethod.GET, monitor, false).getStatusCode());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        dispatchAsync(handler, HttpMethod.DELETE, monitor, false).getStatusCode());
+
+    // Errors are part of the result.
+    response = dispatchAsync(handler, HttpMethod.GET, "ESAllPrim(1)", true);
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    response = dispatchAsync(handler, HttpMethod.GET,
+        response.getHeader(HttpHeader.LOCATION).substring(BASE_URI.length() + 1), false);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertThat(IOUtils.toString(response.getContent()), containsString("HTTP/1.1 501 Not Implemented"));
+
+    // Without the preference, the request is processed synchronously.
+    response = dispatchAsync(handler, HttpMethod.GET, "$metadata", false);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getHeader(HttpHeader.PREFERENCE_APPLIED));
+  }
+
+  @Test
+  public void respondAsyncPendingAndCancelled() throws Exception {
+    final List<Runnable> pending = new ArrayList<>();
+    final Executor later = new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        pending.add(command);
+      }
+    };
+    final AsyncService asyncService = new DefaultAsyncService(later, 1, 1, TimeUnit.MINUTES);
+    final ODataHandlerImpl handler = createAsyncHandler(asyncService);
+
+    ODataResponse response = dispatchAsync(handler, HttpMethod.GET, "$metadata", true);
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    final String location = response.getHeader(HttpHeader.LOCATION);
+    final String monitor = location.substring(BASE_URI.length() + 1);
+
+    response = dispatchAsync(handler, HttpMethod.GET, monitor, false);
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    assertEquals(location, response.getHeader(HttpHeader.LOCATION));
+
+    // The service is full, so the next request is processed synchronously.
+    response = dispatchAsync(handler, HttpMethod.GET, "$metadata", true);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getHeader(HttpHeader.PREFERENCE_APPLIED));
+
+    assertEquals(HttpStatusCode.NO_CONTENT.getStatusCode(),
+        dispatchAsync(handler, HttpMethod.DELETE, monitor, false).getStatusCode());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        dispatchAsync(handler, HttpMethod.GET, monitor, false).getStatusCode());
+    pending.get(0).run();
+    assertEquals(AsyncService.Status.UNKNOWN, asyncService.getStatus(monitor.substring(monitor.indexOf('/') + 1)));
+  }
+
+  @Test
+  public void respondAsyncSpilledToDisk() throws Exception {
+    final File directory = new File(System.getProperty("java.io.tmpdir"));
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final AsyncService asyncService =
+          new DefaultAsyncService(executor, 10, 1, TimeUnit.MINUTES, directory, 100);
+      final ODataHandlerImpl handler = createAsyncHandler(asyncService);
+      final ODataResponse response = dispatchAsync(handler, HttpMethod.GET, "$metadata", true);
+      final String monitor = response.getHeader(HttpHeader.LOCATION).substring(BASE_URI.length() + 1);
+      final String id = monitor.substring(monitor.indexOf('/') + 1);
+      for (int i = 0; i < 100 && asyncService.getStatus(id) == AsyncService.Status.RUNNING; i++) {
+        Thread.sleep(50);
+      }
+      assertEquals(AsyncService.Status.COMPLETED, asyncService.getStatus(id));
+
+      final InputStream result = asyncService.removeResult(id);
+      assertThat(IOUtils.toString(result), containsString("<edmx:Edmx"));
+      result.close();
+      assertNull(asyncService.removeResult(id));
+      assertEquals(AsyncService.Status.UNKNOWN, asyncService.getStatus(id));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private ODataHandlerImpl createAsyncHandler(final AsyncService asyncService) {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    handler.register(asyncService);
+    return handler;
+  }
+
+  private ODataResponse dispatchAsync(final ODataHandlerImpl handler, final HttpMethod method, final String path,
+      final boolean respondAsync) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("/" + path);
+    if (respondAsync) {
+      request.addHeader(HttpHeader.PREFER, "respond-async");
+    }
+    return handler.process(request);
+  }
+
+  private UriInfo dispatchWithCache(final OData odata, final ServiceMetadata serviceMetadata,
+      final UriInfoCache cache, final HttpMethod method, final String path) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    handler.register(cache);
+    handler.register(mock(EntityProcessor.class));
+    final ODataHandlerImpl requestHandler = handler.createRequestHandler(new ServerCoreDebugger(odata));
+    assertNotNull(requestHandler.process(request));
+    return requestHandler.getUriInfo();
+  }
+
+  @Test
+  public void sharedHandler() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList()).preload();
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    List<Callable<ODataResponse>> tasks = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      final ODataRequest request = new ODataRequest();
+      request.setMethod(HttpMethod.GET);
+      request.setRawBaseUri(BASE_URI);
+      request.setRawODataPath(i % 2 == 0 ? "/" : "$metadata");
+      request.setRawQueryPath(i % 2 == 0 ? "$format=xml" : null);
+      tasks.add(new Callable<ODataResponse>() {
+        @Override
+        public ODataResponse call() {
+          return handler.process(request);
+        }
+      });
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<ODataResponse>> results = executor.invokeAll(tasks);
+      for (int i = 0; i < results.size(); i++) {
+        final ODataResponse response = results.get(i).get();
+        assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+        assertThat(response.getHeader(HttpHeader.CONTENT_TYPE), containsString("application/xml"));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertNull(handler.getUriInfo());
+  }
+
   @Test
   public void dispatchBatch() throws Exception {
     final String uri = "$batch";
@@ -19,6 +19,7 @@
 package org.apache.olingo.server.core.deserializer.json;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -30,8 +31,10 @@ import java.util.List;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
@@ -163,6 +166,36 @@ public class ODataDeserializerEntityCollectionTest extends AbstractODataDeserial
         DeserializerException.MessageKeys.NOT_IMPLEMENTED);
   }
 
+  @Test
+  public void esAllPrimStreamed() throws Exception {
+    final EntityIterator iterator = OData.newInstance().createDeserializer(ContentType.JSON, metadata)
+        .entityCollectionStreamed(getFileAsStream("ESAllPrim.json"),
+            edm.getEntityType(new FullQualifiedName(NAMESPACE, "ETAllPrim")));
+    assertTrue(iterator.hasNext());
+    assertEquals(new Short((short) 32767), iterator.next().getProperty("PropertyInt16").getValue());
+    assertTrue(iterator.hasNext());
+    iterator.next();
+    assertTrue(iterator.hasNext());
+    iterator.next();
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void streamedReportsErrorWhileIterating() throws Exception {
+    final EntityIterator iterator = OData.newInstance().createDeserializer(ContentType.JSON, metadata)
+        .entityCollectionStreamed(
+            new ByteArrayInputStream("{\"value\":[{\"PropertyInt16\":1},1]}".getBytes()),
+            edm.getEntityType(new FullQualifiedName(NAMESPACE, "ETAllPrim")));
+    assertEquals((short) 1, iterator.next().getProperty("PropertyInt16").getValue());
+    try {
+      iterator.hasNext();
+      fail("Expected exception not thrown.");
+    } catch (final ODataRuntimeException e) {
+      assertEquals(DeserializerException.MessageKeys.INVALID_ENTITY,
+          ((DeserializerException) e.getCause()).getMessageKey());
+    }
+  }
+
   private EntityCollection deserialize(final InputStream stream, final String entityTypeName)
       throws DeserializerException {
     return OData.newInstance().createDeserializer(ContentType.JSON, metadata)
@@ -1213,6 +1213,30 @@ public class ODataJsonSerializerTest {
     Assert.assertEquals(expectedResult, resultString);
   }
 
+  @Test
+  public void selectRepeatedWithOtherPropertyOrder() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESAllPrim");
+    final EdmEntityType entityType = edmEntitySet.getEntityType();
+    final Entity entity = data.readAll(edmEntitySet).getEntities().get(0);
+    final SelectOption select = ExpandSelectMock.mockSelectOption(Arrays.asList(
+        ExpandSelectMock.mockSelectItem(edmEntitySet, "PropertyString"),
+        ExpandSelectMock.mockSelectItem(edmEntitySet, "PropertyByte")));
+    final String expectedResult = "{\"PropertyInt16\":32767,"
+        + "\"PropertyString\":\"First Resource - positive values\",\"PropertyByte\":255}";
+    Assert.assertEquals(expectedResult, serializeNoMetadata(entityType, entity, select));
+    Collections.reverse(entity.getProperties());
+    Assert.assertEquals(expectedResult, serializeNoMetadata(entityType, entity, select));
+    Assert.assertEquals("{\"PropertyInt16\":32767,\"PropertyBoolean\":true}",
+        serializeNoMetadata(entityType, entity, ExpandSelectMock.mockSelectOption(Collections.singletonList(
+            ExpandSelectMock.mockSelectItem(edmEntitySet, "PropertyBoolean")))));
+  }
+
+  private String serializeNoMetadata(final EdmEntityType entityType, final Entity entity,
+      final SelectOption select) throws Exception {
+    return IOUtils.toString(serializerNoMetadata.entity(metadata, entityType, entity,
+        EntitySerializerOptions.with().select(select).build()).getContent());
+  }
+
   @Test
   public void selectAll() throws Exception {
     final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESTwoPrim");
@@ -1770,6 +1794,30 @@ public class ODataJsonSerializerTest {
         resultString);
   }
 
+  @Test
+  public void primitivePropertyTypedValues() throws Exception {
+    Assert.assertEquals("{\"value\":40000}", serializePrimitive("PropertyInt64", 40000));
+    Assert.assertEquals("{\"value\":-128}", serializePrimitive("PropertySByte", (byte) -128));
+    Assert.assertEquals("{\"value\":1.1}", serializePrimitive("PropertyDouble", 1.1F));
+    Assert.assertEquals("{\"value\":INF}", serializePrimitive("PropertyDouble", Double.POSITIVE_INFINITY));
+    Assert.assertEquals("{\"value\":12}", serializePrimitive("PropertyDecimal", 12L));
+    Assert.assertEquals("{\"value\":true}", serializePrimitive("PropertyBoolean", true));
+    try {
+      serializePrimitive("PropertyInt16", 40000);
+      Assert.fail("Expected exception not thrown!");
+    } catch (final SerializerException e) {
+      Assert.assertEquals(SerializerException.MessageKeys.WRONG_PROPERTY_VALUE, e.getMessageKey());
+    }
+  }
+
+  private String serializePrimitive(final String propertyName, final Object value) throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESAllPrim");
+    final EdmProperty edmProperty = (EdmProperty) edmEntitySet.getEntityType().getProperty(propertyName);
+    final Property property = new Property(null, propertyName, ValueType.PRIMITIVE, value);
+    return IOUtils.toString(serializerNoMetadata
+        .primitive(metadata, (EdmPrimitiveType) edmProperty.getType(), property, null).getContent());
+  }
+
   @Test
   public void primitiveCollectionProperty() throws Exception {
     final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESCollAllPrim");
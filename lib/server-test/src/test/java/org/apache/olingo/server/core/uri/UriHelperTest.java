@@ -107,4 +107,22 @@ public class UriHelperTest {
     expectedEx.expect(SerializerException.class);
     expectedEx.expectMessage("Wrong key value!");
   }
+
+  @Test
+  public void nextLink() throws Exception {
+    Assert.assertEquals("http://host/service/ESAllPrim?%24skiptoken=1%2A10",
+        UriHelperImpl.buildNextLink("http://host/service", "/ESAllPrim", null, "1*10").toASCIIString());
+    Assert.assertEquals("http://host/service/ESAllPrim?$count=true&$format=xml&%24skiptoken=abc.d-_",
+        UriHelperImpl.buildNextLink("http://host/service", "/ESAllPrim", "$count=true&$format=xml", "abc.d-_")
+            .toASCIIString());
+  }
+
+  @Test
+  public void nextLinkReplacesSkipToken() throws Exception {
+    Assert.assertEquals("http://host/service/ESAllPrim?$top=5&$format=json&%24skiptoken=2%2A10",
+        UriHelperImpl.buildNextLink("http://host/service", "/ESAllPrim", "$top=5&%24skiptoken=1%2A10&$format=json",
+            "2*10").toASCIIString());
+    Assert.assertEquals("http://host/service/ESAllPrim?%24skiptoken=x",
+        UriHelperImpl.buildNextLink("http://host/service", "/ESAllPrim", "$skiptoken=y&", "x").toASCIIString());
+  }
 }